@@ -0,0 +1,120 @@
+package dev.abreu.bankapp.cache;
+
+import dev.abreu.bankapp.entity.Account;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.ConcurrentMap;
+
+import static dev.abreu.bankapp.cache.CacheWrites.afterCommit;
+
+/**
+ * Writes account balances into the {@code account} cache as they change, using the values the database
+ * handed back rather than a re-read. Every balance change moves the row's updated_at forward, so it is used as
+ * the entry's version: an entry is only replaced by a newer one, which keeps two writes for the same account
+ * that finish out of order from leaving the older balance behind. Inside a transaction the write waits for
+ * the commit, so a rolled back change never reaches the cache. Balance changes are not announced to other nodes
+ * (see {@code sql/cache-invalidation-triggers.sql}), which serve the balance they cached until it expires.
+ * <p>
+ * When the cache has a shared tier, every balance write also evicts the account from it: the shared tier has no
+ * versions to compare, and the next miss on any node loads the account afresh.
+ *
+ * @author Devin Abreu
+ */
+@Component
+public class AccountCache {
+
+	public static final String ACCOUNT_CACHE = "account";
+
+	private final ConcurrentMap<Object, Object> entries;
+	private final TwoLevelCache twoLevelCache;
+
+	@SuppressWarnings("unchecked")
+	public AccountCache(CacheManager cacheManager) {
+		Cache cache = cacheManager.getCache(ACCOUNT_CACHE);
+		if (cache == null || !(cache.getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> nativeCache)) {
+			throw new IllegalStateException("The '" + ACCOUNT_CACHE + "' cache must be configured as a Caffeine cache");
+		}
+		this.entries = ((com.github.benmanes.caffeine.cache.Cache<Object, Object>) nativeCache).asMap();
+		this.twoLevelCache = cache instanceof TwoLevelCache twoLevel ? twoLevel : null;
+	}
+
+	/**
+	 * @return the cached account, or null if it is not cached; never queries
+	 */
+	public Account getIfCached(Long acctNo) {
+		return entries.get(acctNo) instanceof Account account ? account : null;
+	}
+
+	/**
+	 * Caches the account as returned by a balance change, unless a newer version is already cached.
+	 */
+	public void put(Account account) {
+		Account copy = copyOf(account);
+		afterCommit(() -> {
+			putIfNewer(copy);
+			evictShared(copy.getAccountNumber());
+		});
+	}
+
+	/**
+	 * Caches the account as just read from the database, unless a newer version is already cached. Unlike
+	 * {@link #put}, the shared tier is left alone, since a read changes nothing another node has cached.
+	 */
+	public void putLoaded(Account account) {
+		Account copy = copyOf(account);
+		afterCommit(() -> putIfNewer(copy));
+	}
+
+	/**
+	 * Applies a balance the database returned to the cached account, if it is cached and older. An account that
+	 * is not cached stays uncached; its next read loads it whole.
+	 */
+	public void updateBalance(Long acctNo, double balance, LocalDateTime updatedAt) {
+		afterCommit(() -> {
+			entries.computeIfPresent(acctNo, (key, cached) -> {
+				if (!(cached instanceof Account account) || !isNewer(updatedAt, account)) {
+					return cached;
+				}
+				Account updated = copyOf(account);
+				updated.setAccountBalance(balance);
+				updated.setUpdatedAt(updatedAt);
+				return updated;
+			});
+			// the shared tier may hold the account even when this node does not
+			evictShared(acctNo);
+		});
+	}
+
+	private void putIfNewer(Account copy) {
+		entries.compute(copy.getAccountNumber(), (acctNo, cached) -> isNewer(copy.getUpdatedAt(), cached) ? copy : cached);
+	}
+
+	private void evictShared(Long acctNo) {
+		if (twoLevelCache != null) {
+			twoLevelCache.evictShared(acctNo);
+		}
+	}
+
+	private static boolean isNewer(LocalDateTime updatedAt, Object cached) {
+		if (!(cached instanceof Account account) || account.getUpdatedAt() == null) {
+			return true;
+		}
+		return updatedAt != null && !updatedAt.isBefore(account.getUpdatedAt());
+	}
+
+	// cached accounts are shared between readers, so a change always goes into a fresh copy
+	private static Account copyOf(Account account) {
+		Account copy = new Account();
+		copy.setAccountNumber(account.getAccountNumber());
+		copy.setNickname(account.getNickname());
+		copy.setAccountType(account.getAccountType());
+		copy.setAccountBalance(account.getAccountBalance());
+		copy.setCreatedAt(account.getCreatedAt());
+		copy.setUpdatedAt(account.getUpdatedAt());
+		copy.setCustomerId(account.getCustomerId());
+		return copy;
+	}
+}
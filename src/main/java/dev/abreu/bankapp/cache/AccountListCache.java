@@ -0,0 +1,148 @@
+package dev.abreu.bankapp.cache;
+
+import dev.abreu.bankapp.dao.AccountDao;
+import dev.abreu.bankapp.entity.Account;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static dev.abreu.bankapp.cache.CacheWrites.afterCommit;
+
+/**
+ * Caches each customer's list of active accounts in the {@code account-list} cache, under the customer's id. Only
+ * the account numbers are kept, newest first; the accounts themselves are read from the {@link AccountCache}, so
+ * balances written through there are current in the list without it ever being touched. Any accounts that have
+ * left that cache are loaded back in one batched query.
+ * <p>
+ * A list is found by username through an index from username to customer id that is filled when the list is
+ * loaded, so the next read of it takes no query. Each list also records the username it was loaded for and is only
+ * served for that one, so an index entry left behind by a rename never hands one customer's accounts to another.
+ * Lists are patched in place when an account is opened or closed on this node. Other nodes evict them when the
+ * change, or a rename or delete of the customer, is announced over the cache invalidation channel (see
+ * {@code sql/cache-invalidation-triggers.sql}).
+ *
+ * @author Devin Abreu
+ */
+@Component
+public class AccountListCache {
+
+	public static final String ACCOUNT_LIST_CACHE = "account-list";
+
+	/**
+	 * A customer's active account numbers, newest first, and the username they were loaded for.
+	 */
+	private record AccountNumbers(String username, List<Long> acctNos) {
+	}
+
+	private final ConcurrentMap<Object, Object> lists;
+	private final ConcurrentMap<String, Long> usernameIndex;
+	private final AccountCache accountCache;
+	private final AccountDao accountDao;
+
+	@SuppressWarnings("unchecked")
+	public AccountListCache(CacheManager cacheManager, AccountCache accountCache, AccountDao accountDao) {
+		Cache cache = cacheManager.getCache(ACCOUNT_LIST_CACHE);
+		if (cache == null || !(cache.getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> nativeCache)) {
+			throw new IllegalStateException("The '" + ACCOUNT_LIST_CACHE + "' cache must be configured as a Caffeine cache");
+		}
+		com.github.benmanes.caffeine.cache.Cache<Object, Object> entries = (com.github.benmanes.caffeine.cache.Cache<Object, Object>) nativeCache;
+		this.lists = entries.asMap();
+		this.usernameIndex = CustomerIdentityCache.indexBoundedLike(entries.policy()).asMap();
+		this.accountCache = accountCache;
+		this.accountDao = accountDao;
+	}
+
+	/**
+	 * @return the active accounts of the customer with this username, newest first, or null if their list is not
+	 * cached
+	 */
+	public List<Account> get(String username) {
+		Long customerId = usernameIndex.get(username);
+		if (customerId == null) {
+			return null;
+		}
+		if (!(lists.get(customerId) instanceof AccountNumbers cached) || !username.equals(cached.username())) {
+			usernameIndex.remove(username, customerId);
+			return null;
+		}
+		List<Long> acctNos = cached.acctNos();
+
+		List<Account> accounts = new ArrayList<>(acctNos.size());
+		List<Long> missing = null;
+		for (Long acctNo : acctNos) {
+			Account account = accountCache.getIfCached(acctNo);
+			if (account == null) {
+				if (missing == null) {
+					missing = new ArrayList<>();
+				}
+				missing.add(acctNo);
+			}
+			accounts.add(account);
+		}
+		if (missing != null && !loadMissing(accounts, missing)) {
+			// an account closed since the list was cached; the caller reads the list again
+			lists.remove(customerId, cached);
+			return null;
+		}
+		return accounts;
+	}
+
+	private boolean loadMissing(List<Account> accounts, List<Long> missing) {
+		Map<Long, Account> loaded = accountDao.findAccountsByAcctNos(missing).stream()
+				.collect(Collectors.toMap(Account::getAccountNumber, Function.identity()));
+		if (loaded.size() < missing.size()) {
+			return false;
+		}
+		for (int i = 0, j = 0; i < accounts.size(); i++) {
+			if (accounts.get(i) == null) {
+				Account account = loaded.get(missing.get(j++));
+				accounts.set(i, account);
+				accountCache.putLoaded(account);
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Caches a customer's active accounts, newest first, as just read from the database for this username. The
+	 * accounts themselves go into the {@link AccountCache}.
+	 */
+	public void put(Long customerId, String username, List<Account> accounts) {
+		AccountNumbers acctNos = new AccountNumbers(username, accounts.stream().map(Account::getAccountNumber).toList());
+		accounts.forEach(accountCache::putLoaded);
+		afterCommit(() -> {
+			lists.put(customerId, acctNos);
+			usernameIndex.put(username, customerId);
+		});
+	}
+
+	/**
+	 * Adds a newly opened account to the front of its customer's cached list, if it is cached.
+	 */
+	public void addAccount(Long customerId, Long acctNo) {
+		afterCommit(() -> lists.computeIfPresent(customerId, (id, cached) -> {
+			AccountNumbers list = (AccountNumbers) cached;
+			return list.acctNos().contains(acctNo)
+					? list
+					: new AccountNumbers(list.username(), Stream.concat(Stream.of(acctNo), list.acctNos().stream()).toList());
+		}));
+	}
+
+	/**
+	 * Removes a closed account from its customer's cached list, if it is cached.
+	 */
+	public void removeAccount(Long customerId, Long acctNo) {
+		afterCommit(() -> lists.computeIfPresent(customerId, (id, cached) -> {
+			AccountNumbers list = (AccountNumbers) cached;
+			return new AccountNumbers(list.username(), list.acctNos().stream().filter(listed -> !listed.equals(acctNo)).toList());
+		}));
+	}
+}
@@ -0,0 +1,177 @@
+package dev.abreu.bankapp.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Evicts entries from this node's caches when another node changes the rows behind them. The database triggers
+ * in {@code sql/cache-invalidation-triggers.sql} NOTIFY on commit with the cache name and keys, and this listener
+ * holds a LISTEN on its own connection, outside the pool, for as long as the node runs.
+ * <p>
+ * If the connection is lost, notifications sent until it is back are lost with it, so every cache is cleared
+ * once listening resumes. For a {@link TwoLevelCache} that clears the local level only; each node that stayed
+ * connected keeps evicting the shared level, so its entries can be trusted.
+ * <p>
+ * The time from the trigger firing to the eviction here is published as the {@code cache.invalidation.lag}
+ * timer, tagged by cache. It is measured against the database's clock, so it includes any skew between the two.
+ *
+ * @author Devin Abreu
+ */
+public class CacheInvalidationListener implements Closeable {
+
+	public static final String LAG_METER = "cache.invalidation.lag";
+
+	private static final Logger log = LogManager.getLogger(CacheInvalidationListener.class);
+
+	private static final ObjectMapper PAYLOAD_MAPPER = new ObjectMapper();
+
+	private final DataSource dataSource;
+	private final CacheManager cacheManager;
+	private final MeterRegistry meterRegistry;
+	private final String channel;
+	private final Duration pollInterval;
+	private final Duration reconnectDelay;
+
+	private volatile boolean running;
+	private Thread listenerThread;
+
+	/**
+	 * @param dataSource     where the listening connection comes from; it is held open, so not a pool
+	 * @param cacheManager   the caches evictions are applied to
+	 * @param meterRegistry  where the invalidation lag is published
+	 * @param channel        the channel the triggers notify on
+	 * @param pollInterval   how long to wait for notifications before checking whether to stop
+	 * @param reconnectDelay how long to wait before reconnecting after losing the connection
+	 */
+	public CacheInvalidationListener(DataSource dataSource, CacheManager cacheManager, MeterRegistry meterRegistry,
+			String channel, Duration pollInterval, Duration reconnectDelay) {
+		this.dataSource = dataSource;
+		this.cacheManager = cacheManager;
+		this.meterRegistry = meterRegistry;
+		this.channel = channel;
+		this.pollInterval = pollInterval;
+		this.reconnectDelay = reconnectDelay;
+	}
+
+	public synchronized void start() {
+		running = true;
+		listenerThread = new Thread(this::listen, "cache-invalidation-listener");
+		listenerThread.setDaemon(true);
+		listenerThread.start();
+	}
+
+	private void listen() {
+		boolean listenedBefore = false;
+
+		while (running) {
+			try (Connection conn = dataSource.getConnection();
+					Statement stmt = conn.createStatement()) {
+				stmt.execute("LISTEN " + channel);
+				if (listenedBefore) {
+					clearAll();
+				}
+				listenedBefore = true;
+				log.info("Listening for cache invalidations on channel {}", channel);
+
+				PGConnection pgConnection = conn.unwrap(PGConnection.class);
+				while (running) {
+					PGNotification[] notifications = pgConnection.getNotifications((int) Math.max(1, pollInterval.toMillis()));
+					if (notifications == null) {
+						continue;
+					}
+					for (PGNotification notification : notifications) {
+						handle(notification.getParameter());
+					}
+				}
+			} catch (SQLException e) {
+				if (!running) {
+					return;
+				}
+				log.warn("Lost the cache invalidation connection, reconnecting in {}: {}", reconnectDelay, e.getMessage());
+				try {
+					Thread.sleep(reconnectDelay.toMillis());
+				} catch (InterruptedException ie) {
+					Thread.currentThread().interrupt();
+					return;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Applies one notification payload, as built by the {@code notify_cache_invalidation} trigger function.
+	 */
+	void handle(String payload) {
+		JsonNode message;
+		try {
+			message = PAYLOAD_MAPPER.readTree(payload);
+		} catch (JsonProcessingException e) {
+			log.warn("Ignoring malformed cache invalidation: {}", payload);
+			return;
+		}
+
+		String cacheName = message.path("cache").asText();
+		Cache cache = cacheManager.getCache(cacheName);
+		if (cache == null) {
+			return;
+		}
+
+		for (JsonNode keyNode : message.path("keys")) {
+			// numeric ids are cached under Long keys, whatever size the column is
+			Object key = keyNode.isIntegralNumber() ? (Object) keyNode.asLong() : keyNode.asText();
+			cache.evict(key);
+		}
+
+		if (message.hasNonNull("sentAt")) {
+			long lagMillis = Math.max(0, System.currentTimeMillis() - message.get("sentAt").asLong());
+			Timer.builder(LAG_METER)
+					.description("Time from a cached row changing in the database to its entry being evicted on this node")
+					.tag("cache", cacheName)
+					.register(meterRegistry)
+					.record(lagMillis, TimeUnit.MILLISECONDS);
+		}
+	}
+
+	private void clearAll() {
+		log.info("Clearing all caches, invalidations may have been missed while disconnected");
+		for (String cacheName : cacheManager.getCacheNames()) {
+			Cache cache = cacheManager.getCache(cacheName);
+			if (cache != null) {
+				cache.clear();
+			}
+		}
+	}
+
+	/**
+	 * Stops listening; the thread exits within one poll interval and closes its connection.
+	 */
+	@Override
+	public synchronized void close() {
+		running = false;
+		if (listenerThread == null) {
+			return;
+		}
+		try {
+			listenerThread.join(pollInterval.toMillis() * 2);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
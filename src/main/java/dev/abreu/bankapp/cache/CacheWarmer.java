@@ -0,0 +1,242 @@
+package dev.abreu.bankapp.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.abreu.bankapp.config.CacheWarmUpProperties;
+import dev.abreu.bankapp.dao.AccountDao;
+import dev.abreu.bankapp.dao.CustomerDao;
+import dev.abreu.bankapp.dao.TransferDao;
+import dev.abreu.bankapp.entity.Account;
+import dev.abreu.bankapp.entity.Customer;
+import dev.abreu.bankapp.entity.Transfer;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import static dev.abreu.bankapp.cache.AccountCache.ACCOUNT_CACHE;
+
+/**
+ * Keeps a node from starting cold after a deploy. While it runs, the hottest account numbers, usernames and
+ * transfer ids, by how often they are read, are periodically written to a snapshot file on local disk. On
+ * startup the previous snapshot is read back and its entries are loaded with batched queries, several at once.
+ * <p>
+ * The warm-up runs as an {@link ApplicationRunner}, which Spring Boot completes before it reports the
+ * application ready, so a readiness probe only passes once the caches are warm or the warm-up has timed out.
+ * How long it took and how many of the snapshotted keys it loaded are logged.
+ *
+ * @author Devin Abreu
+ */
+public class CacheWarmer implements ApplicationRunner, Closeable {
+
+	private static final Logger log = LogManager.getLogger(CacheWarmer.class);
+
+	private static final String TRANSFER_CACHE = "transfer";
+
+	private static final ObjectMapper SNAPSHOT_MAPPER = new ObjectMapper();
+
+	/**
+	 * The snapshot file's contents, hottest keys first.
+	 */
+	record HotKeys(List<Long> accounts, List<String> usernames, List<Long> transfers) {
+	}
+
+	private final CacheWarmUpProperties properties;
+	private final CacheManager cacheManager;
+	private final CustomerIdentityCache customerIdentityCache;
+	private final AccountDao accountDao;
+	private final CustomerDao customerDao;
+	private final TransferDao transferDao;
+	private final ScheduledExecutorService snapshotWriter;
+
+	private volatile boolean warmedUp;
+
+	public CacheWarmer(CacheWarmUpProperties properties, CacheManager cacheManager, CustomerIdentityCache customerIdentityCache,
+			AccountDao accountDao, CustomerDao customerDao, TransferDao transferDao) {
+		this.properties = properties;
+		this.cacheManager = cacheManager;
+		this.customerIdentityCache = customerIdentityCache;
+		this.accountDao = accountDao;
+		this.customerDao = customerDao;
+		this.transferDao = transferDao;
+		this.snapshotWriter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "cache-snapshot-writer");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * Warms the caches from the last snapshot, then starts rewriting it. Snapshots only start once the warm-up
+	 * is over, so the previous run's snapshot is never replaced by this one's empty caches.
+	 */
+	@Override
+	public void run(ApplicationArguments args) {
+		HotKeys hotKeys = readSnapshot();
+		if (hotKeys != null) {
+			warm(hotKeys);
+		}
+		warmedUp = true;
+
+		long intervalMillis = properties.snapshotInterval().toMillis();
+		snapshotWriter.scheduleWithFixedDelay(this::writeSnapshotQuietly, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+	}
+
+	HotKeys readSnapshot() {
+		Path snapshotFile = properties.snapshotFile();
+		if (!Files.isReadable(snapshotFile)) {
+			log.info("No hot-key snapshot at {}, starting with cold caches", snapshotFile);
+			return null;
+		}
+		try {
+			return SNAPSHOT_MAPPER.readValue(snapshotFile.toFile(), HotKeys.class);
+		} catch (IOException e) {
+			log.warn("Ignoring unreadable hot-key snapshot at {}: {}", snapshotFile, e.getMessage());
+			return null;
+		}
+	}
+
+	void warm(HotKeys hotKeys) {
+		long startNanos = System.nanoTime();
+		AtomicInteger accounts = new AtomicInteger();
+		AtomicInteger customers = new AtomicInteger();
+		AtomicInteger transfers = new AtomicInteger();
+
+		Cache accountCache = cacheManager.getCache(ACCOUNT_CACHE);
+		Cache transferCache = cacheManager.getCache(TRANSFER_CACHE);
+		AtomicInteger threadCount = new AtomicInteger();
+		ExecutorService executor = Executors.newFixedThreadPool(properties.threads(), runnable -> {
+			Thread thread = new Thread(runnable, "cache-warm-up-" + threadCount.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+
+		List<CompletableFuture<Void>> loads = new ArrayList<>();
+		if (accountCache != null) {
+			loadInBatches(hotKeys.accounts(), accountDao::findAccountsByAcctNos, (Account account) -> {
+				accountCache.putIfAbsent(account.getAccountNumber(), account);
+				accounts.incrementAndGet();
+			}, executor, loads);
+		}
+		loadInBatches(hotKeys.usernames(), customerDao::findByUsernames, (Customer customer) -> {
+			customerIdentityCache.put(customer);
+			customers.incrementAndGet();
+		}, executor, loads);
+		if (transferCache != null) {
+			loadInBatches(hotKeys.transfers(), transferDao::findTransfersByIds, (Transfer transfer) -> {
+				transferCache.putIfAbsent(transfer.getTransferId(), transfer);
+				transfers.incrementAndGet();
+			}, executor, loads);
+		}
+
+		try {
+			CompletableFuture.allOf(loads.toArray(CompletableFuture[]::new))
+					.get(properties.timeout().toMillis(), TimeUnit.MILLISECONDS);
+		} catch (TimeoutException e) {
+			log.warn("Cache warm-up did not finish within {}, continuing with partly warm caches", properties.timeout());
+		} catch (ExecutionException e) {
+			log.warn("Cache warm-up failed, continuing with partly warm caches: {}", e.getCause().getMessage());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			executor.shutdownNow();
+		}
+
+		log.info("Warmed caches in {} ms: {}/{} accounts, {}/{} customers, {}/{} transfers",
+				(System.nanoTime() - startNanos) / 1_000_000,
+				accounts.get(), sizeOf(hotKeys.accounts()),
+				customers.get(), sizeOf(hotKeys.usernames()),
+				transfers.get(), sizeOf(hotKeys.transfers()));
+	}
+
+	private <K, V> void loadInBatches(List<K> keys, Function<List<K>, List<V>> query, Consumer<V> cacheWrite,
+			ExecutorService executor, List<CompletableFuture<Void>> loads) {
+		if (keys == null) {
+			return;
+		}
+		for (int from = 0; from < keys.size(); from += properties.batchSize()) {
+			List<K> batch = keys.subList(from, Math.min(keys.size(), from + properties.batchSize()));
+			loads.add(CompletableFuture.runAsync(() -> query.apply(batch).forEach(cacheWrite), executor));
+		}
+	}
+
+	private static int sizeOf(List<?> keys) {
+		return keys == null ? 0 : keys.size();
+	}
+
+	void writeSnapshot() throws IOException {
+		HotKeys hotKeys = new HotKeys(hottestIds(ACCOUNT_CACHE),
+				customerIdentityCache.hottestUsernames(properties.keysPerCache()), hottestIds(TRANSFER_CACHE));
+
+		// written aside and moved into place, so a crash mid-write leaves the previous snapshot intact
+		Path snapshotFile = properties.snapshotFile().toAbsolutePath();
+		Files.createDirectories(snapshotFile.getParent());
+		Path partial = Files.createTempFile(snapshotFile.getParent(), snapshotFile.getFileName().toString(), ".tmp");
+		try {
+			SNAPSHOT_MAPPER.writeValue(partial.toFile(), hotKeys);
+			Files.move(partial, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} finally {
+			Files.deleteIfExists(partial);
+		}
+	}
+
+	private void writeSnapshotQuietly() {
+		try {
+			writeSnapshot();
+		} catch (IOException | RuntimeException e) {
+			log.warn("Could not write the hot-key snapshot to {}: {}", properties.snapshotFile(), e.getMessage());
+		}
+	}
+
+	private List<Long> hottestIds(String cacheName) {
+		Cache cache = cacheManager.getCache(cacheName);
+		if (cache == null || !(cache.getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> nativeCache)) {
+			return List.of();
+		}
+		return hottestKeys(nativeCache, properties.keysPerCache()).stream()
+				.filter(Long.class::isInstance)
+				.map(Long.class::cast)
+				.toList();
+	}
+
+	/**
+	 * @return up to {@code limit} keys of the cache, the most frequently read first when the cache is bounded
+	 * by size, in no particular order otherwise
+	 */
+	static <K> List<K> hottestKeys(com.github.benmanes.caffeine.cache.Cache<K, ?> cache, int limit) {
+		return cache.policy().eviction()
+				.map(eviction -> List.copyOf(eviction.hottest(limit).keySet()))
+				.orElseGet(() -> cache.asMap().keySet().stream().limit(limit).toList());
+	}
+
+	/**
+	 * Stops the periodic snapshots, writing a last one if the warm-up had finished, so a redeploy starts from
+	 * what this node was serving right up to its shutdown.
+	 */
+	@Override
+	public void close() {
+		snapshotWriter.shutdownNow();
+		if (warmedUp) {
+			writeSnapshotQuietly();
+		}
+	}
+}
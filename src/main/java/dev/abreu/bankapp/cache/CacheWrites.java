@@ -0,0 +1,31 @@
+package dev.abreu.bankapp.cache;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Defers cache writes made inside a transaction until it commits, so a rolled back change never reaches a cache.
+ *
+ * @author Devin Abreu
+ */
+final class CacheWrites {
+
+	private CacheWrites() {
+	}
+
+	/**
+	 * Runs the write after the current transaction commits, or right away outside of one.
+	 */
+	static void afterCommit(Runnable write) {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			write.run();
+			return;
+		}
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCommit() {
+				write.run();
+			}
+		});
+	}
+}
@@ -0,0 +1,34 @@
+package dev.abreu.bankapp.cache;
+
+import dev.abreu.bankapp.config.CacheRefreshLoader;
+import dev.abreu.bankapp.dao.CustomerDao;
+import dev.abreu.bankapp.entity.Customer;
+import org.springframework.stereotype.Component;
+
+import static dev.abreu.bankapp.cache.CustomerIdentityCache.CUSTOMER_CACHE;
+
+/**
+ * Loads and refreshes the {@code customer} cache, which holds each customer under its id (see
+ * {@link CustomerIdentityCache}). A customer that no longer exists loads as null, so a refresh drops its entry.
+ *
+ * @author Devin Abreu
+ */
+@Component
+public class CustomerCacheLoader implements CacheRefreshLoader {
+
+	private final CustomerDao customerDao;
+
+	public CustomerCacheLoader(CustomerDao customerDao) {
+		this.customerDao = customerDao;
+	}
+
+	@Override
+	public String cacheName() {
+		return CUSTOMER_CACHE;
+	}
+
+	@Override
+	public Customer load(Object customerId) {
+		return customerDao.findById((Long) customerId).orElse(null);
+	}
+}
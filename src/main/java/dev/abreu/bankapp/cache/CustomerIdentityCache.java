@@ -0,0 +1,235 @@
+package dev.abreu.bankapp.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Policy;
+import dev.abreu.bankapp.dao.CustomerDao;
+import dev.abreu.bankapp.entity.Customer;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+
+import static dev.abreu.bankapp.cache.CacheWrites.afterCommit;
+import static dev.abreu.bankapp.cache.NegativeLookupCache.Lookup.CUSTOMER_ID;
+import static dev.abreu.bankapp.cache.NegativeLookupCache.Lookup.USERNAME;
+
+/**
+ * Holds each customer once, in the {@code customer} cache under its id, and finds it by username through an
+ * index from username to id. A username only resolves to a cached customer that still has that username, so
+ * an index entry left behind by a rename, an eviction or another node's change is never served; it is dropped
+ * and the customer is loaded by username again.
+ * <p>
+ * Hits on either key read two maps at most and allocate nothing. Misses load from the database; concurrent misses
+ * for the same id or the same username wait on a single query, and ids and usernames that turn out not to exist are
+ * remembered in the {@link NegativeLookupCache}. Writes made inside a transaction wait for its commit.
+ *
+ * @author Devin Abreu
+ */
+@Component
+public class CustomerIdentityCache {
+
+	public static final String CUSTOMER_CACHE = "customer";
+
+	private static final Logger log = LogManager.getLogger(CustomerIdentityCache.class);
+
+	private final com.github.benmanes.caffeine.cache.Cache<Object, Object> entries;
+	private final com.github.benmanes.caffeine.cache.Cache<String, Long> usernameIndex;
+	private final NegativeLookupCache negativeLookupCache;
+	private final CustomerDao customerDao;
+
+	// kept as fields so a miss does not allocate a new function for every lookup
+	private final Function<Object, Object> loadById;
+	private final Function<String, Long> loadIdByUsername;
+
+	@SuppressWarnings("unchecked")
+	public CustomerIdentityCache(CacheManager cacheManager, NegativeLookupCache negativeLookupCache, CustomerDao customerDao) {
+		Cache cache = cacheManager.getCache(CUSTOMER_CACHE);
+		if (cache == null || !(cache.getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> nativeCache)) {
+			throw new IllegalStateException("The '" + CUSTOMER_CACHE + "' cache must be configured as a Caffeine cache");
+		}
+		this.entries = (com.github.benmanes.caffeine.cache.Cache<Object, Object>) nativeCache;
+		this.usernameIndex = indexBoundedLike(entries.policy());
+		this.negativeLookupCache = negativeLookupCache;
+		this.customerDao = customerDao;
+		this.loadById = this::loadById;
+		this.loadIdByUsername = this::loadIdByUsername;
+	}
+
+	// the index never needs to outlive the entries it points to
+	static com.github.benmanes.caffeine.cache.Cache<String, Long> indexBoundedLike(Policy<Object, Object> policy) {
+		Caffeine<Object, Object> builder = Caffeine.newBuilder();
+		policy.eviction()
+				.filter(eviction -> !eviction.isWeighted())
+				.ifPresent(eviction -> builder.maximumSize(eviction.getMaximum()));
+		policy.expireAfterWrite().ifPresent(expiration -> builder.expireAfterWrite(expiration.getExpiresAfter()));
+		return builder.build();
+	}
+
+	/**
+	 * @return the customer with this id, or null if there is none
+	 */
+	public Customer getById(Long customerId) {
+		Object cached = entries.getIfPresent(customerId);
+		if (cached != null) {
+			return (Customer) cached;
+		}
+		if (negativeLookupCache.isKnownMissing(CUSTOMER_ID, customerId)) {
+			return null;
+		}
+		Customer customer = (Customer) entries.get(customerId, loadById);
+		if (customer == null) {
+			negativeLookupCache.recordMissing(CUSTOMER_ID, customerId);
+		}
+		return customer;
+	}
+
+	/**
+	 * @return the customer with this username, or null if there is none
+	 */
+	public Customer getByUsername(String username) {
+		Long customerId = usernameIndex.getIfPresent(username);
+		if (customerId != null) {
+			Customer cached = (Customer) entries.getIfPresent(customerId);
+			if (cached != null && username.equals(cached.getUsername())) {
+				return cached;
+			}
+			usernameIndex.asMap().remove(username, customerId);
+		}
+		if (negativeLookupCache.isKnownMissing(USERNAME, username)) {
+			return null;
+		}
+
+		customerId = usernameIndex.get(username, loadIdByUsername);
+		if (customerId == null) {
+			negativeLookupCache.recordMissing(USERNAME, username);
+			return null;
+		}
+		// normally just loaded; if it has been evicted since, it is read again by id
+		Customer customer = getById(customerId);
+		return customer != null && username.equals(customer.getUsername()) ? customer : null;
+	}
+
+	/**
+	 * @return the id of the cached customer with this username, or null if it is not cached; never queries
+	 */
+	public Long getCachedIdByUsername(String username) {
+		Long customerId = usernameIndex.getIfPresent(username);
+		if (customerId == null) {
+			return null;
+		}
+		Object cached = entries.getIfPresent(customerId);
+		return cached instanceof Customer customer && username.equals(customer.getUsername()) ? customerId : null;
+	}
+
+	/**
+	 * Caches a customer that was just created, under both its id and its username.
+	 */
+	public void put(Customer customer) {
+		if (customer.getId() == null) {
+			return;
+		}
+		Customer copy = copyOf(customer);
+		negativeLookupCache.forget(CUSTOMER_ID, copy.getId());
+		negativeLookupCache.forget(USERNAME, copy.getUsername());
+		afterCommit(() -> {
+			Object previous = entries.asMap().put(copy.getId(), copy);
+			dropIndexOnRename(previous, copy);
+			usernameIndex.put(copy.getUsername(), copy.getId());
+		});
+	}
+
+	/**
+	 * Applies updated details to the cached customer, moving it to its new username if that changed. Only the
+	 * details a customer update writes are taken; a customer that is not cached stays uncached.
+	 */
+	public void update(Customer details) {
+		if (details.getId() == null) {
+			return;
+		}
+		negativeLookupCache.forget(USERNAME, details.getUsername());
+		afterCommit(() -> {
+			Object[] previous = new Object[1];
+			Object updated = entries.asMap().computeIfPresent(details.getId(), (id, cached) -> {
+				previous[0] = cached;
+				Customer copy = copyOf((Customer) cached);
+				copy.setFirstName(details.getFirstName());
+				copy.setLastName(details.getLastName());
+				copy.setAddress(details.getAddress());
+				copy.setUsername(details.getUsername());
+				return copy;
+			});
+			if (updated != null) {
+				dropIndexOnRename(previous[0], (Customer) updated);
+				usernameIndex.put(details.getUsername(), details.getId());
+			}
+		});
+	}
+
+	/**
+	 * Evicts the customer with this id, under both keys.
+	 */
+	public void evictById(Long customerId) {
+		afterCommit(() -> {
+			Object removed = entries.asMap().remove(customerId);
+			if (removed instanceof Customer customer) {
+				usernameIndex.asMap().remove(customer.getUsername(), customerId);
+			}
+		});
+	}
+
+	/**
+	 * Evicts the customer with this username, under both keys. A customer whose index entry has already been
+	 * evicted stays cached by id until it expires or the database announces the delete.
+	 */
+	public void evictByUsername(String username) {
+		afterCommit(() -> {
+			Long customerId = usernameIndex.asMap().remove(username);
+			if (customerId != null) {
+				entries.asMap().computeIfPresent(customerId,
+						(id, cached) -> username.equals(((Customer) cached).getUsername()) ? null : cached);
+			}
+		});
+	}
+
+	/**
+	 * @return up to {@code limit} of the usernames most often looked up, hottest first
+	 */
+	public List<String> hottestUsernames(int limit) {
+		return CacheWarmer.hottestKeys(usernameIndex, limit);
+	}
+
+	private Object loadById(Object customerId) {
+		log.info("Loading customer with Id: {}", customerId);
+		return customerDao.findById((Long) customerId).orElse(null);
+	}
+
+	// runs inside the index's compute for the username, so concurrent misses for it wait on this one query
+	private Long loadIdByUsername(String username) {
+		log.info("Loading customer with username");
+		Customer customer = customerDao.findByUsername(username).orElse(null);
+		if (customer == null) {
+			return null;
+		}
+		entries.put(customer.getId(), customer);
+		return customer.getId();
+	}
+
+	private void dropIndexOnRename(Object previous, Customer current) {
+		if (previous instanceof Customer customer && !Objects.equals(customer.getUsername(), current.getUsername())) {
+			usernameIndex.asMap().remove(customer.getUsername(), current.getId());
+		}
+	}
+
+	// cached customers are shared between readers, so a change always goes into a fresh copy
+	private static Customer copyOf(Customer customer) {
+		Customer copy = new Customer(customer.getId(), customer.getFirstName(), customer.getLastName(),
+				customer.getAddress(), customer.getUsername());
+		copy.setPassword(customer.getPassword());
+		return copy;
+	}
+}
@@ -0,0 +1,71 @@
+package dev.abreu.bankapp.cache;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import static dev.abreu.bankapp.cache.CacheWrites.afterCommit;
+
+/**
+ * Remembers, briefly, the account numbers, customer ids and usernames that were looked up and do not exist, so
+ * clients probing for them are answered without a query. Entries live in the {@code not-found} cache, whose spec
+ * bounds how many are kept and for how long.
+ * <p>
+ * Creating a key forgets it, after the commit. Other nodes forget it when the insert is announced over the cache
+ * invalidation channel (see {@code sql/cache-invalidation-triggers.sql}), under the same string keys built here.
+ *
+ * @author Devin Abreu
+ */
+@Component
+public class NegativeLookupCache {
+
+	public static final String NOT_FOUND_CACHE = "not-found";
+
+	/**
+	 * The kinds of lookup remembered, each with the prefix that keeps its keys apart from the others'.
+	 */
+	public enum Lookup {
+		ACCOUNT_NUMBER("account:"),
+		CUSTOMER_ID("customer:"),
+		USERNAME("username:");
+
+		private final String keyPrefix;
+
+		Lookup(String keyPrefix) {
+			this.keyPrefix = keyPrefix;
+		}
+
+		String keyOf(Object key) {
+			return keyPrefix + key;
+		}
+	}
+
+	private final Cache cache;
+
+	public NegativeLookupCache(CacheManager cacheManager) {
+		Cache notFoundCache = cacheManager.getCache(NOT_FOUND_CACHE);
+		if (notFoundCache == null) {
+			throw new IllegalStateException("The '" + NOT_FOUND_CACHE + "' cache must be configured");
+		}
+		this.cache = notFoundCache;
+	}
+
+	/**
+	 * @return whether the key was recently looked up and found not to exist
+	 */
+	public boolean isKnownMissing(Lookup lookup, Object key) {
+		return cache.get(lookup.keyOf(key)) != null;
+	}
+
+	public void recordMissing(Lookup lookup, Object key) {
+		cache.put(lookup.keyOf(key), Boolean.TRUE);
+	}
+
+	/**
+	 * Forgets that the key was missing, once the current transaction (if any) has committed and created it.
+	 */
+	public void forget(Lookup lookup, Object key) {
+		String cacheKey = lookup.keyOf(key);
+		afterCommit(() -> cache.evict(cacheKey));
+	}
+}
@@ -0,0 +1,279 @@
+package dev.abreu.bankapp.cache;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Minimal client for servers speaking the Redis protocol (RESP2), covering the handful of commands the shared
+ * cache tier needs. Connections are opened on demand and kept for reuse up to {@code maxIdleConnections}; a
+ * connection that fails mid-command is dropped rather than reused, since its stream position is unknown.
+ * <p>
+ * A server that cannot be reached, or does not answer in time, is not tried again until a cool-down has passed:
+ * commands in between fail at once instead of each waiting out the timeout. The first command after it probes
+ * the server while the others keep failing fast, and its success ends the cool-down.
+ *
+ * @author Devin Abreu
+ */
+public class RespClient implements Closeable {
+
+	private static final byte[] CRLF = {'\r', '\n'};
+
+	private static final long AVAILABLE = Long.MIN_VALUE;
+
+	private final String host;
+	private final int port;
+	private final int timeoutMillis;
+	private final int maxIdleConnections;
+	private final long coolDownNanos;
+	private final LongSupplier nanoClock;
+	private final ConcurrentLinkedDeque<RespConnection> idleConnections = new ConcurrentLinkedDeque<>();
+	private final AtomicInteger idleCount = new AtomicInteger();
+	// when the next probe may be sent after a failure, or AVAILABLE
+	private final AtomicLong retryAtNanos = new AtomicLong(AVAILABLE);
+	private volatile boolean closed;
+
+	/**
+	 * @param host               server host
+	 * @param port               server port
+	 * @param timeout            connect and read timeout of every command
+	 * @param maxIdleConnections connections kept open between commands
+	 * @param coolDown           how long commands fail fast after the server could not be reached
+	 */
+	public RespClient(String host, int port, Duration timeout, int maxIdleConnections, Duration coolDown) {
+		this(host, port, timeout, maxIdleConnections, coolDown, System::nanoTime);
+	}
+
+	RespClient(String host, int port, Duration timeout, int maxIdleConnections, Duration coolDown, LongSupplier nanoClock) {
+		this.host = host;
+		this.port = port;
+		this.timeoutMillis = (int) timeout.toMillis();
+		this.maxIdleConnections = maxIdleConnections;
+		this.coolDownNanos = coolDown.toNanos();
+		this.nanoClock = nanoClock;
+	}
+
+	/**
+	 * @return the value stored under the key, or null if there is none
+	 */
+	public byte[] get(String key) throws IOException {
+		return (byte[]) execute(bytes("GET"), bytes(key));
+	}
+
+	/**
+	 * Stores the value under the key, expiring it after the given time.
+	 */
+	public void set(String key, byte[] value, Duration ttl) throws IOException {
+		execute(bytes("SET"), bytes(key), value, bytes("PX"), bytes(Long.toString(ttl.toMillis())));
+	}
+
+	/**
+	 * Stores the value under the key, expiring it after the given time, unless the key already holds a value.
+	 *
+	 * @return whether the value was stored
+	 */
+	public boolean setIfAbsent(String key, byte[] value, Duration ttl) throws IOException {
+		return execute(bytes("SET"), bytes(key), value, bytes("PX"), bytes(Long.toString(ttl.toMillis())), bytes("NX")) != null;
+	}
+
+	/**
+	 * @return the number of keys that existed and were deleted
+	 */
+	public long del(String key) throws IOException {
+		return (Long) execute(bytes("DEL"), bytes(key));
+	}
+
+	public String ping() throws IOException {
+		return (String) execute(bytes("PING"));
+	}
+
+	private Object execute(byte[]... args) throws IOException {
+		if (closed) {
+			throw new IOException("RESP client is closed");
+		}
+		awaitCoolDown();
+
+		RespConnection connection = idleConnections.pollFirst();
+		if (connection != null) {
+			idleCount.decrementAndGet();
+		} else {
+			try {
+				connection = new RespConnection(host, port, timeoutMillis);
+			} catch (IOException e) {
+				startCoolDown();
+				throw e;
+			}
+		}
+
+		Object reply;
+		try {
+			connection.write(args);
+			reply = connection.read();
+		} catch (IOException e) {
+			connection.close();
+			startCoolDown();
+			throw e;
+		}
+
+		if (retryAtNanos.get() != AVAILABLE) {
+			retryAtNanos.set(AVAILABLE);
+		}
+		release(connection);
+		if (reply instanceof RespError error) {
+			throw new IOException("RESP server replied with an error: " + error.message());
+		}
+		return reply;
+	}
+
+	/**
+	 * Fails the command unless the server is available or it is this command's turn to probe it.
+	 */
+	private void awaitCoolDown() throws IOException {
+		long retryAt = retryAtNanos.get();
+		if (retryAt == AVAILABLE) {
+			return;
+		}
+		long now = nanoClock.getAsLong();
+		// claiming the probe pushes the next one out, so only one command at a time waits on a dead server
+		if (now - retryAt < 0 || !retryAtNanos.compareAndSet(retryAt, now + coolDownNanos)) {
+			throw new IOException("RESP server unavailable, retrying after cool-down");
+		}
+	}
+
+	private void startCoolDown() {
+		retryAtNanos.set(nanoClock.getAsLong() + coolDownNanos);
+	}
+
+	private void release(RespConnection connection) {
+		if (!closed && idleCount.incrementAndGet() <= maxIdleConnections) {
+			idleConnections.offerFirst(connection);
+		} else {
+			idleCount.decrementAndGet();
+			connection.close();
+		}
+	}
+
+	@Override
+	public void close() {
+		closed = true;
+		RespConnection connection;
+		while ((connection = idleConnections.pollFirst()) != null) {
+			connection.close();
+		}
+	}
+
+	private static byte[] bytes(String text) {
+		return text.getBytes(StandardCharsets.UTF_8);
+	}
+
+	private record RespError(String message) {
+	}
+
+	private static final class RespConnection {
+
+		private final Socket socket;
+		private final InputStream in;
+		private final OutputStream out;
+
+		private RespConnection(String host, int port, int timeoutMillis) throws IOException {
+			socket = new Socket();
+			try {
+				socket.connect(new InetSocketAddress(host, port), timeoutMillis);
+				socket.setSoTimeout(timeoutMillis);
+				socket.setTcpNoDelay(true);
+				in = new BufferedInputStream(socket.getInputStream());
+				out = new BufferedOutputStream(socket.getOutputStream());
+			} catch (IOException e) {
+				socket.close();
+				throw e;
+			}
+		}
+
+		// every command is sent as an array of bulk strings
+		private void write(byte[]... args) throws IOException {
+			out.write(bytes("*" + args.length));
+			out.write(CRLF);
+			for (byte[] arg : args) {
+				out.write(bytes("$" + arg.length));
+				out.write(CRLF);
+				out.write(arg);
+				out.write(CRLF);
+			}
+			out.flush();
+		}
+
+		private Object read() throws IOException {
+			int type = in.read();
+			if (type == -1) {
+				throw new EOFException("RESP server closed the connection");
+			}
+			String line = readLine();
+			return switch (type) {
+				case '+' -> line;
+				case '-' -> new RespError(line);
+				case ':' -> Long.parseLong(line);
+				case '$' -> readBulk(Integer.parseInt(line));
+				case '*' -> readArray(Integer.parseInt(line));
+				default -> throw new IOException("Unexpected RESP reply type: " + (char) type);
+			};
+		}
+
+		private byte[] readBulk(int length) throws IOException {
+			if (length < 0) {
+				return null;
+			}
+			byte[] value = in.readNBytes(length);
+			if (value.length < length || in.read() != '\r' || in.read() != '\n') {
+				throw new EOFException("Truncated RESP bulk reply");
+			}
+			return value;
+		}
+
+		private Object[] readArray(int length) throws IOException {
+			if (length < 0) {
+				return null;
+			}
+			Object[] values = new Object[length];
+			for (int i = 0; i < length; i++) {
+				values[i] = read();
+			}
+			return values;
+		}
+
+		private String readLine() throws IOException {
+			ByteArrayOutputStream line = new ByteArrayOutputStream();
+			int b;
+			while ((b = in.read()) != '\r') {
+				if (b == -1) {
+					throw new EOFException("RESP server closed the connection");
+				}
+				line.write(b);
+			}
+			if (in.read() != '\n') {
+				throw new IOException("Malformed RESP line");
+			}
+			return line.toString(StandardCharsets.UTF_8);
+		}
+
+		private void close() {
+			try {
+				socket.close();
+			} catch (IOException e) {
+				// nothing left to release
+			}
+		}
+	}
+}
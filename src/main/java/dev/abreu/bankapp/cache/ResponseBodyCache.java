@@ -0,0 +1,113 @@
+package dev.abreu.bankapp.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Caches finished JSON response bodies, for endpoints whose responses never change once they can be read, such
+ * as transfers. Each entry holds the serialized bytes, an ETag computed from them and, when they are large enough
+ * that the server would compress them anyway, a gzipped copy, so a hit is written out without Jackson or the
+ * compressor running again.
+ * <p>
+ * Endpoints opt in by reading through {@link #get}. Entries are never evicted, only expired, so a response that
+ * can change is not read through here but given its ETag by {@link #serialize}. The cache itself is opt-in too:
+ * it only stores bodies while a {@code response-body} cache is configured, and otherwise serializes each one
+ * afresh, which still gives the response its ETag.
+ *
+ * @author Devin Abreu
+ */
+@Component
+public class ResponseBodyCache {
+
+	public static final String RESPONSE_BODY_CACHE = "response-body";
+
+	/**
+	 * A serialized response body and its ETag, with the gzipped copy and that copy's ETag when it was worth making.
+	 */
+	public record Body(byte[] json, String etag, byte[] gzipped, String gzippedEtag) {
+
+		public int weight() {
+			return json.length + (gzipped == null ? 0 : gzipped.length);
+		}
+	}
+
+	private final com.github.benmanes.caffeine.cache.Cache<Object, Object> entries;
+	private final ObjectMapper objectMapper;
+	private final long gzipMinSize;
+
+	@SuppressWarnings("unchecked")
+	public ResponseBodyCache(CacheManager cacheManager, ObjectMapper objectMapper,
+			@Value("${server.compression.enabled:false}") boolean compressionEnabled,
+			@Value("${server.compression.min-response-size:2KB}") DataSize compressionMinSize) {
+		Cache cache = cacheManager.getCache(RESPONSE_BODY_CACHE);
+		this.entries = cache != null && cache.getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> nativeCache
+				? (com.github.benmanes.caffeine.cache.Cache<Object, Object>) nativeCache
+				: null;
+		this.objectMapper = objectMapper;
+		// only gzip what the server would have compressed on the way out
+		this.gzipMinSize = compressionEnabled ? compressionMinSize.toBytes() : Long.MAX_VALUE;
+	}
+
+	/**
+	 * @return the cached body under this key, or the value from the loader, serialized and cached; anything the
+	 * loader throws is passed on and nothing is cached
+	 */
+	public Body get(String key, Supplier<?> loader) {
+		if (entries == null) {
+			return serialize(loader.get());
+		}
+		return (Body) entries.get(key, k -> serialize(loader.get()));
+	}
+
+	/**
+	 * @return the value serialized, with its ETag and a gzipped copy when it is worth making, without caching it
+	 */
+	public Body serialize(Object value) {
+		try {
+			byte[] json = objectMapper.writeValueAsBytes(value);
+			String tag = tagOf(json);
+			if (json.length < gzipMinSize) {
+				return new Body(json, quoted(tag), null, null);
+			}
+			return new Body(json, quoted(tag), gzip(json), quoted(tag + "-gzip"));
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private static byte[] gzip(byte[] bytes) throws IOException {
+		ByteArrayOutputStream compressed = new ByteArrayOutputStream(bytes.length / 2);
+		try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+			gzip.write(bytes);
+		}
+		return compressed.toByteArray();
+	}
+
+	private static String tagOf(byte[] bytes) {
+		try {
+			byte[] digest = MessageDigest.getInstance("SHA-256").digest(bytes);
+			return Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(digest, 16));
+		} catch (NoSuchAlgorithmException e) {
+			// every JVM is required to provide SHA-256
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static String quoted(String tag) {
+		return "\"" + tag + "\"";
+	}
+}
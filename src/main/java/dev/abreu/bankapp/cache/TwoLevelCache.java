@@ -0,0 +1,258 @@
+package dev.abreu.bankapp.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputFilter;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.time.Duration;
+import java.util.concurrent.Callable;
+
+/**
+ * A node-local cache (L1) backed by a tier shared by every node (L2) on a Redis-protocol server. Reads go to L1,
+ * then L2, then the loader, filling the tiers on the way back; writes and evictions go to both. A node that has
+ * just started therefore finds whatever the rest of the cluster has already loaded.
+ * <p>
+ * A read that loads the value, or a {@link #putIfAbsent}, only fills the shared tier where the key is absent
+ * there, so it never replaces what another node wrote; {@link #put}, which follows a write, always replaces it.
+ * An eviction leaves a marker in the shared tier for the eviction window rather than deleting the key, so a
+ * node that loaded the old value just before the eviction cannot write it back afterwards. Keep the window
+ * above the slowest load.
+ * <p>
+ * The shared tier is best effort: when it is unreachable reads fall through to the loader and writes are
+ * skipped, so an outage costs database load rather than failed requests. {@link #clear()} only clears L1,
+ * since the shared tier is kept current by the nodes that stayed connected.
+ * <p>
+ * Gets are counted per tier in {@code cache.tier.gets}, tagged by cache, tier ({@code l1}, {@code l2} or
+ * {@code none} when both missed) and result; shared tier failures are counted in {@code cache.tier.errors}.
+ *
+ * @author Devin Abreu
+ */
+public class TwoLevelCache implements Cache {
+
+	private static final Logger log = LogManager.getLogger(TwoLevelCache.class);
+
+	// values come back from a server other processes can write to, so only the cached entity types are read
+	private static final ObjectInputFilter VALUE_FILTER =
+			ObjectInputFilter.Config.createFilter("dev.abreu.bankapp.entity.*;java.lang.*;java.time.*;java.util.*;!*");
+
+	// what an evicted key holds during the eviction window; a serialized value is never empty
+	private static final byte[] EVICTED = new byte[0];
+
+	private final Cache local;
+	private final RespClient shared;
+	private final String keyPrefix;
+	private final Duration ttl;
+	private final Duration evictionWindow;
+	private final Counter l1Hits;
+	private final Counter l2Hits;
+	private final Counter misses;
+	private final Counter sharedErrors;
+
+	/**
+	 * @param local         the node-local cache, which also names this one
+	 * @param shared        client of the shared tier
+	 * @param keyPrefix     prepended, with the cache name, to every key in the shared tier
+	 * @param ttl            how long an entry lives in the shared tier
+	 * @param evictionWindow how long an evicted key refuses fills in the shared tier
+	 * @param meterRegistry  where the per-tier counters are published
+	 */
+	public TwoLevelCache(Cache local, RespClient shared, String keyPrefix, Duration ttl, Duration evictionWindow,
+			MeterRegistry meterRegistry) {
+		this.local = local;
+		this.shared = shared;
+		this.keyPrefix = keyPrefix + local.getName() + ":";
+		this.ttl = ttl;
+		this.evictionWindow = evictionWindow;
+		this.l1Hits = tierCounter(meterRegistry, "l1", "hit");
+		this.l2Hits = tierCounter(meterRegistry, "l2", "hit");
+		this.misses = tierCounter(meterRegistry, "none", "miss");
+		this.sharedErrors = Counter.builder("cache.tier.errors")
+				.description("Shared cache tier commands that failed")
+				.tag("cache", local.getName())
+				.register(meterRegistry);
+	}
+
+	private Counter tierCounter(MeterRegistry meterRegistry, String tier, String result) {
+		return Counter.builder("cache.tier.gets")
+				.description("Cache gets by the tier that answered them")
+				.tag("cache", local.getName())
+				.tag("tier", tier)
+				.tag("result", result)
+				.register(meterRegistry);
+	}
+
+	@Override
+	public String getName() {
+		return local.getName();
+	}
+
+	/**
+	 * @return the L1 cache's native cache, so code working on the local entries directly keeps working
+	 */
+	@Override
+	public Object getNativeCache() {
+		return local.getNativeCache();
+	}
+
+	@Override
+	public ValueWrapper get(Object key) {
+		ValueWrapper localValue = local.get(key);
+		if (localValue != null) {
+			l1Hits.increment();
+			return localValue;
+		}
+
+		Object sharedValue = readShared(key);
+		if (sharedValue != null) {
+			l2Hits.increment();
+			local.put(key, sharedValue);
+			return new SimpleValueWrapper(sharedValue);
+		}
+
+		misses.increment();
+		return null;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public <T> T get(Object key, Class<T> type) {
+		ValueWrapper wrapper = get(key);
+		Object value = wrapper != null ? wrapper.get() : null;
+		if (value != null && type != null && !type.isInstance(value)) {
+			throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+		}
+		return (T) value;
+	}
+
+	/**
+	 * Concurrent misses for one key on this node share a single L2 read and, if that misses too, a single load.
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public <T> T get(Object key, Callable<T> valueLoader) {
+		boolean[] loadedHere = {false};
+		T value = local.get(key, () -> {
+			loadedHere[0] = true;
+			Object sharedValue = readShared(key);
+			if (sharedValue != null) {
+				l2Hits.increment();
+				return (T) sharedValue;
+			}
+			misses.increment();
+			T loaded = valueLoader.call();
+			writeShared(key, loaded, true);
+			return loaded;
+		});
+		if (!loadedHere[0]) {
+			l1Hits.increment();
+		}
+		return value;
+	}
+
+	@Override
+	public void put(Object key, Object value) {
+		local.put(key, value);
+		writeShared(key, value, false);
+	}
+
+	@Override
+	public ValueWrapper putIfAbsent(Object key, Object value) {
+		ValueWrapper existing = local.putIfAbsent(key, value);
+		if (existing == null) {
+			writeShared(key, value, true);
+		}
+		return existing;
+	}
+
+	@Override
+	public void evict(Object key) {
+		local.evict(key);
+		evictShared(key);
+	}
+
+	@Override
+	public boolean evictIfPresent(Object key) {
+		boolean present = local.evictIfPresent(key);
+		evictShared(key);
+		return present;
+	}
+
+	/**
+	 * Removes the key from the shared tier only, keeping it from being filled again for the eviction window.
+	 */
+	public void evictShared(Object key) {
+		try {
+			shared.set(sharedKey(key), EVICTED, evictionWindow);
+		} catch (IOException e) {
+			sharedErrors.increment();
+			// the entry outlives the change until its TTL, so this is louder than a failed read
+			log.error("Could not evict {} from the shared {} cache: {}", key, getName(), e.getMessage());
+		}
+	}
+
+	@Override
+	public void clear() {
+		local.clear();
+	}
+
+	@Override
+	public boolean invalidate() {
+		return local.invalidate();
+	}
+
+	private Object readShared(Object key) {
+		try {
+			byte[] bytes = shared.get(sharedKey(key));
+			return bytes != null && bytes.length > 0 ? deserialize(bytes) : null;
+		} catch (IOException | ClassNotFoundException e) {
+			sharedErrors.increment();
+			log.warn("Could not read {} from the shared {} cache: {}", key, getName(), e.getMessage());
+			return null;
+		}
+	}
+
+	private void writeShared(Object key, Object value, boolean onlyIfAbsent) {
+		if (value == null) {
+			return;
+		}
+		try {
+			if (onlyIfAbsent) {
+				shared.setIfAbsent(sharedKey(key), serialize(value), ttl);
+			} else {
+				shared.set(sharedKey(key), serialize(value), ttl);
+			}
+		} catch (IOException e) {
+			sharedErrors.increment();
+			log.warn("Could not write {} to the shared {} cache: {}", key, getName(), e.getMessage());
+		}
+	}
+
+	// the key type is part of the shared key, so customer id 1 and username "1" stay apart
+	private String sharedKey(Object key) {
+		return keyPrefix + key.getClass().getSimpleName() + ":" + key;
+	}
+
+	static byte[] serialize(Object value) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+			out.writeObject(value);
+		}
+		return bytes.toByteArray();
+	}
+
+	static Object deserialize(byte[] bytes) throws IOException, ClassNotFoundException {
+		try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+			in.setObjectInputFilter(VALUE_FILTER);
+			return in.readObject();
+		}
+	}
+}
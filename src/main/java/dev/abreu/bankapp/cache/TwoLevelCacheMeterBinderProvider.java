@@ -0,0 +1,26 @@
+package dev.abreu.bankapp.cache;
+
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.boot.actuate.metrics.cache.CacheMeterBinderProvider;
+
+/**
+ * Publishes the actuator's {@code cache.*} meters for a {@link TwoLevelCache} from its Caffeine L1, which is what
+ * they would have come from had the cache no shared tier. The shared tier has its own counters in
+ * {@code cache.tier.gets} and {@code cache.tier.errors}.
+ *
+ * @author Devin Abreu
+ */
+public class TwoLevelCacheMeterBinderProvider implements CacheMeterBinderProvider<TwoLevelCache> {
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public MeterBinder getMeterBinder(TwoLevelCache cache, Iterable<Tag> tags) {
+		if (!(cache.getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> nativeCache)) {
+			return null;
+		}
+		return new CaffeineCacheMetrics<>((com.github.benmanes.caffeine.cache.Cache<Object, Object>) nativeCache,
+				cache.getName(), tags);
+	}
+}
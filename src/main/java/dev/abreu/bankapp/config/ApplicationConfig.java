@@ -1,24 +1,36 @@
 package dev.abreu.bankapp.config;
 
 import dev.abreu.bankapp.dao.CustomerDao;
+import dev.abreu.bankapp.entity.Customer;
+import dev.abreu.bankapp.security.BoundedBCryptPasswordEncoder;
+import dev.abreu.bankapp.security.PasswordHashingExecutor;
+import dev.abreu.bankapp.security.PasswordUpgradingAuthenticationProvider;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.AuthenticationProvider;
-import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 
 @Configuration
+@EnableConfigurationProperties(PasswordHashingProperties.class)
 public class ApplicationConfig {
 
 	private final CustomerDao customerDao;
+	private final PasswordHashingProperties passwordHashingProperties;
+	private final ObjectProvider<MeterRegistry> meterRegistry;
 
-	public ApplicationConfig(CustomerDao customerDao) {
+	public ApplicationConfig(CustomerDao customerDao, PasswordHashingProperties passwordHashingProperties,
+			ObjectProvider<MeterRegistry> meterRegistry) {
 		this.customerDao = customerDao;
+		this.passwordHashingProperties = passwordHashingProperties;
+		this.meterRegistry = meterRegistry;
 	}
 
 	@Bean
@@ -29,10 +41,19 @@ public class ApplicationConfig {
 
 	@Bean
 	public AuthenticationProvider authenticationProvider() {
-		DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
-		authProvider.setUserDetailsService(userDetailsService());
-		authProvider.setPasswordEncoder(passwordEncoder());
-		return authProvider;
+		return new PasswordUpgradingAuthenticationProvider(userDetailsService(), passwordEncoder(),
+				userDetailsPasswordService());
+	}
+
+	// saves the re-hash of a password whose stored hash was made at a lower cost, made in the background after a login
+	@Bean
+	public UserDetailsPasswordService userDetailsPasswordService() {
+		return (user, newPassword) -> {
+			if (customerDao.updatePassword(user.getUsername(), newPassword) && user instanceof Customer customer) {
+				customer.setPassword(newPassword);
+			}
+			return user;
+		};
 	}
 
 	@Bean
@@ -40,9 +61,21 @@ public class ApplicationConfig {
 		return config.getAuthenticationManager();
 	}
 
+	// where there is no registry, as in the web slice tests, the meters go to the global one and are dropped
+	@Bean(destroyMethod = "close")
+	public PasswordHashingExecutor passwordHashingExecutor() {
+		return new PasswordHashingExecutor(passwordHashingProperties.threads(), passwordHashingProperties.queueCapacity(),
+				meterRegistry.getIfAvailable(() -> Metrics.globalRegistry));
+	}
+
 	@Bean
-	public PasswordEncoder passwordEncoder() {
-		return new BCryptPasswordEncoder();
+	public BoundedBCryptPasswordEncoder passwordEncoder() {
+		Integer cost = passwordHashingProperties.cost();
+		if (cost == null) {
+			cost = BoundedBCryptPasswordEncoder.calibrateCost(passwordHashingProperties.targetHashTime(),
+					passwordHashingProperties.minCost(), passwordHashingProperties.maxCost());
+		}
+		return new BoundedBCryptPasswordEncoder(cost, passwordHashingExecutor());
 	}
 
 }
@@ -0,0 +1,202 @@
+package dev.abreu.bankapp.config;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Weigher;
+import dev.abreu.bankapp.cache.CacheInvalidationListener;
+import dev.abreu.bankapp.cache.CacheWarmer;
+import dev.abreu.bankapp.cache.CustomerIdentityCache;
+import dev.abreu.bankapp.cache.ResponseBodyCache;
+import dev.abreu.bankapp.cache.RespClient;
+import dev.abreu.bankapp.cache.TwoLevelCache;
+import dev.abreu.bankapp.cache.TwoLevelCacheMeterBinderProvider;
+import dev.abreu.bankapp.dao.AccountDao;
+import dev.abreu.bankapp.dao.CustomerDao;
+import dev.abreu.bankapp.dao.TransferDao;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Builds each cache from its own {@link CacheSpecProperties.Spec}. Caches that record stats are picked up by the
+ * actuator's cache metrics, which publish per-cache hit, miss, put, eviction and load-time meters
+ * ({@code cache.gets}, {@code cache.puts}, {@code cache.evictions}, {@code cache.load.duration}).
+ * <p>
+ * Every node keeps its own caches, so changes made on one node, other than balance changes, are announced to the
+ * others through the {@link CacheInvalidationListener}. Caches given a shared tier by {@link SharedCacheProperties} become
+ * {@link TwoLevelCache}s, with the Caffeine cache as their first level, whose stats still feed the cache metrics.
+ * <p>
+ * Each node snapshots its hottest keys and warms its caches from the last snapshot before it reports ready, see
+ * {@link CacheWarmer}.
+ * <p>
+ * Async caches load and refresh on a small dedicated executor rather than the common pool, since loads block on
+ * JDBC; it is kept well under the connection pool size so background refreshes cannot starve requests.
+ */
+@Configuration
+@EnableConfigurationProperties({CacheSpecProperties.class, CacheInvalidationProperties.class, SharedCacheProperties.class,
+		CacheWarmUpProperties.class})
+public class CacheConfig {
+
+	private static final int CACHE_LOAD_THREADS = 4;
+
+	private static final Weigher<Object, Object> VALUE_WEIGHER = (key, value) -> {
+		if (value instanceof String text) {
+			return Math.max(1, text.length());
+		}
+		if (value instanceof Collection<?> values) {
+			return Math.max(1, values.size());
+		}
+		if (value instanceof ResponseBodyCache.Body body) {
+			return Math.max(1, body.weight());
+		}
+		return 1;
+	};
+
+	private final AtomicInteger cacheLoadThreadCount = new AtomicInteger();
+	private final ExecutorService cacheLoadExecutor = Executors.newFixedThreadPool(CACHE_LOAD_THREADS, runnable -> {
+		Thread thread = new Thread(runnable, "cache-load-" + cacheLoadThreadCount.incrementAndGet());
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	@Bean(destroyMethod = "close")
+	@ConditionalOnProperty(prefix = "application.cache.shared", name = "enabled")
+	public RespClient sharedCacheClient(SharedCacheProperties properties) {
+		return new RespClient(properties.host(), properties.port(), properties.timeout(), properties.maxIdleConnections(),
+				properties.coolDown());
+	}
+
+	@Bean
+	public TwoLevelCacheMeterBinderProvider twoLevelCacheMeterBinderProvider() {
+		return new TwoLevelCacheMeterBinderProvider();
+	}
+
+	@Bean
+	public CacheManager cacheManager(CacheSpecProperties cacheSpecProperties, ObjectProvider<CacheRefreshLoader> refreshLoaders,
+			SharedCacheProperties sharedCacheProperties, ObjectProvider<RespClient> sharedCacheClient, MeterRegistry meterRegistry) {
+		Map<String, CacheRefreshLoader> loadersByCache = refreshLoaders.orderedStream()
+				.collect(Collectors.toMap(CacheRefreshLoader::cacheName, Function.identity()));
+		RespClient sharedClient = sharedCacheClient.getIfAvailable();
+
+		CaffeineCacheManager cacheManager = new CaffeineCacheManager() {
+			@Override
+			protected org.springframework.cache.Cache adaptCaffeineCache(String name, Cache<Object, Object> cache) {
+				return withSharedTier(super.adaptCaffeineCache(name, cache));
+			}
+
+			@Override
+			protected org.springframework.cache.Cache adaptCaffeineCache(String name, AsyncCache<Object, Object> cache) {
+				return withSharedTier(super.adaptCaffeineCache(name, cache));
+			}
+
+			private org.springframework.cache.Cache withSharedTier(org.springframework.cache.Cache local) {
+				Duration sharedTtl = sharedCacheProperties.ttls().get(local.getName());
+				if (sharedClient == null || sharedTtl == null) {
+					return local;
+				}
+				return new TwoLevelCache(local, sharedClient, sharedCacheProperties.keyPrefix(), sharedTtl,
+						sharedCacheProperties.evictionWindow(), meterRegistry);
+			}
+		};
+		// no dynamic caches: a cache name without a spec fails instead of silently getting an unbounded cache
+		cacheManager.setCacheNames(List.of());
+		cacheSpecProperties.specs().forEach((name, spec) -> {
+			if (spec.async()) {
+				cacheManager.registerCustomCache(name, buildAsyncCache(name, spec, loadersByCache.get(name), cacheLoadExecutor));
+			} else {
+				cacheManager.registerCustomCache(name, buildCache(name, spec, loadersByCache.get(name)));
+			}
+		});
+		return cacheManager;
+	}
+
+	@Bean(initMethod = "start")
+	@ConditionalOnProperty(prefix = "application.cache.invalidation", name = "enabled", matchIfMissing = true)
+	public CacheInvalidationListener cacheInvalidationListener(CacheInvalidationProperties properties, CacheManager cacheManager,
+			MeterRegistry meterRegistry, @Value("${spring.datasource.url}") String dbUrl,
+			@Value("${spring.datasource.username}") String dbUser, @Value("${spring.datasource.password}") String dbPassword) {
+		// a LISTEN only lasts as long as its session, which a pooled connection's does not
+		DriverManagerDataSource listenerDataSource = new DriverManagerDataSource(dbUrl, dbUser, dbPassword);
+		return new CacheInvalidationListener(listenerDataSource, cacheManager, meterRegistry,
+				properties.channel(), properties.pollInterval(), properties.reconnectDelay());
+	}
+
+	@Bean(destroyMethod = "close")
+	@ConditionalOnProperty(prefix = "application.cache.warm-up", name = "enabled", matchIfMissing = true)
+	public CacheWarmer cacheWarmer(CacheWarmUpProperties properties, CacheManager cacheManager,
+			CustomerIdentityCache customerIdentityCache, AccountDao accountDao, CustomerDao customerDao, TransferDao transferDao) {
+		return new CacheWarmer(properties, cacheManager, customerIdentityCache, accountDao, customerDao, transferDao);
+	}
+
+	@PreDestroy
+	public void shutdownCacheLoadExecutor() {
+		cacheLoadExecutor.shutdownNow();
+	}
+
+	static Cache<Object, Object> buildCache(String name, CacheSpecProperties.Spec spec, CacheRefreshLoader refreshLoader) {
+		Caffeine<Object, Object> builder = newBuilder(spec);
+
+		if (spec.refreshAfterWrite() == null) {
+			return builder.build();
+		}
+		return builder.refreshAfterWrite(spec.refreshAfterWrite()).build(requireLoader(name, refreshLoader));
+	}
+
+	static AsyncCache<Object, Object> buildAsyncCache(String name, CacheSpecProperties.Spec spec, CacheRefreshLoader refreshLoader,
+			Executor executor) {
+		Caffeine<Object, Object> builder = newBuilder(spec).executor(executor);
+
+		if (spec.refreshAfterWrite() == null) {
+			return builder.buildAsync();
+		}
+		return builder.refreshAfterWrite(spec.refreshAfterWrite()).buildAsync(requireLoader(name, refreshLoader));
+	}
+
+	private static Caffeine<Object, Object> newBuilder(CacheSpecProperties.Spec spec) {
+		Caffeine<Object, Object> builder = Caffeine.newBuilder();
+
+		if (spec.maximumSize() != null) {
+			builder.maximumSize(spec.maximumSize());
+		}
+		if (spec.maximumWeight() != null) {
+			builder.maximumWeight(spec.maximumWeight()).weigher(VALUE_WEIGHER);
+		}
+		if (spec.expireAfterWrite() != null) {
+			builder.expireAfterWrite(spec.expireAfterWrite());
+		}
+		if (spec.expireAfterAccess() != null) {
+			builder.expireAfterAccess(spec.expireAfterAccess());
+		}
+		if (spec.recordStats()) {
+			builder.recordStats();
+		}
+		return builder;
+	}
+
+	private static CacheRefreshLoader requireLoader(String name, CacheRefreshLoader refreshLoader) {
+		if (refreshLoader == null) {
+			throw new IllegalStateException("Cache '" + name + "' sets refresh-after-write but has no CacheRefreshLoader");
+		}
+		return refreshLoader;
+	}
+}
@@ -0,0 +1,24 @@
+package dev.abreu.bankapp.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Cross-node cache invalidation settings, bound from {@code application.cache.invalidation}. The database side
+ * is the triggers in {@code sql/cache-invalidation-triggers.sql}.
+ *
+ * @param enabled        whether this node listens for invalidations at all
+ * @param channel        the channel the triggers notify on
+ * @param pollInterval   how long the listener waits for notifications before checking whether it should stop
+ * @param reconnectDelay how long the listener waits before reconnecting after losing its connection
+ * @author Devin Abreu
+ */
+@ConfigurationProperties(prefix = "application.cache.invalidation")
+public record CacheInvalidationProperties(
+		@DefaultValue("true") boolean enabled,
+		@DefaultValue("bankapp_cache_invalidation") String channel,
+		@DefaultValue("500ms") Duration pollInterval,
+		@DefaultValue("5s") Duration reconnectDelay) {
+}
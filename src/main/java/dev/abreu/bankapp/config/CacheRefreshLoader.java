@@ -0,0 +1,18 @@
+package dev.abreu.bankapp.config;
+
+import com.github.benmanes.caffeine.cache.CacheLoader;
+
+/**
+ * Reloads entries of one cache from their source, for caches configured with {@code refresh-after-write}.
+ * The loader is also used to fill misses, so {@link #load(Object)} must return exactly what the cached
+ * service method would, or null when there is nothing to cache.
+ *
+ * @author Devin Abreu
+ */
+public interface CacheRefreshLoader extends CacheLoader<Object, Object> {
+
+	/**
+	 * @return the name of the cache this loader serves
+	 */
+	String cacheName();
+}
@@ -0,0 +1,42 @@
+package dev.abreu.bankapp.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Per-cache Caffeine settings, bound from {@code application.cache.specs}. Every cache the services use must
+ * have an entry; a cache without one does not exist.
+ *
+ * @param specs the settings of each cache, by cache name
+ * @author Devin Abreu
+ */
+@ConfigurationProperties(prefix = "application.cache")
+public record CacheSpecProperties(@DefaultValue Map<String, Spec> specs) {
+
+	/**
+	 * Settings of one cache. Unset limits and expiries are not applied.
+	 *
+	 * @param maximumSize       most entries the cache holds; not combinable with {@code maximumWeight}
+	 * @param maximumWeight     most total weight the cache holds, where an entry weighs its string length,
+	 *                          its collection size, its byte count for a response body, or 1 for anything else
+	 * @param expireAfterWrite  how long an entry lives after it was written
+	 * @param expireAfterAccess how long an entry lives after it was last read or written
+	 * @param refreshAfterWrite age after which a read triggers a background reload; needs a {@link CacheRefreshLoader}
+	 *                          for the cache
+	 * @param recordStats       whether hits, misses, loads and evictions are recorded for the cache metrics
+	 * @param async             whether loads run on the cache load executor, with concurrent misses for a key
+	 *                          waiting on one load, and refreshes serving the old value until they complete
+	 */
+	public record Spec(
+			Long maximumSize,
+			Long maximumWeight,
+			Duration expireAfterWrite,
+			Duration expireAfterAccess,
+			Duration refreshAfterWrite,
+			@DefaultValue("true") boolean recordStats,
+			@DefaultValue("false") boolean async) {
+	}
+}
@@ -0,0 +1,30 @@
+package dev.abreu.bankapp.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Hot-key snapshot and startup warm-up settings, bound from {@code application.cache.warm-up}.
+ *
+ * @param enabled          whether this node snapshots its hot keys and warms its caches from them on startup
+ * @param snapshotFile     where the snapshot is written; it must survive a redeploy to be of any use
+ * @param snapshotInterval how often the snapshot is rewritten
+ * @param keysPerCache     how many of the hottest keys of each cache are snapshotted
+ * @param batchSize        how many keys each warm-up query loads
+ * @param threads          how many warm-up queries run at once; keep well under the connection pool size
+ * @param timeout          how long startup waits for the warm-up before reporting ready without it
+ * @author Devin Abreu
+ */
+@ConfigurationProperties(prefix = "application.cache.warm-up")
+public record CacheWarmUpProperties(
+		@DefaultValue("true") boolean enabled,
+		@DefaultValue("cache/hot-keys.json") Path snapshotFile,
+		@DefaultValue("1m") Duration snapshotInterval,
+		@DefaultValue("5000") int keysPerCache,
+		@DefaultValue("500") int batchSize,
+		@DefaultValue("4") int threads,
+		@DefaultValue("60s") Duration timeout) {
+}
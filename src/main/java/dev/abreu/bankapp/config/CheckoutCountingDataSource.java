@@ -0,0 +1,69 @@
+package dev.abreu.bankapp.config;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Wraps the connection pool and counts how many connections the current thread checks out
+ * between {@link #startCounting()} and {@link #stopCounting()}. Sits underneath the
+ * transaction-aware proxy, so connections reused within a transaction are not counted again.
+ *
+ * @author Devin Abreu
+ */
+public class CheckoutCountingDataSource extends DelegatingDataSource implements Closeable {
+
+	private static final ThreadLocal<int[]> CHECKOUTS = new ThreadLocal<>();
+
+	public CheckoutCountingDataSource(DataSource pool) {
+		super(pool);
+	}
+
+	/**
+	 * Starts counting checkouts made by the current thread.
+	 */
+	public static void startCounting() {
+		CHECKOUTS.set(new int[1]);
+	}
+
+	/**
+	 * Stops counting checkouts made by the current thread.
+	 *
+	 * @return the number of checkouts since {@link #startCounting()}, or 0 if counting was not started
+	 */
+	public static int stopCounting() {
+		int[] checkouts = CHECKOUTS.get();
+		CHECKOUTS.remove();
+		return checkouts != null ? checkouts[0] : 0;
+	}
+
+	@Override
+	public Connection getConnection() throws SQLException {
+		countCheckout();
+		return super.getConnection();
+	}
+
+	@Override
+	public Connection getConnection(String username, String password) throws SQLException {
+		countCheckout();
+		return super.getConnection(username, password);
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (getTargetDataSource() instanceof Closeable pool) {
+			pool.close();
+		}
+	}
+
+	private static void countCheckout() {
+		int[] checkouts = CHECKOUTS.get();
+		if (checkouts != null) {
+			checkouts[0]++;
+		}
+	}
+}
@@ -0,0 +1,50 @@
+package dev.abreu.bankapp.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.lang.NonNull;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Records how many pooled connections each HTTP request checks out, as the
+ * {@code bankapp.datasource.checkouts} distribution summary tagged by request method and URI pattern.
+ *
+ * @author Devin Abreu
+ */
+public class ConnectionCheckoutMetricsFilter extends OncePerRequestFilter {
+
+	static final String METRIC_NAME = "bankapp.datasource.checkouts";
+
+	private final MeterRegistry meterRegistry;
+
+	public ConnectionCheckoutMetricsFilter(MeterRegistry meterRegistry) {
+		this.meterRegistry = meterRegistry;
+	}
+
+	@Override
+	protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+			@NonNull FilterChain filterChain) throws ServletException, IOException {
+		CheckoutCountingDataSource.startCounting();
+		try {
+			filterChain.doFilter(request, response);
+		} finally {
+			int checkouts = CheckoutCountingDataSource.stopCounting();
+			// the matched pattern keeps the tag bounded; it is absent when no handler matched
+			Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+			DistributionSummary.builder(METRIC_NAME)
+					.description("Pooled connection checkouts per HTTP request")
+					.baseUnit("connections")
+					.tag("method", request.getMethod())
+					.tag("uri", pattern != null ? pattern.toString() : "UNKNOWN")
+					.register(meterRegistry)
+					.record(checkouts);
+		}
+	}
+}
@@ -0,0 +1,56 @@
+package dev.abreu.bankapp.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Connection pool settings, bound from {@code application.datasource.pool}.
+ *
+ * @param poolName                      name the pool's metrics are tagged with
+ * @param minimumIdle                   idle connections the pool keeps open, and prefills at startup
+ * @param maximumPoolSize               upper bound on open connections, idle and in use
+ * @param connectionTimeout             how long a caller waits for a connection before failing
+ * @param idleTimeout                   how long a connection above {@code minimumIdle} may sit idle before it is closed
+ * @param maxLifetime                   age at which a connection is retired; keep it below any server or proxy timeout
+ * @param leakDetectionThreshold        how long a connection may be held before a possible leak is logged, 0 to disable
+ * @param prefillTimeout                how long startup waits for {@code minimumIdle} connections to open, 0 to not wait
+ * @param prepareThreshold              executions of a statement before pgjdbc switches it to a server-side prepared statement
+ * @param preparedStatementCacheQueries statements pgjdbc caches per connection
+ * @param preparedStatementCacheSizeMiB memory pgjdbc may use for cached statements per connection
+ * @author Devin Abreu
+ */
+@ConfigurationProperties(prefix = "application.datasource.pool")
+public record ConnectionPoolProperties(
+		@DefaultValue("bankapp-pool") String poolName,
+		@DefaultValue("10") int minimumIdle,
+		@DefaultValue("10") int maximumPoolSize,
+		@DefaultValue("5s") Duration connectionTimeout,
+		@DefaultValue("10m") Duration idleTimeout,
+		@DefaultValue("30m") Duration maxLifetime,
+		@DefaultValue("30s") Duration leakDetectionThreshold,
+		@DefaultValue("10s") Duration prefillTimeout,
+		@DefaultValue("5") int prepareThreshold,
+		@DefaultValue("256") int preparedStatementCacheQueries,
+		@DefaultValue("5") int preparedStatementCacheSizeMiB) {
+
+	/**
+	 * Copies these settings onto a Hikari configuration, including the pgjdbc statement cache properties.
+	 *
+	 * @param config the configuration to populate
+	 */
+	public void applyTo(HikariConfig config) {
+		config.setPoolName(poolName);
+		config.setMinimumIdle(minimumIdle);
+		config.setMaximumPoolSize(maximumPoolSize);
+		config.setConnectionTimeout(connectionTimeout.toMillis());
+		config.setIdleTimeout(idleTimeout.toMillis());
+		config.setMaxLifetime(maxLifetime.toMillis());
+		config.setLeakDetectionThreshold(leakDetectionThreshold.toMillis());
+		config.addDataSourceProperty("prepareThreshold", String.valueOf(prepareThreshold));
+		config.addDataSourceProperty("preparedStatementCacheQueries", String.valueOf(preparedStatementCacheQueries));
+		config.addDataSourceProperty("preparedStatementCacheSizeMiB", String.valueOf(preparedStatementCacheSizeMiB));
+	}
+}
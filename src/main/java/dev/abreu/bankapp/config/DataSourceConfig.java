@@ -0,0 +1,161 @@
+package dev.abreu.bankapp.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.TransactionAwareDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Connection pool and the DataSource the DAOs use on top of it.
+ * <p>
+ * The DAOs call {@code dataSource.getConnection()} directly, so the DataSource they are given is a
+ * {@link TransactionAwareDataSourceProxy}: inside a {@code @Transactional} method every DAO call gets the
+ * transaction's connection (and its {@code close()} leaves it open), outside one each call checks out
+ * and returns a pooled connection as before.
+ * <p>
+ * The pool is sized and tuned by {@link ConnectionPoolProperties} and publishes its {@code hikaricp.connections.*}
+ * meters (active, idle, pending, acquire, usage and creation times) to the actuator metrics endpoint.
+ * <p>
+ * When read replicas are configured, {@code @Transactional(readOnly = true)} methods read from them: the
+ * transaction's connection is only fetched at its first statement, by which point it is known to be read-only,
+ * and is then taken from the {@link ReadReplicaDataSource} instead of the primary. Loads that fill a cache are
+ * not marked read-only: a replica can lag behind an eviction another node has already acted on, and whatever it
+ * returns would then be cached for the full TTL, so only uncached reads such as the list and page endpoints go to
+ * the replicas.
+ */
+@Configuration
+@EnableConfigurationProperties({ConnectionPoolProperties.class, ReadReplicaProperties.class})
+public class DataSourceConfig {
+
+	private static final Logger log = LogManager.getLogger(DataSourceConfig.class);
+
+	private static final long PREFILL_POLL_INTERVAL_MS = 50;
+
+	@Value("${spring.datasource.url}")
+	private String dbUrl;
+
+	@Value("${spring.datasource.username}")
+	private String dbUser;
+
+	@Value("${spring.datasource.password}")
+	private String dbPassword;
+
+	@Value("${spring.datasource.driver-class-name}")
+	private String driverClassName;
+
+	private final ConnectionPoolProperties poolProperties;
+	private final ReadReplicaProperties replicaProperties;
+	private final MeterRegistry meterRegistry;
+
+	public DataSourceConfig(ConnectionPoolProperties poolProperties, ReadReplicaProperties replicaProperties,
+			MeterRegistry meterRegistry) {
+		this.poolProperties = poolProperties;
+		this.replicaProperties = replicaProperties;
+		this.meterRegistry = meterRegistry;
+	}
+
+	// not an autowire candidate, so the transaction manager, health and metrics all see the proxy below
+	@Bean(autowireCandidate = false)
+	public CheckoutCountingDataSource pooledDataSource() {
+		return new CheckoutCountingDataSource(createPool(poolProperties.poolName(), dbUrl, dbUser, dbPassword));
+	}
+
+	@Bean(autowireCandidate = false)
+	public CheckoutCountingDataSource replicaDataSource() {
+		String user = replicaProperties.username() != null ? replicaProperties.username() : dbUser;
+		String password = replicaProperties.password() != null ? replicaProperties.password() : dbPassword;
+		List<String> urls = replicaProperties.urls();
+
+		Map<String, DataSource> replicas = new LinkedHashMap<>();
+		for (int i = 0; i < urls.size(); i++) {
+			String poolName = poolProperties.poolName() + "-replica-" + (i + 1);
+			replicas.put(poolName, createPool(poolName, urls.get(i), user, password));
+		}
+
+		return new CheckoutCountingDataSource(new ReadReplicaDataSource(pooledDataSource().getTargetDataSource(),
+				replicas, replicaProperties.maxLag(), replicaProperties.lagCheckInterval()));
+	}
+
+	@Bean
+	@Primary
+	public DataSource dataSource() {
+		LazyConnectionDataSourceProxy lazyDataSource = new LazyConnectionDataSourceProxy(pooledDataSource());
+		if (!replicaProperties.urls().isEmpty()) {
+			lazyDataSource.setReadOnlyDataSource(replicaDataSource());
+		}
+		return new TransactionAwareDataSourceProxy(lazyDataSource);
+	}
+
+	@Bean
+	public FilterRegistrationBean<ConnectionCheckoutMetricsFilter> connectionCheckoutMetricsFilter() {
+		FilterRegistrationBean<ConnectionCheckoutMetricsFilter> registration =
+				new FilterRegistrationBean<>(new ConnectionCheckoutMetricsFilter(meterRegistry));
+		// outermost, so checkouts made while authenticating the request are counted too
+		registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+		return registration;
+	}
+
+	private HikariDataSource createPool(String poolName, String url, String user, String password) {
+		HikariConfig config = new HikariConfig();
+		config.setJdbcUrl(url);
+		config.setUsername(user);
+		config.setPassword(password);
+		config.setDriverClassName(driverClassName);
+		poolProperties.applyTo(config);
+		config.setPoolName(poolName);
+		// lets pgjdbc collapse batched single-row INSERTs into multi-row INSERTs
+		config.addDataSourceProperty("reWriteBatchedInserts", "true");
+		config.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+
+		// unlike a DataSourceBuilder-built pool, this one starts now rather than on the first getConnection()
+		HikariDataSource pool = new HikariDataSource(config);
+		prefill(pool, poolProperties.prefillTimeout());
+		return pool;
+	}
+
+	/**
+	 * Waits for Hikari's background fill to reach the minimum idle count, so the first requests after
+	 * startup do not pay for opening connections. Startup carries on, with a warning, if the timeout passes first.
+	 */
+	private static void prefill(HikariDataSource pool, Duration timeout) {
+		if (timeout.isZero()) {
+			return;
+		}
+
+		HikariPoolMXBean poolBean = pool.getHikariPoolMXBean();
+		long deadline = System.nanoTime() + timeout.toNanos();
+
+		try {
+			while (poolBean.getIdleConnections() < pool.getMinimumIdle() && System.nanoTime() < deadline) {
+				Thread.sleep(PREFILL_POLL_INTERVAL_MS);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+
+		if (poolBean.getIdleConnections() < pool.getMinimumIdle()) {
+			log.warn("Connection pool {} has {} of {} idle connections after prefill",
+					pool.getPoolName(), poolBean.getIdleConnections(), pool.getMinimumIdle());
+		} else {
+			log.info("Connection pool {} prefilled with {} idle connections", pool.getPoolName(), poolBean.getIdleConnections());
+		}
+	}
+}
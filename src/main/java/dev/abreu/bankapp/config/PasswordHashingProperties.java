@@ -0,0 +1,29 @@
+package dev.abreu.bankapp.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Password hashing settings, bound from {@code application.security.password-hashing}. Hashes are computed on a
+ * pool of their own, so logins and registrations can only ever hold {@code threads + queue-capacity} request
+ * threads; any beyond that are turned away at once with a 503.
+ *
+ * @param threads        threads hashing passwords at once
+ * @param queueCapacity  hashes that may wait for a free thread before further ones are rejected
+ * @param cost           BCrypt cost (log2 of its rounds), or null to calibrate it at startup
+ * @param targetHashTime how long one hash should take when the cost is calibrated
+ * @param minCost        lowest cost calibration may settle on
+ * @param maxCost        highest cost calibration may settle on
+ * @author Devin Abreu
+ */
+@ConfigurationProperties(prefix = "application.security.password-hashing")
+public record PasswordHashingProperties(
+		@DefaultValue("2") int threads,
+		@DefaultValue("16") int queueCapacity,
+		Integer cost,
+		@DefaultValue("100ms") Duration targetHashTime,
+		@DefaultValue("10") int minCost,
+		@DefaultValue("14") int maxCost) {
+}
@@ -0,0 +1,55 @@
+package dev.abreu.bankapp.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Request rate limits, bound from {@code application.rate-limit}. A request is checked against every policy whose
+ * paths and methods it matches, and is turned away with a 429 if any of them has no token left for it.
+ *
+ * @param enabled          whether requests are rate limited at all
+ * @param maxKeysPerPolicy most buckets a policy keeps; the least recently used are dropped beyond it
+ * @param policies         the limits
+ * @author Devin Abreu
+ */
+@ConfigurationProperties(prefix = "application.rate-limit")
+public record RateLimitProperties(
+		@DefaultValue("true") boolean enabled,
+		@DefaultValue("100000") long maxKeysPerPolicy,
+		@DefaultValue List<Policy> policies) {
+
+	/**
+	 * What a policy keeps a separate bucket for.
+	 */
+	public enum Key {
+		/** the authenticated username, or the client address for anonymous requests */
+		PRINCIPAL,
+		/** the client address */
+		IP,
+		/** the path pattern matched; each of the policy's paths has one bucket shared by every request to it */
+		ROUTE
+	}
+
+	/**
+	 * One limit: each bucket holds up to {@code capacity} requests and refills at a steady rate, all of them over
+	 * {@code period}.
+	 *
+	 * @param name     names the policy in logs and the {@code bankapp.rate-limit.rejected} meter
+	 * @param paths    path patterns the policy applies to
+	 * @param methods  HTTP methods the policy applies to, or empty for all of them
+	 * @param key      what each bucket is kept for
+	 * @param capacity requests a bucket allows in a burst
+	 * @param period   how long an empty bucket takes to refill
+	 */
+	public record Policy(
+			String name,
+			List<String> paths,
+			@DefaultValue List<String> methods,
+			@DefaultValue("principal") Key key,
+			long capacity,
+			Duration period) {
+	}
+}
@@ -0,0 +1,148 @@
+package dev.abreu.bankapp.config;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static dev.abreu.bankapp.util.BankappQueryConstants.SELECT_REPLICA_LAG_SECONDS_QUERY;
+
+/**
+ * Hands out connections to the read replicas, round-robin, for read-only transactions. A replica is skipped
+ * while its measured lag is above the staleness bound, after its lag could not be measured, or after it failed
+ * to hand out a connection, until the next lag check finds it healthy again. When no replica is usable the
+ * connection comes from the primary, so a replica outage degrades to the old single-database behaviour.
+ *
+ * @author Devin Abreu
+ */
+public class ReadReplicaDataSource extends AbstractDataSource implements Closeable {
+
+	private static final Logger log = LogManager.getLogger(ReadReplicaDataSource.class);
+
+	private final DataSource primary;
+	private final List<Replica> replicas = new ArrayList<>();
+	private final Duration maxLag;
+	private final AtomicInteger nextReplica = new AtomicInteger();
+	private final ScheduledExecutorService lagChecker;
+
+	/**
+	 * @param primary          where connections come from when no replica is usable
+	 * @param replicas         replica DataSources by name, the name only being used for logging
+	 * @param maxLag           the staleness bound
+	 * @param lagCheckInterval how often replica lag is measured; the first check runs before this returns
+	 */
+	public ReadReplicaDataSource(DataSource primary, Map<String, DataSource> replicas, Duration maxLag, Duration lagCheckInterval) {
+		this.primary = primary;
+		this.maxLag = maxLag;
+		replicas.forEach((name, dataSource) -> this.replicas.add(new Replica(name, dataSource)));
+
+		checkReplicas();
+		if (this.replicas.isEmpty()) {
+			lagChecker = null;
+		} else {
+			lagChecker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+				Thread thread = new Thread(runnable, "replica-lag-checker");
+				thread.setDaemon(true);
+				return thread;
+			});
+			lagChecker.scheduleWithFixedDelay(this::checkReplicas,
+					lagCheckInterval.toMillis(), lagCheckInterval.toMillis(), TimeUnit.MILLISECONDS);
+		}
+	}
+
+	@Override
+	public Connection getConnection() throws SQLException {
+		int replicaCount = replicas.size();
+		int start = replicaCount > 0 ? Math.floorMod(nextReplica.getAndIncrement(), replicaCount) : 0;
+
+		for (int i = 0; i < replicaCount; i++) {
+			Replica replica = replicas.get((start + i) % replicaCount);
+			if (!replica.usable) {
+				continue;
+			}
+			try {
+				return replica.dataSource.getConnection();
+			} catch (SQLException e) {
+				replica.usable = false;
+				log.warn("Replica {} failed to hand out a connection, skipping it until it recovers: {}", replica.name, e.getMessage());
+			}
+		}
+
+		return primary.getConnection();
+	}
+
+	@Override
+	public Connection getConnection(String username, String password) throws SQLException {
+		throw new SQLFeatureNotSupportedException("Per-call credentials are not supported by " + getClass().getSimpleName());
+	}
+
+	/**
+	 * Measures each replica's lag and marks it usable only if that lag is within the staleness bound.
+	 */
+	void checkReplicas() {
+		for (Replica replica : replicas) {
+			boolean usable;
+			try (Connection conn = replica.dataSource.getConnection();
+					PreparedStatement stmt = conn.prepareStatement(SELECT_REPLICA_LAG_SECONDS_QUERY);
+					ResultSet rs = stmt.executeQuery()) {
+				rs.next();
+				double lagSeconds = rs.getDouble(1);
+				usable = lagSeconds * 1000 <= maxLag.toMillis();
+				if (!usable) {
+					log.warn("Replica {} is {}s behind the primary, routing its reads to the primary", replica.name, lagSeconds);
+				}
+			} catch (SQLException e) {
+				usable = false;
+				log.warn("Could not measure lag of replica {}, routing its reads to the primary: {}", replica.name, e.getMessage());
+			}
+
+			if (usable && !replica.usable) {
+				log.info("Replica {} is serving reads", replica.name);
+			}
+			replica.usable = usable;
+		}
+	}
+
+	/**
+	 * Stops the lag checks and closes the replica pools. The primary belongs to the caller and is left open.
+	 */
+	@Override
+	public void close() throws IOException {
+		if (lagChecker != null) {
+			lagChecker.shutdownNow();
+		}
+		for (Replica replica : replicas) {
+			if (replica.dataSource instanceof Closeable pool) {
+				pool.close();
+			}
+		}
+	}
+
+	private static final class Replica {
+
+		private final String name;
+		private final DataSource dataSource;
+		private volatile boolean usable;
+
+		private Replica(String name, DataSource dataSource) {
+			this.name = name;
+			this.dataSource = dataSource;
+		}
+	}
+}
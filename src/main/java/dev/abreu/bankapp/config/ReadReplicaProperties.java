@@ -0,0 +1,27 @@
+package dev.abreu.bankapp.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Read replica settings, bound from {@code application.datasource.replicas}. With no urls every query goes to
+ * the primary; each replica gets a pool sized like the primary's.
+ *
+ * @param urls             JDBC urls of the replicas read-only transactions may be routed to
+ * @param username         replica user, or null to use the primary's
+ * @param password         replica password, or null to use the primary's
+ * @param maxLag           how far a replica may fall behind the primary before reads stop going to it
+ * @param lagCheckInterval how often each replica's lag is measured
+ * @author Devin Abreu
+ */
+@ConfigurationProperties(prefix = "application.datasource.replicas")
+public record ReadReplicaProperties(
+		@DefaultValue List<String> urls,
+		String username,
+		String password,
+		@DefaultValue("5s") Duration maxLag,
+		@DefaultValue("1s") Duration lagCheckInterval) {
+}
@@ -0,0 +1,35 @@
+package dev.abreu.bankapp.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Shared (L2) cache tier settings, bound from {@code application.cache.shared}. When enabled, each cache listed
+ * under {@code ttls} is backed by a Redis-protocol server every node reads and writes; the others stay node-local.
+ *
+ * @param enabled            whether the shared tier is used at all
+ * @param host               host of the Redis-protocol server
+ * @param port               port of the Redis-protocol server
+ * @param timeout            connect and read timeout of each command; a slower server is treated as a miss
+ * @param maxIdleConnections connections kept open to the server between commands
+ * @param coolDown           how long the server is skipped after it could not be reached or timed out
+ * @param evictionWindow     how long an evicted key refuses values loaded before the eviction; above the slowest load
+ * @param keyPrefix          prepended to every key, so several applications can share one server
+ * @param ttls               how long entries live in the shared tier, by cache name
+ * @author Devin Abreu
+ */
+@ConfigurationProperties(prefix = "application.cache.shared")
+public record SharedCacheProperties(
+		@DefaultValue("false") boolean enabled,
+		@DefaultValue("localhost") String host,
+		@DefaultValue("6379") int port,
+		@DefaultValue("250ms") Duration timeout,
+		@DefaultValue("16") int maxIdleConnections,
+		@DefaultValue("5s") Duration coolDown,
+		@DefaultValue("10s") Duration evictionWindow,
+		@DefaultValue("bankapp:") String keyPrefix,
+		@DefaultValue Map<String, Duration> ttls) {
+}
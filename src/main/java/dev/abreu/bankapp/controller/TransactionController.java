@@ -1,20 +1,32 @@
 package dev.abreu.bankapp.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import dev.abreu.bankapp.cache.ResponseBodyCache;
+import dev.abreu.bankapp.dto.PageDTO;
+import dev.abreu.bankapp.dto.TransactionBatchResultDTO;
 import dev.abreu.bankapp.dto.TransactionDTO;
 import dev.abreu.bankapp.dto.TransactionResponseDTO;
-import dev.abreu.bankapp.dto.UnifiedTransactionDetailDTO;
 import dev.abreu.bankapp.dto.mapper.DtoMapper;
 import dev.abreu.bankapp.entity.Transaction;
 import dev.abreu.bankapp.service.TransactionService;
 import dev.abreu.bankapp.service.UnifiedTransactionDetailService;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
 
+import static dev.abreu.bankapp.util.BankappConstants.DEFAULT_TRANSACTION_PAGE_SIZE;
+import static dev.abreu.bankapp.util.BankappConstants.EXPORT_FLUSH_INTERVAL;
+
 /**
  * Controller for handling transaction-related operations.
  */
@@ -27,28 +39,49 @@ public class TransactionController {
     private final TransactionService transactionService;
     private final UnifiedTransactionDetailService unifiedTransactionDetailService;
     private final DtoMapper dtoMapper;
+    private final ObjectWriter transactionResponseWriter;
+    private final ResponseBodyCache responseBodyCache;
 
     public TransactionController(TransactionService transactionService, 
                                UnifiedTransactionDetailService unifiedTransactionDetailService,
-                               DtoMapper dtoMapper) {
+                               DtoMapper dtoMapper,
+                               ObjectMapper objectMapper,
+                               ResponseBodyCache responseBodyCache) {
         this.transactionService = transactionService;
         this.unifiedTransactionDetailService = unifiedTransactionDetailService;
         this.dtoMapper = dtoMapper;
+        this.transactionResponseWriter = objectMapper.writerFor(TransactionResponseDTO.class);
+        this.responseBodyCache = responseBodyCache;
     }
 
     /**
      * Retrieves a transaction or transfer by its ID and type using unified service.
      * The frontend must specify the type (TRANSACTION or TRANSFER) to fetch the correct data.
+     * Transfers never change once made, so their serialized body is cached with its ETag, and gzipped ahead of
+     * time when large enough, so a repeat lookup is written out as stored bytes. Deposits and withdrawals can be
+     * edited or deleted and are serialized on each lookup. Either way a matching {@code If-None-Match} gets a 304.
      *
      * @param type the type of item to retrieve (TRANSACTION or TRANSFER)
      * @param id the transaction or transfer ID
-     * @return the transaction or transfer details with the specified ID
+     * @param acceptEncoding the request's Accept-Encoding header, if any
+     * @return the transaction or transfer details with the specified ID, as JSON
      */
     @GetMapping(path = "/get/{type}/{id}")
-    public ResponseEntity<UnifiedTransactionDetailDTO> getTransactionById(@PathVariable String type, @PathVariable Long id) {
+    public ResponseEntity<byte[]> getTransactionById(@PathVariable String type, @PathVariable Long id,
+                                                     @RequestHeader(name = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
         log.info("Performing GET method to retrieve by id and type");
-        UnifiedTransactionDetailDTO dto = unifiedTransactionDetailService.getUnifiedTransactionDetailById(id, type);
-        return ResponseEntity.ok(dto);
+        ResponseBodyCache.Body body = "TRANSFER".equalsIgnoreCase(type)
+                ? responseBodyCache.get("transfer:" + id, () -> unifiedTransactionDetailService.getUnifiedTransactionDetailById(id, type))
+                : responseBodyCache.serialize(unifiedTransactionDetailService.getUnifiedTransactionDetailById(id, type));
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (body.gzipped() != null && acceptEncoding != null && acceptEncoding.contains("gzip")) {
+            // the server leaves a body that already has a Content-Encoding alone
+            return response.eTag(body.gzippedEtag()).header(HttpHeaders.CONTENT_ENCODING, "gzip").body(body.gzipped());
+        }
+        return response.eTag(body.etag()).body(body.json());
     }
 
     /**
@@ -66,6 +99,27 @@ public class TransactionController {
         return ResponseEntity.ok(dtoList);
     }
 
+    /**
+     * Retrieves one page of transactions associated with an account number, newest first.
+     * Pass the returned {@code nextPageToken} back to fetch the following page.
+     *
+     * @param acctNo    the account number
+     * @param size      the maximum number of transactions in the page
+     * @param pageToken the continuation token from the previous page, omitted for the first page
+     * @return a page of transactions and the token for the next page
+     */
+    @GetMapping(path = "/page/account/{acctNo}")
+    public ResponseEntity<PageDTO<TransactionResponseDTO>> getTransactionsPageByAcctNo(
+            @PathVariable("acctNo") Long acctNo,
+            @RequestParam(name = "size", defaultValue = "" + DEFAULT_TRANSACTION_PAGE_SIZE) int size,
+            @RequestParam(name = "pageToken", required = false) String pageToken) {
+        log.info("Performing GET method to retrieve page of transactions by account number");
+        PageDTO<Transaction> page = transactionService.getTransactionsPageByAcctNo(acctNo, size, pageToken);
+        List<TransactionResponseDTO> dtoList = page.content().stream()
+                .map(dtoMapper::toTransactionResponseDto).toList();
+        return ResponseEntity.ok(new PageDTO<>(dtoList, page.nextPageToken()));
+    }
+
     /**
      * Saves a new transaction.
      *
@@ -80,6 +134,24 @@ public class TransactionController {
         return ResponseEntity.status(HttpStatus.CREATED).body(dto);
     }
 
+    /**
+     * Saves a batch of new transactions in one round of JDBC batching.
+     * Responds with 201 when every row was saved, or 207 when some rows were rejected;
+     * rejected rows are listed by index and have a null id in the result.
+     *
+     * @param transactionDtos the transactions to save
+     * @return the generated transaction ids in order and any per-row errors
+     */
+    @PostMapping(path = "/save/batch")
+    public ResponseEntity<TransactionBatchResultDTO> saveTransactions(@RequestBody List<TransactionDTO> transactionDtos) {
+        log.info("Performing POST method to save batch of {} Transaction(s)", transactionDtos.size());
+        List<Transaction> transactions = transactionDtos.stream()
+                .map(dtoMapper::toTransaction).toList();
+        TransactionBatchResultDTO result = transactionService.saveTransactions(transactions);
+        HttpStatus status = result.errors().isEmpty() ? HttpStatus.CREATED : HttpStatus.MULTI_STATUS;
+        return ResponseEntity.status(status).body(result);
+    }
+
     /**
      * Updates an existing transaction.
      *
@@ -140,4 +212,34 @@ public class TransactionController {
                 .toList();
         return ResponseEntity.ok(dtos);
     }
+
+    /**
+     * Exports all transactions and transfers associated with a customer ID as newline-delimited JSON.
+     * Rows are written to the response as they are read from the database, so the export is never
+     * held in memory as a whole and the first line is sent before the query has finished.
+     *
+     * @param customerId the customer ID
+     * @return a streamed body with one transaction or transfer per line
+     */
+    @GetMapping(path = "/export/customer/{customerId}", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportAllTransactionsAndTransfersByCustomerId(@PathVariable("customerId") Long customerId) {
+        log.info("Performing GET method to export all transactions and transfers for customer id {}", customerId);
+        StreamingResponseBody body = outputStream -> {
+            int[] written = {0};
+            transactionService.streamAllTransactionsAndTransfersByCustomerId(customerId, transaction -> {
+                try {
+                    outputStream.write(transactionResponseWriter.writeValueAsBytes(dtoMapper.toTransactionResponseDto(transaction)));
+                    outputStream.write('\n');
+                    // push the first line out immediately, then roughly once per database fetch
+                    if (written[0]++ % EXPORT_FLUSH_INTERVAL == 0) {
+                        outputStream.flush();
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            outputStream.flush();
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
 }
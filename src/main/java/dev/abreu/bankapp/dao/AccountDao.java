@@ -3,7 +3,12 @@ package dev.abreu.bankapp.dao;
 import java.util.List;
 import java.util.Optional;
 
+import dev.abreu.bankapp.dto.CustomerAccountsDTO;
+import dev.abreu.bankapp.dto.TransferResultDTO;
 import dev.abreu.bankapp.entity.Account;
+import dev.abreu.bankapp.entity.Transaction;
+import dev.abreu.bankapp.exception.InsufficientFundsException;
+import dev.abreu.bankapp.exception.ResourceNotFoundException;
 
 /**
  * The AccountDao interface provides methods for interacting with the Account
@@ -24,12 +29,20 @@ public interface AccountDao {
 	Optional<Account> findAccountByAcctNo(Long acctNo);
 
 	/**
-	 * Finds all Accounts associated with a given username.
+	 * Finds the active Accounts with any of the given account numbers, in one query.
+	 *
+	 * @param acctNos the account numbers to search for
+	 * @return the Accounts found, in no particular order; account numbers that match nothing are left out
+	 */
+	List<Account> findAccountsByAcctNos(List<Long> acctNos);
+
+	/**
+	 * Finds the customer with a given username together with all of their active Accounts, in one query.
 	 *
 	 * @param username the username to search for
-	 * @return a List of Account objects associated with the username
+	 * @return the customer's id and Accounts, newest first, or an empty Optional if there is no such customer
 	 */
-	List<Account> findAllAccountsByUsername(String username);
+	Optional<CustomerAccountsDTO> findCustomerAccountsByUsername(String username);
 
 	/**
 	 * Saves a new Account to the database.
@@ -64,13 +77,38 @@ public interface AccountDao {
 	boolean softDeleteAccountByAcctNo(Long acctNo);
 
 	/**
-	 * Calls the stored procedure to transfer funds between two accounts
-	 * and records the transfer in the database.
+	 * Adds the transaction amount to the account balance and records the transaction,
+	 * both in a single statement. The generated transaction ID is set on {@code txn}.
+	 *
+	 * @param txn the deposit transaction, holding the account number and amount
+	 * @return an Optional containing the updated Account, or an empty Optional if no active account matched
+	 */
+	Optional<Account> depositFunds(Transaction txn);
+
+	/**
+	 * Subtracts the transaction amount from the account balance and records the transaction,
+	 * both in a single statement that only applies when the balance covers the amount.
+	 * The generated transaction ID is set on {@code txn}.
+	 *
+	 * @param txn the withdrawal transaction, holding the account number and amount
+	 * @return an Optional containing the updated Account, or an empty Optional if no active account
+	 * matched or its balance was insufficient
+	 */
+	Optional<Account> withdrawFunds(Transaction txn);
+
+	/**
+	 * Calls the stored function to transfer funds between two accounts
+	 * and records the transfer in the database. Both accounts are locked in account
+	 * number order, and the transfer is retried with jittered backoff if it is chosen
+	 * as a deadlock victim or fails serialization.
 	 *
 	 * @param sourceAcctNo the account number of the source account
 	 * @param targetAcctNo the account number of the target account
 	 * @param amount the amount to transfer
 	 * @param notes the notes associated with the transfer
+	 * @return the transfer id and the new balances of both accounts
+	 * @throws InsufficientFundsException if the source balance does not cover the amount
+	 * @throws ResourceNotFoundException if either account does not exist or is inactive
 	 */
-	void transferFunds(Long sourceAcctNo, Long targetAcctNo, Double amount, String notes);
+	TransferResultDTO transferFunds(Long sourceAcctNo, Long targetAcctNo, Double amount, String notes) throws InsufficientFundsException;
 }
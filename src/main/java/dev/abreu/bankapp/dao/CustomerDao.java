@@ -31,6 +31,14 @@ public interface CustomerDao {
 	 */
 	Optional<Customer> findById(Long customerId);
 
+	/**
+	 * Finds the Customers with any of the given usernames, in one query.
+	 *
+	 * @param usernames the usernames to search for
+	 * @return the Customers found, in no particular order; usernames that match nothing are left out
+	 */
+	List<Customer> findByUsernames(List<String> usernames);
+
 	/**
 	 * Finds all Customers in the database.
 	 *
@@ -62,6 +70,15 @@ public interface CustomerDao {
 	 */
 	Customer updateCustomer(Customer customer);
 
+	/**
+	 * Replaces the password hash of a Customer.
+	 *
+	 * @param username the username of the Customer
+	 * @param password the new password hash
+	 * @return true if the password was updated, false otherwise
+	 */
+	boolean updatePassword(String username, String password);
+
 	/**
 	 * Deletes a Customer by username.
 	 *
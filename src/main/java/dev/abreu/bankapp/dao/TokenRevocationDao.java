@@ -0,0 +1,34 @@
+package dev.abreu.bankapp.dao;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * The TokenRevocationDao interface provides methods for recording and reading
+ * back JWT revocations. A revocation rejects every token issued to a customer
+ * at or before the time it was made.
+ * 
+ * @author Devin Abreu
+ *
+ */
+public interface TokenRevocationDao {
+
+	/**
+	 * Revokes the tokens a customer was issued up to a given time.
+	 *
+	 * @param customerId the ID of the customer whose tokens are revoked
+	 * @param revokedAt  the time up to which issued tokens are revoked
+	 * @return true if the revocation was saved, false otherwise
+	 */
+	boolean saveRevocation(Long customerId, LocalDateTime revokedAt);
+
+	/**
+	 * Finds the revocations made after a given time.
+	 *
+	 * @param since the time after which revocations are returned
+	 * @return each revoked customer ID with the time up to which its tokens are revoked; empty if there are none
+	 * or they could not be read
+	 */
+	Map<Long, LocalDateTime> findRevocationsSince(LocalDateTime since);
+
+}
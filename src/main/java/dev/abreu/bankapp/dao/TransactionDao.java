@@ -1,7 +1,9 @@
 package dev.abreu.bankapp.dao;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 import dev.abreu.bankapp.entity.Transaction;
 
@@ -31,6 +33,19 @@ public interface TransactionDao {
 	 */
 	List<Transaction> findAllTransactionsByAcctNo(Long acctNo);
 
+	/**
+	 * Finds one page of Transactions associated with a given account number, newest first.
+	 * Pages are keyed on (created_at, transaction_id), so the cost of a page does not
+	 * depend on how deep into the history it is.
+	 *
+	 * @param acctNo the account number to search for
+	 * @param limit the maximum number of Transactions to return
+	 * @param pageToken the continuation token of the previous page, or null for the first page
+	 * @return a List of at most {@code limit} Transaction objects
+	 * @throws IllegalArgumentException if the page token is malformed
+	 */
+	List<Transaction> findTransactionsPageByAcctNo(Long acctNo, int limit, String pageToken);
+
 	/**
 	 * Saves a new Transaction to the database.
 	 *
@@ -39,6 +54,16 @@ public interface TransactionDao {
 	 */
 	Transaction saveTransaction(Transaction txn);
 
+	/**
+	 * Saves a list of new Transactions to the database using JDBC batching. Each saved
+	 * Transaction has its generated ID set; a chunk that fails as a batch is retried row by
+	 * row so that one bad row does not reject its neighbours.
+	 *
+	 * @param txns the Transaction objects to save
+	 * @return failure messages keyed by the index of the failed Transaction in {@code txns}, empty if all were saved
+	 */
+	Map<Integer, String> saveTransactions(List<Transaction> txns);
+
 	/**
 	 * Updates an existing Transaction in the database.
 	 *
@@ -62,4 +87,14 @@ public interface TransactionDao {
 	 * @return a List of Transaction objects and transfers associated with the customer ID
 	 */
 	List<Transaction> findAllTransactionsAndTransfersByCustomerId(Long customerId);
+
+	/**
+	 * Streams all Transactions and Transfers associated with a given customer ID, newest first,
+	 * handing each row to the given action as it is read. Rows are fetched through a server-side
+	 * cursor, so memory use does not depend on how many rows the customer has.
+	 *
+	 * @param customerId the customer ID to search for
+	 * @param action the action invoked for each Transaction or transfer read
+	 */
+	void streamAllTransactionsAndTransfersByCustomerId(Long customerId, Consumer<Transaction> action);
 }
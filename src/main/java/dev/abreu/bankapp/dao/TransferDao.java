@@ -1,5 +1,6 @@
 package dev.abreu.bankapp.dao;
 
+import java.util.List;
 import java.util.Optional;
 
 import dev.abreu.bankapp.entity.Transfer;
@@ -22,4 +23,12 @@ public interface TransferDao {
 	 */
 	Optional<Transfer> findTransferById(Long transferId);
 
+	/**
+	 * Finds the Transfers with any of the given transfer IDs, in one query.
+	 *
+	 * @param transferIds the IDs of the Transfers to search for
+	 * @return the Transfers found, in no particular order; IDs that match nothing are left out
+	 */
+	List<Transfer> findTransfersByIds(List<Long> transferIds);
+
 }
\ No newline at end of file
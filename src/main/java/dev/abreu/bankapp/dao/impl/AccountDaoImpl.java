@@ -1,10 +1,16 @@
 package dev.abreu.bankapp.dao.impl;
 
 import dev.abreu.bankapp.dao.AccountDao;
+import dev.abreu.bankapp.dto.CustomerAccountsDTO;
+import dev.abreu.bankapp.dto.TransferResultDTO;
 import dev.abreu.bankapp.entity.Account;
-import dev.abreu.bankapp.util.AccountNumberGenerator;
+import dev.abreu.bankapp.entity.Transaction;
+import dev.abreu.bankapp.exception.InsufficientFundsException;
+import dev.abreu.bankapp.exception.ResourceNotFoundException;
+import dev.abreu.bankapp.util.ResourceType;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.springframework.jdbc.UncategorizedSQLException;
 import org.springframework.stereotype.Repository;
 
 import javax.sql.DataSource;
@@ -14,8 +20,15 @@ import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
+import static dev.abreu.bankapp.dao.mapper.ResultSetMappers.ACCOUNT_COLUMN_COUNT;
+import static dev.abreu.bankapp.dao.mapper.ResultSetMappers.toAccount;
+import static dev.abreu.bankapp.util.BankappConstants.MAX_TRANSFER_ATTEMPTS;
 import static dev.abreu.bankapp.util.BankappConstants.SQL_EXCEPTION_CAUGHT;
+import static dev.abreu.bankapp.util.BankappConstants.TRANSFER_RETRY_BASE_BACKOFF_MS;
 import static dev.abreu.bankapp.util.BankappQueryConstants.*;
 
 @Repository
@@ -23,18 +36,23 @@ public class AccountDaoImpl implements AccountDao {
 
 	private static final Logger log = LogManager.getLogger(AccountDaoImpl.class);
 
-	private static final String ACCOUNT_NUMBER = "account_number";
-	private static final String NICKNAME = "nickname";
-	private static final String TYPE = "account_type";
-	private static final String BALANCE = "account_balance";
-	private static final String CREATED_AT = "created_at";
-	private static final String UPDATED_AT = "updated_at";
-	private static final String CUSTOMER_ID = "customer_id";
+	private static final int MAX_ACCOUNT_NUMBER_ATTEMPTS = 10;
+
+	// SQLStates raised by transfer_account_funds, and the transient ones worth retrying
+	private static final String INSUFFICIENT_FUNDS_STATE = "P0001";
+	private static final String ACCOUNT_NOT_FOUND_STATE = "P0002";
+	private static final String DEADLOCK_DETECTED_STATE = "40P01";
+	private static final String SERIALIZATION_FAILURE_STATE = "40001";
+
+	// the account transfer_account_funds reports as missing, read out of its error message
+	private static final Pattern MISSING_ACCOUNT_PATTERN = Pattern.compile("Account (\\d+) not found");
 
 	private final DataSource dataSource;
+	private final AccountNumberAllocator accountNumberAllocator;
 
-	public AccountDaoImpl(DataSource dataSource) {
+	public AccountDaoImpl(DataSource dataSource, AccountNumberAllocator accountNumberAllocator) {
 		this.dataSource = dataSource;
+		this.accountNumberAllocator = accountNumberAllocator;
 	}
 
 	@Override
@@ -49,7 +67,7 @@ public class AccountDaoImpl implements AccountDao {
 			ResultSet resultSet = prepStmt.executeQuery();
 
 			if(resultSet.next()) {
-				setAccountFromResultSet(account, resultSet);
+				account = toAccount(resultSet);
 			} else {
 				return Optional.empty();
 			}
@@ -62,28 +80,52 @@ public class AccountDaoImpl implements AccountDao {
 	}
 
 	@Override
-	public List<Account> findAllAccountsByUsername(String username) {
+	public List<Account> findAccountsByAcctNos(List<Long> acctNos) {
+		List<Account> accountsList = new ArrayList<>(acctNos.size());
+
+		try(Connection conn = dataSource.getConnection();
+				PreparedStatement prepStmt = conn.prepareStatement(SELECT_ACCOUNTS_BY_ACCTNOS_QUERY)) {
+
+			prepStmt.setArray(1, conn.createArrayOf("bigint", acctNos.toArray()));
+
+			ResultSet rs = prepStmt.executeQuery();
+
+			while (rs.next()) {
+				accountsList.add(toAccount(rs));
+			}
+
+		} catch(SQLException e) {
+			log.error(SQL_EXCEPTION_CAUGHT + "findAccountsByAcctNos: {}", e.getMessage());
+		}
+
+		return accountsList;
+	}
+
+	@Override
+	public Optional<CustomerAccountsDTO> findCustomerAccountsByUsername(String username) {
+		Long customerId = null;
 		List<Account> accountsList = new ArrayList<>();
-		Account account;
 
 		try(Connection conn = dataSource.getConnection();
-				PreparedStatement prepStmt = conn.prepareStatement(SELECT_ALL_ACCOUNTS_BY_USERNAME_QUERY)) {
+				PreparedStatement prepStmt = conn.prepareStatement(SELECT_CUSTOMER_ACCOUNTS_BY_USERNAME_QUERY)) {
 
 			prepStmt.setString(1, username);
 
 			ResultSet rs = prepStmt.executeQuery();
 
 			while (rs.next()) {
-				account = new Account();
-				setAccountFromResultSet(account, rs);
-				accountsList.add(account);
+				customerId = rs.getLong(ACCOUNT_COLUMN_COUNT + 1);
+				// a customer without accounts comes back as a single row with no account number
+				if (rs.getObject(1) != null) {
+					accountsList.add(toAccount(rs));
+				}
 			}
 
 		} catch(SQLException e) {
-			log.error(SQL_EXCEPTION_CAUGHT + "findAllAccountsByUsername: {}", e.getMessage());
+			log.error(SQL_EXCEPTION_CAUGHT + "findCustomerAccountsByUsername: {}", e.getMessage());
 		}
 
-		return accountsList;
+		return customerId == null ? Optional.empty() : Optional.of(new CustomerAccountsDTO(customerId, accountsList));
 	}
 
 	@Override
@@ -91,33 +133,34 @@ public class AccountDaoImpl implements AccountDao {
 
 		log.info("Entering saveAccount method...");
 
-		// Generate a random 8-digit account number and ensure it's unique
-		Long accountNumber;
-		boolean isUnique;
+		try(Connection conn = dataSource.getConnection();
+				PreparedStatement stmt = conn.prepareStatement(CREATE_NEW_ACCOUNT_QUERY)) {
 
-		do {
-			accountNumber = AccountNumberGenerator.generateAccountNumber();
-			// Check if this account number already exists
-			isUnique = findAccountByAcctNo(accountNumber).isEmpty();
-		} while (!isUnique);
+			int rowsAffected = 0;
 
-		account.setAccountNumber(accountNumber);
-		log.info("Generated unique account number: {}", accountNumber);
+			// a second attempt is only needed when the allocated number was already issued by the old random generator
+			for(int attempt = 1; attempt <= MAX_ACCOUNT_NUMBER_ATTEMPTS && rowsAffected == 0; attempt++) {
+				account.setAccountNumber(accountNumberAllocator.nextAccountNumber());
 
-		try(Connection conn = dataSource.getConnection();
-				PreparedStatement stmt = conn.prepareStatement(CREATE_NEW_ACCOUNT_QUERY)) {
+				stmt.setLong(1, account.getAccountNumber());
+				stmt.setString(2, account.getNickname());
+				stmt.setString(3, account.getAccountType());
+				stmt.setDouble(4, account.getAccountBalance());
+				stmt.setTimestamp(5, Timestamp.valueOf(account.getCreatedAt()));
+				stmt.setTimestamp(6, Timestamp.valueOf(account.getUpdatedAt()));
+				stmt.setLong(7, account.getCustomerId());
 
-			stmt.setLong(1, account.getAccountNumber());
-			stmt.setString(2, account.getNickname());
-			stmt.setString(3, account.getAccountType());
-			stmt.setDouble(4, account.getAccountBalance());
-			stmt.setTimestamp(5, Timestamp.valueOf(account.getCreatedAt()));
-			stmt.setTimestamp(6, Timestamp.valueOf(account.getUpdatedAt()));
-			stmt.setLong(7, account.getCustomerId());
+				log.info("Create Account Query String: {}", CREATE_NEW_ACCOUNT_QUERY);
+				rowsAffected = stmt.executeUpdate();
+				log.info("{} Row(s) Affected", rowsAffected);
+			}
 
-			log.info("Create Account Query String: {}", CREATE_NEW_ACCOUNT_QUERY);
-			int rowsAffected = stmt.executeUpdate();
-			log.info("{} Row(s) Affected", rowsAffected);
+			if(rowsAffected == 0) {
+				log.error("No free account number found after {} attempts", MAX_ACCOUNT_NUMBER_ATTEMPTS);
+				// the account was never inserted, so nothing may cache it or hand its number out
+				throw new IllegalStateException("No free account number found after " + MAX_ACCOUNT_NUMBER_ATTEMPTS + " attempts");
+			}
+			log.info("Allocated account number: {}", account.getAccountNumber());
 
 		} catch (SQLException e) {
 			log.error(SQL_EXCEPTION_CAUGHT + "saveAccount: {}", e.getMessage());
@@ -159,21 +202,14 @@ public class AccountDaoImpl implements AccountDao {
 
 		try(Connection conn = dataSource.getConnection();
 				PreparedStatement stmt = conn.prepareStatement(DELETE_ACCOUNT_BY_ACCTNO_QUERY)) {
-			conn.setAutoCommit(false);
+			// no commit here: the calling service's transaction owns the connection (see DataSourceConfig)
 
 			stmt.setLong(1, acctNo);
 
 			log.info("Delete Account Query String: {}", DELETE_ACCOUNT_BY_ACCTNO_QUERY);
 			int deleteStatus = stmt.executeUpdate();
-
-			if(deleteStatus <= 1) {
-				conn.commit();
-				log.info("{} Row(s) Deleted", deleteStatus);
-				success = true;
-			} else {
-				conn.rollback();
-				log.info("There was an issue with deleteAccountByAcctNo, rolling back changes...");
-			}
+			log.info("{} Row(s) Deleted", deleteStatus);
+			success = true;
 
 		} catch (SQLException e) {
 			log.error(SQL_EXCEPTION_CAUGHT + "deleteAccountByAcctNo: {}", e.getMessage());
@@ -211,35 +247,114 @@ public class AccountDaoImpl implements AccountDao {
 	}
 
 	@Override
-	public void transferFunds(Long sourceAcctNo, Long targetAcctNo, Double amount, String notes) {
+	public TransferResultDTO transferFunds(Long sourceAcctNo, Long targetAcctNo, Double amount, String notes) throws InsufficientFundsException {
 		log.info("Entering transferFunds method...");
 
-		try (Connection conn = dataSource.getConnection();
-				CallableStatement stmt = conn.prepareCall(TRANSFER_ACCOUNT_FUNDS_STORED_PROC)) {
+		for (int attempt = 1; ; attempt++) {
+			try (Connection conn = dataSource.getConnection();
+					CallableStatement stmt = conn.prepareCall(TRANSFER_ACCOUNT_FUNDS_STORED_PROC)) {
+
+				stmt.setLong(1, sourceAcctNo);
+				stmt.setLong(2, targetAcctNo);
+				stmt.setBigDecimal(3, BigDecimal.valueOf(amount));
+				stmt.setString(4, notes);
+				stmt.registerOutParameter(5, Types.BIGINT);
+				stmt.registerOutParameter(6, Types.NUMERIC);
+				stmt.registerOutParameter(7, Types.NUMERIC);
+				stmt.registerOutParameter(8, Types.TIMESTAMP);
+				stmt.registerOutParameter(9, Types.TIMESTAMP);
+
+				log.info("Transfer Funds Stored Procedure Query: {}", TRANSFER_ACCOUNT_FUNDS_STORED_PROC);
+
+				stmt.execute();
+
+				return new TransferResultDTO(stmt.getLong(5), stmt.getBigDecimal(6).doubleValue(), stmt.getBigDecimal(7).doubleValue(),
+						stmt.getTimestamp(8).toLocalDateTime(), stmt.getTimestamp(9).toLocalDateTime());
+
+			} catch (SQLException e) {
+				String sqlState = e.getSQLState();
+
+				if (INSUFFICIENT_FUNDS_STATE.equals(sqlState)) {
+					throw new InsufficientFundsException("Account transfer could not be completed due to insufficient funds");
+				}
+				if (ACCOUNT_NOT_FOUND_STATE.equals(sqlState)) {
+					throw new ResourceNotFoundException(ResourceType.ACCOUNT, missingAccountOf(e, sourceAcctNo, targetAcctNo));
+				}
+				if ((DEADLOCK_DETECTED_STATE.equals(sqlState) || SERIALIZATION_FAILURE_STATE.equals(sqlState))
+						&& attempt < MAX_TRANSFER_ATTEMPTS) {
+					log.warn("Transfer attempt {} failed with SQLState {}, retrying", attempt, sqlState);
+					backOff(attempt);
+					continue;
+				}
+
+				log.error(SQL_EXCEPTION_CAUGHT + "transferFunds: {}", e.getMessage());
+				throw new UncategorizedSQLException("transferFunds", TRANSFER_ACCOUNT_FUNDS_STORED_PROC, e);
+			}
+		}
+	}
 
-			stmt.setLong(1, sourceAcctNo);
-			stmt.setLong(2, targetAcctNo);
-			stmt.setBigDecimal(3, BigDecimal.valueOf(amount));
-			stmt.setString(4, notes);
+	private static Object missingAccountOf(SQLException e, Long sourceAcctNo, Long targetAcctNo) {
+		Matcher matcher = MISSING_ACCOUNT_PATTERN.matcher(String.valueOf(e.getMessage()));
+		// a function deployed before it reported the missing account only says it is one of the two
+		return matcher.find() ? Long.valueOf(matcher.group(1)) : sourceAcctNo + " or " + targetAcctNo;
+	}
 
-			log.info("Transfer Funds Stored Procedure Query: {}", TRANSFER_ACCOUNT_FUNDS_STORED_PROC);
+	private void backOff(int attempt) {
+		// full jitter: a random wait up to an exponentially growing ceiling spreads competing retries apart
+		long ceiling = TRANSFER_RETRY_BASE_BACKOFF_MS << (attempt - 1);
+		try {
+			Thread.sleep(ThreadLocalRandom.current().nextLong(ceiling + 1));
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while retrying transfer", e);
+		}
+	}
 
-			stmt.execute();
+	@Override
+	public Optional<Account> depositFunds(Transaction txn) {
+		log.info("Entering depositFunds method...");
+		return applyBalanceChange(DEPOSIT_INTO_ACCOUNT_QUERY, txn, false);
+	}
+
+	@Override
+	public Optional<Account> withdrawFunds(Transaction txn) {
+		log.info("Entering withdrawFunds method...");
+		return applyBalanceChange(WITHDRAW_FROM_ACCOUNT_QUERY, txn, true);
+	}
+
+	private Optional<Account> applyBalanceChange(String query, Transaction txn, boolean guardBalance) {
+		BigDecimal amount = BigDecimal.valueOf(txn.getTransactionAmount());
+
+		try (Connection conn = dataSource.getConnection();
+				PreparedStatement stmt = conn.prepareStatement(query)) {
+
+			int paramIdx = 1;
+			stmt.setBigDecimal(paramIdx++, amount);
+			stmt.setTimestamp(paramIdx++, Timestamp.valueOf(txn.getCreatedAt()));
+			stmt.setLong(paramIdx++, txn.getAccountNumber());
+			if (guardBalance) {
+				stmt.setBigDecimal(paramIdx++, amount);
+			}
+			stmt.setString(paramIdx++, txn.getTransactionType());
+			stmt.setBigDecimal(paramIdx++, amount);
+			stmt.setString(paramIdx++, txn.getTransactionNotes());
+			stmt.setTimestamp(paramIdx, Timestamp.valueOf(txn.getCreatedAt()));
+
+			ResultSet rs = stmt.executeQuery();
+
+			if (rs.next()) {
+				Account account = toAccount(rs);
+				txn.setTransactionId(rs.getLong(ACCOUNT_COLUMN_COUNT + 1));
+				return Optional.of(account);
+			}
 
 		} catch (SQLException e) {
-			log.error(SQL_EXCEPTION_CAUGHT + "transferFunds: {}", e.getMessage());
+			log.error(SQL_EXCEPTION_CAUGHT + "applyBalanceChange: {}", e.getMessage());
+			// an empty result means "no such account or insufficient funds", so a failure must not look like one
+			throw new UncategorizedSQLException("applyBalanceChange", query, e);
 		}
 
-	}
-
-	private void setAccountFromResultSet(Account account, ResultSet rs) throws SQLException {
-		account.setAccountNumber(rs.getLong(ACCOUNT_NUMBER));
-		account.setNickname(rs.getString(NICKNAME));
-		account.setAccountType(rs.getString(TYPE));
-		account.setAccountBalance(rs.getDouble(BALANCE));
-		account.setCreatedAt(rs.getTimestamp(CREATED_AT).toLocalDateTime());
-		account.setUpdatedAt(rs.getTimestamp(UPDATED_AT).toLocalDateTime());
-		account.setCustomerId(rs.getLong(CUSTOMER_ID));
+		return Optional.empty();
 	}
 
 }
@@ -0,0 +1,92 @@
+package dev.abreu.bankapp.dao.impl;
+
+import dev.abreu.bankapp.util.AccountNumberGenerator;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.lang.management.ManagementFactory;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import static dev.abreu.bankapp.util.BankappConstants.ACCOUNT_NUMBER_BLOCK_SIZE;
+import static dev.abreu.bankapp.util.BankappConstants.SQL_EXCEPTION_CAUGHT;
+import static dev.abreu.bankapp.util.BankappQueryConstants.RESERVE_ACCOUNT_NUMBER_BLOCK_QUERY;
+
+/**
+ * Hands out unique 8-digit account numbers without probing the accounts table.
+ * <p>
+ * Each node reserves a block of allocation indexes in the {@code account_number_blocks} table
+ * (one round trip per {@value dev.abreu.bankapp.util.BankappConstants#ACCOUNT_NUMBER_BLOCK_SIZE}
+ * accounts) and maps every index through {@link AccountNumberGenerator}. Blocks come from a
+ * database sequence, so nodes never share indexes; indexes left over when a node stops are
+ * simply never used.
+ *
+ * @author Devin Abreu
+ */
+@Component
+public class AccountNumberAllocator {
+
+	private static final Logger log = LogManager.getLogger(AccountNumberAllocator.class);
+
+	private static final long BLOCK_COUNT = AccountNumberGenerator.ACCOUNT_NUMBER_SPACE / ACCOUNT_NUMBER_BLOCK_SIZE;
+
+	private final DataSource dataSource;
+	private final long permutationKey;
+	private final String nodeName = ManagementFactory.getRuntimeMXBean().getName();
+
+	private long nextIndex;
+	private long blockEnd;
+
+	public AccountNumberAllocator(DataSource dataSource,
+			@Value("${application.account-number.permutation-key}") long permutationKey) {
+		this.dataSource = dataSource;
+		this.permutationKey = permutationKey;
+	}
+
+	/**
+	 * Returns the next account number, reserving a new block first if the current one is used up.
+	 *
+	 * @return a unique 8-digit account number
+	 * @throws DataAccessResourceFailureException if a new block cannot be reserved
+	 * @throws IllegalStateException if every block of the account number space has been reserved
+	 */
+	public synchronized Long nextAccountNumber() {
+		if (nextIndex == blockEnd) {
+			reserveBlock();
+		}
+		return AccountNumberGenerator.generateAccountNumber(nextIndex++, permutationKey);
+	}
+
+	private void reserveBlock() {
+		long blockIndex;
+
+		try (Connection conn = dataSource.getConnection();
+				PreparedStatement stmt = conn.prepareStatement(RESERVE_ACCOUNT_NUMBER_BLOCK_QUERY)) {
+
+			stmt.setInt(1, ACCOUNT_NUMBER_BLOCK_SIZE);
+			stmt.setString(2, nodeName);
+
+			ResultSet rs = stmt.executeQuery();
+			rs.next();
+			blockIndex = rs.getLong(1);
+
+		} catch (SQLException e) {
+			log.error(SQL_EXCEPTION_CAUGHT + "reserveBlock: {}", e.getMessage());
+			throw new DataAccessResourceFailureException("Could not reserve an account number block", e);
+		}
+
+		if (blockIndex >= BLOCK_COUNT) {
+			throw new IllegalStateException("Account number space exhausted");
+		}
+
+		log.info("Reserved account number block {} for {}", blockIndex, nodeName);
+		nextIndex = blockIndex * ACCOUNT_NUMBER_BLOCK_SIZE;
+		blockEnd = nextIndex + ACCOUNT_NUMBER_BLOCK_SIZE;
+	}
+}
@@ -12,6 +12,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
+import static dev.abreu.bankapp.dao.mapper.ResultSetMappers.toCustomer;
 import static dev.abreu.bankapp.util.BankappConstants.SQL_EXCEPTION_CAUGHT;
 import static dev.abreu.bankapp.util.BankappQueryConstants.*;
 
@@ -20,12 +21,6 @@ public class CustomerDaoImpl implements CustomerDao {
 	
 	private static final Logger log = LogManager.getLogger(CustomerDaoImpl.class);
 
-	private static final String CUSTOMER_ID = "customer_id";
-	private static final String FIRST_NAME = "first_name";
-	private static final String LAST_NAME = "last_name";
-	private static final String USERNAME = "username";
-	private static final String PASSWRD = "passwrd";
-	private static final String ADDRESS = "address";
 
 	private final DataSource dataSource;
 
@@ -45,7 +40,7 @@ public class CustomerDaoImpl implements CustomerDao {
 			ResultSet resultSet = stmt.executeQuery();
 
 			if(resultSet.next()) {
-				setCustomerFromResultSet(customer, resultSet);
+				customer = toCustomer(resultSet);
 			} else {
 				return Optional.empty();
 			}
@@ -57,6 +52,28 @@ public class CustomerDaoImpl implements CustomerDao {
 		return Optional.of(customer);
 	}
 
+	@Override
+	public List<Customer> findByUsernames(List<String> usernames) {
+		List<Customer> customers = new ArrayList<>(usernames.size());
+
+		try(Connection conn = dataSource.getConnection();
+				PreparedStatement stmt = conn.prepareStatement(SELECT_CUSTOMERS_BY_USERNAMES_QUERY)) {
+
+			stmt.setArray(1, conn.createArrayOf("varchar", usernames.toArray()));
+
+			ResultSet resultSet = stmt.executeQuery();
+
+			while(resultSet.next()) {
+				customers.add(toCustomer(resultSet));
+			}
+
+		} catch (SQLException e) {
+			log.error(SQL_EXCEPTION_CAUGHT + "findByUsernames: {}", e.getMessage());
+		}
+
+		return customers;
+	}
+
 	@Override
 	public Optional<Customer> findById(Long customerId) {
 		Customer customer = new Customer();
@@ -69,7 +86,7 @@ public class CustomerDaoImpl implements CustomerDao {
 			ResultSet rs = stmt.executeQuery();
 
 			if(rs.next()) {
-				setCustomerFromResultSet(customer, rs);
+				customer = toCustomer(rs);
 			} else {
 				return Optional.empty();
 			}
@@ -90,9 +107,7 @@ public class CustomerDaoImpl implements CustomerDao {
 			ResultSet resultSet = stmt.executeQuery(SELECT_ALL_CUSTOMERS_QUERY);
 			
 			while(resultSet.next()) {
-				Customer customer = new Customer();
-				setCustomerFromResultSet(customer, resultSet);
-				customerList.add(customer);
+				customerList.add(toCustomer(resultSet));
 			}
 			
 		} catch (SQLException e) {
@@ -175,6 +190,26 @@ public class CustomerDaoImpl implements CustomerDao {
 		return customer;
 	}
 	
+	@Override
+	public boolean updatePassword(String username, String password) {
+		
+		log.info("Entering updatePassword method...");
+		
+		try(Connection conn = dataSource.getConnection();
+				PreparedStatement stmt = conn.prepareStatement(UPDATE_CUSTOMER_PASSWORD_QUERY)) {
+			
+			stmt.setString(1, password);
+			stmt.setString(2, username);
+			
+			return stmt.executeUpdate() > 0;
+			
+		} catch (SQLException e) {
+			log.error(SQL_EXCEPTION_CAUGHT + "updatePassword: {}", e.getMessage());
+		}
+		
+		return false;
+	}
+	
 	@Override
 	public boolean deleteCustomerByUsername(String username) {
 		log.info("Entering deleteCustomerByUsername method...");
@@ -183,21 +218,14 @@ public class CustomerDaoImpl implements CustomerDao {
 		
 		try(Connection conn = dataSource.getConnection();
 				PreparedStatement stmt = conn.prepareStatement(DELETE_CUSTOMER_BY_USERNAME_QUERY)) {
-			conn.setAutoCommit(false);
+			// no commit here: the calling service's transaction owns the connection (see DataSourceConfig)
 			
 			stmt.setString(1, username);
 
 			log.info("Delete Customer Query String: {}", DELETE_CUSTOMER_BY_USERNAME_QUERY);
 			int deleteStatus = stmt.executeUpdate();
-			
-			if(deleteStatus <= 1) {
-				conn.commit();
-				log.info("{} Row(s) Deleted", deleteStatus);
-				success = true;
-			} else {
-				conn.rollback();
-				log.info("There was an issue with deleteCustomer, rolling back changes...");
-			}
+			log.info("{} Row(s) Deleted", deleteStatus);
+			success = true;
 			
 		} catch (SQLException e) {
 			log.error(SQL_EXCEPTION_CAUGHT + "deleteCustomerByUsername: {}", e.getMessage());
@@ -214,21 +242,12 @@ public class CustomerDaoImpl implements CustomerDao {
 		
 		try(Connection conn = dataSource.getConnection();
 				PreparedStatement stmt = conn.prepareStatement(DELETE_CUSTOMER_BY_ID_QUERY)) {
-			conn.setAutoCommit(false);
-			
 			stmt.setLong(1, customerId);
 
 			log.info("Delete Customer By Id Query String: {}", DELETE_CUSTOMER_BY_ID_QUERY);
 			int deleteStatus = stmt.executeUpdate();
-			
-			if(deleteStatus <= 1) {
-				conn.commit();
-				log.info("{} Row(s) Deleted...", deleteStatus);
-				success = true;
-			} else {
-				conn.rollback();
-				log.info("There was an issue with deleteCustomerById, rolling back changes...");
-			}
+			log.info("{} Row(s) Deleted...", deleteStatus);
+			success = true;
 			
 		} catch (SQLException e) {
 			log.error(SQL_EXCEPTION_CAUGHT + "deleteCustomerById: {}", e.getMessage());
@@ -237,13 +256,4 @@ public class CustomerDaoImpl implements CustomerDao {
 		return success;
 	}
 
-	private void setCustomerFromResultSet(Customer customer, ResultSet resultSet) throws SQLException {
-		customer.setId(resultSet.getLong(CUSTOMER_ID));
-		customer.setFirstName(resultSet.getString(FIRST_NAME));
-		customer.setLastName(resultSet.getString(LAST_NAME));
-		customer.setUsername(resultSet.getString(USERNAME));
-		customer.setPassword(resultSet.getString(PASSWRD));
-		customer.setAddress(resultSet.getString(ADDRESS));
-	}
-
 }
@@ -0,0 +1,73 @@
+package dev.abreu.bankapp.dao.impl;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.stereotype.Repository;
+
+import dev.abreu.bankapp.dao.TokenRevocationDao;
+import static dev.abreu.bankapp.util.BankappConstants.SQL_EXCEPTION_CAUGHT;
+import static dev.abreu.bankapp.util.BankappQueryConstants.SAVE_TOKEN_REVOCATION_QUERY;
+import static dev.abreu.bankapp.util.BankappQueryConstants.SELECT_TOKEN_REVOCATIONS_SINCE_QUERY;
+
+@Repository
+public class TokenRevocationDaoImpl implements TokenRevocationDao {
+
+	private static final Logger log = LogManager.getLogger(TokenRevocationDaoImpl.class);
+
+	private final DataSource dataSource;
+
+	public TokenRevocationDaoImpl(DataSource dataSource) {
+		this.dataSource = dataSource;
+	}
+
+	@Override
+	public boolean saveRevocation(Long customerId, LocalDateTime revokedAt) {
+		try(Connection conn = dataSource.getConnection();
+				PreparedStatement prepStmt = conn.prepareStatement(SAVE_TOKEN_REVOCATION_QUERY)) {
+
+			prepStmt.setLong(1, customerId);
+			prepStmt.setTimestamp(2, Timestamp.valueOf(revokedAt));
+
+			return prepStmt.executeUpdate() > 0;
+
+		} catch (SQLException e) {
+			log.error(SQL_EXCEPTION_CAUGHT + "saveRevocation: {}", e.getMessage());
+		}
+
+		return false;
+	}
+
+	@Override
+	public Map<Long, LocalDateTime> findRevocationsSince(LocalDateTime since) {
+		Map<Long, LocalDateTime> revocations = new HashMap<>();
+
+		try(Connection conn = dataSource.getConnection();
+				PreparedStatement prepStmt = conn.prepareStatement(SELECT_TOKEN_REVOCATIONS_SINCE_QUERY)) {
+
+			prepStmt.setTimestamp(1, Timestamp.valueOf(since));
+
+			ResultSet rs = prepStmt.executeQuery();
+
+			while (rs.next()) {
+				revocations.put(rs.getLong(1), rs.getTimestamp(2).toLocalDateTime());
+			}
+
+		} catch (SQLException e) {
+			log.error(SQL_EXCEPTION_CAUGHT + "findRevocationsSince: {}", e.getMessage());
+		}
+
+		return revocations;
+	}
+
+}
@@ -2,16 +2,22 @@ package dev.abreu.bankapp.dao.impl;
 
 import dev.abreu.bankapp.dao.TransactionDao;
 import dev.abreu.bankapp.entity.Transaction;
+import dev.abreu.bankapp.util.KeysetCursor;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.springframework.dao.DataRetrievalFailureException;
 import org.springframework.stereotype.Repository;
 
 import javax.sql.DataSource;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
+import static dev.abreu.bankapp.dao.mapper.ResultSetMappers.toTransaction;
 import static dev.abreu.bankapp.util.BankappConstants.SQL_EXCEPTION_CAUGHT;
 import static dev.abreu.bankapp.util.BankappQueryConstants.*;
 
@@ -21,11 +27,9 @@ public class TransactionDaoImpl implements TransactionDao {
 	private static final Logger log = LogManager.getLogger(TransactionDaoImpl.class);
 
 	private static final String TRANSACTION_ID = "transaction_id";
-	private static final String TYPE = "transaction_type";
-	private static final String AMOUNT = "transaction_amount";
-	private static final String NOTES = "transaction_notes";
-	private static final String ACCT_NO = "account_number";
-	private static final String CREATED_AT = "created_at";
+
+	private static final int STREAM_FETCH_SIZE = 500;
+	private static final int BATCH_CHUNK_SIZE = 1000;
 
 	private final DataSource dataSource;
 
@@ -45,7 +49,7 @@ public class TransactionDaoImpl implements TransactionDao {
 			ResultSet resultSet = prepStmt.executeQuery();
 			
 			if(resultSet.next()) {
-				setTransactionFromResultSet(transaction, resultSet);
+				transaction = toTransaction(resultSet);
 			} else {
 				return Optional.empty();
 			}
@@ -60,7 +64,6 @@ public class TransactionDaoImpl implements TransactionDao {
 	@Override
 	public List<Transaction> findAllTransactionsByAcctNo(Long acctNo) {
 		List<Transaction> transactionsList = new ArrayList<>();
-		Transaction transaction;
 		
 		try(Connection conn = dataSource.getConnection();
 				PreparedStatement prepStmt = conn.prepareStatement(SELECT_ALL_TRANSACTIONS_BY_ACCTNO_QUERY)) {
@@ -70,9 +73,7 @@ public class TransactionDaoImpl implements TransactionDao {
 			ResultSet rs = prepStmt.executeQuery();
 			
 			while (rs.next()) {
-				transaction = new Transaction();
-				setTransactionFromResultSet(transaction, rs);
-				transactionsList.add(transaction);
+				transactionsList.add(toTransaction(rs));
 			}
 			
 		} catch(SQLException e) {
@@ -82,6 +83,36 @@ public class TransactionDaoImpl implements TransactionDao {
 		return transactionsList;
 	}
 
+	@Override
+	public List<Transaction> findTransactionsPageByAcctNo(Long acctNo, int limit, String pageToken) {
+		List<Transaction> transactionsList = new ArrayList<>(limit);
+		KeysetCursor cursor = pageToken != null ? KeysetCursor.decode(pageToken) : null;
+		String query = cursor != null ? SELECT_TRANSACTIONS_PAGE_BY_ACCTNO_AFTER_CURSOR_QUERY : SELECT_TRANSACTIONS_PAGE_BY_ACCTNO_QUERY;
+
+		try(Connection conn = dataSource.getConnection();
+				PreparedStatement prepStmt = conn.prepareStatement(query)) {
+
+			int paramIdx = 1;
+			prepStmt.setLong(paramIdx++, acctNo);
+			if(cursor != null) {
+				prepStmt.setTimestamp(paramIdx++, Timestamp.valueOf(cursor.createdAt()));
+				prepStmt.setLong(paramIdx++, cursor.id());
+			}
+			prepStmt.setInt(paramIdx, limit);
+
+			ResultSet rs = prepStmt.executeQuery();
+
+			while (rs.next()) {
+				transactionsList.add(toTransaction(rs));
+			}
+
+		} catch(SQLException e) {
+			log.error(SQL_EXCEPTION_CAUGHT + "findTransactionsPageByAcctNo: {}", e.getMessage());
+		}
+
+		return transactionsList;
+	}
+
 	@Override
 	public Transaction saveTransaction(Transaction txn) {
 		log.info("Entering saveTransaction method...");
@@ -106,6 +137,93 @@ public class TransactionDaoImpl implements TransactionDao {
 		return txn;
 	}
 
+	@Override
+	public Map<Integer, String> saveTransactions(List<Transaction> txns) {
+		log.info("Entering saveTransactions method with {} transaction(s)...", txns.size());
+
+		Map<Integer, String> failures = new LinkedHashMap<>();
+		int committedUpTo = 0;
+
+		try (Connection conn = dataSource.getConnection()) {
+			conn.setAutoCommit(false);
+
+			try (PreparedStatement stmt = conn.prepareStatement(CREATE_NEW_TRANSACTION_QUERY, new String[] { TRANSACTION_ID })) {
+				for (int chunkStart = 0; chunkStart < txns.size(); chunkStart += BATCH_CHUNK_SIZE) {
+					List<Transaction> chunk = txns.subList(chunkStart, Math.min(chunkStart + BATCH_CHUNK_SIZE, txns.size()));
+					try {
+						saveTransactionChunk(stmt, chunk);
+					} catch (BatchUpdateException e) {
+						log.warn("Batch insert failed, retrying {} row(s) individually: {}", chunk.size(), e.getMessage());
+						conn.rollback();
+						stmt.clearBatch();
+						saveTransactionChunkRowByRow(conn, stmt, chunk, chunkStart, failures);
+					}
+					conn.commit();
+					committedUpTo = chunkStart + chunk.size();
+				}
+			}
+
+		} catch (SQLException e) {
+			log.error(SQL_EXCEPTION_CAUGHT + "saveTransactions: {}", e.getMessage());
+			// everything after the last committed chunk was rolled back with the connection
+			for (int i = committedUpTo; i < txns.size(); i++) {
+				txns.get(i).setTransactionId(null);
+				failures.put(i, e.getMessage());
+			}
+		}
+
+		log.info("{} of {} Transaction(s) saved", txns.size() - failures.size(), txns.size());
+		return failures;
+	}
+
+	private void saveTransactionChunk(PreparedStatement stmt, List<Transaction> chunk) throws SQLException {
+		for (Transaction txn : chunk) {
+			setInsertParameters(stmt, txn);
+			stmt.addBatch();
+		}
+		stmt.executeBatch();
+
+		// generated keys come back in the order the rows were added to the batch
+		try (ResultSet keys = stmt.getGeneratedKeys()) {
+			for (Transaction txn : chunk) {
+				if (!keys.next()) {
+					throw new SQLException("Fewer generated keys than batched rows");
+				}
+				txn.setTransactionId(keys.getLong(1));
+			}
+		}
+	}
+
+	private void saveTransactionChunkRowByRow(Connection conn, PreparedStatement stmt, List<Transaction> chunk,
+			int chunkStart, Map<Integer, String> failures) throws SQLException {
+		for (int i = 0; i < chunk.size(); i++) {
+			Transaction txn = chunk.get(i);
+			txn.setTransactionId(null);
+			Savepoint savepoint = conn.setSavepoint();
+			try {
+				setInsertParameters(stmt, txn);
+				stmt.executeUpdate();
+				try (ResultSet keys = stmt.getGeneratedKeys()) {
+					if (keys.next()) {
+						txn.setTransactionId(keys.getLong(1));
+					}
+				}
+				conn.releaseSavepoint(savepoint);
+			} catch (SQLException e) {
+				conn.rollback(savepoint);
+				failures.put(chunkStart + i, e.getMessage());
+			}
+		}
+	}
+
+	private void setInsertParameters(PreparedStatement stmt, Transaction txn) throws SQLException {
+		stmt.setString(1, txn.getTransactionType());
+		stmt.setDouble(2, txn.getTransactionAmount());
+		stmt.setString(3, txn.getTransactionNotes());
+		stmt.setTimestamp(4, Timestamp.valueOf(txn.getCreatedAt()));
+		stmt.setLong(5, txn.getAccountNumber());
+	}
+
 	@Override
 	public Transaction updateTransaction(Transaction txn) {
 		log.info("Entering updateTransaction method...");
@@ -137,21 +255,14 @@ public class TransactionDaoImpl implements TransactionDao {
 		
 		try(Connection conn = dataSource.getConnection();
 				PreparedStatement stmt = conn.prepareStatement(DELETE_TRANSACTION_BY_ID_QUERY)) {
-			conn.setAutoCommit(false);
+			// no commit here: the calling service's transaction owns the connection (see DataSourceConfig)
 			
 			stmt.setLong(1, txnId);
 
 			log.info("Delete Transaction Query String: {}", DELETE_TRANSACTION_BY_ID_QUERY);
 			int deleteStatus = stmt.executeUpdate();
-			
-			if(deleteStatus <= 1) {
-				conn.commit();
-				log.info("{} Row(s) Deleted", deleteStatus);
-				success = true;
-			} else {
-				conn.rollback();
-				log.info("There was an issue with deleteTransactionById, rolling back changes...");
-			}
+			log.info("{} Row(s) Deleted", deleteStatus);
+			success = true;
 			
 		} catch (SQLException e) {
 			log.error(SQL_EXCEPTION_CAUGHT + "deleteTransactionById: {}", e.getMessage());
@@ -169,14 +280,7 @@ public class TransactionDaoImpl implements TransactionDao {
             prepStmt.setLong(2, customerId);
             ResultSet resultSet = prepStmt.executeQuery();
             while (resultSet.next()) {
-                Transaction transaction = new Transaction();
-                transaction.setTransactionId(resultSet.getLong("id"));
-                transaction.setTransactionType(resultSet.getString("type"));
-                transaction.setTransactionAmount(resultSet.getDouble("amount"));
-                transaction.setTransactionNotes(resultSet.getString("notes"));
-                transaction.setCreatedAt(resultSet.getTimestamp(CREATED_AT).toLocalDateTime());
-                transaction.setAccountNumber(resultSet.getLong(ACCT_NO));
-                transactions.add(transaction);
+                transactions.add(toTransaction(resultSet));
             }
         } catch (SQLException e) {
             log.error(SQL_EXCEPTION_CAUGHT, e);
@@ -184,13 +288,33 @@ public class TransactionDaoImpl implements TransactionDao {
         return transactions;
     }
 
-	private void setTransactionFromResultSet(Transaction transaction, ResultSet rs) throws SQLException {
-		transaction.setTransactionId(rs.getLong(TRANSACTION_ID));
-		transaction.setTransactionType(rs.getString(TYPE));
-		transaction.setTransactionAmount(rs.getDouble(AMOUNT));
-		transaction.setTransactionNotes(rs.getString(NOTES));
-		transaction.setAccountNumber(rs.getLong(ACCT_NO));
-		transaction.setCreatedAt(rs.getTimestamp(CREATED_AT).toLocalDateTime());
+	@Override
+	public void streamAllTransactionsAndTransfersByCustomerId(Long customerId, Consumer<Transaction> action) {
+		log.info("Entering streamAllTransactionsAndTransfersByCustomerId method...");
+
+		try (Connection conn = dataSource.getConnection()) {
+			// pgjdbc only streams through a server-side cursor when autocommit is off and a fetch size is set
+			conn.setAutoCommit(false);
+
+			try (PreparedStatement prepStmt = conn.prepareStatement(SELECT_ALL_TRANSACTIONS_AND_TRANSFERS_BY_CUSTOMER_ID_QUERY)) {
+				prepStmt.setFetchSize(STREAM_FETCH_SIZE);
+				prepStmt.setLong(1, customerId);
+				prepStmt.setLong(2, customerId);
+
+				ResultSet rs = prepStmt.executeQuery();
+
+				while (rs.next()) {
+					action.accept(toTransaction(rs));
+				}
+			}
+
+			conn.commit();
+
+		} catch (SQLException e) {
+			log.error(SQL_EXCEPTION_CAUGHT + "streamAllTransactionsAndTransfersByCustomerId: {}", e.getMessage());
+			// rows may already have been handed out, so a silent stop would look like a complete export
+			throw new DataRetrievalFailureException("Streaming transactions and transfers failed for customer " + customerId, e);
+		}
 	}
 
 }
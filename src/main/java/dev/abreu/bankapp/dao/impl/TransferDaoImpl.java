@@ -4,6 +4,8 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 
 import javax.sql.DataSource;
@@ -14,7 +16,9 @@ import org.springframework.stereotype.Repository;
 
 import dev.abreu.bankapp.dao.TransferDao;
 import dev.abreu.bankapp.entity.Transfer;
+import static dev.abreu.bankapp.dao.mapper.ResultSetMappers.toTransfer;
 import static dev.abreu.bankapp.util.BankappConstants.SQL_EXCEPTION_CAUGHT;
+import static dev.abreu.bankapp.util.BankappQueryConstants.SELECT_TRANSFERS_BY_IDS_QUERY;
 import static dev.abreu.bankapp.util.BankappQueryConstants.SELECT_TRANSFERS_BY_ID_QUERY;
 
 @Repository
@@ -22,13 +26,6 @@ public class TransferDaoImpl implements TransferDao {
 	
 	private static final Logger log = LogManager.getLogger(TransferDaoImpl.class);
 
-	private static final String TRANSFER_ID = "transfer_id";
-	private static final String SOURCE_ACCT_NUM = "source_acct_num";
-	private static final String TARGET_ACCT_NUM = "target_acct_num";
-	private static final String TRANSFER_AMOUNT = "transfer_amount";
-	private static final String TRANSFER_NOTES = "transfer_notes";
-	private static final String CREATED_AT = "created_at";
-
 	private final DataSource dataSource;
 
 	public TransferDaoImpl(DataSource dataSource) {
@@ -47,7 +44,7 @@ public class TransferDaoImpl implements TransferDao {
 			ResultSet resultSet = prepStmt.executeQuery();
 			
 			if(resultSet.next()) {
-				setTransferFromResultSet(transfer, resultSet);
+				transfer = toTransfer(resultSet);
 			} else {
 				return Optional.empty();
 			}
@@ -60,20 +57,26 @@ public class TransferDaoImpl implements TransferDao {
 		return Optional.of(transfer);
 	}
 
-	/**
-	 * Helper method to set Transfer object fields from ResultSet
-	 *
-	 * @param transfer the Transfer object to populate
-	 * @param resultSet the ResultSet containing transfer data
-	 * @throws SQLException if there's an error accessing the ResultSet
-	 */
-	private void setTransferFromResultSet(Transfer transfer, ResultSet resultSet) throws SQLException {
-		transfer.setTransferId(resultSet.getLong(TRANSFER_ID));
-		transfer.setSourceAccountNumber(resultSet.getLong(SOURCE_ACCT_NUM));
-		transfer.setTargetAccountNumber(resultSet.getLong(TARGET_ACCT_NUM));
-		transfer.setTransferAmount(resultSet.getDouble(TRANSFER_AMOUNT));
-		transfer.setTransferNotes(resultSet.getString(TRANSFER_NOTES));
-		transfer.setCreatedAt(resultSet.getTimestamp(CREATED_AT).toLocalDateTime());
+	@Override
+	public List<Transfer> findTransfersByIds(List<Long> transferIds) {
+		List<Transfer> transfers = new ArrayList<>(transferIds.size());
+
+		try(Connection conn = dataSource.getConnection();
+				PreparedStatement prepStmt = conn.prepareStatement(SELECT_TRANSFERS_BY_IDS_QUERY)) {
+
+			prepStmt.setArray(1, conn.createArrayOf("bigint", transferIds.toArray()));
+
+			ResultSet resultSet = prepStmt.executeQuery();
+
+			while(resultSet.next()) {
+				transfers.add(toTransfer(resultSet));
+			}
+
+		} catch (SQLException e) {
+			log.error(SQL_EXCEPTION_CAUGHT + "findTransfersByIds: {}", e.getMessage());
+		}
+
+		return transfers;
 	}
 
 }
\ No newline at end of file
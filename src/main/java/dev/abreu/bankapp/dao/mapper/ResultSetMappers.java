@@ -0,0 +1,101 @@
+package dev.abreu.bankapp.dao.mapper;
+
+import dev.abreu.bankapp.entity.Account;
+import dev.abreu.bankapp.entity.Customer;
+import dev.abreu.bankapp.entity.Transaction;
+import dev.abreu.bankapp.entity.Transfer;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+
+/**
+ * Maps the current row of a {@link ResultSet} to an entity by column position. Every query an entity is read
+ * from projects the matching column list from {@code BankappQueryConstants} first and in the same order, so the
+ * indexes below hold for the whole result set and the driver never has to resolve a column label per row.
+ *
+ * @author Devin Abreu
+ */
+public final class ResultSetMappers {
+
+	/** Number of columns in {@link dev.abreu.bankapp.util.BankappQueryConstants#ACCOUNT_COLUMNS}. */
+	public static final int ACCOUNT_COLUMN_COUNT = 7;
+
+	private ResultSetMappers() {
+	}
+
+	/**
+	 * Maps a row projected with {@link dev.abreu.bankapp.util.BankappQueryConstants#CUSTOMER_COLUMNS}.
+	 *
+	 * @param rs the result set positioned on the row to map
+	 * @return the mapped customer
+	 * @throws SQLException if a column cannot be read
+	 */
+	public static Customer toCustomer(ResultSet rs) throws SQLException {
+		Customer customer = new Customer();
+		customer.setId(rs.getLong(1));
+		customer.setFirstName(rs.getString(2));
+		customer.setLastName(rs.getString(3));
+		customer.setAddress(rs.getString(4));
+		customer.setUsername(rs.getString(5));
+		customer.setPassword(rs.getString(6));
+		return customer;
+	}
+
+	/**
+	 * Maps a row projected with {@link dev.abreu.bankapp.util.BankappQueryConstants#ACCOUNT_COLUMNS}.
+	 * Any columns after the first {@link #ACCOUNT_COLUMN_COUNT} are left for the caller.
+	 *
+	 * @param rs the result set positioned on the row to map
+	 * @return the mapped account
+	 * @throws SQLException if a column cannot be read
+	 */
+	public static Account toAccount(ResultSet rs) throws SQLException {
+		Account account = new Account();
+		account.setAccountNumber(rs.getLong(1));
+		account.setNickname(rs.getString(2));
+		account.setAccountType(rs.getString(3));
+		account.setAccountBalance(rs.getDouble(4));
+		account.setCreatedAt(rs.getTimestamp(5).toLocalDateTime());
+		account.setUpdatedAt(rs.getTimestamp(6).toLocalDateTime());
+		account.setCustomerId(rs.getLong(7));
+		return account;
+	}
+
+	/**
+	 * Maps a row projected with {@link dev.abreu.bankapp.util.BankappQueryConstants#TRANSACTION_COLUMNS}, or
+	 * a row of the combined transactions and transfers listing, which projects its columns in the same order.
+	 *
+	 * @param rs the result set positioned on the row to map
+	 * @return the mapped transaction
+	 * @throws SQLException if a column cannot be read
+	 */
+	public static Transaction toTransaction(ResultSet rs) throws SQLException {
+		Transaction transaction = new Transaction();
+		transaction.setTransactionId(rs.getLong(1));
+		transaction.setTransactionType(rs.getString(2));
+		transaction.setTransactionAmount(rs.getDouble(3));
+		transaction.setTransactionNotes(rs.getString(4));
+		transaction.setCreatedAt(rs.getTimestamp(5).toLocalDateTime());
+		transaction.setAccountNumber(rs.getLong(6));
+		return transaction;
+	}
+
+	/**
+	 * Maps a row projected with {@link dev.abreu.bankapp.util.BankappQueryConstants#TRANSFER_COLUMNS}.
+	 *
+	 * @param rs the result set positioned on the row to map
+	 * @return the mapped transfer
+	 * @throws SQLException if a column cannot be read
+	 */
+	public static Transfer toTransfer(ResultSet rs) throws SQLException {
+		Transfer transfer = new Transfer();
+		transfer.setTransferId(rs.getLong(1));
+		transfer.setSourceAccountNumber(rs.getLong(2));
+		transfer.setTargetAccountNumber(rs.getLong(3));
+		transfer.setTransferAmount(rs.getDouble(4));
+		transfer.setTransferNotes(rs.getString(5));
+		transfer.setCreatedAt(rs.getTimestamp(6).toLocalDateTime());
+		return transfer;
+	}
+}
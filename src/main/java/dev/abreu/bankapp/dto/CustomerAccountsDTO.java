@@ -0,0 +1,17 @@
+package dev.abreu.bankapp.dto;
+
+import dev.abreu.bankapp.entity.Account;
+
+import java.util.List;
+
+/**
+ * A data transfer object (DTO) for a customer's active accounts, found by username in a single query.
+ *
+ * @param customerId the id of the customer with the username
+ * @param accounts   the customer's active accounts, newest first; empty if the customer has none
+ * @author Devin Abreu
+ */
+public record CustomerAccountsDTO(
+        Long customerId,
+        List<Account> accounts) {
+}
@@ -0,0 +1,15 @@
+package dev.abreu.bankapp.dto;
+
+import java.util.List;
+
+/**
+ * A data transfer object (DTO) for one page of a keyset-paginated listing.
+ * A null {@code nextPageToken} means there are no more pages.
+ *
+ * @param <T> the type of the page content
+ * @author Devin Abreu
+ */
+public record PageDTO<T>(
+        List<T> content,
+        String nextPageToken) {
+}
@@ -0,0 +1,14 @@
+package dev.abreu.bankapp.dto;
+
+/**
+ * A data transfer object (DTO) describing why one row of a batched
+ * transaction save was rejected.
+ *
+ * @param index   the position of the rejected row in the submitted batch
+ * @param message the reason the row was rejected
+ * @author Devin Abreu
+ */
+public record TransactionBatchErrorDTO(
+        int index,
+        String message) {
+}
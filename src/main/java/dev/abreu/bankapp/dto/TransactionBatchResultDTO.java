@@ -0,0 +1,21 @@
+package dev.abreu.bankapp.dto;
+
+import java.util.List;
+
+/**
+ * A data transfer object (DTO) for the outcome of a batched transaction save.
+ * {@code transactionIds} lines up with the submitted batch and holds null for
+ * every row listed in {@code errors}.
+ *
+ * @param received       the number of rows submitted
+ * @param saved          the number of rows saved
+ * @param transactionIds the generated transaction IDs, in submission order
+ * @param errors         the rows that were rejected
+ * @author Devin Abreu
+ */
+public record TransactionBatchResultDTO(
+        int received,
+        int saved,
+        List<Long> transactionIds,
+        List<TransactionBatchErrorDTO> errors) {
+}
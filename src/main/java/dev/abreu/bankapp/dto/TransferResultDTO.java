@@ -0,0 +1,22 @@
+package dev.abreu.bankapp.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * A data transfer object (DTO) for the outcome of a completed transfer
+ * between two accounts.
+ *
+ * @param transferId    the id of the recorded transfer
+ * @param sourceBalance the source account balance after the transfer
+ * @param targetBalance the target account balance after the transfer
+ * @param sourceUpdatedAt the source account's updated_at after the transfer
+ * @param targetUpdatedAt the target account's updated_at after the transfer
+ * @author Devin Abreu
+ */
+public record TransferResultDTO(
+        Long transferId,
+        double sourceBalance,
+        double targetBalance,
+        LocalDateTime sourceUpdatedAt,
+        LocalDateTime targetUpdatedAt) {
+}
@@ -3,6 +3,8 @@ package dev.abreu.bankapp.entity;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.relational.core.mapping.Table;
 
+import java.io.Serial;
+import java.io.Serializable;
 import java.time.LocalDateTime;
 
 /**
@@ -11,7 +13,10 @@ import java.time.LocalDateTime;
  * @author Devin Abreu
  */
 @Table(name = "accounts")
-public class Account {
+public class Account implements Serializable {
+
+	@Serial
+	private static final long serialVersionUID = -6247213409865521330L;
 
 	private @Id Long accountNumber;
 	private String nickname;
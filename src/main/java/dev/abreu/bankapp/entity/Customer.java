@@ -1,5 +1,6 @@
 package dev.abreu.bankapp.entity;
 
+import java.io.Serial;
 import java.util.Collection;
 import java.util.List;
 
@@ -17,6 +18,9 @@ import org.springframework.security.core.userdetails.UserDetails;
  */
 @Table(name = "customers")
 public class Customer implements UserDetails {
+
+	@Serial
+	private static final long serialVersionUID = 2751634189562085472L;
 	
 	private @Column(value="customer_id") @Id Long id;
 	private String firstName;
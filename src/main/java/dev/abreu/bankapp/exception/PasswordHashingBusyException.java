@@ -0,0 +1,18 @@
+package dev.abreu.bankapp.exception;
+
+import java.io.Serial;
+
+public class PasswordHashingBusyException extends RuntimeException {
+
+	/**
+	 * throws exception if every password hashing thread is busy and its queue
+	 * is full, so the login or registration is turned away rather than left waiting
+	 * 
+	 */
+	@Serial
+	private static final long serialVersionUID = 6310358920441857762L;
+
+	public PasswordHashingBusyException() {
+		super("Too many logins and registrations in progress. Please try again shortly.");
+	}
+}
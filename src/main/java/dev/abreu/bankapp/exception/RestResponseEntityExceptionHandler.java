@@ -56,6 +56,20 @@ public class RestResponseEntityExceptionHandler extends ResponseEntityExceptionH
 				new HttpHeaders(), HttpStatus.UNAUTHORIZED, request);
 	}
 	
+	@ExceptionHandler(value = { PasswordHashingBusyException.class })
+	protected ResponseEntity<Object> handlePasswordHashingBusy(PasswordHashingBusyException ex, WebRequest request) {
+		
+		log.warn("PasswordHashingBusyException: {}", ex.getMessage());
+		
+		String bodyOfResponse = ex.getMessage();
+		
+		HttpHeaders headers = new HttpHeaders();
+		headers.set(HttpHeaders.RETRY_AFTER, "1");
+		
+		return handleExceptionInternal(ex, bodyOfResponse, 
+				headers, HttpStatus.SERVICE_UNAVAILABLE, request);
+	}
+	
 	@ExceptionHandler(value = { InsufficientFundsException.class })
 	protected ResponseEntity<Object> handleInsufficientFundsException(InsufficientFundsException ex, WebRequest request) {
 		
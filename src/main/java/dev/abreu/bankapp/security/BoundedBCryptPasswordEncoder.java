@@ -0,0 +1,118 @@
+package dev.abreu.bankapp.security;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * BCrypt whose hashes and checks all run on the {@link PasswordHashingExecutor}, at a single cost for the whole
+ * node.
+ * <p>
+ * A stored hash of a lower cost, older and cheaper or from before the cost was raised, is reported as needing an
+ * upgrade, so the authentication provider re-hashes it with the password just checked and saves it back, in the
+ * background and only when the pool has room (see {@link PasswordUpgradingAuthenticationProvider}). Hashes
+ * of a higher cost are left alone: nodes that calibrated their cost on different hardware would otherwise
+ * re-hash each other's hashes on every login, and a node that calibrated low would downgrade them.
+ *
+ * @author Devin Abreu
+ */
+public class BoundedBCryptPasswordEncoder implements PasswordEncoder {
+
+	private static final Logger log = LogManager.getLogger(BoundedBCryptPasswordEncoder.class);
+
+	private static final Pattern BCRYPT_COST = Pattern.compile("\\A\\$2[abxy]?\\$(\\d\\d)\\$");
+
+	private static final int CALIBRATION_SAMPLES = 3;
+
+	private final BCryptPasswordEncoder bcrypt;
+	private final int cost;
+	private final PasswordHashingExecutor executor;
+
+	public BoundedBCryptPasswordEncoder(int cost, PasswordHashingExecutor executor) {
+		this.bcrypt = new BCryptPasswordEncoder(cost);
+		this.cost = cost;
+		this.executor = executor;
+	}
+
+	public int getCost() {
+		return cost;
+	}
+
+	@Override
+	public String encode(CharSequence rawPassword) {
+		return executor.call(() -> bcrypt.encode(rawPassword));
+	}
+
+	@Override
+	public boolean matches(CharSequence rawPassword, String encodedPassword) {
+		return executor.call(() -> bcrypt.matches(rawPassword, encodedPassword));
+	}
+
+	/**
+	 * Hashes the password on the pool without waiting for it, then hands the hash to {@code onEncoded} on the
+	 * pool's thread. A failure of either is logged and dropped.
+	 *
+	 * @return false, without hashing, if every thread is busy and the queue is full
+	 */
+	public boolean encodeInBackground(CharSequence rawPassword, Consumer<String> onEncoded) {
+		return executor.trySubmit(() -> {
+			try {
+				onEncoded.accept(bcrypt.encode(rawPassword));
+			} catch (RuntimeException e) {
+				log.warn("Background password hash failed: {}", e.getMessage());
+			}
+		});
+	}
+
+	@Override
+	public boolean upgradeEncoding(String encodedPassword) {
+		int storedCost = costOf(encodedPassword);
+		return storedCost > 0 && storedCost < cost;
+	}
+
+	/**
+	 * @return the cost a BCrypt hash was made with, or 0 if it is not a BCrypt hash
+	 */
+	static int costOf(String encodedPassword) {
+		if (encodedPassword == null) {
+			return 0;
+		}
+		Matcher matcher = BCRYPT_COST.matcher(encodedPassword);
+		return matcher.find() ? Integer.parseInt(matcher.group(1)) : 0;
+	}
+
+	/**
+	 * Times hashes at the lowest cost on this machine and raises the cost, each step doubling the time, for as
+	 * long as a hash stays within the target.
+	 *
+	 * @return the highest cost between {@code minCost} and {@code maxCost} whose hashes take no longer than the
+	 * target, or {@code minCost} if even that takes longer
+	 */
+	public static int calibrateCost(Duration targetHashTime, int minCost, int maxCost) {
+		BCryptPasswordEncoder probe = new BCryptPasswordEncoder(minCost);
+		// the first hash pays for class loading and JIT warm-up, so it is not counted
+		probe.encode("calibration");
+		long fastestNanos = Long.MAX_VALUE;
+		for (int i = 0; i < CALIBRATION_SAMPLES; i++) {
+			long startNanos = System.nanoTime();
+			probe.encode("calibration");
+			fastestNanos = Math.min(fastestNanos, System.nanoTime() - startNanos);
+		}
+
+		int cost = minCost;
+		long hashNanos = fastestNanos;
+		while (cost < maxCost && hashNanos * 2 <= targetHashTime.toNanos()) {
+			hashNanos *= 2;
+			cost++;
+		}
+		log.info("Calibrated BCrypt cost {}: about {} ms per hash, targeting {} ms", cost, hashNanos / 1_000_000,
+				targetHashTime.toMillis());
+		return cost;
+	}
+}
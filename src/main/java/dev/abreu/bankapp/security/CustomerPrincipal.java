@@ -0,0 +1,20 @@
+package dev.abreu.bankapp.security;
+
+import org.springframework.security.core.GrantedAuthority;
+
+import java.security.Principal;
+import java.util.List;
+
+/**
+ * The authenticated customer, as read from the claims of a verified token. It carries only what the token does,
+ * so building it needs neither the customer cache nor the database.
+ *
+ * @author Devin Abreu
+ */
+public record CustomerPrincipal(Long customerId, String username, List<GrantedAuthority> authorities) implements Principal {
+
+	@Override
+	public String getName() {
+		return username;
+	}
+}
@@ -2,6 +2,7 @@ package dev.abreu.bankapp.security;
 
 import dev.abreu.bankapp.entity.Customer;
 import dev.abreu.bankapp.service.CustomerService;
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -12,12 +13,19 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpHeaders;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Date;
+import java.util.List;
+
+import static dev.abreu.bankapp.util.BankappConstants.JWT_CUSTOMER_ID_CLAIM;
+import static dev.abreu.bankapp.util.BankappConstants.JWT_ROLES_CLAIM;
 
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
@@ -27,10 +35,13 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtConfig jwtConfig;
     private final CustomerService customerService;
+    private final TokenRevocationList tokenRevocationList;
 
-    public JwtAuthenticationFilter(JwtConfig jwtConfig, CustomerService customerService) {
+    public JwtAuthenticationFilter(JwtConfig jwtConfig, CustomerService customerService,
+                                   TokenRevocationList tokenRevocationList) {
         this.jwtConfig = jwtConfig;
         this.customerService = customerService;
+        this.tokenRevocationList = tokenRevocationList;
     }
 
     @Override
@@ -42,6 +53,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         final String authHeader = request.getHeader(HttpHeaders.AUTHORIZATION);
         final String jwt;
+        final Claims claims;
         final String username;
 
         try {
@@ -52,14 +64,18 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             }
 
             jwt = authHeader.substring(7);
-            username = jwtConfig.extractUsername(jwt);
+            // verified once here, or found already verified, and reused for the checks below
+            claims = jwtConfig.extractAllClaims(jwt);
+            username = claims.getSubject();
             if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                Customer customer = customerService.getCustomerByUsername(username);
-                if (jwtConfig.isTokenValid(jwt, customer)) {
+                CustomerPrincipal principal = principalOf(claims);
+                if (principal != null
+                        && !tokenRevocationList.isRevoked(principal.customerId(), claims)
+                        && !claims.getExpiration().before(new Date(System.currentTimeMillis()))) {
                     UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                            customer,
+                            principal,
                             null,
-                            customer.getAuthorities());
+                            principal.authorities());
 
                     authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
 
@@ -79,4 +95,27 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    /**
+     * Builds the principal from the customer id and roles the token carries. Tokens issued before those claims
+     * were added fall back to loading the customer, until they expire.
+     *
+     * @return the principal, or null if the token does not belong to a current customer
+     */
+    private CustomerPrincipal principalOf(Claims claims) {
+        Long customerId = claims.get(JWT_CUSTOMER_ID_CLAIM, Long.class);
+        List<?> roles = claims.get(JWT_ROLES_CLAIM, List.class);
+        if (customerId != null && roles != null) {
+            List<GrantedAuthority> authorities = roles.stream()
+                    .<GrantedAuthority>map(role -> new SimpleGrantedAuthority(String.valueOf(role)))
+                    .toList();
+            return new CustomerPrincipal(customerId, claims.getSubject(), authorities);
+        }
+
+        Customer customer = customerService.getCustomerByUsername(claims.getSubject());
+        if (!jwtConfig.areClaimsValid(claims, customer)) {
+            return null;
+        }
+        return new CustomerPrincipal(customer.getId(), customer.getUsername(), List.<GrantedAuthority>copyOf(customer.getAuthorities()));
+    }
+
 }
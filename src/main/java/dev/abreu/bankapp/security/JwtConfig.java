@@ -1,17 +1,33 @@
 package dev.abreu.bankapp.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import dev.abreu.bankapp.entity.Customer;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
+import static dev.abreu.bankapp.util.BankappConstants.JWT_CLAIMS_CACHE_SIZE;
+
+/**
+ * Signs and verifies JWTs. The signing key and parser are built once, on first use, and the claims of every token
+ * that verifies are cached under a digest of the token until the token expires, so a token seen before is
+ * authenticated with one hash lookup instead of a parse and a signature check.
+ */
 @Component
 public class JwtConfig {
 
@@ -29,6 +45,16 @@ public class JwtConfig {
 	@Value("${application.security.jwt.expiration}")
 	private int expiration;
 
+	// built on first use rather than at construction, once the secret has been injected; two threads racing to
+	// build them build equal ones, so losing the race is harmless
+	private volatile Key signingKey;
+	private volatile JwtParser parser;
+
+	private final Cache<String, Claims> verifiedClaims = Caffeine.newBuilder()
+			.maximumSize(JWT_CLAIMS_CACHE_SIZE)
+			.expireAfter(new UntilTokenExpires())
+			.build();
+
 	/**
 	 * 
 	 * @return expiration time
@@ -45,8 +71,19 @@ public class JwtConfig {
 	 * @return
 	 */
 	public boolean isTokenValid(String token, Customer customer) {
-		final String username = extractUsername(token);
-		return (username.equals(customer.getUsername())) && !isTokenExpired(token);
+		return areClaimsValid(extractAllClaims(token), customer);
+	}
+
+	/**
+	 * checks if already verified claims belong to customer and have not expired
+	 *
+	 * @param claims claims returned by {@link #extractAllClaims(String)}
+	 * @param customer
+	 * @return
+	 */
+	public boolean areClaimsValid(Claims claims, Customer customer) {
+		return claims.getSubject().equals(customer.getUsername())
+				&& !claims.getExpiration().before(new Date(System.currentTimeMillis()));
 	}
 
 	/**
@@ -59,14 +96,6 @@ public class JwtConfig {
 		return extractExpiration(token).after(new Date(System.currentTimeMillis() + 3600000));
 	}
 
-	/**
-	 * @param token
-	 * @return
-	 */
-    private boolean isTokenExpired(String token) {
-		return extractExpiration(token).before(new Date(System.currentTimeMillis()));
-	}
-
 	/**
 	 * @param token
 	 * @return
@@ -86,17 +115,14 @@ public class JwtConfig {
 	}
 	
 	/**
-	 * extract all Claims for provided token
+	 * extract all Claims for provided token, verifying its signature and expiration the first time it is seen
 	 * 
 	 * @param token
 	 * @return
 	 */
 	public Claims extractAllClaims(String token) {
-		return Jwts.parserBuilder()
-				.setSigningKey(getSigningKey())
-				.build()
-				.parseClaimsJws(token)
-				.getBody();	
+		// a token that fails to verify throws out of the load, so only verified claims are ever cached
+		return verifiedClaims.get(digestOf(token), digest -> parser().parseClaimsJws(token).getBody());
 	}
 	
 	/**
@@ -117,7 +143,59 @@ public class JwtConfig {
 	 * @return jwt signing key
 	 */
 	public Key getSigningKey() {
-		byte[] saltBytes = Decoders.BASE64.decode(salt);
-		return Keys.hmacShaKeyFor(saltBytes);
+		Key key = signingKey;
+		if (key == null) {
+			byte[] saltBytes = Decoders.BASE64.decode(salt);
+			key = Keys.hmacShaKeyFor(saltBytes);
+			signingKey = key;
+		}
+		return key;
+	}
+
+	private JwtParser parser() {
+		JwtParser jwtParser = parser;
+		if (jwtParser == null) {
+			jwtParser = Jwts.parserBuilder()
+					.setSigningKey(getSigningKey())
+					.build();
+			parser = jwtParser;
+		}
+		return jwtParser;
+	}
+
+	// the cache is keyed by a digest rather than the token itself, so bearer tokens are not kept in memory
+	private static String digestOf(String token) {
+		try {
+			byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+			return Base64.getEncoder().encodeToString(digest);
+		} catch (NoSuchAlgorithmException e) {
+			// every JVM is required to provide SHA-256
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Keeps verified claims until their token's expiration, and no longer.
+	 */
+	private static final class UntilTokenExpires implements Expiry<String, Claims> {
+
+		@Override
+		public long expireAfterCreate(String digest, Claims claims, long currentTime) {
+			Date expiresAt = claims.getExpiration();
+			if (expiresAt == null) {
+				return 0;
+			}
+			return TimeUnit.MILLISECONDS.toNanos(Math.max(0, expiresAt.getTime() - System.currentTimeMillis()));
+		}
+
+		@Override
+		public long expireAfterUpdate(String digest, Claims claims, long currentTime, long currentDuration) {
+			return currentDuration;
+		}
+
+		@Override
+		public long expireAfterRead(String digest, Claims claims, long currentTime, long currentDuration) {
+			return currentDuration;
+		}
 	}
 }
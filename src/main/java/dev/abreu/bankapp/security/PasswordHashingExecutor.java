@@ -0,0 +1,106 @@
+package dev.abreu.bankapp.security;
+
+import dev.abreu.bankapp.exception.PasswordHashingBusyException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+
+import java.io.Closeable;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs password hashes on a small pool of their own with a bounded queue, so a burst of logins can neither hold
+ * more than {@code threads + queueCapacity} request threads nor slow down the requests on the rest. A hash that
+ * finds the queue full is rejected with a {@link PasswordHashingBusyException} without waiting.
+ * <p>
+ * The pool publishes the {@code executor.*} meters tagged {@code name=password-hashing}: {@code executor} times
+ * each hash, {@code executor.idle} the time it spent queued, and {@code executor.queued} and
+ * {@code executor.active} gauge the backlog. Rejections count as {@code bankapp.password.hashing.rejected}.
+ *
+ * @author Devin Abreu
+ */
+public class PasswordHashingExecutor implements Closeable {
+
+	static final String EXECUTOR_NAME = "password-hashing";
+	static final String REJECTED_METER = "bankapp.password.hashing.rejected";
+
+	private final ThreadPoolExecutor pool;
+	private final ExecutorService timedPool;
+	private final Counter rejected;
+
+	public PasswordHashingExecutor(int threads, int queueCapacity, MeterRegistry meterRegistry) {
+		AtomicInteger threadCount = new AtomicInteger();
+		this.pool = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+					Thread thread = new Thread(runnable, EXECUTOR_NAME + "-" + threadCount.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				}, new ThreadPoolExecutor.AbortPolicy());
+		this.timedPool = ExecutorServiceMetrics.monitor(meterRegistry, pool, EXECUTOR_NAME, Tags.empty());
+		this.rejected = Counter.builder(REJECTED_METER)
+				.description("Password hashes turned away because the hashing pool was saturated")
+				.register(meterRegistry);
+	}
+
+	/**
+	 * Runs the hash on the pool and waits for it.
+	 *
+	 * @return the hash's result; anything it throws is passed on unchanged
+	 * @throws PasswordHashingBusyException if every thread is busy and the queue is full
+	 */
+	public <T> T call(Supplier<T> hashing) {
+		Future<T> result;
+		try {
+			result = timedPool.submit(hashing::get);
+		} catch (RejectedExecutionException e) {
+			rejected.increment();
+			throw new PasswordHashingBusyException();
+		}
+
+		try {
+			return result.get();
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException runtimeException) {
+				throw runtimeException;
+			}
+			if (e.getCause() instanceof Error error) {
+				throw error;
+			}
+			throw new IllegalStateException(e.getCause());
+		} catch (InterruptedException e) {
+			result.cancel(true);
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while waiting for a password hash", e);
+		}
+	}
+
+	/**
+	 * Queues work that nothing waits for, such as a best-effort re-hash. Anything it throws is lost, so it should
+	 * handle its own failures.
+	 *
+	 * @return true if it was queued; false, without running it or counting a rejection, if every thread is busy and
+	 * the queue is full
+	 */
+	public boolean trySubmit(Runnable hashing) {
+		try {
+			timedPool.execute(hashing);
+			return true;
+		} catch (RejectedExecutionException e) {
+			return false;
+		}
+	}
+
+	@Override
+	public void close() {
+		pool.shutdownNow();
+	}
+}
@@ -0,0 +1,48 @@
+package dev.abreu.bankapp.security;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+/**
+ * Checks logins like {@link DaoAuthenticationProvider}, but re-hashes a password whose stored hash needs an upgrade
+ * in the background instead of on the login's thread. The upgrade is best-effort: when the hashing pool is full it
+ * is skipped and left for a later login, so a login whose password checked out never fails, or waits for a second
+ * hashing slot, because of it.
+ *
+ * @author Devin Abreu
+ */
+public class PasswordUpgradingAuthenticationProvider extends DaoAuthenticationProvider {
+
+	private static final Logger log = LogManager.getLogger(PasswordUpgradingAuthenticationProvider.class);
+
+	private final BoundedBCryptPasswordEncoder passwordEncoder;
+	private final UserDetailsPasswordService userDetailsPasswordService;
+
+	// the password service is kept here rather than given to the parent, which would re-hash on the login's thread
+	public PasswordUpgradingAuthenticationProvider(UserDetailsService userDetailsService,
+			BoundedBCryptPasswordEncoder passwordEncoder, UserDetailsPasswordService userDetailsPasswordService) {
+		this.passwordEncoder = passwordEncoder;
+		this.userDetailsPasswordService = userDetailsPasswordService;
+		setUserDetailsService(userDetailsService);
+		setPasswordEncoder(passwordEncoder);
+	}
+
+	@Override
+	protected Authentication createSuccessAuthentication(Object principal, Authentication authentication,
+			UserDetails user) {
+		if (passwordEncoder.upgradeEncoding(user.getPassword())) {
+			String presentedPassword = authentication.getCredentials().toString();
+			boolean queued = passwordEncoder.encodeInBackground(presentedPassword,
+					newPassword -> userDetailsPasswordService.updatePassword(user, newPassword));
+			if (!queued) {
+				log.debug("Password hashing pool is full; skipping the hash upgrade for {}", user.getUsername());
+			}
+		}
+		return super.createSuccessAuthentication(principal, authentication, user);
+	}
+}
@@ -0,0 +1,192 @@
+package dev.abreu.bankapp.security;
+
+import dev.abreu.bankapp.config.RateLimitProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.PathContainer;
+import org.springframework.lang.NonNull;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
+
+/**
+ * Limits request rates with the token bucket policies of {@link RateLimitProperties}. It sits in the security
+ * filter chain right after the {@link JwtAuthenticationFilter}, so policies keyed by principal see the
+ * authenticated username.
+ * <p>
+ * A request takes a token from each policy it matches, in order, and the first without a token for it ends the
+ * request with a 429 and a {@code Retry-After} of the seconds until one is available; the tokens it already took
+ * from earlier policies are given back, so a rejected request costs nothing. Rejections are counted by policy as
+ * {@code bankapp.rate-limit.rejected}. Policies keyed by route keep one bucket per path pattern they list.
+ *
+ * @author Devin Abreu
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+
+	private static final Logger log = LogManager.getLogger(RateLimitFilter.class);
+
+	static final String REJECTED_METER = "bankapp.rate-limit.rejected";
+
+	private final List<Rule> rules;
+	private final String[] allowedOrigins;
+	private final LongSupplier nanoClock;
+
+	public RateLimitFilter(RateLimitProperties properties, MeterRegistry meterRegistry, String[] allowedOrigins) {
+		this(properties, meterRegistry, allowedOrigins, System::nanoTime);
+	}
+
+	RateLimitFilter(RateLimitProperties properties, MeterRegistry meterRegistry, String[] allowedOrigins,
+			LongSupplier nanoClock) {
+		this.rules = properties.policies().stream()
+				.map(policy -> new Rule(policy, properties.maxKeysPerPolicy(), meterRegistry))
+				.toList();
+		this.allowedOrigins = allowedOrigins;
+		this.nanoClock = nanoClock;
+	}
+
+	@Override
+	protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+		// CORS preflights carry no credentials and are answered without reaching a controller
+		return rules.isEmpty() || HttpMethod.OPTIONS.matches(request.getMethod());
+	}
+
+	@Override
+	protected void doFilterInternal(
+			@NonNull HttpServletRequest request,
+			@NonNull HttpServletResponse response,
+			@NonNull FilterChain filterChain)
+			throws ServletException, IOException {
+
+		PathContainer path = PathContainer.parsePath(request.getRequestURI().substring(request.getContextPath().length()));
+		String method = request.getMethod();
+		long nowNanos = nanoClock.getAsLong();
+
+		// the key each policy took a token under, by policy, until the request is let through or turned away
+		String[] taken = null;
+		for (int i = 0; i < rules.size(); i++) {
+			Rule rule = rules.get(i);
+			PathPattern pattern = rule.match(method, path);
+			if (pattern == null) {
+				continue;
+			}
+			String key = keyOf(rule.key, pattern, request);
+			long waitNanos = rule.buckets.tryAcquire(key, nowNanos);
+			if (waitNanos > 0) {
+				release(taken, i);
+				rule.rejected.increment();
+				log.debug("Rate limit {} exceeded for {} {}", rule.name, method, request.getRequestURI());
+				reject(response, waitNanos);
+				return;
+			}
+			if (taken == null) {
+				taken = new String[rules.size()];
+			}
+			taken[i] = key;
+		}
+
+		filterChain.doFilter(request, response);
+	}
+
+	private void release(String[] taken, int upTo) {
+		if (taken == null) {
+			return;
+		}
+		for (int i = 0; i < upTo; i++) {
+			if (taken[i] != null) {
+				rules.get(i).buckets.release(taken[i]);
+			}
+		}
+	}
+
+	private static String keyOf(RateLimitProperties.Key key, PathPattern pattern, HttpServletRequest request) {
+		return switch (key) {
+			case ROUTE -> pattern.getPatternString();
+			case IP -> request.getRemoteAddr();
+			case PRINCIPAL -> principalKeyOf(request);
+		};
+	}
+
+	private static String principalKeyOf(HttpServletRequest request) {
+		Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+		if (authentication != null && authentication.isAuthenticated()
+				&& !(authentication instanceof AnonymousAuthenticationToken)) {
+			return authentication.getName();
+		}
+		// kept apart from usernames, which could look like addresses
+		return "ip:" + request.getRemoteAddr();
+	}
+
+	private void reject(HttpServletResponse response, long waitNanos) throws IOException {
+		long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+		if (StringUtils.isNotBlank(allowedOrigins[0])) {
+			response.setHeader("Access-Control-Allow-Origin", allowedOrigins[0]);
+		}
+		response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+		response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+		response.setContentType("application/json");
+		response.getWriter().write("{\"error\":\"Too many requests, please try again later.\"}");
+	}
+
+	/**
+	 * A policy, with its paths parsed and its buckets.
+	 */
+	private static final class Rule {
+
+		private final String name;
+		private final List<PathPattern> patterns;
+		private final Set<String> methods;
+		private final RateLimitProperties.Key key;
+		private final TokenBuckets buckets;
+		private final Counter rejected;
+
+		Rule(RateLimitProperties.Policy policy, long maxKeys, MeterRegistry meterRegistry) {
+			this.name = policy.name();
+			this.patterns = policy.paths().stream().map(PathPatternParser.defaultInstance::parse).toList();
+			this.methods = policy.methods().stream()
+					.map(method -> method.toUpperCase(Locale.ROOT))
+					.collect(Collectors.toUnmodifiableSet());
+			this.key = policy.key();
+			this.buckets = new TokenBuckets(policy.capacity(), policy.period(), maxKeys);
+			this.rejected = Counter.builder(REJECTED_METER)
+					.description("Requests turned away by a rate limit policy")
+					.tag("policy", policy.name())
+					.register(meterRegistry);
+		}
+
+		/**
+		 * @return the first of the policy's patterns the request matches, or null if the policy does not apply
+		 */
+		PathPattern match(String method, PathContainer path) {
+			if (!methods.isEmpty() && !methods.contains(method)) {
+				return null;
+			}
+			for (PathPattern pattern : patterns) {
+				if (pattern.matches(path)) {
+					return pattern;
+				}
+			}
+			return null;
+		}
+	}
+}
@@ -1,7 +1,16 @@
 package dev.abreu.bankapp.security;
 
+import dev.abreu.bankapp.config.RateLimitProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
 import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -11,20 +20,71 @@ import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
+/**
+ * Two filter chains, picked once per request by {@link #isPublicRead}. Public reads, the GETs and preflights
+ * outside {@code /auth/**}, go through a minimal chain that never looks at a bearer token, since nothing they
+ * serve reads the authenticated customer. Everything else goes through the full chain, which authenticates the
+ * token and applies the rate limits.
+ */
 @Configuration
 @EnableWebSecurity
+@EnableConfigurationProperties(RateLimitProperties.class)
 public class SecurityConfig {
 
+	@Value("${application.cors.origins}")
+	private String[] allowedOrigins;
+
 	private final JwtAuthenticationFilter jwtAuthenticationFilter;
 	private final AuthenticationProvider authenticationProvider;
+	private final RateLimitProperties rateLimitProperties;
+	private final ObjectProvider<MeterRegistry> meterRegistry;
+
+	private RateLimitFilter rateLimitFilter;
 
 	public SecurityConfig(JwtAuthenticationFilter jwtAuthenticationFilter,
-			AuthenticationProvider authenticationProvider) {
+			AuthenticationProvider authenticationProvider, RateLimitProperties rateLimitProperties,
+			ObjectProvider<MeterRegistry> meterRegistry) {
 		this.jwtAuthenticationFilter = jwtAuthenticationFilter;
 		this.authenticationProvider = authenticationProvider;
+		this.rateLimitProperties = rateLimitProperties;
+		this.meterRegistry = meterRegistry;
+	}
+
+	/**
+	 * @return true for requests that are permitted without authentication and whose handling never reads it
+	 */
+	static boolean isPublicRead(HttpServletRequest request) {
+		String method = request.getMethod();
+		if (!HttpMethod.GET.matches(method) && !HttpMethod.OPTIONS.matches(method)) {
+			return false;
+		}
+		// /auth/user reads the caller's token, and clients learn from it that their token has expired
+		return !request.getRequestURI().startsWith(request.getContextPath() + "/auth/");
+	}
+
+	@Bean
+	@Order(1)
+	public SecurityFilterChain publicReadFilterChain(HttpSecurity http) throws Exception {
+		http
+			.securityMatcher(SecurityConfig::isPublicRead)
+			.csrf(AbstractHttpConfigurer::disable)
+			.requestCache(AbstractHttpConfigurer::disable)
+			.anonymous(AbstractHttpConfigurer::disable)
+			.logout(AbstractHttpConfigurer::disable)
+			.sessionManagement(session -> session
+					.sessionCreationPolicy(SessionCreationPolicy.STATELESS)
+			);
+		// no authorization rules, so no authorization filter either: everything this chain matches is permitted
+
+		if (rateLimitProperties.enabled() && rateLimitsReads()) {
+			http.addFilterBefore(rateLimitFilter(), UsernamePasswordAuthenticationFilter.class);
+		}
+
+		return http.build();
 	}
 
 	@Bean
+	@Order(2)
 	public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
 		//Spring creates a new session for each request since the policy is STATELESS
 		http
@@ -41,7 +101,37 @@ public class SecurityConfig {
 			.authenticationProvider(authenticationProvider)
 			.addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
 
+		// after authentication, so per-principal limits see who is calling
+		if (rateLimitProperties.enabled()) {
+			http.addFilterAfter(rateLimitFilter(), JwtAuthenticationFilter.class);
+		}
+
 		return http.build();
 	}
 
+	/**
+	 * Keeps the servlet container from running the JWT filter on every request as well, as it would for any
+	 * filter bean; it only runs in the full chain above.
+	 */
+	@Bean
+	public FilterRegistrationBean<JwtAuthenticationFilter> jwtAuthenticationFilterRegistration() {
+		FilterRegistrationBean<JwtAuthenticationFilter> registration = new FilterRegistrationBean<>(jwtAuthenticationFilter);
+		registration.setEnabled(false);
+		return registration;
+	}
+
+	// not a bean, so it only runs in the chains; one instance, so both chains take from the same buckets
+	private RateLimitFilter rateLimitFilter() {
+		if (rateLimitFilter == null) {
+			rateLimitFilter = new RateLimitFilter(rateLimitProperties,
+					meterRegistry.getIfAvailable(() -> Metrics.globalRegistry), allowedOrigins);
+		}
+		return rateLimitFilter;
+	}
+
+	private boolean rateLimitsReads() {
+		return rateLimitProperties.policies().stream()
+				.anyMatch(policy -> policy.methods().isEmpty() || policy.methods().stream().anyMatch(HttpMethod.GET.name()::equalsIgnoreCase));
+	}
+
 }
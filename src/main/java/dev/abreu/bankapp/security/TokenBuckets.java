@@ -0,0 +1,74 @@
+package dev.abreu.bankapp.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Token buckets of one size and refill rate, one per key, in a bounded map that drops a bucket once it has been
+ * idle for long enough to have refilled.
+ * <p>
+ * A bucket is a single {@link AtomicLong}: the time at which it will be full again, as in the generic cell rate
+ * algorithm. Taking a token moves that time one refill interval later with a compare-and-set, and is refused
+ * when it would move it further ahead of now than the whole bucket's worth, so no bucket is ever locked and a
+ * check allocates nothing once its bucket exists.
+ *
+ * @author Devin Abreu
+ */
+public class TokenBuckets {
+
+	// an unset time is long past, so a new bucket starts full
+	private static final Function<String, AtomicLong> NEW_BUCKET = key -> new AtomicLong(Long.MIN_VALUE);
+
+	private final long refillIntervalNanos;
+	private final long burstNanos;
+	private final Cache<String, AtomicLong> buckets;
+
+	public TokenBuckets(long capacity, Duration period, long maxKeys) {
+		if (capacity < 1 || period.isNegative() || period.isZero()) {
+			throw new IllegalArgumentException("A token bucket needs a positive capacity and refill period");
+		}
+		this.refillIntervalNanos = Math.max(1, period.toNanos() / capacity);
+		this.burstNanos = refillIntervalNanos * capacity;
+		this.buckets = Caffeine.newBuilder()
+				.maximumSize(maxKeys)
+				// an untouched bucket is full again after one period, the same as a new one
+				.expireAfterAccess(period)
+				.build();
+	}
+
+	/**
+	 * Takes a token from the key's bucket.
+	 *
+	 * @param nowNanos the current {@link System#nanoTime()}
+	 * @return 0 if a token was taken, otherwise how many nanoseconds until the bucket has one
+	 */
+	public long tryAcquire(String key, long nowNanos) {
+		AtomicLong fullAt = buckets.get(key, NEW_BUCKET);
+		for (;;) {
+			long current = fullAt.get();
+			long next = Math.max(current, nowNanos) + refillIntervalNanos;
+			long waitNanos = next - nowNanos - burstNanos;
+			if (waitNanos > 0) {
+				return waitNanos;
+			}
+			if (fullAt.compareAndSet(current, next)) {
+				return 0;
+			}
+		}
+	}
+
+	/**
+	 * Gives back a token {@link #tryAcquire} took from the key's bucket, for a request that another bucket then
+	 * turned away.
+	 */
+	public void release(String key) {
+		AtomicLong fullAt = buckets.getIfPresent(key);
+		if (fullAt != null) {
+			fullAt.addAndGet(-refillIntervalNanos);
+		}
+	}
+}
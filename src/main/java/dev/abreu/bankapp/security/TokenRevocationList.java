@@ -0,0 +1,140 @@
+package dev.abreu.bankapp.security;
+
+import dev.abreu.bankapp.dao.TokenRevocationDao;
+import io.jsonwebtoken.Claims;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static dev.abreu.bankapp.util.BankappConstants.JWT_ISSUED_AT_MILLIS_CLAIM;
+
+/**
+ * Tells the authentication filter, without a database read, whether a verified token has been revoked. A
+ * revocation rejects every token issued to a customer up to the millisecond it was made; it is recorded in the
+ * {@code token_revocations} table and kept here as one entry per customer, the customer id mapped to that instant.
+ * Tokens are compared by their millisecond issued-at claim, so one issued right after a revocation, such as on the
+ * login that follows a rename, is accepted.
+ * <p>
+ * Revocations made on this node apply at once. Those made on other nodes are read back from the table every
+ * {@code application.security.jwt.revocation-sync-interval}, which bounds how long a revoked token can still be
+ * used elsewhere. Entries are dropped once they are older than the token lifetime, since every token they
+ * could reject has expired by then.
+ *
+ * @author Devin Abreu
+ */
+@Component
+public class TokenRevocationList {
+
+	private static final Logger log = LogManager.getLogger(TokenRevocationList.class);
+
+	private final TokenRevocationDao tokenRevocationDao;
+	private final Duration retention;
+	private final Duration syncInterval;
+	private final ScheduledExecutorService syncer;
+
+	// customer id to the epoch millisecond up to which its tokens are revoked
+	private final Map<Long, Long> revokedUntil = new ConcurrentHashMap<>();
+
+	public TokenRevocationList(TokenRevocationDao tokenRevocationDao,
+			@Value("${application.security.jwt.expiration}") long expirationMillis,
+			@Value("${application.security.jwt.revocation-sync-interval:5s}") Duration syncInterval) {
+		this.tokenRevocationDao = tokenRevocationDao;
+		this.retention = Duration.ofMillis(expirationMillis);
+		this.syncInterval = syncInterval;
+		this.syncer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "token-revocation-sync");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * Loads the revocations still in force, then starts re-reading them periodically.
+	 */
+	@PostConstruct
+	public void start() {
+		sync();
+		long intervalMillis = syncInterval.toMillis();
+		syncer.scheduleWithFixedDelay(this::syncQuietly, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+	}
+
+	@PreDestroy
+	public void stop() {
+		syncer.shutdownNow();
+	}
+
+	/**
+	 * @param customerId the customer the token was issued to
+	 * @param claims     the token's verified claims
+	 * @return true if the customer's tokens have been revoked since this one was issued; a token without an
+	 * issued-at time is always treated as revoked
+	 */
+	public boolean isRevoked(Long customerId, Claims claims) {
+		Long issuedAt = issuedAtMillis(claims);
+		if (issuedAt == null) {
+			return true;
+		}
+		Long revokedAt = revokedUntil.get(customerId);
+		return revokedAt != null && issuedAt <= revokedAt;
+	}
+
+	/**
+	 * Tokens issued before the millisecond claim was added only carry the standard second-precision claim; they
+	 * are taken as issued at the start of that second, so a revocation within the same second still rejects them.
+	 */
+	private static Long issuedAtMillis(Claims claims) {
+		Long issuedAt = claims.get(JWT_ISSUED_AT_MILLIS_CLAIM, Long.class);
+		if (issuedAt != null) {
+			return issuedAt;
+		}
+		return claims.getIssuedAt() != null ? claims.getIssuedAt().getTime() : null;
+	}
+
+	/**
+	 * Revokes every token issued to the customer so far, on this node at once and on the others at their next
+	 * sync.
+	 */
+	public void revoke(Long customerId) {
+		LocalDateTime now = LocalDateTime.now(ZoneOffset.UTC);
+		if (!tokenRevocationDao.saveRevocation(customerId, now)) {
+			log.warn("Could not save the token revocation for customer {}; it only applies on this node", customerId);
+		}
+		record(customerId, now.toInstant(ZoneOffset.UTC).toEpochMilli());
+	}
+
+	/**
+	 * Merges in the revocations saved by any node within the token lifetime and drops those older than it.
+	 */
+	void sync() {
+		LocalDateTime cutoff = LocalDateTime.now(ZoneOffset.UTC).minus(retention);
+		tokenRevocationDao.findRevocationsSince(cutoff)
+				.forEach((customerId, revokedAt) -> record(customerId, revokedAt.toInstant(ZoneOffset.UTC).toEpochMilli()));
+
+		long cutoffMillis = cutoff.toInstant(ZoneOffset.UTC).toEpochMilli();
+		revokedUntil.values().removeIf(revokedAt -> revokedAt <= cutoffMillis);
+	}
+
+	private void syncQuietly() {
+		try {
+			sync();
+		} catch (RuntimeException e) {
+			log.warn("Could not sync token revocations: {}", e.getMessage());
+		}
+	}
+
+	private void record(Long customerId, long revokedAt) {
+		revokedUntil.merge(customerId, revokedAt, Math::max);
+	}
+}
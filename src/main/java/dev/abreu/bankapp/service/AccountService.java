@@ -2,6 +2,7 @@ package dev.abreu.bankapp.service;
 
 import java.util.List;
 
+import dev.abreu.bankapp.dto.TransferResultDTO;
 import dev.abreu.bankapp.exception.InsufficientFundsException;
 import dev.abreu.bankapp.exception.ResourceNotFoundException;
 import dev.abreu.bankapp.entity.Account;
@@ -60,9 +61,10 @@ public interface AccountService {
 	 * @param targetAcctNo the account number to transfer funds to
 	 * @param amount the amount to transfer
 	 * @param notes the notes associated with the transfer
+	 * @return the transfer id and the new balances of both accounts
 	 * @throws InsufficientFundsException if the source account does not have sufficient funds for transfer
 	 */
-	void transferFundsBetweenAccounts(Long sourceAcctNo, Long targetAcctNo, double amount, String notes) throws InsufficientFundsException;
+	TransferResultDTO transferFundsBetweenAccounts(Long sourceAcctNo, Long targetAcctNo, double amount, String notes) throws InsufficientFundsException;
 
 	/**
 	 * Deposits funds into an account.
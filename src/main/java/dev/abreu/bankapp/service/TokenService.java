@@ -49,4 +49,12 @@ public interface TokenService {
 	 * @return - true if token is valid (not expired)
 	 */
 	boolean isTokenValid(String token);
+
+	/**
+	 * Revokes every token issued to the customer so far
+	 * and drops their cached token
+	 *
+	 * @param customer - customer whose tokens are revoked
+	 */
+	void revokeTokens(Customer customer);
 }
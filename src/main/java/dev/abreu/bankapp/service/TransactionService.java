@@ -1,7 +1,10 @@
 package dev.abreu.bankapp.service;
 
 import java.util.List;
+import java.util.function.Consumer;
 
+import dev.abreu.bankapp.dto.PageDTO;
+import dev.abreu.bankapp.dto.TransactionBatchResultDTO;
 import dev.abreu.bankapp.entity.Transaction;
 
 public interface TransactionService {
@@ -23,6 +26,17 @@ public interface TransactionService {
 	 */
 	List<Transaction> getAllTransactionsByAcctNo(Long acctNo);
 	
+	/**
+	 * Retrieves one page of transactions tied to Account,
+	 * newest first, using keyset pagination
+	 * 
+	 * @param acctNo
+	 * @param pageSize
+	 * @param pageToken continuation token from the previous page, or null for the first page
+	 * @return page of Transaction with the token for the next page
+	 */
+	PageDTO<Transaction> getTransactionsPageByAcctNo(Long acctNo, int pageSize, String pageToken);
+	
 	/**
 	 * Saves a new Transaction in the database
 	 * 
@@ -31,6 +45,15 @@ public interface TransactionService {
 	 */
 	Transaction saveTransaction(Transaction txn);
 	
+	/**
+	 * Saves a batch of new Transactions in the database, validating each row
+	 * and reporting the rows that could not be saved
+	 * 
+	 * @param txns
+	 * @return batch result with generated ids in order and per-row errors
+	 */
+	TransactionBatchResultDTO saveTransactions(List<Transaction> txns);
+	
 	/**
 	 * Updates Transaction details
 	 * 
@@ -55,4 +78,13 @@ public interface TransactionService {
 	 */
 	List<Transaction> getAllTransactionsAndTransfersByCustomerId(Long customerId);
 
+	/**
+	 * Streams all transactions and transfers associated with a customer ID,
+	 * handing each one to the given action as it is read from the database.
+	 *
+	 * @param customerId
+	 * @param action
+	 */
+	void streamAllTransactionsAndTransfersByCustomerId(Long customerId, Consumer<Transaction> action);
+
 }
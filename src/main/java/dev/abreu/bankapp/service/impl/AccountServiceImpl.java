@@ -1,8 +1,11 @@
 package dev.abreu.bankapp.service.impl;
 
+import dev.abreu.bankapp.cache.AccountCache;
+import dev.abreu.bankapp.cache.AccountListCache;
+import dev.abreu.bankapp.cache.NegativeLookupCache;
 import dev.abreu.bankapp.dao.AccountDao;
-import dev.abreu.bankapp.dao.CustomerDao;
-import dev.abreu.bankapp.dao.TransactionDao;
+import dev.abreu.bankapp.dto.CustomerAccountsDTO;
+import dev.abreu.bankapp.dto.TransferResultDTO;
 import dev.abreu.bankapp.entity.Account;
 import dev.abreu.bankapp.entity.Transaction;
 import dev.abreu.bankapp.exception.InsufficientFundsException;
@@ -21,6 +24,7 @@ import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
+import static dev.abreu.bankapp.cache.NegativeLookupCache.Lookup.ACCOUNT_NUMBER;
 import static dev.abreu.bankapp.util.BankappConstants.*;
 
 @Service
@@ -29,38 +33,58 @@ public class AccountServiceImpl implements AccountService {
 	private static final Logger log = LogManager.getLogger(AccountServiceImpl.class);
 
 	private final AccountDao accountDao;
-	private final CustomerDao customerDao;
-	private final TransactionDao transactionDao;
+	private final AccountCache accountCache;
+	private final AccountListCache accountListCache;
+	private final NegativeLookupCache negativeLookupCache;
 
-	public AccountServiceImpl(AccountDao accountDao, CustomerDao customerDao, TransactionDao transactionDao) {
+	public AccountServiceImpl(AccountDao accountDao, AccountCache accountCache, AccountListCache accountListCache,
+			NegativeLookupCache negativeLookupCache) {
 		this.accountDao = accountDao;
-		this.customerDao = customerDao;
-		this.transactionDao = transactionDao;
+		this.accountCache = accountCache;
+		this.accountListCache = accountListCache;
+		this.negativeLookupCache = negativeLookupCache;
 	}
 
 	@Override
-	@Cacheable(value = "account", key = "#acctNo")
+	// sync, so a miss fills the shared tier as a load (only where the key is absent) rather than as a put
+	@Cacheable(value = "account", key = "#acctNo", sync = true)
 	public Account getAccountByAcctNo(Long acctNo) {
+		// account numbers that were just found missing are not queried again, so probing for them costs nothing
+		if (negativeLookupCache.isKnownMissing(ACCOUNT_NUMBER, acctNo)) {
+			throw new ResourceNotFoundException(ResourceType.ACCOUNT, acctNo);
+		}
 		log.info("Fetching Account with AcctNo: {}", acctNo);
 		return accountDao.findAccountByAcctNo(acctNo)
-				.orElseThrow(() -> new ResourceNotFoundException(ResourceType.ACCOUNT, acctNo));
+				.orElseThrow(() -> {
+					negativeLookupCache.recordMissing(ACCOUNT_NUMBER, acctNo);
+					return new ResourceNotFoundException(ResourceType.ACCOUNT, acctNo);
+				});
 	}
 
 	@Override
 	public List<Account> getAllAccountsByUsername(String username) {
+		List<Account> cached = accountListCache.get(username);
+		if (cached != null) {
+			return cached;
+		}
 		log.info("Fetching all accounts associated with customer");
 
-		return Optional.of(username)
-				.filter(customerDao::existsByUsername)
-				.map(accountDao::findAllAccountsByUsername)
+		CustomerAccountsDTO customerAccounts = accountDao.findCustomerAccountsByUsername(username)
 				.orElseThrow(() -> new ResourceNotFoundException(ResourceType.ACCOUNT, username));
+		accountListCache.put(customerAccounts.customerId(), username, customerAccounts.accounts());
+		return customerAccounts.accounts();
 	}
 
 	@Override
 	@CachePut(value = "account", key = "#account.accountNumber")
 	public Account saveAccount(Account account) {
 		log.info("Saving new account...");
-		return accountDao.saveAccount(account);
+		Account saved = accountDao.saveAccount(account);
+		if (saved != null) {
+			negativeLookupCache.forget(ACCOUNT_NUMBER, saved.getAccountNumber());
+			accountListCache.addAccount(saved.getCustomerId(), saved.getAccountNumber());
+		}
+		return saved;
 	}
 
 	@Override
@@ -73,64 +97,59 @@ public class AccountServiceImpl implements AccountService {
 
 	@Override
 	@CacheEvict(value = "account", key = "#acctNo")
+	@Transactional
 	public boolean deleteAccountByAcctNo(Long acctNo) {
 		log.info("Deleting account with account number: {}", acctNo);
 
 		return accountDao.findAccountByAcctNo(acctNo)
-				.map(a -> accountDao.softDeleteAccountByAcctNo(acctNo))
+				.map(account -> {
+					boolean deleted = accountDao.softDeleteAccountByAcctNo(acctNo);
+					if (deleted) {
+						accountListCache.removeAccount(account.getCustomerId(), acctNo);
+					}
+					return deleted;
+				})
 				.orElse(false);
 	}
 
 	@Override
-	public void transferFundsBetweenAccounts(Long sourceAcctNo, Long targetAcctNo, double amount, String notes) throws InsufficientFundsException {
-		Optional<Account> source = accountDao.findAccountByAcctNo(sourceAcctNo);
-
+	public TransferResultDTO transferFundsBetweenAccounts(Long sourceAcctNo, Long targetAcctNo, double amount, String notes) throws InsufficientFundsException {
 		if (sourceAcctNo.equals(targetAcctNo)) {
 			throw new IllegalArgumentException("Source and target accounts cannot be the same. Please try again.");
 		}
 
-		if(Double.compare(source.orElseThrow().getAccountBalance(), amount) < 0) {
-			throw new InsufficientFundsException(
-					"Account transfer could not be completed due to insufficient funds");
-		}
+		// the balance check happens under the row locks taken by transfer_account_funds
+		TransferResultDTO result = accountDao.transferFunds(sourceAcctNo, targetAcctNo, amount, notes);
+		accountCache.updateBalance(sourceAcctNo, result.sourceBalance(), result.sourceUpdatedAt());
+		accountCache.updateBalance(targetAcctNo, result.targetBalance(), result.targetUpdatedAt());
 
-		accountDao.transferFunds(sourceAcctNo, targetAcctNo, amount, notes);
-		
-		log.info("Transfer successfully completed!");
+		log.info("Transfer {} successfully completed!", result.transferId());
+		return result;
 	}
 
 	@Override
-	@Transactional
 	public void depositFundsIntoAccount(Long acctNo, double amount, String notes) {
-		Optional<Account> account = accountDao.findAccountByAcctNo(acctNo);
-		
-		account.orElseThrow().incrementBalance(amount);
-		account.orElseThrow().setUpdatedAt(LocalDateTime.now());
-		accountDao.updateAccount(account.orElseThrow());
-		
-		transactionDao.saveTransaction(new Transaction(ACCOUNT_DEPOSIT, amount, 
-				notes, account.orElseThrow().getAccountNumber()));
-		
+		Account account = accountDao.depositFunds(new Transaction(ACCOUNT_DEPOSIT, amount, notes, acctNo))
+				.orElseThrow(() -> new ResourceNotFoundException(ResourceType.ACCOUNT, acctNo));
+		accountCache.put(account);
+
 		log.info("Successfully deposited ${} into account with acctNo {}", amount, acctNo);
 	}
 
 	@Override
-	@Transactional
 	public void withdrawFundsFromAccount(Long acctNo, double amount, String notes) throws InsufficientFundsException {
-		Optional<Account> account = accountDao.findAccountByAcctNo(acctNo);
+		Optional<Account> account = accountDao.withdrawFunds(new Transaction(ACCOUNT_WITHDRAW, amount, notes, acctNo));
 		
-		if(Double.compare(account.orElseThrow().getAccountBalance(), amount) < 0) {
+		if(account.isEmpty()) {
+			// the guarded update matched nothing; only this failure path pays for a second lookup
+			if(accountDao.findAccountByAcctNo(acctNo).isEmpty()) {
+				throw new ResourceNotFoundException(ResourceType.ACCOUNT, acctNo);
+			}
 			throw new InsufficientFundsException(
 					"Account withdrawal could not be completed due to insufficient funds");
 		}
-		
-		account.orElseThrow().decrementBalance(amount);
-		account.orElseThrow().setUpdatedAt(LocalDateTime.now());
-		accountDao.updateAccount(account.orElseThrow());
-		
-		transactionDao.saveTransaction(new Transaction(ACCOUNT_WITHDRAW, amount, 
-				notes, account.orElseThrow().getAccountNumber()));
-		
+		accountCache.put(account.get());
+
 		log.info("Successfully withdrew ${} from account with acctNo {}", amount, acctNo);
 	}
 
@@ -1,20 +1,20 @@
 package dev.abreu.bankapp.service.impl;
 
 import java.util.List;
-import java.util.Optional;
+import java.util.Objects;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.CachePut;
-import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import dev.abreu.bankapp.cache.CustomerIdentityCache;
 import dev.abreu.bankapp.dao.CustomerDao;
 import dev.abreu.bankapp.exception.ResourceNotFoundException;
 import dev.abreu.bankapp.exception.UsernameTakenException;
 import dev.abreu.bankapp.entity.Customer;
 import dev.abreu.bankapp.service.CustomerService;
+import dev.abreu.bankapp.service.TokenService;
 import dev.abreu.bankapp.util.ResourceType;
 
 @Service
@@ -23,19 +23,25 @@ public class CustomerServiceImpl implements CustomerService {
 	private static final Logger log = LogManager.getLogger(CustomerServiceImpl.class);
 	
 	private final CustomerDao customerDao;
+	private final CustomerIdentityCache customerIdentityCache;
+	private final TokenService tokenService;
 
-	public CustomerServiceImpl(CustomerDao customerDao) {
+	public CustomerServiceImpl(CustomerDao customerDao, CustomerIdentityCache customerIdentityCache,
+			TokenService tokenService) {
 		this.customerDao = customerDao;
+		this.customerIdentityCache = customerIdentityCache;
+		this.tokenService = tokenService;
 	}
 
 	@Override
-	@CachePut(value = "customer", key = "#customer.username")
+	@Transactional
 	public Customer registerNewCustomer(Customer customer) throws UsernameTakenException {
 		boolean usernameExists = customerDao.existsByUsername(customer.getUsername());
 		
 		if(!usernameExists) {
 			log.info("Registering new customer using unique username");
 			customerDao.saveCustomer(customer);
+			customerIdentityCache.put(customer);
 		} else {
 			log.error("Username is already present in the database");
 			throw new UsernameTakenException();
@@ -44,20 +50,23 @@ public class CustomerServiceImpl implements CustomerService {
 		return customer;
 	}
 
+	// backs login and tokens issued before they carried the customer id; a hit never reaches the database (see CustomerIdentityCache)
 	@Override
-	@Cacheable(value = "customer", key = "#username")
 	public Customer getCustomerByUsername(String username) {
-		log.info("Fetching customer with username");
-		return customerDao.findByUsername(username)
-				.orElseThrow(() -> new ResourceNotFoundException(ResourceType.CUSTOMER, username));
+		Customer customer = customerIdentityCache.getByUsername(username);
+		if (customer == null) {
+			throw new ResourceNotFoundException(ResourceType.CUSTOMER, username);
+		}
+		return customer;
 	}
 	
 	@Override
-	@Cacheable(value = "customer", key = "#customerId")
 	public Customer getCustomerById(Long customerId) {
-		log.info("Fetching customer with Id: {}", customerId);
-		return customerDao.findById(customerId)
-				.orElseThrow(() -> new ResourceNotFoundException(ResourceType.CUSTOMER, customerId));
+		Customer customer = customerIdentityCache.getById(customerId);
+		if (customer == null) {
+			throw new ResourceNotFoundException(ResourceType.CUSTOMER, customerId);
+		}
+		return customer;
 	}
 	
 	@Override
@@ -67,35 +76,53 @@ public class CustomerServiceImpl implements CustomerService {
 	}
 
 	@Override
-	@CachePut(value = "customer", key = "#customer.username")
 	public Customer updateCustomerDetails(Customer customer) {
 		log.info("Updating customer details using username");
-		return customerDao.updateCustomer(customer);
+		Customer previous = customer.getId() != null ? customerIdentityCache.getById(customer.getId()) : null;
+		Customer updated = customerDao.updateCustomer(customer);
+		if (updated != null) {
+			customerIdentityCache.update(updated);
+			// tokens carry the username they were issued for, which may now be taken by someone else
+			if (previous != null && !Objects.equals(previous.getUsername(), updated.getUsername())) {
+				tokenService.revokeTokens(previous);
+			}
+		}
+		return updated;
 	}
 	
 	@Override
-	@CacheEvict(value = "customer", key = "#username")
+	@Transactional
 	public boolean deleteCustomerByUsername(String username) {
 		log.info("Deleting customer using username");
 		
 		boolean success = false;
 		
-		if(customerDao.existsByUsername(username)) {
+		Customer customer = customerIdentityCache.getByUsername(username);
+		if(customer != null) {
 			success = customerDao.deleteCustomerByUsername(username);
+			customerIdentityCache.evictByUsername(username);
+			if (success) {
+				tokenService.revokeTokens(customer);
+			}
 		}
 		
 		return success;
 	}
 
 	@Override
-	@CacheEvict(value = "customer", key = "#customerId")
+	@Transactional
 	public boolean deleteCustomerById(Long customerId) {
 		log.info("Deleting customer with id: {}", customerId);
 		
 		boolean success = false;
 		
-		if(!customerDao.findById(customerId).equals(Optional.empty())) {
+		Customer customer = customerDao.findById(customerId).orElse(null);
+		if(customer != null) {
 			success = customerDao.deleteCustomerById(customerId);
+			customerIdentityCache.evictById(customerId);
+			if (success) {
+				tokenService.revokeTokens(customer);
+			}
 		}
 		
 		return success;
@@ -1,5 +1,8 @@
 package dev.abreu.bankapp.service.impl;
 
+import static dev.abreu.bankapp.util.BankappConstants.JWT_CUSTOMER_ID_CLAIM;
+import static dev.abreu.bankapp.util.BankappConstants.JWT_ISSUED_AT_MILLIS_CLAIM;
+import static dev.abreu.bankapp.util.BankappConstants.JWT_ROLES_CLAIM;
 import static dev.abreu.bankapp.util.BankappConstants.JWT_RP0_BANKAPP_ISSUER;
 
 import java.util.Date;
@@ -9,13 +12,17 @@ import java.util.Optional;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.stereotype.Service;
 
 import dev.abreu.bankapp.entity.Customer;
 import dev.abreu.bankapp.security.JwtConfig;
+import dev.abreu.bankapp.security.TokenRevocationList;
 import dev.abreu.bankapp.service.TokenService;
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 
@@ -25,9 +32,11 @@ public class TokenServiceImpl implements TokenService {
 	private static final Logger log = LogManager.getLogger(TokenServiceImpl.class);
 	
 	private final JwtConfig jwtConfig;
+	private final TokenRevocationList tokenRevocationList;
 	
-	public TokenServiceImpl(JwtConfig jwtConfig) {
+	public TokenServiceImpl(JwtConfig jwtConfig, TokenRevocationList tokenRevocationList) {
 		this.jwtConfig = jwtConfig;
+		this.tokenRevocationList = tokenRevocationList;
 	}
 	
 	@Override
@@ -39,12 +48,21 @@ public class TokenServiceImpl implements TokenService {
 	@Override
 	public String generateToken(Map<String, Object> extraClaims, Customer customer) {
 		log.debug("Generating JWT Token...");
+		// the customer's id and roles ride in the token, so authenticating it never loads the customer
+		Map<String, Object> claims = new HashMap<>(extraClaims);
+		if (customer.getId() != null) {
+			claims.put(JWT_CUSTOMER_ID_CLAIM, customer.getId());
+		}
+		claims.put(JWT_ROLES_CLAIM, customer.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList());
+		// revocations are compared against this, so a token issued just after one in the same second is kept
+		long issuedAt = System.currentTimeMillis();
+		claims.put(JWT_ISSUED_AT_MILLIS_CLAIM, issuedAt);
 		return Jwts.builder()
-				.setClaims(extraClaims)
+				.setClaims(claims)
 				.setSubject(customer.getUsername())
 				.setIssuer(JWT_RP0_BANKAPP_ISSUER)
-				.setIssuedAt(new Date(System.currentTimeMillis()))
-				.setExpiration(new Date(System.currentTimeMillis() + jwtConfig.getExpiration()))
+				.setIssuedAt(new Date(issuedAt))
+				.setExpiration(new Date(issuedAt + jwtConfig.getExpiration()))
 				.signWith(jwtConfig.getSigningKey(), SignatureAlgorithm.HS256)
 				.compact();
 	}
@@ -60,9 +78,26 @@ public class TokenServiceImpl implements TokenService {
 		return Optional.empty();
 	}
 
+	/**
+	 * A cached token is only reused while it is good for another hour and has not been revoked. The auth-token
+	 * cache is local to this node while revocations reach it from every node, so the revocation list is checked
+	 * too. Tokens without a customer id cannot be checked against it and are not reused.
+	 */
 	@Override
 	public boolean isTokenValid(String token) {
-		return jwtConfig.isTokenValidPastOneHour(token);
+		if (!jwtConfig.isTokenValidPastOneHour(token)) {
+			return false;
+		}
+		Claims claims = jwtConfig.extractAllClaims(token);
+		Long customerId = claims.get(JWT_CUSTOMER_ID_CLAIM, Long.class);
+		return customerId != null && !tokenRevocationList.isRevoked(customerId, claims);
+	}
+
+	@Override
+	@CacheEvict(value = "auth-token", key = "#customer.username")
+	public void revokeTokens(Customer customer) {
+		log.info("Revoking tokens of customer with id: {}", customer.getId());
+		tokenRevocationList.revoke(customer.getId());
 	}
 
 }
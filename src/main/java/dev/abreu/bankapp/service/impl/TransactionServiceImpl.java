@@ -2,19 +2,32 @@ package dev.abreu.bankapp.service.impl;
 
 import dev.abreu.bankapp.dao.AccountDao;
 import dev.abreu.bankapp.dao.TransactionDao;
+import dev.abreu.bankapp.dto.PageDTO;
+import dev.abreu.bankapp.dto.TransactionBatchErrorDTO;
+import dev.abreu.bankapp.dto.TransactionBatchResultDTO;
 import dev.abreu.bankapp.entity.Transaction;
 import dev.abreu.bankapp.exception.ResourceNotFoundException;
 import dev.abreu.bankapp.service.TransactionService;
+import dev.abreu.bankapp.util.KeysetCursor;
 import dev.abreu.bankapp.util.ResourceType;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+import static dev.abreu.bankapp.util.BankappConstants.MAX_TRANSACTION_BATCH_SIZE;
+import static dev.abreu.bankapp.util.BankappConstants.MAX_TRANSACTION_PAGE_SIZE;
 
 @Service
 public class TransactionServiceImpl implements TransactionService {
@@ -38,6 +51,7 @@ public class TransactionServiceImpl implements TransactionService {
 	}
 
 	@Override
+	@Transactional(readOnly = true)
 	public List<Transaction> getAllTransactionsByAcctNo(Long acctNo) {
 		log.info("Fetching all transactions associated with account number: {}", acctNo);
 		
@@ -48,6 +62,34 @@ public class TransactionServiceImpl implements TransactionService {
 		}
 	}
 
+	@Override
+	@Transactional(readOnly = true)
+	public PageDTO<Transaction> getTransactionsPageByAcctNo(Long acctNo, int pageSize, String pageToken) {
+		log.info("Fetching page of transactions associated with account number: {}", acctNo);
+
+		if(pageSize < 1 || pageSize > MAX_TRANSACTION_PAGE_SIZE) {
+			throw new IllegalArgumentException("Page size must be between 1 and " + MAX_TRANSACTION_PAGE_SIZE);
+		}
+
+		// only the first page needs the existence check, later pages carry a token issued for this account
+		if(pageToken == null && accountDao.findAccountByAcctNo(acctNo).isEmpty()) {
+			throw new ResourceNotFoundException(ResourceType.ACCOUNT, acctNo);
+		}
+
+		// fetch one extra row to know whether another page follows
+		List<Transaction> transactions = transactionDao.findTransactionsPageByAcctNo(acctNo, pageSize + 1, pageToken);
+
+		if(transactions.size() <= pageSize) {
+			return new PageDTO<>(transactions, null);
+		}
+
+		List<Transaction> page = List.copyOf(transactions.subList(0, pageSize));
+		Transaction last = page.get(pageSize - 1);
+		String nextPageToken = new KeysetCursor(last.getCreatedAt(), last.getTransactionId()).encode();
+
+		return new PageDTO<>(page, nextPageToken);
+	}
+
 	@Override
 	@CachePut(value = "transaction", key = "#txn.transactionId")
 	public Transaction saveTransaction(Transaction txn) {
@@ -56,14 +98,72 @@ public class TransactionServiceImpl implements TransactionService {
 	}
 
 	@Override
-	@CachePut(value = "transaction", key = "#txn.transactionId")
+	public TransactionBatchResultDTO saveTransactions(List<Transaction> txns) {
+		log.info("Saving batch of {} transaction(s)...", txns.size());
+
+		if(txns.isEmpty() || txns.size() > MAX_TRANSACTION_BATCH_SIZE) {
+			throw new IllegalArgumentException("Batch size must be between 1 and " + MAX_TRANSACTION_BATCH_SIZE);
+		}
+
+		Map<Integer, String> errors = new TreeMap<>();
+		List<Transaction> valid = new ArrayList<>(txns.size());
+		List<Integer> validIndexes = new ArrayList<>(txns.size());
+
+		for(int i = 0; i < txns.size(); i++) {
+			Transaction txn = txns.get(i);
+			String error = validateNewTransaction(txn);
+			if(error != null) {
+				errors.put(i, error);
+			} else {
+				txn.setTransactionId(null);
+				valid.add(txn);
+				validIndexes.add(i);
+			}
+		}
+
+		if(!valid.isEmpty()) {
+			transactionDao.saveTransactions(valid)
+					.forEach((validIdx, message) -> errors.put(validIndexes.get(validIdx), message));
+		}
+
+		List<Long> transactionIds = txns.stream()
+				.map(Transaction::getTransactionId)
+				.toList();
+		List<TransactionBatchErrorDTO> errorDtos = errors.entrySet().stream()
+				.map(entry -> new TransactionBatchErrorDTO(entry.getKey(), entry.getValue()))
+				.toList();
+
+		return new TransactionBatchResultDTO(txns.size(), txns.size() - errors.size(), transactionIds, errorDtos);
+	}
+
+	private String validateNewTransaction(Transaction txn) {
+		if(txn.getTransactionType() == null || txn.getTransactionType().isBlank()) {
+			return "Transaction type is required";
+		}
+		if(!(txn.getTransactionAmount() > 0)) {
+			return "Transaction amount must be greater than zero";
+		}
+		if(txn.getAccountNumber() == null) {
+			return "Account number is required";
+		}
+		return null;
+	}
+
+	@Override
+	@Caching(put = @CachePut(value = "transaction", key = "#txn.transactionId"), evict = {
+			@CacheEvict(value = "unified-transaction-detail", key = "#txn.transactionId + '_DEPOSIT'"),
+			@CacheEvict(value = "unified-transaction-detail", key = "#txn.transactionId + '_WITHDRAW'")})
 	public Transaction updateTransactionDetails(Transaction txn) {
 		log.info("Updating transaction details...");
 		return transactionDao.updateTransaction(txn);
 	}
 
 	@Override
-	@CacheEvict(value = "transaction", key = "#txnId")
+	@Caching(evict = {
+			@CacheEvict(value = "transaction", key = "#txnId"),
+			@CacheEvict(value = "unified-transaction-detail", key = "#txnId + '_DEPOSIT'"),
+			@CacheEvict(value = "unified-transaction-detail", key = "#txnId + '_WITHDRAW'")})
+	@Transactional
 	public boolean deleteTransactionById(Long txnId) {
 		log.info("Deleting transaction with id: {}", txnId);
 		boolean success = false;
@@ -76,9 +176,16 @@ public class TransactionServiceImpl implements TransactionService {
 	}
 
 	@Override
+	@Transactional(readOnly = true)
 	public List<Transaction> getAllTransactionsAndTransfersByCustomerId(Long customerId) {
         log.info("Fetching all transactions and transfers for customer id: {}", customerId);
         return transactionDao.findAllTransactionsAndTransfersByCustomerId(customerId);
     }
 
+	@Override
+	public void streamAllTransactionsAndTransfersByCustomerId(Long customerId, Consumer<Transaction> action) {
+		log.info("Streaming all transactions and transfers for customer id: {}", customerId);
+		transactionDao.streamAllTransactionsAndTransfersByCustomerId(customerId, action);
+	}
+
 }
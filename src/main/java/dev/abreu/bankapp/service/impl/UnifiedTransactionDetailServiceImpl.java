@@ -46,7 +46,8 @@ public class UnifiedTransactionDetailServiceImpl implements UnifiedTransactionDe
     }
     
     @Override
-    @Cacheable(value = "unified-transaction-detail", key = "#id + '_' + #idType")
+    // the type is upper-cased in the key so a changed transaction can be evicted whatever case it was read with
+    @Cacheable(value = "unified-transaction-detail", key = "#id + '_' + #idType?.toUpperCase()")
     public UnifiedTransactionDetailDTO getUnifiedTransactionDetailById(Long id, String idType) {
         log.info("Retrieving unified transaction detail by id");
         
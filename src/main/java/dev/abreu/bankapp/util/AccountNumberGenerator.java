@@ -1,25 +1,70 @@
 package dev.abreu.bankapp.util;
 
-import java.util.Random;
-
 /**
- * Utility class for generating random 8-digit account numbers.
+ * Utility class for turning allocation indexes into 8-digit account numbers.
+ * <p>
+ * Indexes in {@code [0, 90000000)} are scrambled with a keyed Feistel permutation, so every
+ * index maps to a different account number and consecutive indexes do not produce
+ * consecutive (guessable) numbers. The key must never change once accounts have been
+ * issued with it, otherwise previously issued numbers can be handed out again.
  */
 public class AccountNumberGenerator {
-    
-    private static final Random random = new Random();
-    
+
+    public static final long MIN_ACCOUNT_NUMBER = 10000000L;
+    public static final long ACCOUNT_NUMBER_SPACE = 90000000L;
+
+    // the Feistel network permutes 28-bit values (two 14-bit halves), the smallest even
+    // split covering the account number space; out-of-range results are cycle-walked
+    private static final int HALF_BITS = 14;
+    private static final int HALF_MASK = (1 << HALF_BITS) - 1;
+    private static final int ROUNDS = 4;
+
     private AccountNumberGenerator() {
         // Private constructor to prevent instantiation
     }
-    
+
     /**
-     * Generates a random 8-digit account number.
-     * 
-     * @return a random 8-digit account number as Long
+     * Maps an allocation index to its 8-digit account number.
+     *
+     * @param index the allocation index, between 0 (inclusive) and 90000000 (exclusive)
+     * @param key   the permutation key
+     * @return the 8-digit account number for the index
+     * @throws IllegalArgumentException if the index is outside the account number space
      */
-    public static Long generateAccountNumber() {
-        // Generate a random number between 10000000 and 99999999 (8 digits)
-        return 10000000L + random.nextInt(90000000);
+    public static Long generateAccountNumber(long index, long key) {
+        if (index < 0 || index >= ACCOUNT_NUMBER_SPACE) {
+            throw new IllegalArgumentException("Account number index out of range: " + index);
+        }
+
+        long value = index;
+        do {
+            value = feistel(value, key);
+        } while (value >= ACCOUNT_NUMBER_SPACE);
+
+        return MIN_ACCOUNT_NUMBER + value;
+    }
+
+    private static long feistel(long value, long key) {
+        int left = (int) (value >>> HALF_BITS) & HALF_MASK;
+        int right = (int) value & HALF_MASK;
+
+        for (int round = 0; round < ROUNDS; round++) {
+            int next = left ^ (roundFunction(right, key, round) & HALF_MASK);
+            left = right;
+            right = next;
+        }
+
+        return ((long) left << HALF_BITS) | right;
+    }
+
+    private static int roundFunction(int half, long key, int round) {
+        // murmur3 64-bit finalizer over the half, the key and the round number
+        long h = key ^ (half * 0x9E3779B97F4A7C15L) ^ (round * 0xC2B2AE3D27D4EB4FL);
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return (int) h;
     }
-}
\ No newline at end of file
+}
@@ -17,6 +17,32 @@ public class BankappConstants {
 	
 	public static final String JWT_RP0_BANKAPP_ISSUER = "rp0-bankapp";
 	
+	//Claims embedded in each JWT, so a request is authenticated from its token alone
+	public static final String JWT_CUSTOMER_ID_CLAIM = "cid";
+	public static final String JWT_ROLES_CLAIM = "roles";
+	//Issue time in epoch milliseconds; the standard iat claim only has second precision
+	public static final String JWT_ISSUED_AT_MILLIS_CLAIM = "iat_ms";
+	
+	//Verified tokens whose claims are kept, so a repeat token is not parsed and verified again
+	public static final int JWT_CLAIMS_CACHE_SIZE = 10000;
+	
+	//Keyset pagination limits for transaction history
+	public static final int DEFAULT_TRANSACTION_PAGE_SIZE = 50;
+	public static final int MAX_TRANSACTION_PAGE_SIZE = 200;
+	
+	//Account number allocation indexes reserved per round trip; must never change once blocks exist
+	public static final int ACCOUNT_NUMBER_BLOCK_SIZE = 1000;
+	
+	//Transfer attempts on deadlock/serialization failure, and the backoff ceiling of the first retry
+	public static final int MAX_TRANSFER_ATTEMPTS = 5;
+	public static final long TRANSFER_RETRY_BASE_BACKOFF_MS = 10;
+	
+	//Largest batch accepted by the bulk transaction save
+	public static final int MAX_TRANSACTION_BATCH_SIZE = 10000;
+	
+	//Rows written between flushes of a streamed NDJSON export
+	public static final int EXPORT_FLUSH_INTERVAL = 500;
+	
 	//Caught exception statements
 	public static final String SQL_EXCEPTION_CAUGHT= "SQLException caught in ";
 
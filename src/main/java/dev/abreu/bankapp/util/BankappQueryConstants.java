@@ -12,8 +12,9 @@ public class BankappQueryConstants {
     private static final String ACCOUNTS_TABLE = RP0_BANK_SCHEMA + ".accounts";
     private static final String TRANSACTIONS_TABLE = RP0_BANK_SCHEMA + ".transactions";
     private static final String TRANSFERS_TABLE = RP0_BANK_SCHEMA + ".transfers";
+    private static final String ACCOUNT_NUMBER_BLOCKS_TABLE = RP0_BANK_SCHEMA + ".account_number_blocks";
+    private static final String TOKEN_REVOCATIONS_TABLE = RP0_BANK_SCHEMA + ".token_revocations";
 
-    private static final String SELECT_ALL_FROM = "SELECT * FROM ";
     private static final String INSERT_INTO = "INSERT into ";
     private static final String DELETE_FROM = "DELETE from ";
     private static final String UPDATE = "UPDATE ";
@@ -22,26 +23,68 @@ public class BankappQueryConstants {
     private BankappQueryConstants() {
     }
 
-    public static final String SELECT_CUSTOMERS_BY_USERNAME_QUERY = "SELECT customer_id,first_name,last_name,address,username,passwrd FROM " + CUSTOMERS_TABLE + " WHERE username=?";
+    // Column projections read back by ResultSetMappers, which maps them by position: keep the order in sync
+    public static final String CUSTOMER_COLUMNS = "customer_id,first_name,last_name,address,username,passwrd";
 
-    public static final String SELECT_CUSTOMERS_BY_ID_QUERY = "SELECT customer_id,first_name,last_name,address,username,passwrd FROM " + CUSTOMERS_TABLE + " WHERE customer_id=?";
+    public static final String ACCOUNT_COLUMNS = "account_number,nickname,account_type,account_balance,created_at,updated_at,customer_id";
 
-    public static final String SELECT_ALL_CUSTOMERS_QUERY = SELECT_ALL_FROM + CUSTOMERS_TABLE;
+    public static final String TRANSACTION_COLUMNS = "transaction_id,transaction_type,transaction_amount,transaction_notes,created_at,account_number";
+
+    public static final String TRANSFER_COLUMNS = "transfer_id,source_acct_num,target_acct_num,transfer_amount,transfer_notes,created_at";
+
+    private static final String SELECT_CUSTOMER_COLUMNS_FROM = "SELECT " + CUSTOMER_COLUMNS + " FROM ";
+    private static final String SELECT_ACCOUNT_COLUMNS_FROM = "SELECT " + ACCOUNT_COLUMNS + " FROM ";
+    private static final String SELECT_TRANSACTION_COLUMNS_FROM = "SELECT " + TRANSACTION_COLUMNS + " FROM ";
+    private static final String SELECT_TRANSFER_COLUMNS_FROM = "SELECT " + TRANSFER_COLUMNS + " FROM ";
+
+    public static final String SELECT_CUSTOMERS_BY_USERNAME_QUERY = SELECT_CUSTOMER_COLUMNS_FROM + CUSTOMERS_TABLE + " WHERE username=?";
+
+    public static final String SELECT_CUSTOMERS_BY_ID_QUERY = SELECT_CUSTOMER_COLUMNS_FROM + CUSTOMERS_TABLE + " WHERE customer_id=?";
+
+    // the batch lookups take one array parameter, so every batch size shares a single prepared statement
+    public static final String SELECT_CUSTOMERS_BY_USERNAMES_QUERY = SELECT_CUSTOMER_COLUMNS_FROM + CUSTOMERS_TABLE + " WHERE username = ANY(?)";
+
+    public static final String SELECT_ALL_CUSTOMERS_QUERY = SELECT_CUSTOMER_COLUMNS_FROM + CUSTOMERS_TABLE;
 
     public static final String CREATE_CUSTOMER_QUERY = INSERT_INTO + CUSTOMERS_TABLE + " (customer_id,first_name,last_name,address,username,passwrd) VALUES (default,?,?,?,?,?)";
 
     public static final String UPDATE_CUSTOMER_QUERY = UPDATE + CUSTOMERS_TABLE + " SET first_name=?,last_name=?,address=?,username=? WHERE customer_id=?";
 
+    public static final String UPDATE_CUSTOMER_PASSWORD_QUERY = UPDATE + CUSTOMERS_TABLE + " SET passwrd=? WHERE username=?";
+
     public static final String DELETE_CUSTOMER_BY_USERNAME_QUERY = DELETE_FROM + CUSTOMERS_TABLE + " WHERE username=?";
 
     public static final String DELETE_CUSTOMER_BY_ID_QUERY = DELETE_FROM + CUSTOMERS_TABLE + " WHERE customer_id=?";
 
-    public static final String SELECT_ACCOUNTS_BY_ACCTNO_QUERY = SELECT_ALL_FROM + ACCOUNTS_TABLE + WHERE_ACCOUNT_NUMBER + " AND is_active=true";
+    public static final String SELECT_ACCOUNTS_BY_ACCTNO_QUERY = SELECT_ACCOUNT_COLUMNS_FROM + ACCOUNTS_TABLE + WHERE_ACCOUNT_NUMBER + " AND is_active=true";
+
+    public static final String SELECT_ACCOUNTS_BY_ACCTNOS_QUERY = SELECT_ACCOUNT_COLUMNS_FROM + ACCOUNTS_TABLE + " WHERE account_number = ANY(?) AND is_active=true";
+
+    // one row per active account, or one row with null account columns when the customer has none; no rows when there is no such customer
+    public static final String SELECT_CUSTOMER_ACCOUNTS_BY_USERNAME_QUERY = "SELECT a.account_number,a.nickname,a.account_type,a.account_balance,a.created_at,a.updated_at,a.customer_id,b.customer_id "
+            + "FROM " + CUSTOMERS_TABLE + " b LEFT JOIN " + ACCOUNTS_TABLE + " a ON a.customer_id = b.customer_id AND a.is_active=true WHERE b.username=? ORDER BY a.created_at DESC";
+
+    // ON CONFLICT only fires for numbers issued by the old random generator
+    public static final String CREATE_NEW_ACCOUNT_QUERY = INSERT_INTO + ACCOUNTS_TABLE + " (account_number,nickname,account_type,account_balance,created_at,updated_at,customer_id) VALUES (?,?,?,?,?,?,?) ON CONFLICT (account_number) DO NOTHING";
 
-    public static final String SELECT_ALL_ACCOUNTS_BY_USERNAME_QUERY = "SELECT b.username,a.customer_id,a.account_number,a.nickname,a.account_type,a.account_balance,a.created_at,a.updated_at "
-            + "FROM " + ACCOUNTS_TABLE + " a JOIN " + CUSTOMERS_TABLE + " b ON a.customer_id = b.customer_id WHERE b.username=? AND a.is_active=true ORDER BY a.created_at DESC";
+    public static final String RESERVE_ACCOUNT_NUMBER_BLOCK_QUERY = INSERT_INTO + ACCOUNT_NUMBER_BLOCKS_TABLE + " (block_size,reserved_by) VALUES (?,?) RETURNING block_index";
 
-    public static final String CREATE_NEW_ACCOUNT_QUERY = INSERT_INTO + ACCOUNTS_TABLE + " (account_number,nickname,account_type,account_balance,created_at,updated_at,customer_id) VALUES (?,?,?,?,?,?,?)";
+    // Balance change and its transaction row in one statement: the UPDATE locks the account row, and the
+    // INSERT only runs (and the query only returns a row) when the UPDATE matched. updated_at never moves
+    // backwards on a row, so it orders the account versions handed to the account cache
+    private static final String MONOTONIC_UPDATED_AT = " updated_at=GREATEST(?, updated_at + INTERVAL '1 microsecond')";
+    private static final String ACCOUNT_RETURNING_COLUMNS = " RETURNING " + ACCOUNT_COLUMNS;
+    private static final String INSERT_TRANSACTION_FOR_UPDATED_ACCOUNT = "), inserted AS (" + INSERT_INTO + TRANSACTIONS_TABLE
+            + " (transaction_type,transaction_amount,transaction_notes,created_at,account_number) SELECT ?,?,?,?,account_number FROM updated RETURNING transaction_id)"
+            + " SELECT " + ACCOUNT_COLUMNS + ", inserted.transaction_id FROM updated, inserted";
+
+    public static final String DEPOSIT_INTO_ACCOUNT_QUERY = "WITH updated AS (" + UPDATE + ACCOUNTS_TABLE
+            + " SET account_balance = account_balance + ?," + MONOTONIC_UPDATED_AT + WHERE_ACCOUNT_NUMBER + " AND is_active=true"
+            + ACCOUNT_RETURNING_COLUMNS + INSERT_TRANSACTION_FOR_UPDATED_ACCOUNT;
+
+    public static final String WITHDRAW_FROM_ACCOUNT_QUERY = "WITH updated AS (" + UPDATE + ACCOUNTS_TABLE
+            + " SET account_balance = account_balance - ?," + MONOTONIC_UPDATED_AT + WHERE_ACCOUNT_NUMBER + " AND is_active=true AND account_balance >= ?"
+            + ACCOUNT_RETURNING_COLUMNS + INSERT_TRANSACTION_FOR_UPDATED_ACCOUNT;
 
     public static final String UPDATE_ACCOUNT_QUERY = UPDATE + ACCOUNTS_TABLE + " SET account_type=?,nickname=?,account_balance=?,updated_at=?" + WHERE_ACCOUNT_NUMBER;
 
@@ -49,9 +92,18 @@ public class BankappQueryConstants {
 
     public static final String SOFT_DELETE_ACCOUNT_BY_ACCTNO_QUERY = UPDATE + ACCOUNTS_TABLE + " SET is_active=?, updated_at=?" + WHERE_ACCOUNT_NUMBER;
 
-    public static final String SELECT_TRANSACTIONS_BY_ID_QUERY = SELECT_ALL_FROM + TRANSACTIONS_TABLE + " WHERE transaction_id=?";
+    public static final String SELECT_TRANSACTIONS_BY_ID_QUERY = SELECT_TRANSACTION_COLUMNS_FROM + TRANSACTIONS_TABLE + " WHERE transaction_id=?";
+
+    public static final String SELECT_ALL_TRANSACTIONS_BY_ACCTNO_QUERY = SELECT_TRANSACTION_COLUMNS_FROM + TRANSACTIONS_TABLE + WHERE_ACCOUNT_NUMBER;
+
+    // Keyset pagination, newest first; served by idx_transactions_acct_created_id
+    private static final String ORDER_BY_TRANSACTION_KEYSET_LIMIT = " ORDER BY created_at DESC, transaction_id DESC LIMIT ?";
+
+    public static final String SELECT_TRANSACTIONS_PAGE_BY_ACCTNO_QUERY = SELECT_TRANSACTION_COLUMNS_FROM + TRANSACTIONS_TABLE + WHERE_ACCOUNT_NUMBER
+            + ORDER_BY_TRANSACTION_KEYSET_LIMIT;
 
-    public static final String SELECT_ALL_TRANSACTIONS_BY_ACCTNO_QUERY = SELECT_ALL_FROM + TRANSACTIONS_TABLE + WHERE_ACCOUNT_NUMBER;
+    public static final String SELECT_TRANSACTIONS_PAGE_BY_ACCTNO_AFTER_CURSOR_QUERY = SELECT_TRANSACTION_COLUMNS_FROM + TRANSACTIONS_TABLE + WHERE_ACCOUNT_NUMBER
+            + " AND (created_at, transaction_id) < (?, ?)" + ORDER_BY_TRANSACTION_KEYSET_LIMIT;
 
     public static final String SELECT_ALL_TRANSACTIONS_AND_TRANSFERS_BY_CUSTOMER_ID_QUERY =
         "SELECT t.transaction_id AS id, " +
@@ -81,7 +133,23 @@ public class BankappQueryConstants {
 
     public static final String DELETE_TRANSACTION_BY_ID_QUERY = DELETE_FROM + TRANSACTIONS_TABLE + " WHERE transaction_id=?";
 
-    public static final String TRANSFER_ACCOUNT_FUNDS_STORED_PROC = "CALL " + RP0_BANK_SCHEMA + ".transfer_account_funds(?, ?, ?, ?)";
+    // the last five placeholders are the function's OUT parameters (transfer id, source and target balances,
+    // source and target updated_at)
+    public static final String TRANSFER_ACCOUNT_FUNDS_STORED_PROC = "{call " + RP0_BANK_SCHEMA + ".transfer_account_funds(?, ?, ?, ?, ?, ?, ?, ?, ?)}";
+
+    public static final String SELECT_TRANSFERS_BY_ID_QUERY = SELECT_TRANSFER_COLUMNS_FROM + TRANSFERS_TABLE + " WHERE transfer_id=?";
+
+    public static final String SELECT_TRANSFERS_BY_IDS_QUERY = SELECT_TRANSFER_COLUMNS_FROM + TRANSFERS_TABLE + " WHERE transfer_id = ANY(?)";
+
+    // a later revocation for the same customer moves revoked_at forward, it never moves back
+    public static final String SAVE_TOKEN_REVOCATION_QUERY = INSERT_INTO + TOKEN_REVOCATIONS_TABLE + " (customer_id,revoked_at) VALUES (?,?)"
+            + " ON CONFLICT (customer_id) DO UPDATE SET revoked_at = GREATEST(" + TOKEN_REVOCATIONS_TABLE + ".revoked_at, EXCLUDED.revoked_at)";
+
+    public static final String SELECT_TOKEN_REVOCATIONS_SINCE_QUERY = "SELECT customer_id,revoked_at FROM " + TOKEN_REVOCATIONS_TABLE + " WHERE revoked_at > ?";
 
-    public static final String SELECT_TRANSFERS_BY_ID_QUERY = SELECT_ALL_FROM + TRANSFERS_TABLE + " WHERE transfer_id=?";
+    // Seconds a replica's replayed state trails the primary; 0 when it has replayed everything it received
+    // (an idle primary sends nothing, so the last replay timestamp alone would overstate the lag) or is not a replica
+    public static final String SELECT_REPLICA_LAG_SECONDS_QUERY = "SELECT CASE WHEN NOT pg_is_in_recovery()"
+            + " OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0"
+            + " ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()), 0) END";
 }
@@ -0,0 +1,48 @@
+package dev.abreu.bankapp.util;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position of the last row returned in a keyset-paginated listing, ordered by
+ * {@code (created_at, id)} descending. Clients only ever see the encoded form,
+ * which is treated as an opaque continuation token.
+ *
+ * @param createdAt the creation timestamp of the last row returned
+ * @param id        the id of the last row returned, used as a tie-breaker
+ * @author Devin Abreu
+ */
+public record KeysetCursor(LocalDateTime createdAt, long id) {
+
+	private static final String SEPARATOR = "|";
+
+	/**
+	 * Encodes this cursor into an opaque, URL-safe continuation token.
+	 *
+	 * @return the encoded token
+	 */
+	public String encode() {
+		String raw = createdAt + SEPARATOR + id;
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Decodes a continuation token previously produced by {@link #encode()}.
+	 *
+	 * @param token the continuation token
+	 * @return the decoded cursor
+	 * @throws IllegalArgumentException if the token is malformed
+	 */
+	public static KeysetCursor decode(String token) {
+		try {
+			String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+			int separatorIdx = raw.lastIndexOf(SEPARATOR);
+			return new KeysetCursor(LocalDateTime.parse(raw.substring(0, separatorIdx)),
+					Long.parseLong(raw.substring(separatorIdx + 1)));
+		} catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+			throw new IllegalArgumentException("Invalid page token: " + token);
+		}
+	}
+}
@@ -0,0 +1,86 @@
+-- Cross-node cache invalidation: every committed change to a cached row is announced on the
+-- bankapp_cache_invalidation channel, and each application node's CacheInvalidationListener evicts the
+-- matching entries from its local caches. NOTIFY is delivered at commit, so a rolled back change is never announced.
+--
+-- Payload: {"cache": <cache name>, "keys": [<cache keys>], "sentAt": <epoch millis>}
+--
+-- Balance changes are not announced. Every NOTIFY takes a database-wide lock on the notification queue at
+-- commit, which would serialize every deposit, withdrawal and transfer behind it. The node that moves a balance
+-- writes it through to its own cache; other nodes keep serving the balance they cached until that entry expires
+-- (the account cache's expire-after-write). Only changes to what an account is (nickname, type, active flag and
+-- owner), inserts and deletes are announced.
+--
+-- Inserts, and customer renames, also evict the keys that now exist from the not-found cache, where
+-- NegativeLookupCache may remember them as missing; those keys are prefixed the way it builds them.
+-- Opening, closing, deleting or moving an account also evicts its customer's entry in the account-list cache, and
+-- so does renaming or deleting the customer, since lists are found by the username they were loaded for.
+
+DROP FUNCTION IF EXISTS "rp0-bankapp".notify_cache_keys(TEXT, JSON, TIMESTAMP);
+
+CREATE OR REPLACE FUNCTION "rp0-bankapp".notify_cache_keys(cache_name TEXT, cache_keys JSON)
+RETURNS VOID
+LANGUAGE sql
+AS $$
+    SELECT pg_notify('bankapp_cache_invalidation', json_build_object(
+        'cache', cache_name,
+        'keys', cache_keys,
+        'sentAt', floor(extract(EPOCH FROM clock_timestamp()) * 1000)::BIGINT)::TEXT);
+$$;
+
+CREATE OR REPLACE FUNCTION "rp0-bankapp".notify_cache_invalidation()
+RETURNS TRIGGER
+LANGUAGE plpgsql
+AS $$
+DECLARE
+    cache_name TEXT;
+    cache_keys JSON;
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        IF TG_TABLE_NAME = 'accounts' THEN
+            cache_keys := json_build_array('account:' || NEW.account_number);
+            PERFORM "rp0-bankapp".notify_cache_keys('account-list', json_build_array(NEW.customer_id));
+        ELSE
+            cache_keys := json_build_array('customer:' || NEW.customer_id, 'username:' || NEW.username);
+        END IF;
+        PERFORM "rp0-bankapp".notify_cache_keys('not-found', cache_keys);
+        RETURN NULL;
+    END IF;
+
+    IF TG_TABLE_NAME = 'accounts' THEN
+        cache_name := 'account';
+        cache_keys := json_build_array(OLD.account_number);
+        IF TG_OP = 'DELETE' THEN
+            PERFORM "rp0-bankapp".notify_cache_keys('account-list', json_build_array(OLD.customer_id));
+        ELSIF (OLD.is_active, OLD.customer_id) IS DISTINCT FROM (NEW.is_active, NEW.customer_id) THEN
+            PERFORM "rp0-bankapp".notify_cache_keys('account-list',
+                json_build_array(OLD.customer_id, NEW.customer_id));
+        END IF;
+    ELSE
+        -- customers are cached under their id only; CustomerIdentityCache drops username index entries that
+        -- no longer match the cached customer when they are next read
+        cache_name := 'customer';
+        cache_keys := json_build_array(OLD.customer_id);
+        IF TG_OP = 'UPDATE' AND OLD.username <> NEW.username THEN
+            PERFORM "rp0-bankapp".notify_cache_keys('not-found', json_build_array('username:' || NEW.username));
+        END IF;
+        IF TG_OP = 'DELETE' OR (TG_OP = 'UPDATE' AND OLD.username <> NEW.username) THEN
+            PERFORM "rp0-bankapp".notify_cache_keys('account-list', json_build_array(OLD.customer_id));
+        END IF;
+    END IF;
+
+    PERFORM "rp0-bankapp".notify_cache_keys(cache_name, cache_keys);
+    RETURN NULL;
+END;
+$$;
+
+-- UPDATE OF fires whenever one of the columns is assigned, even to its old value, but never for the balance
+-- updates made by deposits, withdrawals and transfer_account_funds, which assign only the balance and updated_at
+DROP TRIGGER IF EXISTS accounts_cache_invalidation ON "rp0-bankapp".accounts;
+CREATE TRIGGER accounts_cache_invalidation
+    AFTER INSERT OR DELETE OR UPDATE OF nickname, account_type, is_active, customer_id ON "rp0-bankapp".accounts
+    FOR EACH ROW EXECUTE FUNCTION "rp0-bankapp".notify_cache_invalidation();
+
+DROP TRIGGER IF EXISTS customers_cache_invalidation ON "rp0-bankapp".customers;
+CREATE TRIGGER customers_cache_invalidation
+    AFTER INSERT OR UPDATE OR DELETE ON "rp0-bankapp".customers
+    FOR EACH ROW EXECUTE FUNCTION "rp0-bankapp".notify_cache_invalidation();
@@ -34,6 +34,18 @@ create table "rp0-bankapp".accounts
 -- Create index on customer_id for faster account lookups by customer
 CREATE INDEX idx_accounts_customer_id ON "rp0-bankapp".accounts (customer_id);
 
+-- Account number blocks: each application node reserves a block of allocation indexes here and
+-- hands out the account numbers derived from them without touching the database again.
+-- block_index comes from the sequence, so two nodes can never reserve the same block.
+CREATE SEQUENCE "rp0-bankapp".account_number_block_seq MINVALUE 0 START WITH 0;
+create table "rp0-bankapp".account_number_blocks
+(
+    block_index bigint primary key default nextval('"rp0-bankapp".account_number_block_seq'),
+    block_size  integer      not null,
+    reserved_by varchar(255) not null,
+    reserved_at timestamp    not null default (now() at time zone 'America/Chicago')
+);
+
 -- Transactions table (V1)
 create table "rp0-bankapp".transactions
 (
@@ -46,6 +58,8 @@ create table "rp0-bankapp".transactions
 );
 -- Create index on transaction_id for faster account lookups by transaction
 CREATE INDEX idx_transactions_id ON "rp0-bankapp".transactions (transaction_id);
+-- Composite index backing keyset pagination of an account's transaction history (newest first)
+CREATE INDEX idx_transactions_acct_created_id ON "rp0-bankapp".transactions (account_number, created_at DESC, transaction_id DESC);
 
 -- Loans table (Not yet implemented)
 CREATE TABLE "rp0-bankapp".loans
@@ -153,6 +167,16 @@ CREATE INDEX idx_transfers_created_at ON "rp0-bankapp".transfers (created_at);
 CREATE INDEX idx_transfers_source ON "rp0-bankapp".transfers (source_acct_num);
 CREATE INDEX idx_transfers_target ON "rp0-bankapp".transfers (target_acct_num);
 
+-- Token revocations: every token issued to the customer at or before revoked_at is rejected. Each application
+-- node keeps the revocations younger than the token lifetime in memory and re-reads them periodically, so older
+-- rows can be deleted. No foreign key, since deleting a customer is one of the reasons to revoke.
+create table "rp0-bankapp".token_revocations
+(
+    customer_id bigint primary key,
+    revoked_at  timestamp not null
+);
+CREATE INDEX idx_token_revocations_revoked_at ON "rp0-bankapp".token_revocations (revoked_at);
+
 -- Add check constraints for data integrity
 ALTER TABLE "rp0-bankapp".accounts
     ADD CONSTRAINT chk_account_balance CHECK (account_balance >= 0);
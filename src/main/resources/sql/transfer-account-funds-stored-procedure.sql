@@ -1,49 +1,80 @@
 SELECT prosrc FROM pg_proc WHERE proname = 'transfer_account_funds';
 
-CALL "rp0-bankapp".transfer_account_funds(16, 17, 100.00, 'test notes');
+SELECT * FROM "rp0-bankapp".transfer_account_funds(16, 17, 100.00, 'test notes');
 
--- Creating stored procedure for transferring funds between accounts
-CREATE PROCEDURE "rp0-bankapp".transfer_account_funds(
+-- Replaces the original procedure, which read the source balance without a lock and updated
+-- the two accounts in argument order (opposite-direction transfers could deadlock)
+DROP PROCEDURE IF EXISTS "rp0-bankapp".transfer_account_funds(BIGINT, BIGINT, DECIMAL, VARCHAR);
+-- OUT parameters are part of a function's result type, so adding some needs a drop rather than a replace
+DROP FUNCTION IF EXISTS "rp0-bankapp".transfer_account_funds(BIGINT, BIGINT, DECIMAL, VARCHAR);
+
+-- Creating function for transferring funds between accounts; runs in the caller's transaction
+CREATE OR REPLACE FUNCTION "rp0-bankapp".transfer_account_funds(
     source_account_number BIGINT,
     target_account_number BIGINT,
     amount DECIMAL(15, 2),
-    notes VARCHAR(100)
+    notes VARCHAR(100),
+    OUT new_transfer_id BIGINT,
+    OUT new_source_balance DECIMAL(15, 2),
+    OUT new_target_balance DECIMAL(15, 2),
+    OUT new_source_updated_at TIMESTAMP,
+    OUT new_target_updated_at TIMESTAMP
 )
 LANGUAGE plpgsql
 AS $$
 DECLARE
-    source_balance DECIMAL(15, 2);   -- Variable to hold sender's balance
+    locked_accounts INTEGER;   -- Number of active accounts locked
+    missing_account BIGINT;    -- An account that is not active, reported back to the caller
 BEGIN
-	-- Check sender's balance
-    SELECT account_balance INTO source_balance
-    FROM "rp0-bankapp".accounts
-    WHERE account_number = source_account_number;
+    -- Lock both accounts in account number order, so two transfers between the same
+    -- pair always queue on the same row first instead of deadlocking
+    SELECT count(*) INTO locked_accounts
+    FROM (SELECT account_number
+          FROM "rp0-bankapp".accounts
+          WHERE account_number IN (source_account_number, target_account_number)
+            AND is_active = true
+          ORDER BY account_number
+          FOR UPDATE) locked;
+
+    IF locked_accounts < 2 THEN
+        SELECT acct INTO missing_account
+        FROM unnest(ARRAY[source_account_number, target_account_number]) acct
+        WHERE NOT EXISTS (SELECT 1
+                          FROM "rp0-bankapp".accounts
+                          WHERE account_number = acct
+                            AND is_active = true)
+        LIMIT 1;
 
-    -- Validate if the sender has sufficient funds
-    IF source_balance < amount THEN
+        -- the caller reads the account number back out of this message
+        RAISE EXCEPTION 'Account % not found for transfer', COALESCE(missing_account, target_account_number)
+        USING ERRCODE = 'P0002';  -- no_data_found
+    END IF;
+
+    -- sender's account, only debited while the balance covers the amount; updated_at only ever moves
+    -- forward on a row, so callers can use it to order the balances they are handed
+    UPDATE "rp0-bankapp".accounts
+    SET account_balance = account_balance - amount,
+        updated_at = GREATEST(NOW() AT TIME ZONE 'AMERICA/CHICAGO', updated_at + INTERVAL '1 microsecond')
+    WHERE account_number = source_account_number
+      AND account_balance >= amount
+    RETURNING account_balance, updated_at INTO new_source_balance, new_source_updated_at;
+
+    -- Validate if the sender had sufficient funds
+    IF NOT FOUND THEN
         RAISE EXCEPTION 'Insufficient funds for transfer from account %', source_account_number
         USING ERRCODE = 'P0001';  -- Custom error code
     END IF;
-	
-    -- sender's account
-    UPDATE "rp0-bankapp".accounts
-    SET account_balance = account_balance - amount, updated_at = (NOW() AT TIME ZONE 'AMERICA/CHICAGO')
-    WHERE account_number = source_account_number;
 
     -- receiver's account
     UPDATE "rp0-bankapp".accounts
-    SET account_balance = account_balance + amount, updated_at = (NOW() AT TIME ZONE 'AMERICA/CHICAGO')
-    WHERE account_number = target_account_number;
+    SET account_balance = account_balance + amount,
+        updated_at = GREATEST(NOW() AT TIME ZONE 'AMERICA/CHICAGO', updated_at + INTERVAL '1 microsecond')
+    WHERE account_number = target_account_number
+    RETURNING account_balance, updated_at INTO new_target_balance, new_target_updated_at;
 
-	-- Insert transfer record
+    -- Insert transfer record
     INSERT INTO "rp0-bankapp".transfers (source_acct_num, target_acct_num, transfer_amount, transfer_notes)
-    VALUES (source_account_number, target_account_number, amount, notes);
-
-    -- Check for errors
-    IF FOUND THEN
-        COMMIT;
-    ELSE
-        ROLLBACK;
-    END IF;
+    VALUES (source_account_number, target_account_number, amount, notes)
+    RETURNING transfer_id INTO new_transfer_id;
 END;
-$$;
\ No newline at end of file
+$$;
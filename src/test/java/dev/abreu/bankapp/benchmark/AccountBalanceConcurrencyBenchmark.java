@@ -0,0 +1,117 @@
+package dev.abreu.bankapp.benchmark;
+
+import com.zaxxer.hikari.HikariDataSource;
+import dev.abreu.bankapp.dao.impl.AccountDaoImpl;
+import dev.abreu.bankapp.dao.impl.AccountNumberAllocator;
+import dev.abreu.bankapp.entity.Account;
+import dev.abreu.bankapp.entity.Transaction;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static dev.abreu.bankapp.util.BankappConstants.ACCOUNT_DEPOSIT;
+import static dev.abreu.bankapp.util.BankappConstants.ACCOUNT_WITHDRAW;
+
+/**
+ * Hammers one account with concurrent deposits and withdrawals through
+ * {@link AccountDaoImpl#depositFunds(Transaction)} and {@link AccountDaoImpl#withdrawFunds(Transaction)}
+ * and checks that the final balance matches the operations that reported success, i.e. that no
+ * update was lost. Needs a running database, so it is run by hand rather than by surefire:
+ * <pre>
+ * DB_URL=... DB_USER=... DB_PASSWORD=... BENCH_ACCOUNT_NUMBER=... [BENCH_THREADS=32] [BENCH_OPS=500] \
+ *   java -cp target/test-classes:target/classes:&lt;deps&gt; dev.abreu.bankapp.benchmark.AccountBalanceConcurrencyBenchmark
+ * </pre>
+ * Each thread alternates a 2.00 deposit with a 1.00 withdrawal. The account balance is restored and
+ * the transaction rows written are deleted afterwards.
+ *
+ * @author Devin Abreu
+ */
+public class AccountBalanceConcurrencyBenchmark {
+
+	private static final String DELETE_BENCH_ROWS_QUERY = "DELETE FROM \"rp0-bankapp\".transactions WHERE transaction_notes = ?";
+	private static final String RESTORE_BALANCE_QUERY = "UPDATE \"rp0-bankapp\".accounts SET account_balance = ? WHERE account_number = ?";
+
+	private static final double DEPOSIT_AMOUNT = 2.00;
+	private static final double WITHDRAW_AMOUNT = 1.00;
+
+	public static void main(String[] args) throws Exception {
+		long accountNumber = Long.parseLong(BenchmarkDataSources.requireEnv("BENCH_ACCOUNT_NUMBER"));
+		int threads = Integer.parseInt(System.getenv().getOrDefault("BENCH_THREADS", "32"));
+		int opsPerThread = Integer.parseInt(System.getenv().getOrDefault("BENCH_OPS", "500"));
+		String marker = "balance-benchmark-" + UUID.randomUUID();
+
+		try (HikariDataSource dataSource = BenchmarkDataSources.create()) {
+			dataSource.setMaximumPoolSize(threads);
+			// the allocator is never asked for a number here
+			AccountDaoImpl accountDao = new AccountDaoImpl(dataSource, new AccountNumberAllocator(dataSource, 0L));
+			BigDecimal startBalance = currentBalance(accountDao, accountNumber);
+
+			AtomicInteger deposits = new AtomicInteger();
+			AtomicInteger withdrawals = new AtomicInteger();
+			ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+			try {
+				long start = System.nanoTime();
+				List<Future<?>> futures = new ArrayList<>();
+				for (int t = 0; t < threads; t++) {
+					futures.add(executor.submit(() -> {
+						for (int i = 0; i < opsPerThread; i++) {
+							if (i % 2 == 0) {
+								accountDao.depositFunds(new Transaction(ACCOUNT_DEPOSIT, DEPOSIT_AMOUNT, marker, accountNumber))
+										.ifPresent(a -> deposits.incrementAndGet());
+							} else {
+								accountDao.withdrawFunds(new Transaction(ACCOUNT_WITHDRAW, WITHDRAW_AMOUNT, marker, accountNumber))
+										.ifPresent(a -> withdrawals.incrementAndGet());
+							}
+						}
+					}));
+				}
+				for (Future<?> future : futures) {
+					future.get();
+				}
+				long elapsed = System.nanoTime() - start;
+
+				BigDecimal expected = startBalance
+						.add(BigDecimal.valueOf(DEPOSIT_AMOUNT).multiply(BigDecimal.valueOf(deposits.get())))
+						.subtract(BigDecimal.valueOf(WITHDRAW_AMOUNT).multiply(BigDecimal.valueOf(withdrawals.get())));
+				BigDecimal actual = currentBalance(accountDao, accountNumber);
+				int operations = deposits.get() + withdrawals.get();
+
+				System.out.printf("operations : %d deposits, %d withdrawals on %d threads%n", deposits.get(), withdrawals.get(), threads);
+				System.out.printf("throughput : %,.0f ops/s%n", operations / (elapsed / 1_000_000_000.0));
+				System.out.printf("balance    : expected %s, actual %s -> %s%n", expected, actual,
+						expected.compareTo(actual) == 0 ? "no lost updates" : "LOST UPDATES");
+			} finally {
+				executor.shutdownNow();
+				restore(dataSource, accountNumber, startBalance, marker);
+			}
+		}
+	}
+
+	private static BigDecimal currentBalance(AccountDaoImpl accountDao, long accountNumber) {
+		Account account = accountDao.findAccountByAcctNo(accountNumber)
+				.orElseThrow(() -> new IllegalStateException("Account " + accountNumber + " not found"));
+		return BigDecimal.valueOf(account.getAccountBalance()).setScale(2);
+	}
+
+	private static void restore(HikariDataSource dataSource, long accountNumber, BigDecimal balance, String marker) throws SQLException {
+		try (Connection conn = dataSource.getConnection();
+				PreparedStatement restoreStmt = conn.prepareStatement(RESTORE_BALANCE_QUERY);
+				PreparedStatement deleteStmt = conn.prepareStatement(DELETE_BENCH_ROWS_QUERY)) {
+			restoreStmt.setBigDecimal(1, balance);
+			restoreStmt.setLong(2, accountNumber);
+			restoreStmt.executeUpdate();
+			deleteStmt.setString(1, marker);
+			System.out.printf("cleaned up %d benchmark row(s)%n", deleteStmt.executeUpdate());
+		}
+	}
+}
@@ -0,0 +1,38 @@
+package dev.abreu.bankapp.benchmark;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Builds the connection pool used by the hand-run database benchmarks, configured the same way
+ * as the application's pool and pointed at the database named by the {@code DB_URL},
+ * {@code DB_USER} and {@code DB_PASSWORD} environment variables.
+ *
+ * @author Devin Abreu
+ */
+final class BenchmarkDataSources {
+
+	private BenchmarkDataSources() {
+	}
+
+	static HikariDataSource create() {
+		return create(requireEnv("DB_URL"));
+	}
+
+	static HikariDataSource create(String jdbcUrl) {
+		HikariDataSource dataSource = new HikariDataSource();
+		dataSource.setJdbcUrl(jdbcUrl);
+		dataSource.setUsername(requireEnv("DB_USER"));
+		dataSource.setPassword(requireEnv("DB_PASSWORD"));
+		dataSource.setDriverClassName("org.postgresql.Driver");
+		dataSource.addDataSourceProperty("reWriteBatchedInserts", "true");
+		return dataSource;
+	}
+
+	static String requireEnv(String name) {
+		String value = System.getenv(name);
+		if (value == null || value.isBlank()) {
+			throw new IllegalStateException("Environment variable " + name + " must be set");
+		}
+		return value;
+	}
+}
@@ -0,0 +1,151 @@
+package dev.abreu.bankapp.benchmark;
+
+import com.zaxxer.hikari.HikariDataSource;
+import dev.abreu.bankapp.cache.CacheInvalidationListener;
+import dev.abreu.bankapp.dao.impl.AccountDaoImpl;
+import dev.abreu.bankapp.dao.impl.AccountNumberAllocator;
+import dev.abreu.bankapp.entity.Account;
+import dev.abreu.bankapp.entity.Transaction;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static dev.abreu.bankapp.cache.AccountCache.ACCOUNT_CACHE;
+import static dev.abreu.bankapp.util.BankappConstants.ACCOUNT_DEPOSIT;
+import static dev.abreu.bankapp.util.BankappConstants.ACCOUNT_WITHDRAW;
+
+/**
+ * Runs two application "nodes" in one JVM, each with its own caches and {@link CacheInvalidationListener}, against
+ * one database with {@code sql/cache-invalidation-triggers.sql} applied. Each round renames an account while both
+ * nodes cache it and waits for both to evict it. At the end a deposit and a withdrawal are made on the account,
+ * and the check confirms that neither was announced: balance changes do not notify. Run by hand rather than by
+ * surefire:
+ * <pre>
+ * DB_URL=... DB_USER=... DB_PASSWORD=... BENCH_ACCOUNT_NUMBER=... [BENCH_ROUNDS=200] \
+ *   java -cp target/test-classes:target/classes:&lt;deps&gt; dev.abreu.bankapp.benchmark.CacheInvalidationTwoNodeCheck
+ * </pre>
+ * The account's nickname is restored afterwards, the deposit and withdrawal leave its balance where it started,
+ * and the transaction rows written are deleted.
+ *
+ * @author Devin Abreu
+ */
+public class CacheInvalidationTwoNodeCheck {
+
+	private static final String RENAME_ACCOUNT_QUERY = "UPDATE \"rp0-bankapp\".accounts SET nickname = ? WHERE account_number = ?";
+	private static final String DELETE_BENCH_ROWS_QUERY = "DELETE FROM \"rp0-bankapp\".transactions WHERE transaction_notes = ?";
+	private static final String CHANNEL = "bankapp_cache_invalidation";
+	private static final long EVICTION_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(5);
+	private static final long UNANNOUNCED_WAIT_MILLIS = 1000;
+
+	public static void main(String[] args) throws Exception {
+		long accountNumber = Long.parseLong(BenchmarkDataSources.requireEnv("BENCH_ACCOUNT_NUMBER"));
+		int rounds = Integer.parseInt(System.getenv().getOrDefault("BENCH_ROUNDS", "200"));
+		String marker = "invalidation-check-" + UUID.randomUUID();
+
+		Node nodeA = new Node();
+		Node nodeB = new Node();
+		try (HikariDataSource dataSource = BenchmarkDataSources.create();
+				CacheInvalidationListener listenerA = nodeA.listener();
+				CacheInvalidationListener listenerB = nodeB.listener()) {
+			listenerA.start();
+			listenerB.start();
+			// LISTEN is issued asynchronously; give both nodes time to subscribe before the first change
+			Thread.sleep(1000);
+
+			// the allocator is never asked for a number here
+			AccountDaoImpl accountDao = new AccountDaoImpl(dataSource, new AccountNumberAllocator(dataSource, 0L));
+			Account original = accountDao.findAccountByAcctNo(accountNumber)
+					.orElseThrow(() -> new IllegalStateException("Account " + accountNumber + " not found"));
+			long[] lagNanos = new long[rounds];
+
+			try {
+				for (int i = 0; i < rounds; i++) {
+					nodeA.cache.put(accountNumber, original);
+					nodeB.cache.put(accountNumber, original);
+
+					rename(dataSource, accountNumber, "check-" + i);
+					long committedAt = System.nanoTime();
+
+					while (nodeA.cache.get(accountNumber) != null || nodeB.cache.get(accountNumber) != null) {
+						if (System.nanoTime() - committedAt > EVICTION_TIMEOUT_NANOS) {
+							throw new IllegalStateException("Account " + accountNumber + " still cached after 5s");
+						}
+						Thread.onSpinWait();
+					}
+					lagNanos[i] = System.nanoTime() - committedAt;
+				}
+
+				nodeB.cache.put(accountNumber, original);
+				accountDao.depositFunds(new Transaction(ACCOUNT_DEPOSIT, 1.00, marker, accountNumber));
+				accountDao.withdrawFunds(new Transaction(ACCOUNT_WITHDRAW, 1.00, marker, accountNumber));
+				Thread.sleep(UNANNOUNCED_WAIT_MILLIS);
+				if (nodeB.cache.get(accountNumber) == null) {
+					throw new IllegalStateException("A balance change on " + accountNumber + " was announced");
+				}
+
+				Arrays.sort(lagNanos);
+				Timer listenerLag = nodeB.meterRegistry.get(CacheInvalidationListener.LAG_METER).timer();
+				System.out.printf("rounds          : %d, both nodes evicted every renamed account%n", rounds);
+				System.out.printf("balance changes : not announced, node B still cached the account after %d ms%n",
+						UNANNOUNCED_WAIT_MILLIS);
+				System.out.printf("commit->evict   : p50 %.2f ms, p95 %.2f ms, p99 %.2f ms, max %.2f ms%n",
+						percentileMillis(lagNanos, 0.50), percentileMillis(lagNanos, 0.95),
+						percentileMillis(lagNanos, 0.99), lagNanos[rounds - 1] / 1_000_000.0);
+				System.out.printf("trigger->evict  : mean %.2f ms, max %.2f ms (cache.invalidation.lag on node B)%n",
+						listenerLag.mean(TimeUnit.MILLISECONDS), listenerLag.max(TimeUnit.MILLISECONDS));
+			} finally {
+				rename(dataSource, accountNumber, original.getNickname());
+				cleanup(dataSource, marker);
+			}
+		}
+	}
+
+	private static void rename(HikariDataSource dataSource, long accountNumber, String nickname) throws SQLException {
+		try (Connection conn = dataSource.getConnection();
+				PreparedStatement renameStmt = conn.prepareStatement(RENAME_ACCOUNT_QUERY)) {
+			renameStmt.setString(1, nickname);
+			renameStmt.setLong(2, accountNumber);
+			renameStmt.executeUpdate();
+		}
+	}
+
+	private static double percentileMillis(long[] sortedNanos, double percentile) {
+		int index = (int) Math.ceil(percentile * sortedNanos.length) - 1;
+		return sortedNanos[Math.max(0, index)] / 1_000_000.0;
+	}
+
+	private static void cleanup(HikariDataSource dataSource, String marker) throws SQLException {
+		try (Connection conn = dataSource.getConnection();
+				PreparedStatement deleteStmt = conn.prepareStatement(DELETE_BENCH_ROWS_QUERY)) {
+			deleteStmt.setString(1, marker);
+			System.out.printf("cleaned up %d check row(s)%n", deleteStmt.executeUpdate());
+		}
+	}
+
+	/**
+	 * What one application node holds: its own caches, and a listener on its own connection.
+	 */
+	private static final class Node {
+
+		private final CaffeineCacheManager cacheManager = new CaffeineCacheManager(ACCOUNT_CACHE, "customer");
+		private final Cache cache = cacheManager.getCache(ACCOUNT_CACHE);
+		private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+		private CacheInvalidationListener listener() {
+			DriverManagerDataSource listenerDataSource = new DriverManagerDataSource(BenchmarkDataSources.requireEnv("DB_URL"),
+					BenchmarkDataSources.requireEnv("DB_USER"), BenchmarkDataSources.requireEnv("DB_PASSWORD"));
+			return new CacheInvalidationListener(listenerDataSource, cacheManager, meterRegistry,
+					CHANNEL, Duration.ofMillis(100), Duration.ofSeconds(1));
+		}
+	}
+}
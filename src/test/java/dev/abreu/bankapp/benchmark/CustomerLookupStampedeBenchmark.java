@@ -0,0 +1,214 @@
+package dev.abreu.bankapp.benchmark;
+
+import dev.abreu.bankapp.cache.CustomerCacheLoader;
+import dev.abreu.bankapp.cache.CustomerIdentityCache;
+import dev.abreu.bankapp.cache.NegativeLookupCache;
+import dev.abreu.bankapp.cache.RespClient;
+import dev.abreu.bankapp.config.CacheConfig;
+import dev.abreu.bankapp.config.CacheRefreshLoader;
+import dev.abreu.bankapp.config.CacheSpecProperties;
+import dev.abreu.bankapp.config.SharedCacheProperties;
+import dev.abreu.bankapp.dao.CustomerDao;
+import dev.abreu.bankapp.entity.Customer;
+import dev.abreu.bankapp.service.CustomerService;
+import dev.abreu.bankapp.service.TokenService;
+import dev.abreu.bankapp.service.impl.CustomerServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Reproduces the burst that follows a node restart: many concurrent authenticated requests for the same few
+ * users, all of whom are missing from the {@code customer} cache. Runs {@link CustomerServiceImpl} and its
+ * {@link CustomerIdentityCache} on the application's cache setup, over a stand-in {@link CustomerDao} that counts
+ * queries and answers after a fixed delay, and reports how many queries the burst caused. No database is needed; run by hand:
+ * <pre>
+ * [BENCH_USERS=50] [BENCH_REQUESTS_PER_USER=40] [BENCH_THREADS=200] [BENCH_QUERY_MILLIS=20] \
+ *   java -cp target/test-classes:target/classes:&lt;deps&gt; dev.abreu.bankapp.benchmark.CustomerLookupStampedeBenchmark
+ * </pre>
+ * With misses coalesced, the burst costs one query per user however many requests arrive for them.
+ *
+ * @author Devin Abreu
+ */
+public class CustomerLookupStampedeBenchmark {
+
+	private static final AtomicInteger QUERIES = new AtomicInteger();
+
+	private static final int USERS = Integer.parseInt(System.getenv().getOrDefault("BENCH_USERS", "50"));
+	private static final int REQUESTS_PER_USER = Integer.parseInt(System.getenv().getOrDefault("BENCH_REQUESTS_PER_USER", "40"));
+	private static final int THREADS = Integer.parseInt(System.getenv().getOrDefault("BENCH_THREADS", "200"));
+	private static final long QUERY_MILLIS = Long.parseLong(System.getenv().getOrDefault("BENCH_QUERY_MILLIS", "20"));
+
+	public static void main(String[] args) throws Exception {
+		try (AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(StampedeContext.class)) {
+			CustomerService customerService = context.getBean(CustomerService.class);
+
+			List<String> requests = new ArrayList<>();
+			for (int r = 0; r < REQUESTS_PER_USER; r++) {
+				for (int u = 0; u < USERS; u++) {
+					requests.add("user-" + u);
+				}
+			}
+
+			ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+			CountDownLatch start = new CountDownLatch(1);
+			try {
+				List<Future<?>> futures = new ArrayList<>();
+				for (String username : requests) {
+					futures.add(executor.submit(() -> {
+						start.await();
+						return customerService.getCustomerByUsername(username);
+					}));
+				}
+
+				long startNanos = System.nanoTime();
+				start.countDown();
+				for (Future<?> future : futures) {
+					future.get();
+				}
+				long elapsedMillis = (System.nanoTime() - startNanos) / 1_000_000;
+
+				System.out.printf("burst      : %d requests for %d cold users on %d threads, %d ms%n",
+						requests.size(), USERS, THREADS, elapsedMillis);
+				System.out.printf("db queries : %d findByUsername (%.2f per user, %d without coalescing)%n",
+						QUERIES.get(), QUERIES.get() / (double) USERS, requests.size());
+			} finally {
+				executor.shutdownNow();
+			}
+		}
+	}
+
+	/**
+	 * The application's caching setup for the customer lookups only, over a query-counting DAO.
+	 */
+	@Configuration
+	static class StampedeContext {
+
+		// a plain bean rather than an import, so only the cache manager below is taken from it
+		@Bean
+		CacheConfig cacheConfig() {
+			return new CacheConfig();
+		}
+
+		@Bean
+		CustomerDao customerDao() {
+			return new CountingCustomerDao();
+		}
+
+		@Bean
+		CustomerCacheLoader customerCacheLoader(CustomerDao customerDao) {
+			return new CustomerCacheLoader(customerDao);
+		}
+
+		@Bean
+		NegativeLookupCache negativeLookupCache(CacheManager cacheManager) {
+			return new NegativeLookupCache(cacheManager);
+		}
+
+		@Bean
+		CustomerIdentityCache customerIdentityCache(CacheManager cacheManager, NegativeLookupCache negativeLookupCache,
+				CustomerDao customerDao) {
+			return new CustomerIdentityCache(cacheManager, negativeLookupCache, customerDao);
+		}
+
+		@Bean
+		CustomerService customerService(CustomerDao customerDao, CustomerIdentityCache customerIdentityCache) {
+			// only lookups are measured, which never touch tokens
+			return new CustomerServiceImpl(customerDao, customerIdentityCache, Mockito.mock(TokenService.class));
+		}
+
+		@Bean
+		CacheManager cacheManager(CacheConfig cacheConfig, ObjectProvider<CacheRefreshLoader> refreshLoaders) {
+			// the customer and not-found specs from application.yml
+			CacheSpecProperties.Spec customerSpec = new CacheSpecProperties.Spec(20000L, null, Duration.ofMinutes(30), null,
+					Duration.ofMinutes(5), true, true);
+			CacheSpecProperties.Spec notFoundSpec = new CacheSpecProperties.Spec(100000L, null, Duration.ofSeconds(30), null,
+					null, true, false);
+			SharedCacheProperties noSharedTier = new SharedCacheProperties(false, "localhost", 6379, Duration.ofMillis(250),
+					16, Duration.ofSeconds(5), Duration.ofSeconds(10), "bankapp:", Map.of());
+			return cacheConfig.cacheManager(new CacheSpecProperties(Map.of("customer", customerSpec, "not-found", notFoundSpec)), refreshLoaders,
+					noSharedTier, new StaticListableBeanFactory().getBeanProvider(RespClient.class),
+					new SimpleMeterRegistry());
+		}
+	}
+
+	/**
+	 * Answers username lookups after {@code BENCH_QUERY_MILLIS}, counting them; nothing else is called.
+	 */
+	static class CountingCustomerDao implements CustomerDao {
+
+		@Override
+		public Optional<Customer> findByUsername(String username) {
+			QUERIES.incrementAndGet();
+			try {
+				Thread.sleep(QUERY_MILLIS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			// usernames are user-<n>, and user-n is customer n
+			long customerId = Long.parseLong(username.substring(username.indexOf('-') + 1));
+			return Optional.of(new Customer(customerId, "Bench", "User", "123 Main St", username));
+		}
+
+		@Override
+		public Optional<Customer> findById(Long customerId) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public List<Customer> findByUsernames(List<String> usernames) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public List<Customer> findAllCustomers() {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public boolean existsByUsername(String username) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public Customer saveCustomer(Customer customer) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public Customer updateCustomer(Customer customer) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public boolean updatePassword(String username, String password) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public boolean deleteCustomerByUsername(String username) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public boolean deleteCustomerById(Long customerId) {
+			throw new UnsupportedOperationException();
+		}
+	}
+}
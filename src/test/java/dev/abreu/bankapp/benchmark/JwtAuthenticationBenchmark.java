@@ -0,0 +1,99 @@
+package dev.abreu.bankapp.benchmark;
+
+import dev.abreu.bankapp.entity.Customer;
+import dev.abreu.bankapp.security.JwtConfig;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.security.Key;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import static dev.abreu.bankapp.util.BankappConstants.JWT_RP0_BANKAPP_ISSUER;
+
+/**
+ * Compares authenticating a request's bearer token the way {@code JwtAuthenticationFilter} used to, extracting the
+ * username and then checking validity with a fresh key and parser each time, so two key derivations and two
+ * signature checks, against {@link JwtConfig} as it is now, where a token seen before costs a digest and one cache
+ * lookup. Run by hand rather than by surefire:
+ * <pre>
+ * java -cp target/test-classes:target/classes:&lt;deps&gt; dev.abreu.bankapp.benchmark.JwtAuthenticationBenchmark
+ * </pre>
+ * Scores are per authenticated request; the {@code gc.alloc.rate.norm} lines from the GC profiler give the bytes
+ * allocated per request.
+ *
+ * @author Devin Abreu
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class JwtAuthenticationBenchmark {
+
+	// base64 of a 512-bit secret, the size the deployed secret-key must at least be for HS256
+	private static final String SECRET = "c2VjcmV0S2V5MTIzNDU2Nzg5MDEyMzQ1Njc4OTAxMjM0NTY3ODkwMTIzNDU2Nzg5MA==";
+
+	private JwtConfig jwtConfig;
+	private Customer customer;
+	private String token;
+
+	@Setup
+	public void prepare() {
+		jwtConfig = new JwtConfig();
+		ReflectionTestUtils.setField(jwtConfig, "salt", SECRET);
+		ReflectionTestUtils.setField(jwtConfig, "expiration", 86400000);
+		customer = new Customer(1L, "Test", "User", "123 Main St", "testUser");
+		token = Jwts.builder()
+				.setSubject(customer.getUsername())
+				.setIssuer(JWT_RP0_BANKAPP_ISSUER)
+				.setIssuedAt(new Date())
+				.setExpiration(new Date(System.currentTimeMillis() + TimeUnit.HOURS.toMillis(1)))
+				.signWith(jwtConfig.getSigningKey(), SignatureAlgorithm.HS256)
+				.compact();
+	}
+
+	@Benchmark
+	public void parseTwicePerRequest(Blackhole blackhole) {
+		String username = parse(token).getSubject();
+		Claims claims = parse(token);
+		blackhole.consume(username.equals(customer.getUsername()) && claims.getSubject().equals(customer.getUsername())
+				&& !claims.getExpiration().before(new Date()));
+	}
+
+	@Benchmark
+	public void cachedVerifiedClaims(Blackhole blackhole) {
+		Claims claims = jwtConfig.extractAllClaims(token);
+		blackhole.consume(claims.getSubject() != null && jwtConfig.areClaimsValid(claims, customer));
+	}
+
+	// JwtConfig.extractAllClaims as it was: the key and parser rebuilt for every call
+	private static Claims parse(String token) {
+		Key key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET));
+		return Jwts.parserBuilder()
+				.setSigningKey(key)
+				.build()
+				.parseClaimsJws(token)
+				.getBody();
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		Options options = new OptionsBuilder()
+				.include(JwtAuthenticationBenchmark.class.getSimpleName())
+				.addProfiler(GCProfiler.class)
+				.build();
+		new Runner(options).run();
+	}
+}
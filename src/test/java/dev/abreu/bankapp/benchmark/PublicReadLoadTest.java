@@ -0,0 +1,120 @@
+package dev.abreu.bankapp.benchmark;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drives {@code GET /account/get/{acctNo}} and {@code GET /transaction/list/account/{acctNo}} on a running server
+ * from a pool of client threads, once without and once with a bearer token, and prints the throughput and latency
+ * of each run. Run by hand rather than by surefire, against a server with its caches warm:
+ * <pre>
+ * BENCH_TOKEN=... BENCH_ACCT_NO=... [BENCH_BASE_URL=http://localhost:8080] [BENCH_THREADS=32] [BENCH_SECONDS=20] \
+ *   java -cp target/test-classes:target/classes:&lt;deps&gt; dev.abreu.bankapp.benchmark.PublicReadLoadTest
+ * </pre>
+ * Public reads take the minimal chain in {@code SecurityConfig}, so the runs with and without a token should be
+ * about level; on a build from before it the token run pays for verifying the token, building the principal and
+ * the revocation check on every request. Comparing the two builds gives the gain.
+ *
+ * @author Devin Abreu
+ */
+public class PublicReadLoadTest {
+
+	private static final Duration WARM_UP = Duration.ofSeconds(5);
+
+	public static void main(String[] args) throws Exception {
+		String baseUrl = System.getenv().getOrDefault("BENCH_BASE_URL", "http://localhost:8080");
+		String token = BenchmarkDataSources.requireEnv("BENCH_TOKEN");
+		String acctNo = BenchmarkDataSources.requireEnv("BENCH_ACCT_NO");
+		int threads = Integer.parseInt(System.getenv().getOrDefault("BENCH_THREADS", "32"));
+		Duration duration = Duration.ofSeconds(Long.parseLong(System.getenv().getOrDefault("BENCH_SECONDS", "20")));
+
+		HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+		List<URI> uris = List.of(
+				URI.create(baseUrl + "/account/get/" + acctNo),
+				URI.create(baseUrl + "/transaction/list/account/" + acctNo));
+
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		try {
+			for (URI uri : uris) {
+				run(pool, client, uri, null, threads, WARM_UP);
+				report(uri.getPath(), "no token", run(pool, client, uri, null, threads, duration), duration);
+				run(pool, client, uri, token, threads, WARM_UP);
+				report(uri.getPath(), "bearer token", run(pool, client, uri, token, threads, duration), duration);
+			}
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	/**
+	 * @return the latency in nanoseconds of every request completed in the run, sorted
+	 */
+	private static long[] run(ExecutorService pool, HttpClient client, URI uri, String token, int threads,
+			Duration duration) throws Exception {
+		HttpRequest.Builder builder = HttpRequest.newBuilder(uri).GET().timeout(Duration.ofSeconds(10));
+		if (token != null) {
+			builder.header("Authorization", "Bearer " + token);
+		}
+		HttpRequest request = builder.build();
+		long deadline = System.nanoTime() + duration.toNanos();
+
+		List<Future<long[]>> workers = new ArrayList<>(threads);
+		for (int i = 0; i < threads; i++) {
+			workers.add(pool.submit(() -> {
+				long[] latencies = new long[1024];
+				int count = 0;
+				long start;
+				while ((start = System.nanoTime()) < deadline) {
+					HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+					if (response.statusCode() != 200) {
+						throw new IOException(uri + " answered " + response.statusCode());
+					}
+					if (count == latencies.length) {
+						latencies = Arrays.copyOf(latencies, count * 2);
+					}
+					latencies[count++] = System.nanoTime() - start;
+				}
+				return Arrays.copyOf(latencies, count);
+			}));
+		}
+
+		long[] all = new long[0];
+		for (Future<long[]> worker : workers) {
+			long[] latencies = worker.get();
+			int offset = all.length;
+			all = Arrays.copyOf(all, offset + latencies.length);
+			System.arraycopy(latencies, 0, all, offset, latencies.length);
+		}
+		Arrays.sort(all);
+		return all;
+	}
+
+	private static void report(String path, String label, long[] latencies, Duration duration) {
+		if (latencies.length == 0) {
+			System.out.printf("%-40s %-12s no requests completed%n", path, label);
+			return;
+		}
+		System.out.printf("%-40s %-12s %10.0f req/s   p50 %7.2f ms   p99 %7.2f ms%n", path, label,
+				latencies.length / (double) duration.toSeconds(),
+				millis(percentile(latencies, 0.50)), millis(percentile(latencies, 0.99)));
+	}
+
+	private static long percentile(long[] sorted, double p) {
+		return sorted[(int) Math.min(sorted.length - 1, Math.ceil(p * sorted.length) - 1)];
+	}
+
+	private static double millis(long nanos) {
+		return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+	}
+}
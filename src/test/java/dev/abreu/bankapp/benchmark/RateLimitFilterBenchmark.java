@@ -0,0 +1,132 @@
+package dev.abreu.bankapp.benchmark;
+
+import dev.abreu.bankapp.config.RateLimitProperties;
+import dev.abreu.bankapp.security.RateLimitFilter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Measures what {@link RateLimitFilter} adds to a request, with policies shaped like those in application.yml
+ * but sized so no request is ever turned away: one for a path no policy covers, a login checked against its
+ * per-address bucket, and a transfer checked against both the caller's bucket and the route's. The transfer is
+ * also run from four threads at once, all taking from the one route bucket. Run by hand rather than by surefire:
+ * <pre>
+ * java -cp target/test-classes:target/classes:&lt;deps&gt; dev.abreu.bankapp.benchmark.RateLimitFilterBenchmark
+ * </pre>
+ * Scores are per request, {@code baseline} being the same request passed straight to the rest of the chain; the
+ * {@code gc.alloc.rate.norm} lines from the GC profiler give the bytes allocated per request.
+ *
+ * @author Devin Abreu
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class RateLimitFilterBenchmark {
+
+	private static final List<String> MONEY_MOVEMENT_PATHS = List.of("/account/transferFunds", "/account/deposit",
+			"/account/withdraw", "/transaction/save", "/transaction/save/batch");
+
+	// far more tokens a second than a benchmark thread can take
+	private static final long UNLIMITED = 1_000_000_000L;
+
+	private static final FilterChain REST_OF_CHAIN = (request, response) -> { };
+
+	private RateLimitFilter filter;
+
+	@Setup
+	public void prepare() {
+		RateLimitProperties properties = new RateLimitProperties(true, 100000, List.of(
+				new RateLimitProperties.Policy("auth-per-ip", List.of("/auth/login", "/auth/register"), List.of("POST"),
+						RateLimitProperties.Key.IP, UNLIMITED, Duration.ofSeconds(1)),
+				new RateLimitProperties.Policy("money-movement-per-principal", MONEY_MOVEMENT_PATHS, List.of("POST", "PUT"),
+						RateLimitProperties.Key.PRINCIPAL, UNLIMITED, Duration.ofSeconds(1)),
+				new RateLimitProperties.Policy("money-movement-route", MONEY_MOVEMENT_PATHS, List.of("POST", "PUT"),
+						RateLimitProperties.Key.ROUTE, UNLIMITED, Duration.ofSeconds(1))));
+		filter = new RateLimitFilter(properties, new SimpleMeterRegistry(), new String[] {""});
+	}
+
+	/**
+	 * Each thread's requests, and its own authenticated caller.
+	 */
+	@State(Scope.Thread)
+	public static class Requests {
+
+		private static final AtomicInteger THREADS = new AtomicInteger();
+
+		MockHttpServletRequest unlimited;
+		MockHttpServletRequest login;
+		MockHttpServletRequest transfer;
+		MockHttpServletResponse response;
+
+		@Setup
+		public void prepare() {
+			int thread = THREADS.incrementAndGet();
+			unlimited = new MockHttpServletRequest("GET", "/account/get/12345678");
+			login = new MockHttpServletRequest("POST", "/auth/login");
+			login.setRemoteAddr("10.0.0." + thread);
+			transfer = new MockHttpServletRequest("POST", "/account/transferFunds");
+			response = new MockHttpServletResponse();
+			SecurityContextHolder.getContext().setAuthentication(
+					UsernamePasswordAuthenticationToken.authenticated("user-" + thread, null, List.of()));
+		}
+
+		@TearDown
+		public void clear() {
+			SecurityContextHolder.clearContext();
+		}
+	}
+
+	@Benchmark
+	public void baseline(Requests requests) throws IOException, ServletException {
+		REST_OF_CHAIN.doFilter(requests.transfer, requests.response);
+	}
+
+	@Benchmark
+	public void unlimitedPath(Requests requests) throws IOException, ServletException {
+		filter.doFilter(requests.unlimited, requests.response, REST_OF_CHAIN);
+	}
+
+	@Benchmark
+	public void loginPerAddress(Requests requests) throws IOException, ServletException {
+		filter.doFilter(requests.login, requests.response, REST_OF_CHAIN);
+	}
+
+	@Benchmark
+	public void transferPerPrincipalAndRoute(Requests requests) throws IOException, ServletException {
+		filter.doFilter(requests.transfer, requests.response, REST_OF_CHAIN);
+	}
+
+	@Benchmark
+	@Threads(4)
+	public void transferFromFourThreads(Requests requests) throws IOException, ServletException {
+		filter.doFilter(requests.transfer, requests.response, REST_OF_CHAIN);
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		Options options = new OptionsBuilder()
+				.include(RateLimitFilterBenchmark.class.getSimpleName())
+				.addProfiler(GCProfiler.class)
+				.build();
+		new Runner(options).run();
+	}
+}
@@ -0,0 +1,81 @@
+package dev.abreu.bankapp.benchmark;
+
+import com.zaxxer.hikari.HikariDataSource;
+import dev.abreu.bankapp.config.ReadReplicaDataSource;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.TransactionAwareDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Proves read-only routing against two real databases, standing in for a primary and its replica (two databases
+ * on one local server are enough). Builds the same DataSource chain as {@code DataSourceConfig} and checks which
+ * database answers a read-only and a read-write transaction, then closes the replica pool and checks that
+ * read-only transactions fall back to the primary. Run by hand rather than by surefire:
+ * <pre>
+ * DB_URL=jdbc:postgresql://localhost/primary REPLICA_DB_URL=jdbc:postgresql://localhost/replica DB_USER=... DB_PASSWORD=... \
+ *   java -cp target/test-classes:target/classes:&lt;deps&gt; dev.abreu.bankapp.benchmark.ReadReplicaRoutingCheck
+ * </pre>
+ *
+ * @author Devin Abreu
+ */
+public class ReadReplicaRoutingCheck {
+
+	private static final String SELECT_DATABASE_QUERY = "SELECT current_database()";
+
+	public static void main(String[] args) throws IOException {
+		try (HikariDataSource primary = BenchmarkDataSources.create();
+				HikariDataSource replica = BenchmarkDataSources.create(BenchmarkDataSources.requireEnv("REPLICA_DB_URL"));
+				ReadReplicaDataSource readReplicaDataSource = new ReadReplicaDataSource(primary,
+						Map.of("replica", replica), Duration.ofSeconds(5), Duration.ofSeconds(1))) {
+
+			LazyConnectionDataSourceProxy lazyDataSource = new LazyConnectionDataSourceProxy(primary);
+			lazyDataSource.setReadOnlyDataSource(readReplicaDataSource);
+			DataSource dataSource = new TransactionAwareDataSourceProxy(lazyDataSource);
+			TransactionTemplate transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+
+			String primaryName = currentDatabase(primary);
+			String replicaName = currentDatabase(replica);
+			if (primaryName.equals(replicaName)) {
+				throw new IllegalStateException("DB_URL and REPLICA_DB_URL must name different databases");
+			}
+
+			transactionTemplate.setReadOnly(true);
+			check("read-only transaction", replicaName, transactionTemplate.execute(status -> currentDatabase(dataSource)));
+
+			transactionTemplate.setReadOnly(false);
+			check("read-write transaction", primaryName, transactionTemplate.execute(status -> currentDatabase(dataSource)));
+
+			replica.close();
+			transactionTemplate.setReadOnly(true);
+			check("read-only transaction, replica down", primaryName, transactionTemplate.execute(status -> currentDatabase(dataSource)));
+		}
+	}
+
+	private static void check(String label, String expected, String actual) {
+		System.out.printf("%-38s -> %s%n", label, actual);
+		if (!expected.equals(actual)) {
+			throw new IllegalStateException(label + " was served by " + actual + ", expected " + expected);
+		}
+	}
+
+	private static String currentDatabase(DataSource dataSource) {
+		try (Connection conn = dataSource.getConnection();
+				PreparedStatement stmt = conn.prepareStatement(SELECT_DATABASE_QUERY);
+				ResultSet rs = stmt.executeQuery()) {
+			rs.next();
+			return rs.getString(1);
+		} catch (SQLException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
@@ -0,0 +1,91 @@
+package dev.abreu.bankapp.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import dev.abreu.bankapp.cache.ResponseBodyCache;
+import dev.abreu.bankapp.dto.UnifiedTransactionDetailDTO;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compares what a transfer detail lookup costs the CPU once its DTO is cached, the way
+ * {@code /transaction/get/{type}/{id}} used to serve it (Jackson on every hit, then gzip when the body is over the
+ * server's compression threshold), against a {@link ResponseBodyCache} hit, which hands back the stored bytes. Run
+ * by hand rather than by surefire:
+ * <pre>
+ * java -cp target/test-classes:target/classes:&lt;deps&gt; dev.abreu.bankapp.benchmark.ResponseBodyCacheBenchmark
+ * </pre>
+ * Scores are per response; the {@code gc.alloc.rate.norm} lines from the GC profiler give the bytes allocated per
+ * response.
+ *
+ * @author Devin Abreu
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class ResponseBodyCacheBenchmark {
+
+	// notes long enough to take the body over the 2048 byte compression threshold in application.yml
+	@Param({"32", "2048"})
+	public int notesLength;
+
+	private ObjectMapper objectMapper;
+	private UnifiedTransactionDetailDTO dto;
+	private ResponseBodyCache responseBodyCache;
+
+	@Setup
+	public void prepare() {
+		objectMapper = new ObjectMapper().findAndRegisterModules().disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+		dto = new UnifiedTransactionDetailDTO(7L, "Account Transfer", 250.00, "n".repeat(notesLength),
+				LocalDateTime.of(2024, 5, 1, 12, 0), 12345678L, "TRANSFER",
+				Map.of("targetAccountNumber", 87654321L, "sourceAccountNumber", 12345678L));
+		responseBodyCache = new ResponseBodyCache(new CaffeineCacheManager(ResponseBodyCache.RESPONSE_BODY_CACHE), objectMapper,
+				true, DataSize.ofBytes(2048));
+		responseBodyCache.get("transfer:7", () -> dto);
+	}
+
+	@Benchmark
+	public void serializeOnEveryHit(Blackhole blackhole) throws IOException {
+		byte[] json = objectMapper.writeValueAsBytes(dto);
+		if (json.length < 2048) {
+			blackhole.consume(json);
+			return;
+		}
+		ByteArrayOutputStream compressed = new ByteArrayOutputStream(json.length / 2);
+		try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+			gzip.write(json);
+		}
+		blackhole.consume(compressed.toByteArray());
+	}
+
+	@Benchmark
+	public void cachedBytes(Blackhole blackhole) {
+		ResponseBodyCache.Body body = responseBodyCache.get("transfer:7", () -> dto);
+		blackhole.consume(body.gzipped() != null ? body.gzipped() : body.json());
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		Options options = new OptionsBuilder()
+				.include(ResponseBodyCacheBenchmark.class.getSimpleName())
+				.addProfiler(GCProfiler.class)
+				.build();
+		new Runner(options).run();
+	}
+}
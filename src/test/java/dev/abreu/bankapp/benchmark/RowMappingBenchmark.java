@@ -0,0 +1,113 @@
+package dev.abreu.bankapp.benchmark;
+
+import dev.abreu.bankapp.dao.mapper.ResultSetMappers;
+import dev.abreu.bankapp.entity.Transaction;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import javax.sql.rowset.CachedRowSet;
+import javax.sql.rowset.RowSetMetaDataImpl;
+import javax.sql.rowset.RowSetProvider;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+import static dev.abreu.bankapp.util.BankappConstants.ACCOUNT_DEPOSIT;
+
+/**
+ * Compares mapping transaction rows by column label, the way the DAOs used to, against
+ * {@link ResultSetMappers#toTransaction(ResultSet)}. The rows live in an in-memory {@link CachedRowSet} so only
+ * the mapping itself is measured, with no database or network in the way. Run by hand rather than by surefire:
+ * <pre>
+ * java -cp target/test-classes:target/classes:&lt;deps&gt; dev.abreu.bankapp.benchmark.RowMappingBenchmark
+ * </pre>
+ * Scores are per 100k-row read; the {@code gc.alloc.rate.norm} lines from the GC profiler give the bytes allocated
+ * per read.
+ *
+ * @author Devin Abreu
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class RowMappingBenchmark {
+
+	private static final int ROWS = 100_000;
+
+	private CachedRowSet rowSet;
+
+	@Setup
+	public void populateRows() throws SQLException {
+		RowSetMetaDataImpl metaData = new RowSetMetaDataImpl();
+		metaData.setColumnCount(6);
+		defineColumn(metaData, 1, "transaction_id", Types.BIGINT);
+		defineColumn(metaData, 2, "transaction_type", Types.VARCHAR);
+		defineColumn(metaData, 3, "transaction_amount", Types.DOUBLE);
+		defineColumn(metaData, 4, "transaction_notes", Types.VARCHAR);
+		defineColumn(metaData, 5, "created_at", Types.TIMESTAMP);
+		defineColumn(metaData, 6, "account_number", Types.BIGINT);
+
+		rowSet = RowSetProvider.newFactory().createCachedRowSet();
+		rowSet.setMetaData(metaData);
+
+		Timestamp createdAt = Timestamp.valueOf(LocalDateTime.of(2024, 4, 24, 15, 30));
+		for (int i = 0; i < ROWS; i++) {
+			rowSet.moveToInsertRow();
+			rowSet.updateLong(1, i);
+			rowSet.updateString(2, ACCOUNT_DEPOSIT);
+			rowSet.updateDouble(3, 100.00);
+			rowSet.updateString(4, "Deposited $100.00");
+			rowSet.updateTimestamp(5, createdAt);
+			rowSet.updateLong(6, 12345678L);
+			rowSet.insertRow();
+		}
+		rowSet.moveToCurrentRow();
+	}
+
+	@Benchmark
+	public void mapByColumnLabel(Blackhole blackhole) throws SQLException {
+		rowSet.beforeFirst();
+		while (rowSet.next()) {
+			Transaction transaction = new Transaction();
+			transaction.setTransactionId(rowSet.getLong("transaction_id"));
+			transaction.setTransactionType(rowSet.getString("transaction_type"));
+			transaction.setTransactionAmount(rowSet.getDouble("transaction_amount"));
+			transaction.setTransactionNotes(rowSet.getString("transaction_notes"));
+			transaction.setAccountNumber(rowSet.getLong("account_number"));
+			transaction.setCreatedAt(rowSet.getTimestamp("created_at").toLocalDateTime());
+			blackhole.consume(transaction);
+		}
+	}
+
+	@Benchmark
+	public void mapByColumnIndex(Blackhole blackhole) throws SQLException {
+		rowSet.beforeFirst();
+		while (rowSet.next()) {
+			blackhole.consume(ResultSetMappers.toTransaction(rowSet));
+		}
+	}
+
+	private static void defineColumn(RowSetMetaDataImpl metaData, int index, String name, int type) throws SQLException {
+		metaData.setColumnName(index, name);
+		metaData.setColumnLabel(index, name);
+		metaData.setColumnType(index, type);
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		Options options = new OptionsBuilder()
+				.include(RowMappingBenchmark.class.getSimpleName())
+				.addProfiler(GCProfiler.class)
+				.build();
+		new Runner(options).run();
+	}
+}
@@ -0,0 +1,95 @@
+package dev.abreu.bankapp.benchmark;
+
+import com.zaxxer.hikari.HikariDataSource;
+import dev.abreu.bankapp.dao.impl.TransactionDaoImpl;
+import dev.abreu.bankapp.entity.Transaction;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static dev.abreu.bankapp.util.BankappConstants.ACCOUNT_DEPOSIT;
+
+/**
+ * Compares the insert rate of {@link TransactionDaoImpl#saveTransaction(Transaction)} called once per row
+ * against {@link TransactionDaoImpl#saveTransactions(List)}. Needs a running database, so it is run by hand
+ * rather than by surefire:
+ * <pre>
+ * DB_URL=... DB_USER=... DB_PASSWORD=... BENCH_ACCOUNT_NUMBER=... [BENCH_ROWS=20000] \
+ *   java -cp target/test-classes:target/classes:&lt;deps&gt; dev.abreu.bankapp.benchmark.TransactionInsertBenchmark
+ * </pre>
+ * Every row written is tagged with a unique note and deleted again afterwards.
+ *
+ * @author Devin Abreu
+ */
+public class TransactionInsertBenchmark {
+
+	private static final String DELETE_BENCH_ROWS_QUERY = "DELETE FROM \"rp0-bankapp\".transactions WHERE transaction_notes = ?";
+
+	public static void main(String[] args) throws SQLException {
+		long accountNumber = Long.parseLong(BenchmarkDataSources.requireEnv("BENCH_ACCOUNT_NUMBER"));
+		int rows = Integer.parseInt(System.getenv().getOrDefault("BENCH_ROWS", "20000"));
+		String marker = "insert-benchmark-" + UUID.randomUUID();
+
+		try (HikariDataSource dataSource = BenchmarkDataSources.create()) {
+			TransactionDaoImpl transactionDao = new TransactionDaoImpl(dataSource);
+
+			try {
+				// warm up the pool, driver and JIT on both paths before measuring
+				runSingleRow(transactionDao, newTransactions(rows / 10, accountNumber, marker));
+				runBatch(transactionDao, newTransactions(rows / 10, accountNumber, marker));
+
+				double singleRate = runSingleRow(transactionDao, newTransactions(rows, accountNumber, marker));
+				double batchRate = runBatch(transactionDao, newTransactions(rows, accountNumber, marker));
+
+				System.out.printf("single-row : %,.0f rows/s%n", singleRate);
+				System.out.printf("batched    : %,.0f rows/s%n", batchRate);
+				System.out.printf("speed-up   : %.1fx%n", batchRate / singleRate);
+			} finally {
+				deleteBenchmarkRows(dataSource, marker);
+			}
+		}
+	}
+
+	private static double runSingleRow(TransactionDaoImpl transactionDao, List<Transaction> txns) {
+		long start = System.nanoTime();
+		for (Transaction txn : txns) {
+			transactionDao.saveTransaction(txn);
+		}
+		return ratePerSecond(txns.size(), System.nanoTime() - start);
+	}
+
+	private static double runBatch(TransactionDaoImpl transactionDao, List<Transaction> txns) {
+		long start = System.nanoTime();
+		Map<Integer, String> failures = transactionDao.saveTransactions(txns);
+		long elapsed = System.nanoTime() - start;
+		if (!failures.isEmpty()) {
+			throw new IllegalStateException(failures.size() + " row(s) failed, first: " + failures.values().iterator().next());
+		}
+		return ratePerSecond(txns.size(), elapsed);
+	}
+
+	private static List<Transaction> newTransactions(int count, long accountNumber, String marker) {
+		List<Transaction> txns = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			txns.add(new Transaction(ACCOUNT_DEPOSIT, 1.00, marker, accountNumber));
+		}
+		return txns;
+	}
+
+	private static double ratePerSecond(int rows, long elapsedNanos) {
+		return rows / (elapsedNanos / 1_000_000_000.0);
+	}
+
+	private static void deleteBenchmarkRows(HikariDataSource dataSource, String marker) throws SQLException {
+		try (Connection conn = dataSource.getConnection();
+				PreparedStatement stmt = conn.prepareStatement(DELETE_BENCH_ROWS_QUERY)) {
+			stmt.setString(1, marker);
+			System.out.printf("cleaned up %d benchmark row(s)%n", stmt.executeUpdate());
+		}
+	}
+}
@@ -0,0 +1,149 @@
+package dev.abreu.bankapp.benchmark;
+
+import com.zaxxer.hikari.HikariDataSource;
+import dev.abreu.bankapp.dao.impl.AccountDaoImpl;
+import dev.abreu.bankapp.dao.impl.AccountNumberAllocator;
+import dev.abreu.bankapp.entity.Account;
+import dev.abreu.bankapp.exception.InsufficientFundsException;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs concurrent transfers in both directions between a small set of hot accounts through
+ * {@link AccountDaoImpl#transferFunds(Long, Long, Double, String)} and reports transfers per second,
+ * along with how many attempts failed after exhausting retries. Money is only moved between the
+ * given accounts, so their total balance must be unchanged at the end. Needs a running database,
+ * so it is run by hand rather than by surefire:
+ * <pre>
+ * DB_URL=... DB_USER=... DB_PASSWORD=... BENCH_ACCOUNT_NUMBERS=111,222[,...] [BENCH_THREADS=32] [BENCH_OPS=200] \
+ *   java -cp target/test-classes:target/classes:&lt;deps&gt; dev.abreu.bankapp.benchmark.TransferContentionBenchmark
+ * </pre>
+ * It also reports whether the {@code accounts_cache_invalidation} trigger from
+ * {@code sql/cache-invalidation-triggers.sql} is installed, so runs with and without it can be compared: the
+ * trigger must not fire on transfers, whose commits would otherwise queue on the database-wide NOTIFY lock.
+ * Balances are restored and the transfer rows written are deleted afterwards.
+ *
+ * @author Devin Abreu
+ */
+public class TransferContentionBenchmark {
+
+	private static final String DELETE_BENCH_ROWS_QUERY = "DELETE FROM \"rp0-bankapp\".transfers WHERE transfer_notes = ?";
+	private static final String RESTORE_BALANCE_QUERY = "UPDATE \"rp0-bankapp\".accounts SET account_balance = ? WHERE account_number = ?";
+	private static final String INVALIDATION_TRIGGER_QUERY = "SELECT EXISTS (SELECT 1 FROM pg_trigger WHERE tgname = 'accounts_cache_invalidation')";
+
+	private static final double TRANSFER_AMOUNT = 1.00;
+
+	public static void main(String[] args) throws Exception {
+		long[] accountNumbers = Arrays.stream(BenchmarkDataSources.requireEnv("BENCH_ACCOUNT_NUMBERS").split(","))
+				.map(String::trim)
+				.mapToLong(Long::parseLong)
+				.toArray();
+		if (accountNumbers.length < 2) {
+			throw new IllegalStateException("BENCH_ACCOUNT_NUMBERS needs at least two accounts");
+		}
+		int threads = Integer.parseInt(System.getenv().getOrDefault("BENCH_THREADS", "32"));
+		int opsPerThread = Integer.parseInt(System.getenv().getOrDefault("BENCH_OPS", "200"));
+		String marker = "transfer-benchmark-" + UUID.randomUUID();
+
+		try (HikariDataSource dataSource = BenchmarkDataSources.create()) {
+			dataSource.setMaximumPoolSize(threads);
+			// the allocator is never asked for a number here
+			AccountDaoImpl accountDao = new AccountDaoImpl(dataSource, new AccountNumberAllocator(dataSource, 0L));
+			Map<Long, BigDecimal> startBalances = balances(accountDao, accountNumbers);
+
+			AtomicInteger completed = new AtomicInteger();
+			AtomicInteger insufficient = new AtomicInteger();
+			AtomicInteger failed = new AtomicInteger();
+			ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+			try {
+				long start = System.nanoTime();
+				List<Future<?>> futures = new ArrayList<>();
+				for (int t = 0; t < threads; t++) {
+					futures.add(executor.submit(() -> {
+						ThreadLocalRandom random = ThreadLocalRandom.current();
+						for (int i = 0; i < opsPerThread; i++) {
+							// random direction, so opposite-direction transfers on the same pair overlap constantly
+							int source = random.nextInt(accountNumbers.length);
+							int target = (source + 1 + random.nextInt(accountNumbers.length - 1)) % accountNumbers.length;
+							try {
+								accountDao.transferFunds(accountNumbers[source], accountNumbers[target], TRANSFER_AMOUNT, marker);
+								completed.incrementAndGet();
+							} catch (InsufficientFundsException e) {
+								insufficient.incrementAndGet();
+							} catch (RuntimeException e) {
+								failed.incrementAndGet();
+							}
+						}
+					}));
+				}
+				for (Future<?> future : futures) {
+					future.get();
+				}
+				long elapsed = System.nanoTime() - start;
+
+				BigDecimal startTotal = startBalances.values().stream().reduce(BigDecimal.ZERO, BigDecimal::add);
+				BigDecimal endTotal = balances(accountDao, accountNumbers).values().stream().reduce(BigDecimal.ZERO, BigDecimal::add);
+
+				System.out.printf("transfers  : %d completed, %d insufficient funds, %d failed after retries on %d threads%n",
+						completed.get(), insufficient.get(), failed.get(), threads);
+				System.out.printf("throughput : %,.0f transfers/s%n", completed.get() / (elapsed / 1_000_000_000.0));
+				System.out.printf("trigger    : accounts_cache_invalidation %s%n",
+						hasInvalidationTrigger(dataSource) ? "installed" : "not installed");
+				System.out.printf("total      : before %s, after %s -> %s%n", startTotal, endTotal,
+						startTotal.compareTo(endTotal) == 0 ? "conserved" : "NOT CONSERVED");
+			} finally {
+				executor.shutdownNow();
+				restore(dataSource, startBalances, marker);
+			}
+		}
+	}
+
+	private static Map<Long, BigDecimal> balances(AccountDaoImpl accountDao, long[] accountNumbers) {
+		Map<Long, BigDecimal> balances = new LinkedHashMap<>();
+		for (long accountNumber : accountNumbers) {
+			Account account = accountDao.findAccountByAcctNo(accountNumber)
+					.orElseThrow(() -> new IllegalStateException("Account " + accountNumber + " not found"));
+			balances.put(accountNumber, BigDecimal.valueOf(account.getAccountBalance()).setScale(2));
+		}
+		return balances;
+	}
+
+	private static boolean hasInvalidationTrigger(HikariDataSource dataSource) throws SQLException {
+		try (Connection conn = dataSource.getConnection();
+				PreparedStatement stmt = conn.prepareStatement(INVALIDATION_TRIGGER_QUERY)) {
+			ResultSet rs = stmt.executeQuery();
+			rs.next();
+			return rs.getBoolean(1);
+		}
+	}
+
+	private static void restore(HikariDataSource dataSource, Map<Long, BigDecimal> balances, String marker) throws SQLException {
+		try (Connection conn = dataSource.getConnection();
+				PreparedStatement deleteStmt = conn.prepareStatement(DELETE_BENCH_ROWS_QUERY);
+				PreparedStatement restoreStmt = conn.prepareStatement(RESTORE_BALANCE_QUERY)) {
+			deleteStmt.setString(1, marker);
+			System.out.printf("cleaned up %d benchmark row(s)%n", deleteStmt.executeUpdate());
+			for (Map.Entry<Long, BigDecimal> balance : balances.entrySet()) {
+				restoreStmt.setBigDecimal(1, balance.getValue());
+				restoreStmt.setLong(2, balance.getKey());
+				restoreStmt.executeUpdate();
+			}
+		}
+	}
+}
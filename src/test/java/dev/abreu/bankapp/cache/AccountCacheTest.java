@@ -0,0 +1,164 @@
+package dev.abreu.bankapp.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import dev.abreu.bankapp.entity.Account;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.support.SimpleCacheManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static dev.abreu.bankapp.cache.AccountCache.ACCOUNT_CACHE;
+import static dev.abreu.bankapp.util.BankappConstants.CHECKING_ACCOUNT;
+import static org.junit.jupiter.api.Assertions.*;
+
+class AccountCacheTest {
+
+	private static final LocalDateTime UPDATED_AT = LocalDateTime.of(2024, 5, 1, 12, 0);
+
+	private Cache cache;
+	private AccountCache accountCache;
+
+	@BeforeEach
+	void setup() {
+		CaffeineCacheManager cacheManager = new CaffeineCacheManager(ACCOUNT_CACHE);
+		cache = cacheManager.getCache(ACCOUNT_CACHE);
+		accountCache = new AccountCache(cacheManager);
+	}
+
+	@AfterEach
+	void cleanup() {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+	}
+
+	private static Account account(double balance, LocalDateTime updatedAt) {
+		Account account = new Account(12345L, CHECKING_ACCOUNT, balance, 1L);
+		account.setUpdatedAt(updatedAt);
+		return account;
+	}
+
+	private Account cached() {
+		return cache.get(12345L, Account.class);
+	}
+
+	@Test
+	void testPutCachesCopy() {
+		Account account = account(150.00, UPDATED_AT);
+
+		accountCache.put(account);
+		account.setAccountBalance(0);
+
+		assertEquals(150.00, cached().getAccountBalance());
+	}
+
+	@Test
+	void testPutKeepsNewerVersion() {
+		accountCache.put(account(200.00, UPDATED_AT.plusSeconds(1)));
+		accountCache.put(account(150.00, UPDATED_AT));
+
+		assertEquals(200.00, cached().getAccountBalance());
+	}
+
+	@Test
+	void testUpdateBalancePatchesCachedAccount() {
+		accountCache.put(account(150.00, UPDATED_AT));
+		Account before = cached();
+
+		accountCache.updateBalance(12345L, 50.00, UPDATED_AT.plusSeconds(1));
+
+		assertEquals(50.00, cached().getAccountBalance());
+		assertEquals(UPDATED_AT.plusSeconds(1), cached().getUpdatedAt());
+		assertEquals(CHECKING_ACCOUNT, cached().getAccountType());
+		// readers already holding the old entry never see it change
+		assertEquals(150.00, before.getAccountBalance());
+	}
+
+	@Test
+	void testUpdateBalanceIgnoresOlderVersion() {
+		accountCache.put(account(150.00, UPDATED_AT));
+
+		accountCache.updateBalance(12345L, 50.00, UPDATED_AT.minusSeconds(1));
+
+		assertEquals(150.00, cached().getAccountBalance());
+	}
+
+	@Test
+	void testUpdateBalanceLeavesUncachedAccountUncached() {
+		accountCache.updateBalance(12345L, 50.00, UPDATED_AT);
+
+		assertNull(cache.get(12345L));
+	}
+
+	@Test
+	void testWriteWaitsForCommit() {
+		TransactionSynchronizationManager.initSynchronization();
+
+		accountCache.put(account(150.00, UPDATED_AT));
+		assertNull(cache.get(12345L));
+
+		TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+		assertEquals(150.00, cached().getAccountBalance());
+	}
+
+	@Test
+	void testWritesEvictSharedTier() throws IOException {
+		try (InMemoryRespServer server = new InMemoryRespServer();
+				RespClient client = new RespClient("localhost", server.port(), Duration.ofSeconds(1), 4, Duration.ofSeconds(5))) {
+			TwoLevelCache twoLevelCache = new TwoLevelCache(new CaffeineCache(ACCOUNT_CACHE, Caffeine.newBuilder().build()),
+					client, "bankapp:", Duration.ofMinutes(10), Duration.ofSeconds(10), new SimpleMeterRegistry());
+			SimpleCacheManager cacheManager = new SimpleCacheManager();
+			cacheManager.setCaches(List.of(twoLevelCache));
+			cacheManager.afterPropertiesSet();
+			AccountCache sharedAccountCache = new AccountCache(cacheManager);
+
+			twoLevelCache.put(12345L, account(150.00, UPDATED_AT));
+			sharedAccountCache.updateBalance(12345L, 50.00, UPDATED_AT.plusSeconds(1));
+
+			assertArrayEquals(new byte[0], server.values().get("bankapp:account:Long:12345"));
+			assertEquals(50.00, twoLevelCache.get(12345L, Account.class).getAccountBalance());
+
+			twoLevelCache.put(12345L, account(50.00, UPDATED_AT.plusSeconds(1)));
+			sharedAccountCache.put(account(25.00, UPDATED_AT.plusSeconds(2)));
+
+			assertArrayEquals(new byte[0], server.values().get("bankapp:account:Long:12345"));
+		}
+	}
+
+	@Test
+	void testLoadedAccountsLeaveSharedTierAlone() throws IOException {
+		try (InMemoryRespServer server = new InMemoryRespServer();
+				RespClient client = new RespClient("localhost", server.port(), Duration.ofSeconds(1), 4, Duration.ofSeconds(5))) {
+			TwoLevelCache twoLevelCache = new TwoLevelCache(new CaffeineCache(ACCOUNT_CACHE, Caffeine.newBuilder().build()),
+					client, "bankapp:", Duration.ofMinutes(10), Duration.ofSeconds(10), new SimpleMeterRegistry());
+			SimpleCacheManager cacheManager = new SimpleCacheManager();
+			cacheManager.setCaches(List.of(twoLevelCache));
+			cacheManager.afterPropertiesSet();
+			AccountCache sharedAccountCache = new AccountCache(cacheManager);
+
+			twoLevelCache.put(12345L, account(150.00, UPDATED_AT));
+			sharedAccountCache.putLoaded(account(150.00, UPDATED_AT));
+
+			// still the serialized account, not the eviction marker
+			assertTrue(server.values().get("bankapp:account:Long:12345").length > 0);
+			assertEquals(150.00, sharedAccountCache.getIfCached(12345L).getAccountBalance());
+		}
+	}
+
+	@Test
+	void testRequiresCaffeineCache() {
+		// a manager created with cache names does not create others on demand
+		assertThrows(IllegalStateException.class, () -> new AccountCache(new CaffeineCacheManager("customer")));
+	}
+}
@@ -0,0 +1,108 @@
+package dev.abreu.bankapp.cache;
+
+import dev.abreu.bankapp.dao.AccountDao;
+import dev.abreu.bankapp.entity.Account;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static dev.abreu.bankapp.cache.AccountCache.ACCOUNT_CACHE;
+import static dev.abreu.bankapp.cache.AccountListCache.ACCOUNT_LIST_CACHE;
+import static dev.abreu.bankapp.util.BankappConstants.CHECKING_ACCOUNT;
+import static dev.abreu.bankapp.util.BankappConstants.SAVINGS_ACCOUNT;
+import static org.junit.jupiter.api.Assertions.*;
+
+class AccountListCacheTest {
+
+	private static final LocalDateTime UPDATED_AT = LocalDateTime.of(2024, 5, 1, 12, 0);
+
+	private CaffeineCacheManager cacheManager;
+	private AccountCache accountCache;
+	private AccountDao accountDao;
+	private AccountListCache accountListCache;
+
+	@BeforeEach
+	void setup() {
+		cacheManager = new CaffeineCacheManager(ACCOUNT_CACHE, ACCOUNT_LIST_CACHE);
+		accountCache = new AccountCache(cacheManager);
+		accountDao = Mockito.mock(AccountDao.class);
+		accountListCache = new AccountListCache(cacheManager, accountCache, accountDao);
+	}
+
+	private static Account account(Long acctNo, String accountType, double balance) {
+		Account account = new Account(acctNo, accountType, balance, 1L);
+		account.setUpdatedAt(UPDATED_AT);
+		return account;
+	}
+
+	@Test
+	void testCachedListReadsCurrentBalances() {
+		accountListCache.put(1L, "testUser", List.of(account(12345L, CHECKING_ACCOUNT, 150.00), account(67890L, SAVINGS_ACCOUNT, 50.00)));
+
+		accountCache.updateBalance(12345L, 100.00, UPDATED_AT.plusSeconds(1));
+		List<Account> accounts = accountListCache.get("testUser");
+
+		assertEquals(List.of(12345L, 67890L), accounts.stream().map(Account::getAccountNumber).toList());
+		assertEquals(100.00, accounts.get(0).getAccountBalance());
+		Mockito.verifyNoInteractions(accountDao);
+	}
+
+	@Test
+	void testUncachedListIsNull() {
+		assertNull(accountListCache.get("testUser"));
+		assertNull(accountListCache.get("otherUser"));
+	}
+
+	@Test
+	void testListIsOnlyServedForTheUsernameItWasLoadedFor() {
+		accountListCache.put(1L, "testUser", List.of(account(12345L, CHECKING_ACCOUNT, 150.00)));
+		// the customer was renamed and their list loaded again under the new username
+		accountListCache.put(1L, "renamedUser", List.of(account(12345L, CHECKING_ACCOUNT, 150.00)));
+
+		assertNull(accountListCache.get("testUser"));
+		assertEquals(1, accountListCache.get("renamedUser").size());
+	}
+
+	@Test
+	void testAccountsLeftOutOfTheAccountCacheAreLoadedInOneQuery() {
+		accountListCache.put(1L, "testUser", List.of(account(12345L, CHECKING_ACCOUNT, 150.00), account(67890L, SAVINGS_ACCOUNT, 50.00)));
+		cacheManager.getCache(ACCOUNT_CACHE).evict(67890L);
+		Mockito.when(accountDao.findAccountsByAcctNos(List.of(67890L)))
+				.thenReturn(List.of(account(67890L, SAVINGS_ACCOUNT, 75.00)));
+
+		List<Account> accounts = accountListCache.get("testUser");
+
+		assertEquals(List.of(12345L, 67890L), accounts.stream().map(Account::getAccountNumber).toList());
+		assertEquals(75.00, accounts.get(1).getAccountBalance());
+		assertNotNull(accountCache.getIfCached(67890L));
+	}
+
+	@Test
+	void testListWithAClosedAccountIsEvicted() {
+		accountListCache.put(1L, "testUser", List.of(account(12345L, CHECKING_ACCOUNT, 150.00)));
+		cacheManager.getCache(ACCOUNT_CACHE).evict(12345L);
+		Mockito.when(accountDao.findAccountsByAcctNos(List.of(12345L))).thenReturn(List.of());
+
+		assertNull(accountListCache.get("testUser"));
+		assertNull(accountListCache.get("testUser"));
+		Mockito.verify(accountDao).findAccountsByAcctNos(List.of(12345L));
+	}
+
+	@Test
+	void testOpeningAndClosingAccountsPatchesTheList() {
+		accountListCache.put(1L, "testUser", List.of(account(12345L, CHECKING_ACCOUNT, 150.00)));
+		accountCache.put(account(67890L, SAVINGS_ACCOUNT, 50.00));
+
+		accountListCache.addAccount(1L, 67890L);
+		assertEquals(List.of(67890L, 12345L),
+				accountListCache.get("testUser").stream().map(Account::getAccountNumber).toList());
+
+		accountListCache.removeAccount(1L, 12345L);
+		assertEquals(List.of(67890L),
+				accountListCache.get("testUser").stream().map(Account::getAccountNumber).toList());
+	}
+}
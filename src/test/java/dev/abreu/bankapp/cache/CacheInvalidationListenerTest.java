@@ -0,0 +1,87 @@
+package dev.abreu.bankapp.cache;
+
+import dev.abreu.bankapp.entity.Account;
+import dev.abreu.bankapp.entity.Customer;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static dev.abreu.bankapp.util.BankappConstants.CHECKING_ACCOUNT;
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(MockitoExtension.class)
+class CacheInvalidationListenerTest {
+
+	@Mock
+	private DataSource dataSourceMock;
+
+	private Cache accountCache;
+	private Cache customerCache;
+	private SimpleMeterRegistry meterRegistry;
+	private CacheInvalidationListener listener;
+
+	@BeforeEach
+	void setup() {
+		CaffeineCacheManager cacheManager = new CaffeineCacheManager("account", "customer");
+		accountCache = cacheManager.getCache("account");
+		customerCache = cacheManager.getCache("customer");
+		meterRegistry = new SimpleMeterRegistry();
+		listener = new CacheInvalidationListener(dataSourceMock, cacheManager, meterRegistry,
+				"bankapp_cache_invalidation", Duration.ofMillis(500), Duration.ofSeconds(5));
+	}
+
+	private void cacheAccount() {
+		accountCache.put(12345L, new Account(12345L, CHECKING_ACCOUNT, 100.00, 1L));
+	}
+
+	@Test
+	void testEvictsCustomerUnderEveryKey() {
+		customerCache.put(1L, new Customer());
+		customerCache.put("testUser", new Customer());
+		customerCache.put("otherUser", new Customer());
+
+		listener.handle("{\"cache\":\"customer\",\"keys\":[1,\"testUser\"],\"sentAt\":0}");
+
+		assertNull(customerCache.get(1L));
+		assertNull(customerCache.get("testUser"));
+		assertNotNull(customerCache.get("otherUser"));
+	}
+
+	@Test
+	void testEvictsAccount() {
+		cacheAccount();
+
+		listener.handle("{\"cache\":\"account\",\"keys\":[12345],\"sentAt\":0}");
+
+		assertNull(accountCache.get(12345L));
+	}
+
+	@Test
+	void testRecordsLagPerCache() {
+		listener.handle("{\"cache\":\"account\",\"keys\":[12345],\"sentAt\":" + (System.currentTimeMillis() - 20) + "}");
+
+		Timer lag = meterRegistry.get(CacheInvalidationListener.LAG_METER).tag("cache", "account").timer();
+		assertEquals(1, lag.count());
+		assertTrue(lag.totalTime(TimeUnit.MILLISECONDS) >= 20);
+	}
+
+	@Test
+	void testIgnoresMalformedAndUnknownCaches() {
+		cacheAccount();
+
+		listener.handle("not json");
+		listener.handle("{\"cache\":\"transfer\",\"keys\":[12345],\"sentAt\":0}");
+
+		assertNotNull(accountCache.get(12345L));
+	}
+}
@@ -0,0 +1,124 @@
+package dev.abreu.bankapp.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import dev.abreu.bankapp.config.CacheWarmUpProperties;
+import dev.abreu.bankapp.dao.AccountDao;
+import dev.abreu.bankapp.dao.CustomerDao;
+import dev.abreu.bankapp.dao.TransferDao;
+import dev.abreu.bankapp.entity.Account;
+import dev.abreu.bankapp.entity.Customer;
+import dev.abreu.bankapp.entity.Transfer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.LongStream;
+
+import static dev.abreu.bankapp.cache.AccountCache.ACCOUNT_CACHE;
+import static dev.abreu.bankapp.cache.CustomerIdentityCache.CUSTOMER_CACHE;
+import static dev.abreu.bankapp.cache.NegativeLookupCache.NOT_FOUND_CACHE;
+import static dev.abreu.bankapp.util.BankappConstants.CHECKING_ACCOUNT;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+
+class CacheWarmerTest {
+
+	@TempDir
+	Path snapshotDir;
+
+	private CacheWarmUpProperties properties;
+	private AccountDao accountDao;
+	private CustomerDao customerDao;
+	private TransferDao transferDao;
+
+	@BeforeEach
+	void setup() {
+		properties = new CacheWarmUpProperties(true, snapshotDir.resolve("hot-keys.json"), Duration.ofMinutes(1),
+				100, 500, 2, Duration.ofSeconds(10));
+		accountDao = Mockito.mock(AccountDao.class);
+		customerDao = Mockito.mock(CustomerDao.class);
+		transferDao = Mockito.mock(TransferDao.class);
+	}
+
+	// each call stands in for a freshly started node
+	private static CacheManager newCacheManager() {
+		CaffeineCacheManager cacheManager = new CaffeineCacheManager(ACCOUNT_CACHE, CUSTOMER_CACHE, "transfer", NOT_FOUND_CACHE);
+		cacheManager.setCaffeine(Caffeine.newBuilder().maximumSize(1000));
+		return cacheManager;
+	}
+
+	private CustomerIdentityCache newCustomerIdentityCache(CacheManager cacheManager) {
+		return new CustomerIdentityCache(cacheManager, new NegativeLookupCache(cacheManager), customerDao);
+	}
+
+	private CacheWarmer newWarmer(CacheManager cacheManager, CustomerIdentityCache customerIdentityCache) {
+		return new CacheWarmer(properties, cacheManager, customerIdentityCache, accountDao, customerDao, transferDao);
+	}
+
+	private CacheWarmer newWarmer(CacheManager cacheManager) {
+		return newWarmer(cacheManager, newCustomerIdentityCache(cacheManager));
+	}
+
+	@Test
+	void testRestartedNodeWarmsFromItsSnapshot() throws IOException {
+		Account account = new Account(12345L, CHECKING_ACCOUNT, 150.00, 1L);
+		Customer customer = new Customer(1L, "Test", "User", "123 Main St", "testUser");
+		Transfer transfer = new Transfer(7L, 12345L, 67890L, 25.00, "Transfer notes");
+
+		CacheManager before = newCacheManager();
+		CustomerIdentityCache customersBefore = newCustomerIdentityCache(before);
+		CacheWarmer beforeRestart = newWarmer(before, customersBefore);
+		before.getCache(ACCOUNT_CACHE).put(12345L, account);
+		before.getCache("transfer").put(7L, transfer);
+		Mockito.when(customerDao.findByUsername("testUser")).thenReturn(Optional.of(customer));
+		customersBefore.getByUsername("testUser");
+		beforeRestart.writeSnapshot();
+		beforeRestart.close();
+
+		Mockito.when(accountDao.findAccountsByAcctNos(List.of(12345L))).thenReturn(List.of(account));
+		Mockito.when(customerDao.findByUsernames(List.of("testUser"))).thenReturn(List.of(customer));
+		Mockito.when(transferDao.findTransfersByIds(List.of(7L))).thenReturn(List.of(transfer));
+
+		CacheManager after = newCacheManager();
+		CacheWarmer afterRestart = newWarmer(after);
+		afterRestart.run(null);
+		afterRestart.close();
+
+		assertSame(account, after.getCache(ACCOUNT_CACHE).get(12345L, Account.class));
+		assertEquals("testUser", after.getCache(CUSTOMER_CACHE).get(1L, Customer.class).getUsername());
+		assertSame(transfer, after.getCache("transfer").get(7L, Transfer.class));
+	}
+
+	@Test
+	void testWarmUpLoadsInBatches() {
+		List<Long> acctNos = LongStream.rangeClosed(1, 1200).boxed().toList();
+		Mockito.when(accountDao.findAccountsByAcctNos(anyList())).thenReturn(List.of());
+
+		newWarmer(newCacheManager()).warm(new CacheWarmer.HotKeys(acctNos, List.of(), List.of()));
+
+		Mockito.verify(accountDao).findAccountsByAcctNos(acctNos.subList(0, 500));
+		Mockito.verify(accountDao).findAccountsByAcctNos(acctNos.subList(500, 1000));
+		Mockito.verify(accountDao).findAccountsByAcctNos(acctNos.subList(1000, 1200));
+		Mockito.verifyNoInteractions(customerDao, transferDao);
+	}
+
+	@Test
+	void testMissingSnapshotStartsCold() {
+		CacheWarmer warmer = newWarmer(newCacheManager());
+
+		warmer.run(null);
+		warmer.close();
+
+		Mockito.verifyNoInteractions(accountDao, customerDao, transferDao);
+		assertTrue(Files.exists(properties.snapshotFile()));
+	}
+}
@@ -0,0 +1,156 @@
+package dev.abreu.bankapp.cache;
+
+import dev.abreu.bankapp.dao.CustomerDao;
+import dev.abreu.bankapp.entity.Customer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Optional;
+
+import static dev.abreu.bankapp.cache.CustomerIdentityCache.CUSTOMER_CACHE;
+import static dev.abreu.bankapp.cache.NegativeLookupCache.NOT_FOUND_CACHE;
+import static org.junit.jupiter.api.Assertions.*;
+
+class CustomerIdentityCacheTest {
+
+	private Cache cache;
+	private CustomerDao customerDao;
+	private CustomerIdentityCache customerIdentityCache;
+
+	@BeforeEach
+	void setup() {
+		CaffeineCacheManager cacheManager = new CaffeineCacheManager(CUSTOMER_CACHE, NOT_FOUND_CACHE);
+		cache = cacheManager.getCache(CUSTOMER_CACHE);
+		customerDao = Mockito.mock(CustomerDao.class);
+		customerIdentityCache = new CustomerIdentityCache(cacheManager, new NegativeLookupCache(cacheManager), customerDao);
+	}
+
+	@AfterEach
+	void cleanup() {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+	}
+
+	private static Customer customer(String username) {
+		Customer customer = new Customer(1L, "Test", "User", "123 Main St", username);
+		customer.setPassword("encoded");
+		return customer;
+	}
+
+	@Test
+	void testLookupsByIdAndUsernameShareOneEntry() {
+		Mockito.when(customerDao.findByUsername("testUser")).thenReturn(Optional.of(customer("testUser")));
+
+		Customer byUsername = customerIdentityCache.getByUsername("testUser");
+		Customer byId = customerIdentityCache.getById(1L);
+
+		assertSame(byUsername, byId);
+		assertSame(byId, customerIdentityCache.getByUsername("testUser"));
+		assertSame(byId, cache.get(1L, Customer.class));
+		assertNull(cache.get("testUser"));
+		Mockito.verify(customerDao).findByUsername("testUser");
+		Mockito.verify(customerDao, Mockito.never()).findById(1L);
+	}
+
+	@Test
+	void testMissingCustomerIsNotCached() {
+		Mockito.when(customerDao.findById(1L)).thenReturn(Optional.empty());
+		Mockito.when(customerDao.findByUsername("testUser")).thenReturn(Optional.empty());
+
+		assertNull(customerIdentityCache.getById(1L));
+		assertNull(customerIdentityCache.getByUsername("testUser"));
+		assertNull(cache.get(1L));
+	}
+
+	@Test
+	void testMissingCustomerIsRememberedUntilCreated() {
+		Mockito.when(customerDao.findById(1L)).thenReturn(Optional.empty());
+		Mockito.when(customerDao.findByUsername("testUser")).thenReturn(Optional.empty());
+
+		for (int i = 0; i < 3; i++) {
+			assertNull(customerIdentityCache.getById(1L));
+			assertNull(customerIdentityCache.getByUsername("testUser"));
+		}
+		Mockito.verify(customerDao).findById(1L);
+		Mockito.verify(customerDao).findByUsername("testUser");
+
+		customerIdentityCache.put(customer("testUser"));
+
+		assertNotNull(customerIdentityCache.getByUsername("testUser"));
+		assertNotNull(customerIdentityCache.getById(1L));
+	}
+
+	@Test
+	void testUpdateMovesCustomerToNewUsername() {
+		customerIdentityCache.put(customer("testUser"));
+		Customer details = new Customer(1L, "New", "Name", "456 Side St", "renamedUser");
+
+		customerIdentityCache.update(details);
+
+		Customer renamed = customerIdentityCache.getByUsername("renamedUser");
+		assertEquals("New", renamed.getFirstName());
+		assertEquals("encoded", renamed.getPassword());
+		assertSame(renamed, customerIdentityCache.getById(1L));
+		Mockito.verify(customerDao, Mockito.never()).findByUsername("renamedUser");
+
+		Mockito.when(customerDao.findByUsername("testUser")).thenReturn(Optional.empty());
+		assertNull(customerIdentityCache.getByUsername("testUser"));
+	}
+
+	@Test
+	void testUpdateLeavesUncachedCustomerUncached() {
+		customerIdentityCache.update(new Customer(1L, "New", "Name", "456 Side St", "renamedUser"));
+
+		assertNull(cache.get(1L));
+	}
+
+	@Test
+	void testStaleIndexEntryIsNotServed() {
+		customerIdentityCache.put(customer("testUser"));
+		// as when another node renames the customer and the cache reloads it by id
+		cache.put(1L, customer("renamedUser"));
+		Mockito.when(customerDao.findByUsername("testUser")).thenReturn(Optional.empty());
+
+		assertNull(customerIdentityCache.getByUsername("testUser"));
+		Mockito.verify(customerDao).findByUsername("testUser");
+	}
+
+	@Test
+	void testEvictByUsernameEvictsBothKeys() {
+		customerIdentityCache.put(customer("testUser"));
+
+		customerIdentityCache.evictByUsername("testUser");
+
+		assertNull(cache.get(1L));
+	}
+
+	@Test
+	void testEvictByIdEvictsBothKeys() {
+		customerIdentityCache.put(customer("testUser"));
+		customerIdentityCache.evictById(1L);
+		assertNull(cache.get(1L));
+		Mockito.when(customerDao.findByUsername("testUser")).thenReturn(Optional.of(customer("testUser")));
+
+		customerIdentityCache.getByUsername("testUser");
+
+		Mockito.verify(customerDao).findByUsername("testUser");
+	}
+
+	@Test
+	void testPutWaitsForCommit() {
+		TransactionSynchronizationManager.initSynchronization();
+
+		customerIdentityCache.put(customer("testUser"));
+		assertNull(cache.get(1L));
+
+		TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+		assertNotNull(cache.get(1L));
+	}
+}
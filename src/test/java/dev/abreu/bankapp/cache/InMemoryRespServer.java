@@ -0,0 +1,138 @@
+package dev.abreu.bankapp.cache;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Stand-in for a Redis server in tests: answers PING, GET, SET (with NX, ignoring expiry) and DEL over RESP,
+ * keeping values in memory. Listens on an ephemeral loopback port, or a given one to stand in for a restart.
+ *
+ * @author Devin Abreu
+ */
+class InMemoryRespServer implements Closeable {
+
+	private final ServerSocket serverSocket;
+	private final Map<String, byte[]> values = new ConcurrentHashMap<>();
+
+	InMemoryRespServer() throws IOException {
+		this(0);
+	}
+
+	InMemoryRespServer(int port) throws IOException {
+		serverSocket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+		Thread acceptor = new Thread(this::accept, "in-memory-resp-server");
+		acceptor.setDaemon(true);
+		acceptor.start();
+	}
+
+	int port() {
+		return serverSocket.getLocalPort();
+	}
+
+	Map<String, byte[]> values() {
+		return values;
+	}
+
+	private void accept() {
+		while (!serverSocket.isClosed()) {
+			try {
+				Socket socket = serverSocket.accept();
+				Thread handler = new Thread(() -> serve(socket), "in-memory-resp-connection");
+				handler.setDaemon(true);
+				handler.start();
+			} catch (IOException e) {
+				return;
+			}
+		}
+	}
+
+	private void serve(Socket socket) {
+		try (socket;
+				InputStream in = new BufferedInputStream(socket.getInputStream());
+				OutputStream out = new BufferedOutputStream(socket.getOutputStream())) {
+			int type;
+			while ((type = in.read()) == '*') {
+				byte[][] args = new byte[Integer.parseInt(readLine(in))][];
+				for (int i = 0; i < args.length; i++) {
+					in.read();
+					args[i] = in.readNBytes(Integer.parseInt(readLine(in)));
+					readLine(in);
+				}
+				reply(args, out);
+				out.flush();
+			}
+		} catch (IOException e) {
+			// the client went away
+		}
+	}
+
+	private void reply(byte[][] args, OutputStream out) throws IOException {
+		String command = new String(args[0], StandardCharsets.UTF_8).toUpperCase();
+		switch (command) {
+			case "PING" -> out.write("+PONG\r\n".getBytes(StandardCharsets.UTF_8));
+			case "SET" -> {
+				String key = new String(args[1], StandardCharsets.UTF_8);
+				boolean stored = true;
+				if (hasOption(args, "NX")) {
+					stored = values.putIfAbsent(key, args[2]) == null;
+				} else {
+					values.put(key, args[2]);
+				}
+				out.write((stored ? "+OK\r\n" : "$-1\r\n").getBytes(StandardCharsets.UTF_8));
+			}
+			case "GET" -> {
+				byte[] value = values.get(new String(args[1], StandardCharsets.UTF_8));
+				if (value == null) {
+					out.write("$-1\r\n".getBytes(StandardCharsets.UTF_8));
+				} else {
+					out.write(("$" + value.length + "\r\n").getBytes(StandardCharsets.UTF_8));
+					out.write(value);
+					out.write("\r\n".getBytes(StandardCharsets.UTF_8));
+				}
+			}
+			case "DEL" -> {
+				int deleted = values.remove(new String(args[1], StandardCharsets.UTF_8)) != null ? 1 : 0;
+				out.write((":" + deleted + "\r\n").getBytes(StandardCharsets.UTF_8));
+			}
+			default -> out.write(("-ERR unknown command '" + command + "'\r\n").getBytes(StandardCharsets.UTF_8));
+		}
+	}
+
+	private static boolean hasOption(byte[][] args, String option) {
+		for (int i = 3; i < args.length; i++) {
+			if (option.equalsIgnoreCase(new String(args[i], StandardCharsets.UTF_8))) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static String readLine(InputStream in) throws IOException {
+		ByteArrayOutputStream line = new ByteArrayOutputStream();
+		int b;
+		while ((b = in.read()) != '\r') {
+			if (b == -1) {
+				throw new IOException("connection closed");
+			}
+			line.write(b);
+		}
+		in.read();
+		return line.toString(StandardCharsets.UTF_8);
+	}
+
+	@Override
+	public void close() throws IOException {
+		serverSocket.close();
+	}
+}
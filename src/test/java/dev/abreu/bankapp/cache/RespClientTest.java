@@ -0,0 +1,121 @@
+package dev.abreu.bankapp.cache;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RespClientTest {
+
+	private InMemoryRespServer server;
+	private RespClient client;
+
+	@BeforeEach
+	void setup() throws IOException {
+		server = new InMemoryRespServer();
+		client = new RespClient("localhost", server.port(), Duration.ofSeconds(1), 2, Duration.ofSeconds(5));
+	}
+
+	@AfterEach
+	void cleanup() throws IOException {
+		client.close();
+		server.close();
+	}
+
+	@Test
+	void testSetGetDel() throws IOException {
+		byte[] value = "value\r\nwith a line break".getBytes(StandardCharsets.UTF_8);
+
+		client.set("key", value, Duration.ofMinutes(1));
+
+		assertArrayEquals(value, client.get("key"));
+		assertEquals(1, client.del("key"));
+		assertNull(client.get("key"));
+		assertEquals(0, client.del("key"));
+	}
+
+	@Test
+	void testSetIfAbsentKeepsExistingValue() throws IOException {
+		byte[] first = "first".getBytes(StandardCharsets.UTF_8);
+
+		assertTrue(client.setIfAbsent("key", first, Duration.ofMinutes(1)));
+		assertFalse(client.setIfAbsent("key", "second".getBytes(StandardCharsets.UTF_8), Duration.ofMinutes(1)));
+
+		assertArrayEquals(first, client.get("key"));
+	}
+
+	@Test
+	void testPing() throws IOException {
+		assertEquals("PONG", client.ping());
+	}
+
+	@Test
+	void testReusesConnectionsAcrossThreads() throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for (int t = 0; t < 8; t++) {
+				String key = "key-" + t;
+				futures.add(executor.submit(() -> {
+					for (int i = 0; i < 50; i++) {
+						client.set(key, Integer.toString(i).getBytes(StandardCharsets.UTF_8), Duration.ofMinutes(1));
+						assertEquals(Integer.toString(i), new String(client.get(key), StandardCharsets.UTF_8));
+					}
+					return null;
+				}));
+			}
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		assertEquals(8, server.values().size());
+	}
+
+	@Test
+	void testUnreachableServerFails() throws IOException {
+		int unusedPort;
+		try (ServerSocket socket = new ServerSocket(0)) {
+			unusedPort = socket.getLocalPort();
+		}
+		RespClient unreachable = new RespClient("localhost", unusedPort, Duration.ofMillis(200), 2, Duration.ofSeconds(5));
+
+		assertThrows(IOException.class, () -> unreachable.get("key"));
+	}
+
+	@Test
+	void testFailsFastDuringCoolDownThenProbesAgain() throws IOException {
+		int port;
+		try (InMemoryRespServer stopped = new InMemoryRespServer()) {
+			port = stopped.port();
+		}
+		AtomicLong now = new AtomicLong();
+		try (RespClient coolingDown = new RespClient("localhost", port, Duration.ofMillis(200), 2, Duration.ofSeconds(5), now::get)) {
+			IOException refused = assertThrows(IOException.class, coolingDown::ping);
+
+			try (InMemoryRespServer restarted = new InMemoryRespServer(port)) {
+				now.addAndGet(Duration.ofSeconds(4).toNanos());
+				IOException skipped = assertThrows(IOException.class, coolingDown::ping);
+				assertNotEquals(refused.getMessage(), skipped.getMessage());
+
+				now.addAndGet(Duration.ofSeconds(1).toNanos());
+				assertEquals("PONG", coolingDown.ping());
+				assertEquals("PONG", coolingDown.ping());
+			}
+		}
+	}
+}
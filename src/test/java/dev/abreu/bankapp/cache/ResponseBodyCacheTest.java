@@ -0,0 +1,92 @@
+package dev.abreu.bankapp.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.support.NoOpCacheManager;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import static dev.abreu.bankapp.cache.ResponseBodyCache.RESPONSE_BODY_CACHE;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResponseBodyCacheTest {
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	private AtomicInteger loads;
+	private ResponseBodyCache responseBodyCache;
+
+	@BeforeEach
+	void setup() {
+		loads = new AtomicInteger();
+		responseBodyCache = new ResponseBodyCache(new CaffeineCacheManager(RESPONSE_BODY_CACHE), objectMapper,
+				true, DataSize.ofBytes(64));
+	}
+
+	private Map<String, Object> load(String notes) {
+		loads.incrementAndGet();
+		return Map.of("id", 1, "notes", notes);
+	}
+
+	@Test
+	void testHitReturnsStoredBytesWithoutLoading() throws IOException {
+		ResponseBodyCache.Body first = responseBodyCache.get("transfer:1", () -> load("short"));
+		ResponseBodyCache.Body second = responseBodyCache.get("transfer:1", () -> load("short"));
+
+		assertSame(first, second);
+		assertEquals(1, loads.get());
+		assertEquals(Map.of("id", 1, "notes", "short"), objectMapper.readValue(first.json(), Map.class));
+		assertTrue(first.etag().startsWith("\"") && first.etag().endsWith("\""));
+	}
+
+	@Test
+	void testLargeBodiesAreGzippedAheadOfTime() throws IOException {
+		ResponseBodyCache.Body small = responseBodyCache.get("transfer:1", () -> load("short"));
+		ResponseBodyCache.Body large = responseBodyCache.get("transfer:2", () -> load("x".repeat(500)));
+
+		assertNull(small.gzipped());
+		assertNotNull(large.gzipped());
+		assertNotEquals(large.etag(), large.gzippedEtag());
+		try (GZIPInputStream gunzipped = new GZIPInputStream(new ByteArrayInputStream(large.gzipped()))) {
+			assertArrayEquals(large.json(), gunzipped.readAllBytes());
+		}
+	}
+
+	@Test
+	void testSameContentGetsSameEtag() {
+		ResponseBodyCache.Body first = responseBodyCache.get("transfer:1", () -> load("short"));
+		ResponseBodyCache.Body second = responseBodyCache.get("transfer:2", () -> load("short"));
+		ResponseBodyCache.Body other = responseBodyCache.get("transfer:3", () -> load("other"));
+
+		assertEquals(first.etag(), second.etag());
+		assertNotEquals(first.etag(), other.etag());
+	}
+
+	@Test
+	void testLoaderExceptionIsPassedOnAndNotCached() {
+		assertThrows(IllegalArgumentException.class, () -> responseBodyCache.get("transfer:1", () -> {
+			throw new IllegalArgumentException("Invalid type");
+		}));
+
+		responseBodyCache.get("transfer:1", () -> load("short"));
+		assertEquals(1, loads.get());
+	}
+
+	@Test
+	void testWithoutConfiguredCacheEveryCallLoads() {
+		ResponseBodyCache uncached = new ResponseBodyCache(new NoOpCacheManager(), objectMapper, false, DataSize.ofBytes(64));
+
+		ResponseBodyCache.Body first = uncached.get("transfer:1", () -> load("x".repeat(500)));
+		uncached.get("transfer:1", () -> load("x".repeat(500)));
+
+		assertEquals(2, loads.get());
+		assertNull(first.gzipped());
+	}
+}
@@ -0,0 +1,187 @@
+package dev.abreu.bankapp.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import dev.abreu.bankapp.entity.Account;
+import dev.abreu.bankapp.entity.Customer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.caffeine.CaffeineCache;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static dev.abreu.bankapp.util.BankappConstants.CHECKING_ACCOUNT;
+import static org.junit.jupiter.api.Assertions.*;
+
+class TwoLevelCacheTest {
+
+	private InMemoryRespServer server;
+	private RespClient client;
+	private SimpleMeterRegistry meterRegistry;
+
+	@BeforeEach
+	void setup() throws IOException {
+		server = new InMemoryRespServer();
+		client = new RespClient("localhost", server.port(), Duration.ofSeconds(1), 4, Duration.ofSeconds(5));
+		meterRegistry = new SimpleMeterRegistry();
+	}
+
+	@AfterEach
+	void cleanup() throws IOException {
+		client.close();
+		server.close();
+	}
+
+	// each call stands in for another node: its own L1, the same shared tier
+	private TwoLevelCache newNodeCache(String name) {
+		return new TwoLevelCache(new CaffeineCache(name, Caffeine.newBuilder().build()),
+				client, "bankapp:", Duration.ofMinutes(10), Duration.ofSeconds(10), meterRegistry);
+	}
+
+	private double tierGets(String tier) {
+		return meterRegistry.get("cache.tier.gets").tag("tier", tier).counter().count();
+	}
+
+	private static Account account(double balance) {
+		Account account = new Account(12345L, CHECKING_ACCOUNT, balance, 1L);
+		account.setUpdatedAt(LocalDateTime.of(2024, 5, 1, 12, 0));
+		return account;
+	}
+
+	@Test
+	void testNewNodeReadsWhatAnotherNodeWrote() {
+		TwoLevelCache nodeA = newNodeCache("account");
+		TwoLevelCache nodeB = newNodeCache("account");
+
+		nodeA.put(12345L, account(150.00));
+		Account fromShared = nodeB.get(12345L, Account.class);
+		Account fromLocal = nodeB.get(12345L, Account.class);
+
+		assertEquals(150.00, fromShared.getAccountBalance());
+		assertSame(fromShared, fromLocal);
+		assertEquals(1, tierGets("l2"));
+		assertEquals(1, tierGets("l1"));
+	}
+
+	@Test
+	void testLoaderRunsOnlyWhenBothTiersMiss() {
+		TwoLevelCache nodeA = newNodeCache("customer");
+		TwoLevelCache nodeB = newNodeCache("customer");
+		AtomicInteger loads = new AtomicInteger();
+		Customer customer = new Customer(1L, "Test", "User", "123 Main St", "testUser");
+
+		nodeA.get("testUser", () -> {
+			loads.incrementAndGet();
+			return customer;
+		});
+		Customer loadedByB = nodeB.get("testUser", () -> {
+			loads.incrementAndGet();
+			return customer;
+		});
+
+		assertEquals(1, loads.get());
+		assertEquals("testUser", loadedByB.getUsername());
+		assertEquals(1, tierGets("none"));
+		assertEquals(1, tierGets("l2"));
+	}
+
+	@Test
+	void testLocalTierStatsArePublishedAsCacheMetrics() {
+		TwoLevelCache cache = new TwoLevelCache(new CaffeineCache("account", Caffeine.newBuilder().recordStats().build()),
+				client, "bankapp:", Duration.ofMinutes(10), Duration.ofSeconds(10), meterRegistry);
+		new TwoLevelCacheMeterBinderProvider().getMeterBinder(cache, List.of()).bindTo(meterRegistry);
+		cache.put(12345L, account(150.00));
+
+		cache.get(12345L);
+
+		assertEquals(1, meterRegistry.get("cache.gets").tag("cache", "account").tag("result", "hit").functionCounter().count());
+	}
+
+	@Test
+	void testEvictRemovesFromBothTiers() {
+		TwoLevelCache nodeA = newNodeCache("account");
+		TwoLevelCache nodeB = newNodeCache("account");
+		nodeA.put(12345L, account(150.00));
+		nodeB.get(12345L);
+
+		nodeA.evict(12345L);
+		nodeB.evict(12345L);
+
+		assertArrayEquals(new byte[0], server.values().get("bankapp:account:Long:12345"));
+		assertNull(newNodeCache("account").get(12345L));
+	}
+
+	@Test
+	void testLoadFinishingAfterAnEvictionDoesNotFillSharedTier() {
+		TwoLevelCache nodeA = newNodeCache("account");
+		TwoLevelCache nodeB = newNodeCache("account");
+
+		// node B changes the account while node A is still loading the old balance
+		Account loaded = nodeA.get(12345L, () -> {
+			Account stale = account(150.00);
+			nodeB.evict(12345L);
+			return stale;
+		});
+
+		assertEquals(150.00, loaded.getAccountBalance());
+		assertNull(newNodeCache("account").get(12345L));
+	}
+
+	@Test
+	void testLoadDoesNotReplaceWhatAnotherNodeWrote() {
+		TwoLevelCache nodeA = newNodeCache("account");
+		TwoLevelCache nodeB = newNodeCache("account");
+
+		nodeA.get(12345L, () -> {
+			Account stale = account(150.00);
+			nodeB.put(12345L, account(50.00));
+			return stale;
+		});
+
+		assertEquals(50.00, newNodeCache("account").get(12345L, Account.class).getAccountBalance());
+	}
+
+	@Test
+	void testClearOnlyClearsLocalTier() {
+		TwoLevelCache nodeA = newNodeCache("account");
+		nodeA.put(12345L, account(150.00));
+
+		nodeA.clear();
+
+		assertEquals(1, server.values().size());
+		assertNotNull(nodeA.get(12345L));
+		assertEquals(1, tierGets("l2"));
+	}
+
+	@Test
+	void testKeysOfDifferentTypesStayApart() {
+		TwoLevelCache cache = newNodeCache("customer");
+
+		cache.put(1L, new Customer(1L, "Test", "User", "123 Main St", "testUser"));
+
+		assertNull(newNodeCache("customer").get("1"));
+	}
+
+	@Test
+	void testUnreachableSharedTierFallsBackToLoader() throws IOException {
+		int unusedPort;
+		try (ServerSocket socket = new ServerSocket(0)) {
+			unusedPort = socket.getLocalPort();
+		}
+		RespClient unreachable = new RespClient("localhost", unusedPort, Duration.ofMillis(200), 4, Duration.ofSeconds(5));
+		TwoLevelCache cache = new TwoLevelCache(new CaffeineCache("account", Caffeine.newBuilder().build()),
+				unreachable, "bankapp:", Duration.ofMinutes(10), Duration.ofSeconds(10), meterRegistry);
+
+		Account loaded = cache.get(12345L, () -> account(150.00));
+		cache.evict(12345L);
+
+		assertEquals(150.00, loaded.getAccountBalance());
+		assertEquals(3, meterRegistry.get("cache.tier.errors").counter().count());
+	}
+}
@@ -0,0 +1,185 @@
+package dev.abreu.bankapp.config;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import dev.abreu.bankapp.cache.RespClient;
+import dev.abreu.bankapp.cache.TwoLevelCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.cache.CacheManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CacheConfigTest {
+
+	private static final CacheSpecProperties.Spec SMALL_SPEC =
+			new CacheSpecProperties.Spec(2L, null, Duration.ofMinutes(5), null, null, true, false);
+	private static final SharedCacheProperties SHARED_DISABLED =
+			new SharedCacheProperties(false, "localhost", 6379, Duration.ofMillis(250), 4, Duration.ofSeconds(5),
+					Duration.ofSeconds(10), "bankapp:", Map.of());
+
+	@Test
+	void testBuildCacheAppliesSpec() {
+		Cache<Object, Object> cache = CacheConfig.buildCache("account", SMALL_SPEC, null);
+
+		cache.put(1L, "one");
+		cache.getIfPresent(1L);
+		cache.getIfPresent(2L);
+
+		assertEquals(2L, cache.policy().eviction().orElseThrow().getMaximum());
+		assertEquals(Duration.ofMinutes(5), cache.policy().expireAfterWrite().orElseThrow().getExpiresAfter());
+		assertEquals(1, cache.stats().hitCount());
+		assertEquals(1, cache.stats().missCount());
+	}
+
+	@Test
+	void testBuildCacheWeighsByValue() {
+		CacheSpecProperties.Spec spec = new CacheSpecProperties.Spec(null, 100L, null, null, null, false, false);
+
+		Cache<Object, Object> cache = CacheConfig.buildCache("auth-token", spec, null);
+		cache.put("user", "a".repeat(40));
+
+		assertEquals(40, cache.policy().eviction().orElseThrow().weightedSize().orElseThrow());
+		assertFalse(cache.policy().isRecordingStats());
+	}
+
+	@Test
+	void testBuildCacheWithRefreshUsesLoader() {
+		CacheSpecProperties.Spec spec = new CacheSpecProperties.Spec(10L, null, null, null, Duration.ofMinutes(1), true, false);
+		CacheRefreshLoader loader = new CacheRefreshLoader() {
+			@Override
+			public String cacheName() {
+				return "customer";
+			}
+
+			@Override
+			public Object load(Object key) {
+				return "loaded-" + key;
+			}
+		};
+
+		Cache<Object, Object> cache = CacheConfig.buildCache("customer", spec, loader);
+
+		LoadingCache<Object, Object> loadingCache = assertInstanceOf(LoadingCache.class, cache);
+		assertEquals("loaded-testUser", loadingCache.get("testUser"));
+	}
+
+	@Test
+	void testBuildCacheWithRefreshRequiresLoader() {
+		CacheSpecProperties.Spec spec = new CacheSpecProperties.Spec(10L, null, null, null, Duration.ofMinutes(1), true, false);
+
+		assertThrows(IllegalStateException.class, () -> CacheConfig.buildCache("account", spec, null));
+	}
+
+	@Test
+	void testBuildAsyncCacheCoalescesConcurrentMisses() throws Exception {
+		CacheSpecProperties.Spec spec = new CacheSpecProperties.Spec(10L, null, null, null, null, true, true);
+		AtomicInteger loads = new AtomicInteger();
+		CountDownLatch release = new CountDownLatch(1);
+		ExecutorService callers = Executors.newFixedThreadPool(8);
+		ExecutorService loadExecutor = Executors.newSingleThreadExecutor();
+
+		try {
+			AsyncCache<Object, Object> cache = CacheConfig.buildAsyncCache("customer", spec, null, loadExecutor);
+			List<Future<Object>> results = new ArrayList<>();
+			for (int i = 0; i < 8; i++) {
+				results.add(callers.submit(() -> cache.synchronous().get("testUser", key -> {
+					loads.incrementAndGet();
+					awaitQuietly(release);
+					return "loaded-" + key;
+				})));
+			}
+			// give every caller time to arrive while the first load is held
+			Thread.sleep(100);
+			release.countDown();
+
+			for (Future<Object> result : results) {
+				assertEquals("loaded-testUser", result.get(5, TimeUnit.SECONDS));
+			}
+			assertEquals(1, loads.get());
+		} finally {
+			callers.shutdownNow();
+			loadExecutor.shutdownNow();
+		}
+	}
+
+	@Test
+	void testBuildAsyncCacheServesStaleValueWhileRefreshing() throws Exception {
+		CacheSpecProperties.Spec spec = new CacheSpecProperties.Spec(10L, null, null, null, Duration.ofNanos(1), true, true);
+		AtomicInteger version = new AtomicInteger();
+		CacheRefreshLoader loader = new CacheRefreshLoader() {
+			@Override
+			public String cacheName() {
+				return "customer";
+			}
+
+			@Override
+			public Object load(Object key) {
+				return key + "-v" + version.incrementAndGet();
+			}
+		};
+
+		// runs refreshes on the calling thread, so the test sees their result without waiting
+		AsyncLoadingCache<Object, Object> cache = assertInstanceOf(AsyncLoadingCache.class,
+				CacheConfig.buildAsyncCache("customer", spec, loader, Runnable::run));
+
+		assertEquals("testUser-v1", cache.get("testUser").get());
+		Thread.sleep(1);
+		assertEquals("testUser-v1", cache.get("testUser").get());
+		assertEquals("testUser-v2", cache.synchronous().getIfPresent("testUser"));
+	}
+
+	private static void awaitQuietly(CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	@Test
+	void testCacheManagerOnlyHasConfiguredCaches() {
+		CacheSpecProperties properties = new CacheSpecProperties(Map.of("account", SMALL_SPEC, "transfer", SMALL_SPEC));
+
+		CacheManager cacheManager = new CacheConfig().cacheManager(properties,
+				new StaticListableBeanFactory().getBeanProvider(CacheRefreshLoader.class), SHARED_DISABLED,
+				new StaticListableBeanFactory().getBeanProvider(RespClient.class), new SimpleMeterRegistry());
+
+		assertNotNull(cacheManager.getCache("account"));
+		assertNotNull(cacheManager.getCache("transfer"));
+		assertNull(cacheManager.getCache("customer"));
+		assertFalse(cacheManager.getCache("account") instanceof TwoLevelCache);
+	}
+
+	@Test
+	void testCacheManagerAddsSharedTierToListedCaches() {
+		CacheSpecProperties properties = new CacheSpecProperties(Map.of("account", SMALL_SPEC, "transfer", SMALL_SPEC));
+		SharedCacheProperties sharedProperties = new SharedCacheProperties(true, "localhost", 6379, Duration.ofMillis(250),
+				4, Duration.ofSeconds(5), Duration.ofSeconds(10), "bankapp:", Map.of("account", Duration.ofMinutes(10)));
+		// connects on first use only, so no server is needed here
+		RespClient sharedClient = new RespClient("localhost", 6379, Duration.ofMillis(250), 4, Duration.ofSeconds(5));
+
+		CacheManager cacheManager = new CacheConfig().cacheManager(properties,
+				new StaticListableBeanFactory().getBeanProvider(CacheRefreshLoader.class), sharedProperties,
+				new StaticListableBeanFactory(Map.of("sharedCacheClient", sharedClient)).getBeanProvider(RespClient.class),
+				new SimpleMeterRegistry());
+
+		assertInstanceOf(TwoLevelCache.class, cacheManager.getCache("account"));
+		assertInstanceOf(Cache.class, cacheManager.getCache("account").getNativeCache());
+		assertFalse(cacheManager.getCache("transfer") instanceof TwoLevelCache);
+	}
+}
@@ -0,0 +1,120 @@
+package dev.abreu.bankapp.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.TransactionAwareDataSourceProxy;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CheckoutCountingDataSourceTest {
+
+	@Mock
+	private DataSource poolMock;
+
+	@Mock
+	private Connection connectionMock;
+
+	private DataSource dataSource;
+
+	@BeforeEach
+	void setup() throws SQLException {
+		when(poolMock.getConnection()).thenReturn(connectionMock);
+		dataSource = new TransactionAwareDataSourceProxy(new CheckoutCountingDataSource(poolMock));
+	}
+
+	@AfterEach
+	void cleanup() {
+		CheckoutCountingDataSource.stopCounting();
+	}
+
+	@Test
+	void testEachCallChecksOutOutsideTransaction() throws SQLException {
+		CheckoutCountingDataSource.startCounting();
+
+		try (Connection conn = dataSource.getConnection()) {
+			conn.isReadOnly();
+		}
+		try (Connection conn = dataSource.getConnection()) {
+			conn.isReadOnly();
+		}
+
+		assertEquals(2, CheckoutCountingDataSource.stopCounting());
+		verify(poolMock, times(2)).getConnection();
+	}
+
+	@Test
+	void testDaoCallsShareTransactionConnection() throws SQLException {
+		when(connectionMock.getAutoCommit()).thenReturn(true);
+		DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+		TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+
+		CheckoutCountingDataSource.startCounting();
+
+		transactionTemplate.executeWithoutResult(status -> {
+			// what two DAO methods do inside one @Transactional service method
+			for (int i = 0; i < 2; i++) {
+				try (Connection conn = dataSource.getConnection()) {
+					conn.isReadOnly();
+				} catch (SQLException e) {
+					fail(e);
+				}
+			}
+		});
+
+		assertEquals(1, CheckoutCountingDataSource.stopCounting());
+		verify(poolMock, times(1)).getConnection();
+		verify(connectionMock).commit();
+		verify(connectionMock, times(1)).close();
+	}
+
+	@Test
+	void testFilterRecordsCheckoutsPerRequest() throws Exception {
+		SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+		ConnectionCheckoutMetricsFilter filter = new ConnectionCheckoutMetricsFilter(meterRegistry);
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/account/get/12345");
+		request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/account/get/{acctNo}");
+
+		filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain(new HttpServlet() {
+			@Override
+			protected void service(HttpServletRequest req, HttpServletResponse resp) {
+				for (int i = 0; i < 3; i++) {
+					try (Connection conn = dataSource.getConnection()) {
+						conn.isReadOnly();
+					} catch (SQLException e) {
+						fail(e);
+					}
+				}
+			}
+		}));
+
+		DistributionSummary summary = meterRegistry.get(ConnectionCheckoutMetricsFilter.METRIC_NAME)
+				.tag("method", "GET")
+				.tag("uri", "/account/get/{acctNo}")
+				.summary();
+		assertEquals(1, summary.count());
+		assertEquals(3.0, summary.totalAmount());
+	}
+}
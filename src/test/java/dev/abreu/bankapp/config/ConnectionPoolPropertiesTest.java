@@ -0,0 +1,55 @@
+package dev.abreu.bankapp.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConnectionPoolPropertiesTest {
+
+	private static final String PREFIX = "application.datasource.pool";
+
+	private static ConnectionPoolProperties bind(Map<String, String> properties) {
+		return new Binder(new MapConfigurationPropertySource(properties)).bindOrCreate(PREFIX, ConnectionPoolProperties.class);
+	}
+
+	@Test
+	void testDefaults() {
+		ConnectionPoolProperties properties = bind(Map.of());
+
+		assertEquals(10, properties.minimumIdle());
+		assertEquals(10, properties.maximumPoolSize());
+		assertEquals(Duration.ofSeconds(5), properties.connectionTimeout());
+		assertEquals(Duration.ofSeconds(30), properties.leakDetectionThreshold());
+		assertEquals(Duration.ofSeconds(10), properties.prefillTimeout());
+	}
+
+	@Test
+	void testApplyTo() {
+		ConnectionPoolProperties properties = bind(Map.of(
+				PREFIX + ".minimum-idle", "4",
+				PREFIX + ".maximum-pool-size", "20",
+				PREFIX + ".connection-timeout", "2s",
+				PREFIX + ".max-lifetime", "15m",
+				PREFIX + ".leak-detection-threshold", "0",
+				PREFIX + ".prepared-statement-cache-queries", "512"));
+		HikariConfig config = new HikariConfig();
+
+		properties.applyTo(config);
+
+		assertEquals("bankapp-pool", config.getPoolName());
+		assertEquals(4, config.getMinimumIdle());
+		assertEquals(20, config.getMaximumPoolSize());
+		assertEquals(2000, config.getConnectionTimeout());
+		assertEquals(Duration.ofMinutes(15).toMillis(), config.getMaxLifetime());
+		assertEquals(0, config.getLeakDetectionThreshold());
+		assertEquals("5", config.getDataSourceProperties().getProperty("prepareThreshold"));
+		assertEquals("512", config.getDataSourceProperties().getProperty("preparedStatementCacheQueries"));
+		assertEquals("5", config.getDataSourceProperties().getProperty("preparedStatementCacheSizeMiB"));
+	}
+}
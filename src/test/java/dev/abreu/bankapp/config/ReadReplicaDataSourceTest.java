@@ -0,0 +1,156 @@
+package dev.abreu.bankapp.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.datasource.ConnectionProxy;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.TransactionAwareDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static dev.abreu.bankapp.util.BankappQueryConstants.SELECT_REPLICA_LAG_SECONDS_QUERY;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReadReplicaDataSourceTest {
+
+	private static final Duration MAX_LAG = Duration.ofSeconds(5);
+	// long enough that only the check made by the constructor runs during a test
+	private static final Duration LAG_CHECK_INTERVAL = Duration.ofHours(1);
+
+	@Mock
+	private DataSource primaryMock;
+
+	@Mock
+	private DataSource replicaOneMock;
+
+	@Mock
+	private DataSource replicaTwoMock;
+
+	@Mock
+	private Connection primaryConnectionMock;
+
+	@Mock
+	private Connection replicaOneConnectionMock;
+
+	@Mock
+	private Connection replicaTwoConnectionMock;
+
+	private ReadReplicaDataSource readReplicaDataSource;
+
+	@AfterEach
+	void cleanup() throws IOException {
+		if (readReplicaDataSource != null) {
+			readReplicaDataSource.close();
+		}
+	}
+
+	private void stubLag(Connection connectionMock, double lagSeconds) throws SQLException {
+		PreparedStatement stmtMock = mock(PreparedStatement.class);
+		ResultSet rsMock = mock(ResultSet.class);
+		when(connectionMock.prepareStatement(SELECT_REPLICA_LAG_SECONDS_QUERY)).thenReturn(stmtMock);
+		when(stmtMock.executeQuery()).thenReturn(rsMock);
+		when(rsMock.next()).thenReturn(true);
+		when(rsMock.getDouble(1)).thenReturn(lagSeconds);
+	}
+
+	private ReadReplicaDataSource newReadReplicaDataSource() {
+		Map<String, DataSource> replicas = new LinkedHashMap<>();
+		replicas.put("replica-1", replicaOneMock);
+		replicas.put("replica-2", replicaTwoMock);
+		return new ReadReplicaDataSource(primaryMock, replicas, MAX_LAG, LAG_CHECK_INTERVAL);
+	}
+
+	@Test
+	void testRoundRobinAcrossFreshReplicas() throws SQLException {
+		when(replicaOneMock.getConnection()).thenReturn(replicaOneConnectionMock);
+		when(replicaTwoMock.getConnection()).thenReturn(replicaTwoConnectionMock);
+		stubLag(replicaOneConnectionMock, 0);
+		stubLag(replicaTwoConnectionMock, 1.5);
+		readReplicaDataSource = newReadReplicaDataSource();
+
+		assertSame(replicaOneConnectionMock, readReplicaDataSource.getConnection());
+		assertSame(replicaTwoConnectionMock, readReplicaDataSource.getConnection());
+		assertSame(replicaOneConnectionMock, readReplicaDataSource.getConnection());
+		verify(primaryMock, never()).getConnection();
+	}
+
+	@Test
+	void testSkipsReplicaBeyondStalenessBound() throws SQLException {
+		when(replicaOneMock.getConnection()).thenReturn(replicaOneConnectionMock);
+		when(replicaTwoMock.getConnection()).thenReturn(replicaTwoConnectionMock);
+		stubLag(replicaOneConnectionMock, 30);
+		stubLag(replicaTwoConnectionMock, 0);
+		readReplicaDataSource = newReadReplicaDataSource();
+		clearInvocations(replicaOneMock);
+
+		assertSame(replicaTwoConnectionMock, readReplicaDataSource.getConnection());
+		assertSame(replicaTwoConnectionMock, readReplicaDataSource.getConnection());
+		verify(replicaOneMock, never()).getConnection();
+	}
+
+	@Test
+	void testFallsBackToPrimaryWhenReplicasFail() throws SQLException {
+		when(primaryMock.getConnection()).thenReturn(primaryConnectionMock);
+		when(replicaOneMock.getConnection()).thenReturn(replicaOneConnectionMock).thenThrow(new SQLException("connection refused"));
+		when(replicaTwoMock.getConnection()).thenThrow(new SQLException("connection refused"));
+		stubLag(replicaOneConnectionMock, 0);
+		readReplicaDataSource = newReadReplicaDataSource();
+
+		assertSame(primaryConnectionMock, readReplicaDataSource.getConnection());
+		// the failed replica is no longer tried until a lag check finds it healthy again
+		assertSame(primaryConnectionMock, readReplicaDataSource.getConnection());
+		verify(replicaOneMock, times(2)).getConnection();
+	}
+
+	@Test
+	void testReadOnlyTransactionsAreRoutedToReplicas() throws SQLException {
+		when(primaryMock.getConnection()).thenReturn(primaryConnectionMock);
+		when(replicaOneMock.getConnection()).thenReturn(replicaOneConnectionMock);
+		when(replicaTwoMock.getConnection()).thenReturn(replicaTwoConnectionMock);
+		when(primaryConnectionMock.getAutoCommit()).thenReturn(true);
+		stubLag(replicaOneConnectionMock, 0);
+		stubLag(replicaTwoConnectionMock, 0);
+		readReplicaDataSource = newReadReplicaDataSource();
+
+		// the same chain DataSourceConfig builds
+		LazyConnectionDataSourceProxy lazyDataSource = new LazyConnectionDataSourceProxy(primaryMock);
+		lazyDataSource.setReadOnlyDataSource(readReplicaDataSource);
+		DataSource dataSource = new TransactionAwareDataSourceProxy(lazyDataSource);
+		TransactionTemplate transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+		clearInvocations(primaryMock, replicaOneMock, replicaTwoMock);
+
+		transactionTemplate.setReadOnly(true);
+		assertSame(replicaOneConnectionMock, transactionTemplate.execute(status -> targetConnection(dataSource)));
+
+		transactionTemplate.setReadOnly(false);
+		assertSame(primaryConnectionMock, transactionTemplate.execute(status -> targetConnection(dataSource)));
+	}
+
+	// unwraps the transaction-aware and lazy proxies; the lazy one fetches its target connection here
+	private static Connection targetConnection(DataSource dataSource) {
+		try (Connection conn = dataSource.getConnection()) {
+			Connection target = conn;
+			while (target instanceof ConnectionProxy proxy) {
+				target = proxy.getTargetConnection();
+			}
+			return target;
+		} catch (SQLException e) {
+			return fail(e);
+		}
+	}
+}
@@ -9,9 +9,11 @@ import dev.abreu.bankapp.dto.AccountDTO;
 import dev.abreu.bankapp.dto.AccountResponseDTO;
 import dev.abreu.bankapp.dto.AccountTxnRequest;
 import dev.abreu.bankapp.dto.TransferRequest;
+import dev.abreu.bankapp.dto.TransferResultDTO;
 import dev.abreu.bankapp.dto.mapper.DtoMapper;
 import dev.abreu.bankapp.entity.Account;
 import dev.abreu.bankapp.security.JwtConfig;
+import dev.abreu.bankapp.security.TokenRevocationList;
 import dev.abreu.bankapp.security.SecurityConfig;
 import dev.abreu.bankapp.service.AccountService;
 import dev.abreu.bankapp.service.CustomerService;
@@ -26,6 +28,7 @@ import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -58,6 +61,9 @@ class AccountControllerTest {
 	@MockitoBean
 	JwtConfig jwtConfig;
 
+	@MockitoBean
+	TokenRevocationList tokenRevocationList;
+
 	@MockitoBean
 	DtoMapper dtoMapper;
 
@@ -197,8 +203,9 @@ class AccountControllerTest {
 	void testTransferFundsBetweenAccounts() throws Exception {
 		TransferRequest mockTransferReq = new TransferRequest(12345L, 45678L, 50.00, "test");
 
-		Mockito.doNothing().when(accountService).transferFundsBetweenAccounts(mockTransferReq.sourceAccountNumber(),
-				mockTransferReq.targetAccountNumber(), mockTransferReq.amount(), mockTransferReq.notes());
+		Mockito.when(accountService.transferFundsBetweenAccounts(mockTransferReq.sourceAccountNumber(),
+				mockTransferReq.targetAccountNumber(), mockTransferReq.amount(), mockTransferReq.notes()))
+				.thenReturn(new TransferResultDTO(1L, 50.00, 250.00, LocalDateTime.now(), LocalDateTime.now()));
 
 		mockMvc.perform(post("/account/transferFunds")
 				.contentType(MediaType.APPLICATION_JSON)
@@ -9,7 +9,10 @@ import dev.abreu.bankapp.dto.LoginRequest;
 import dev.abreu.bankapp.dto.RegisterRequest;
 import dev.abreu.bankapp.dto.mapper.DtoMapper;
 import dev.abreu.bankapp.entity.Customer;
+import dev.abreu.bankapp.exception.PasswordHashingBusyException;
+import dev.abreu.bankapp.security.BoundedBCryptPasswordEncoder;
 import dev.abreu.bankapp.security.JwtConfig;
+import dev.abreu.bankapp.security.TokenRevocationList;
 import dev.abreu.bankapp.security.SecurityConfig;
 import dev.abreu.bankapp.service.CustomerService;
 import dev.abreu.bankapp.service.TokenService;
@@ -21,7 +24,6 @@ import org.springframework.context.annotation.Import;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
@@ -50,11 +52,14 @@ class AuthControllerTest {
 	@MockitoBean
 	JwtConfig jwtConfig;
 
+	@MockitoBean
+	TokenRevocationList tokenRevocationList;
+
 	@MockitoBean
 	DtoMapper dtoMapper;
 
 	@MockitoBean
-	PasswordEncoder passwordEncoder;
+	BoundedBCryptPasswordEncoder passwordEncoder;
 
 	@MockitoBean
 	AuthenticationManager authenticationManager;
@@ -172,6 +177,21 @@ class AuthControllerTest {
 		Mockito.verify(authenticationManager, Mockito.times(1)).authenticate(Mockito.any());
 	}
 
+	@Test
+	void testLoginWhenPasswordHashingBusy() throws Exception {
+		LoginRequest mockRequest = new LoginRequest("user", "pass");
+
+		Mockito.when(tokenService.getCachedToken("user")).thenReturn(Optional.empty());
+		Mockito.when(authenticationManager.authenticate(Mockito.any())).thenThrow(new PasswordHashingBusyException());
+
+		mockMvc.perform(post("/auth/login").contentType(MediaType.APPLICATION_JSON)
+						.content(jsonMapper.writeValueAsString(mockRequest)))
+				.andExpect(status().isServiceUnavailable())
+				.andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"));
+
+		Mockito.verify(tokenService, Mockito.never()).generateToken(Mockito.any(Customer.class));
+	}
+
 	@Test
 	void testRegisterCustomer() throws Exception {
 		String mockToken = "token";
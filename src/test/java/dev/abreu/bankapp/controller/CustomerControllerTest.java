@@ -9,6 +9,7 @@ import dev.abreu.bankapp.dto.CustomerResponseDTO;
 import dev.abreu.bankapp.dto.mapper.DtoMapper;
 import dev.abreu.bankapp.entity.Customer;
 import dev.abreu.bankapp.security.JwtConfig;
+import dev.abreu.bankapp.security.TokenRevocationList;
 import dev.abreu.bankapp.security.SecurityConfig;
 import dev.abreu.bankapp.service.CustomerService;
 import org.junit.jupiter.api.Test;
@@ -49,6 +50,9 @@ class CustomerControllerTest {
 	@MockitoBean
 	JwtConfig jwtConfig;
 
+	@MockitoBean
+	TokenRevocationList tokenRevocationList;
+
 	@MockitoBean
 	DtoMapper dtoMapper;
 
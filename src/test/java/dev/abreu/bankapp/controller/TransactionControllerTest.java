@@ -2,10 +2,14 @@ package dev.abreu.bankapp.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
+import dev.abreu.bankapp.cache.ResponseBodyCache;
 import dev.abreu.bankapp.config.ApplicationConfig;
 import dev.abreu.bankapp.dao.AccountDao;
 import dev.abreu.bankapp.dao.CustomerDao;
 import dev.abreu.bankapp.dao.TransactionDao;
+import dev.abreu.bankapp.dto.PageDTO;
+import dev.abreu.bankapp.dto.TransactionBatchErrorDTO;
+import dev.abreu.bankapp.dto.TransactionBatchResultDTO;
 import dev.abreu.bankapp.dto.TransactionDTO;
 import dev.abreu.bankapp.dto.TransactionResponseDTO;
 import dev.abreu.bankapp.dto.UnifiedTransactionDetailDTO;
@@ -13,6 +17,7 @@ import dev.abreu.bankapp.dto.mapper.DtoMapper;
 import dev.abreu.bankapp.entity.Transaction;
 import dev.abreu.bankapp.exception.ResourceNotFoundException;
 import dev.abreu.bankapp.security.JwtConfig;
+import dev.abreu.bankapp.security.TokenRevocationList;
 import dev.abreu.bankapp.security.SecurityConfig;
 import dev.abreu.bankapp.service.CustomerService;
 import dev.abreu.bankapp.service.TransactionService;
@@ -26,26 +31,32 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(controllers = TransactionController.class)
 @AutoConfigureMockMvc(addFilters = false)
-@Import({SecurityConfig.class, ApplicationConfig.class})
+@Import({SecurityConfig.class, ApplicationConfig.class, ResponseBodyCache.class})
 class TransactionControllerTest {
 
 	@MockitoBean
@@ -69,6 +80,9 @@ class TransactionControllerTest {
 	@MockitoBean
 	JwtConfig jwtConfig;
 
+	@MockitoBean
+	TokenRevocationList tokenRevocationList;
+
 	@MockitoBean
 	DtoMapper dtoMapper;
 
@@ -108,6 +122,19 @@ class TransactionControllerTest {
 		verify(unifiedTransactionDetailService, times(1)).getUnifiedTransactionDetailById(transactionId, type);
 	}
 
+	@Test
+	void testGetTransactionById_TransactionIsReadOnEveryLookup() throws Exception {
+		UnifiedTransactionDetailDTO mockDto = new UnifiedTransactionDetailDTO(1L, BankappConstants.ACCOUNT_DEPOSIT,
+				100.00, "Deposited $100.00", LocalDateTime.now(), 12345L, "DEPOSIT", new HashMap<>());
+		when(unifiedTransactionDetailService.getUnifiedTransactionDetailById(1L, "DEPOSIT")).thenReturn(mockDto);
+
+		// deposits and withdrawals can still be edited, so their bodies are never kept
+		mockMvc.perform(get("/transaction/get/DEPOSIT/1")).andExpect(status().isOk());
+		mockMvc.perform(get("/transaction/get/DEPOSIT/1")).andExpect(status().isOk());
+
+		verify(unifiedTransactionDetailService, times(2)).getUnifiedTransactionDetailById(1L, "DEPOSIT");
+	}
+
 	@Test
 	void testGetTransactionById_WithTransfer() throws Exception {
 		Long transferId = 2L;
@@ -134,6 +161,21 @@ class TransactionControllerTest {
 		verify(unifiedTransactionDetailService, times(1)).getUnifiedTransactionDetailById(transferId, type);
 	}
 
+	@Test
+	void testGetTransactionById_NotModifiedForMatchingEtag() throws Exception {
+		UnifiedTransactionDetailDTO mockDto = new UnifiedTransactionDetailDTO(
+			2L, "Account Transfer", 250.00, "Transfer to savings", LocalDateTime.now(), 12345L, "TRANSFER", new HashMap<>());
+
+		when(unifiedTransactionDetailService.getUnifiedTransactionDetailById(2L, "TRANSFER")).thenReturn(mockDto);
+
+		String etag = mockMvc.perform(get("/transaction/get/TRANSFER/2"))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+		mockMvc.perform(get("/transaction/get/TRANSFER/2").header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andExpect(status().isNotModified());
+	}
+
 	@Test
 	void testGetTransactionById_NotFound() throws Exception {
 		Long nonExistentId = 999L;
@@ -181,6 +223,37 @@ class TransactionControllerTest {
 				.andExpect(content().json(jsonMapper.writeValueAsString(mockDtoList)));
 	}
 
+	@Test
+	void testGetTransactionsPageByAcctNo() throws Exception {
+		List<Transaction> txnList = List.of(
+				new Transaction(BankappConstants.ACCOUNT_DEPOSIT, 100.00, "Deposited $100.00", 12345L));
+		TransactionResponseDTO mockDto = new TransactionResponseDTO(1L, BankappConstants.ACCOUNT_DEPOSIT, 100.00,
+				"Deposited $100.00", txnList.get(0).getCreatedAt(), 12345L);
+		PageDTO<TransactionResponseDTO> expected = new PageDTO<>(List.of(mockDto), "next-token");
+
+		Mockito.when(transactionService.getTransactionsPageByAcctNo(12345L, 1, "token"))
+				.thenReturn(new PageDTO<>(txnList, "next-token"));
+		Mockito.when(dtoMapper.toTransactionResponseDto(txnList.get(0))).thenReturn(mockDto);
+
+		mockMvc.perform(get("/transaction/page/account/12345")
+						.param("size", "1")
+						.param("pageToken", "token"))
+				.andExpect(status().isOk())
+				.andExpect(content().json(jsonMapper.writeValueAsString(expected)));
+	}
+
+	@Test
+	void testGetTransactionsPageByAcctNoDefaultPageSize() throws Exception {
+		Mockito.when(transactionService.getTransactionsPageByAcctNo(12345L, BankappConstants.DEFAULT_TRANSACTION_PAGE_SIZE, null))
+				.thenReturn(new PageDTO<>(List.of(), null));
+
+		mockMvc.perform(get("/transaction/page/account/12345"))
+				.andExpect(status().isOk());
+
+		verify(transactionService, times(1))
+				.getTransactionsPageByAcctNo(12345L, BankappConstants.DEFAULT_TRANSACTION_PAGE_SIZE, null);
+	}
+
 	@Test
 	void testSaveTransaction() throws Exception {
 		Transaction mockTxn = new Transaction(BankappConstants.ACCOUNT_DEPOSIT, 100.00, "Deposited $100.00", 12345L);
@@ -196,6 +269,41 @@ class TransactionControllerTest {
 				.andReturn();
 	}
 
+	@Test
+	void testSaveTransactionsAllSaved() throws Exception {
+		List<TransactionDTO> dtos = List.of(
+				new TransactionDTO(null, BankappConstants.ACCOUNT_DEPOSIT, 100.00, "Deposited $100.00", 12345L),
+				new TransactionDTO(null, BankappConstants.ACCOUNT_DEPOSIT, 200.00, "Deposited $200.00", 12345L));
+		TransactionBatchResultDTO result = new TransactionBatchResultDTO(2, 2, List.of(1L, 2L), List.of());
+
+		Mockito.when(dtoMapper.toTransaction(any(TransactionDTO.class))).thenReturn(new Transaction());
+		Mockito.when(transactionService.saveTransactions(Mockito.anyList())).thenReturn(result);
+
+		mockMvc.perform(post("/transaction/save/batch")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(jsonMapper.writeValueAsString(dtos)))
+				.andExpect(status().isCreated())
+				.andExpect(content().json(jsonMapper.writeValueAsString(result)));
+	}
+
+	@Test
+	void testSaveTransactionsPartialFailure() throws Exception {
+		List<TransactionDTO> dtos = List.of(
+				new TransactionDTO(null, BankappConstants.ACCOUNT_DEPOSIT, 100.00, "Deposited $100.00", 12345L),
+				new TransactionDTO(null, BankappConstants.ACCOUNT_DEPOSIT, 0.00, "Nothing", 12345L));
+		TransactionBatchResultDTO result = new TransactionBatchResultDTO(2, 1, Arrays.asList(1L, null),
+				List.of(new TransactionBatchErrorDTO(1, "Transaction amount must be greater than zero")));
+
+		Mockito.when(dtoMapper.toTransaction(any(TransactionDTO.class))).thenReturn(new Transaction());
+		Mockito.when(transactionService.saveTransactions(Mockito.anyList())).thenReturn(result);
+
+		mockMvc.perform(post("/transaction/save/batch")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(jsonMapper.writeValueAsString(dtos)))
+				.andExpect(status().isMultiStatus())
+				.andExpect(content().json(jsonMapper.writeValueAsString(result)));
+	}
+
 	@Test
 	void testUpdateTransaction() throws Exception {
 		Transaction mockTxn = new Transaction(BankappConstants.ACCOUNT_DEPOSIT, 100.00, "Deposited $100.00", 12345L);
@@ -291,4 +399,35 @@ class TransactionControllerTest {
         verify(transactionService, times(1)).getAllTransactionsAndTransfersByCustomerId(customerId);
     }
 
+	@Test
+	void testExportAllTransactionsAndTransfersByCustomerId() throws Exception {
+		Long customerId = 1L;
+		LocalDateTime createdAt = LocalDateTime.of(2024, 1, 15, 10, 30);
+		Transaction first = new Transaction();
+		Transaction second = new Transaction();
+		TransactionResponseDTO firstDto = new TransactionResponseDTO(101L, BankappConstants.ACCOUNT_DEPOSIT, 100.00, "Deposit", createdAt, 12345L);
+		TransactionResponseDTO secondDto = new TransactionResponseDTO(102L, BankappConstants.ACCOUNT_WITHDRAW, 50.00, "Withdrawal", createdAt, 12346L);
+
+		doAnswer(invocation -> {
+			Consumer<Transaction> action = invocation.getArgument(1);
+			action.accept(first);
+			action.accept(second);
+			return null;
+		}).when(transactionService).streamAllTransactionsAndTransfersByCustomerId(eq(customerId), any());
+		when(dtoMapper.toTransactionResponseDto(first)).thenReturn(firstDto);
+		when(dtoMapper.toTransactionResponseDto(second)).thenReturn(secondDto);
+
+		MvcResult mvcResult = mockMvc.perform(get("/transaction/export/customer/{customerId}", customerId))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+
+		String expected = jsonMapper.writeValueAsString(firstDto) + "\n" + jsonMapper.writeValueAsString(secondDto) + "\n";
+		mockMvc.perform(asyncDispatch(mvcResult))
+				.andExpect(status().isOk())
+				.andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+				.andExpect(content().string(expected));
+
+		verify(transactionService, times(1)).streamAllTransactionsAndTransfersByCustomerId(eq(customerId), any());
+	}
+
 }
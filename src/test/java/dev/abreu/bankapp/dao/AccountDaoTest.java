@@ -1,7 +1,13 @@
 package dev.abreu.bankapp.dao;
 
 import dev.abreu.bankapp.dao.impl.AccountDaoImpl;
+import dev.abreu.bankapp.dao.impl.AccountNumberAllocator;
+import dev.abreu.bankapp.dto.CustomerAccountsDTO;
+import dev.abreu.bankapp.dto.TransferResultDTO;
 import dev.abreu.bankapp.entity.Account;
+import dev.abreu.bankapp.entity.Transaction;
+import dev.abreu.bankapp.exception.InsufficientFundsException;
+import dev.abreu.bankapp.exception.ResourceNotFoundException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -9,17 +15,21 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.UncategorizedSQLException;
 
 import javax.sql.DataSource;
 import java.math.BigDecimal;
 import java.sql.*;
 import java.time.LocalDateTime;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
+import static dev.abreu.bankapp.util.BankappConstants.ACCOUNT_DEPOSIT;
+import static dev.abreu.bankapp.util.BankappConstants.ACCOUNT_WITHDRAW;
 import static dev.abreu.bankapp.util.BankappConstants.CHECKING_ACCOUNT;
 import static dev.abreu.bankapp.util.BankappConstants.SAVINGS_ACCOUNT;
+import static dev.abreu.bankapp.util.BankappQueryConstants.DEPOSIT_INTO_ACCOUNT_QUERY;
+import static dev.abreu.bankapp.util.BankappQueryConstants.WITHDRAW_FROM_ACCOUNT_QUERY;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.verify;
@@ -28,6 +38,9 @@ import static org.mockito.Mockito.when;
 @ExtendWith(MockitoExtension.class)
 class AccountDaoTest {
 
+	private static final LocalDateTime SOURCE_UPDATED_AT = LocalDateTime.of(2024, 5, 1, 12, 0);
+	private static final LocalDateTime TARGET_UPDATED_AT = LocalDateTime.of(2024, 5, 1, 12, 0, 0, 1000);
+
 	@Mock
 	private DataSource dataSourceMock;
 
@@ -43,6 +56,9 @@ class AccountDaoTest {
 	@Mock
 	private ResultSet resultSetMock;
 
+	@Mock
+	private AccountNumberAllocator accountNumberAllocatorMock;
+
 	@InjectMocks
 	private AccountDaoImpl accountDao;
 
@@ -61,13 +77,13 @@ class AccountDaoTest {
 		when(connectionMock.prepareStatement(anyString())).thenReturn(preparedStatementMock);
 		when(preparedStatementMock.executeQuery()).thenReturn(resultSetMock);
 		when(resultSetMock.next()).thenReturn(true);
-		when(resultSetMock.getLong("account_number")).thenReturn(12345L);
-		when(resultSetMock.getString("nickname")).thenReturn("my checking");
-		when(resultSetMock.getString("account_type")).thenReturn(CHECKING_ACCOUNT);
-		when(resultSetMock.getDouble("account_balance")).thenReturn(1000.00);
-		when(resultSetMock.getTimestamp("created_at")).thenReturn(Timestamp.valueOf(testDateTime));
-		when(resultSetMock.getTimestamp("updated_at")).thenReturn(Timestamp.valueOf(testDateTime));
-		when(resultSetMock.getLong("customer_id")).thenReturn(1L);
+		when(resultSetMock.getLong(1)).thenReturn(12345L);
+		when(resultSetMock.getString(2)).thenReturn("my checking");
+		when(resultSetMock.getString(3)).thenReturn(CHECKING_ACCOUNT);
+		when(resultSetMock.getDouble(4)).thenReturn(1000.00);
+		when(resultSetMock.getTimestamp(5)).thenReturn(Timestamp.valueOf(testDateTime));
+		when(resultSetMock.getTimestamp(6)).thenReturn(Timestamp.valueOf(testDateTime));
+		when(resultSetMock.getLong(7)).thenReturn(1L);
 
 		Optional<Account> result = accountDao.findAccountByAcctNo(acctNo);
 
@@ -95,102 +111,123 @@ class AccountDaoTest {
 	}
 
 	@Test
-	void testFindAllAccountsByUsername() throws SQLException {
+	void testFindCustomerAccountsByUsername() throws SQLException {
 		String username = "testUser";
-		List<Account> expectedAccountsList = new ArrayList<>();
-		Account expectedAccount = new Account(12345L, SAVINGS_ACCOUNT, 1000.00, 1L);
 		LocalDateTime testDateTime = LocalDateTime.of(2024, 4, 24, 15, 30);
-		expectedAccount.setCreatedAt(testDateTime);
-		expectedAccountsList.add(expectedAccount);
 
 		when(connectionMock.prepareStatement(anyString())).thenReturn(preparedStatementMock);
 		when(preparedStatementMock.executeQuery()).thenReturn(resultSetMock);
 		when(resultSetMock.next()).thenReturn(true, false); // false needed to break out of loop
 
-		when(resultSetMock.getLong("account_number")).thenReturn(12345L);
-		when(resultSetMock.getString("nickname")).thenReturn("my savings");
-		when(resultSetMock.getString("account_type")).thenReturn(SAVINGS_ACCOUNT);
-		when(resultSetMock.getDouble("account_balance")).thenReturn(1000.00);
-		when(resultSetMock.getTimestamp("created_at")).thenReturn(Timestamp.valueOf(testDateTime));
-		when(resultSetMock.getTimestamp("updated_at")).thenReturn(Timestamp.valueOf(testDateTime));
-		when(resultSetMock.getLong("customer_id")).thenReturn(1L);
+		when(resultSetMock.getObject(1)).thenReturn(12345L);
+		when(resultSetMock.getLong(1)).thenReturn(12345L);
+		when(resultSetMock.getString(2)).thenReturn("my savings");
+		when(resultSetMock.getString(3)).thenReturn(SAVINGS_ACCOUNT);
+		when(resultSetMock.getDouble(4)).thenReturn(1000.00);
+		when(resultSetMock.getTimestamp(5)).thenReturn(Timestamp.valueOf(testDateTime));
+		when(resultSetMock.getTimestamp(6)).thenReturn(Timestamp.valueOf(testDateTime));
+		when(resultSetMock.getLong(7)).thenReturn(1L);
+		when(resultSetMock.getLong(8)).thenReturn(1L);
 
-		List<Account> result = accountDao.findAllAccountsByUsername(username);
+		Optional<CustomerAccountsDTO> result = accountDao.findCustomerAccountsByUsername(username);
 
-		assertNotNull(result);
-		assertEquals(expectedAccountsList.size(), result.size());
+		assertTrue(result.isPresent());
+		assertEquals(1L, result.get().customerId());
+		assertEquals(1, result.get().accounts().size());
+		assertEquals(12345L, result.get().accounts().get(0).getAccountNumber());
+	}
+
+	@Test
+	void testFindCustomerAccountsByUsernameWithoutAccounts() throws SQLException {
+		when(connectionMock.prepareStatement(anyString())).thenReturn(preparedStatementMock);
+		when(preparedStatementMock.executeQuery()).thenReturn(resultSetMock);
+		when(resultSetMock.next()).thenReturn(true, false);
+		when(resultSetMock.getObject(1)).thenReturn(null);
+		when(resultSetMock.getLong(8)).thenReturn(1L);
+
+		Optional<CustomerAccountsDTO> result = accountDao.findCustomerAccountsByUsername("testUser");
+
+		assertTrue(result.isPresent());
+		assertEquals(1L, result.get().customerId());
+		assertTrue(result.get().accounts().isEmpty());
 	}
 
 	@Test
-	void testFindAllAccountsByUsernameSQLException() throws SQLException {
+	void testFindCustomerAccountsByUsernameNoCustomer() throws SQLException {
+		when(connectionMock.prepareStatement(anyString())).thenReturn(preparedStatementMock);
+		when(preparedStatementMock.executeQuery()).thenReturn(resultSetMock);
+		when(resultSetMock.next()).thenReturn(false);
+
+		assertTrue(accountDao.findCustomerAccountsByUsername("testUser").isEmpty());
+	}
+
+	@Test
+	void testFindCustomerAccountsByUsernameSQLException() throws SQLException {
 		String username = "testUser";
 		when(connectionMock.prepareStatement(anyString())).thenReturn(preparedStatementMock);
 		when(preparedStatementMock.executeQuery()).thenThrow(SQLException.class);
-		List<Account> result = accountDao.findAllAccountsByUsername(username);
-		assertNotNull(result);
+		Optional<CustomerAccountsDTO> result = accountDao.findCustomerAccountsByUsername(username);
+		assertTrue(result.isEmpty());
 	}
 
 	@Test
 	void testSaveAccount() throws SQLException {
-		// Create account without account number - it should be generated
+		// Create account without account number - it should be allocated
 		Account newAccount = new Account("Checking", 1000.00, 1L);
 
-	    // First mock the findAccountByAcctNo call that checks for uniqueness
-	    // We need to set up the mocks for two different PreparedStatement calls
-	    PreparedStatement findStmt = Mockito.mock(PreparedStatement.class);
-	    PreparedStatement saveStmt = Mockito.mock(PreparedStatement.class);
-	    ResultSet findRs = Mockito.mock(ResultSet.class);
+	    when(accountNumberAllocatorMock.nextAccountNumber()).thenReturn(48213907L);
+	    when(connectionMock.prepareStatement(Mockito.contains("INSERT into"))).thenReturn(preparedStatementMock);
+	    when(preparedStatementMock.executeUpdate()).thenReturn(1);
 
-	    // First call is for findAccountByAcctNo
-	    when(connectionMock.prepareStatement(Mockito.contains("SELECT * FROM"))).thenReturn(findStmt);
-	    when(findStmt.executeQuery()).thenReturn(findRs);
-	    when(findRs.next()).thenReturn(false); // No existing account with this number
+	    Account result = accountDao.saveAccount(newAccount);
 
-	    // Second call is for saveAccount
-	    when(connectionMock.prepareStatement(Mockito.contains("INSERT into"))).thenReturn(saveStmt);
-	    when(saveStmt.executeUpdate()).thenReturn(1);
+	    assertEquals(48213907L, result.getAccountNumber());
+	    assertEquals(newAccount.getAccountNumber(), result.getAccountNumber());
 
-	    Account result = accountDao.saveAccount(newAccount);
+	    // account creation is a single INSERT, no uniqueness probe
+	    verify(connectionMock, Mockito.times(1)).prepareStatement(anyString());
+	    verify(preparedStatementMock, Mockito.times(1)).executeUpdate();
+	    verify(preparedStatementMock).setLong(1, 48213907L);
+	}
 
-	    // Verify account number was generated (8 digits)
-	    assertNotNull(result.getAccountNumber());
-	    assertTrue(result.getAccountNumber() >= 10000000L && result.getAccountNumber() <= 99999999L);
+	@Test
+	void testSaveAccountRetriesOnLegacyNumberConflict() throws SQLException {
+		Account newAccount = new Account("Checking", 1000.00, 1L);
 
-	    // Verify the account number was set on the original account object
-	    assertEquals(newAccount.getAccountNumber(), result.getAccountNumber());
+	    when(accountNumberAllocatorMock.nextAccountNumber()).thenReturn(48213907L, 61550284L);
+	    when(connectionMock.prepareStatement(Mockito.contains("INSERT into"))).thenReturn(preparedStatementMock);
+	    // ON CONFLICT DO NOTHING reports 0 rows when the number was already taken
+	    when(preparedStatementMock.executeUpdate()).thenReturn(0, 1);
 
-	    // Verify the prepared statement was called with the generated account number
-	    verify(saveStmt).setLong(1, result.getAccountNumber());
+	    Account result = accountDao.saveAccount(newAccount);
+
+	    assertEquals(61550284L, result.getAccountNumber());
+	    verify(preparedStatementMock, Mockito.times(2)).executeUpdate();
 	}
 
 	@Test
-	void testSaveAccountSQLException() throws SQLException {
-		// Create account without account number - it should be generated
+	void testSaveAccountThrowsWhenEveryNumberConflicts() throws SQLException {
 		Account newAccount = new Account("Checking", 1000.00, 1L);
 
-	    // First mock the findAccountByAcctNo call that checks for uniqueness
-	    // We need to set up the mocks for two different PreparedStatement calls
-	    PreparedStatement findStmt = Mockito.mock(PreparedStatement.class);
-	    PreparedStatement saveStmt = Mockito.mock(PreparedStatement.class);
-	    ResultSet findRs = Mockito.mock(ResultSet.class);
+	    when(accountNumberAllocatorMock.nextAccountNumber()).thenReturn(48213907L);
+	    when(connectionMock.prepareStatement(Mockito.contains("INSERT into"))).thenReturn(preparedStatementMock);
+	    when(preparedStatementMock.executeUpdate()).thenReturn(0);
 
-	    // First call is for findAccountByAcctNo
-	    when(connectionMock.prepareStatement(Mockito.contains("SELECT * FROM"))).thenReturn(findStmt);
-	    when(findStmt.executeQuery()).thenReturn(findRs);
-	    when(findRs.next()).thenReturn(false); // No existing account with this number
+	    assertThrows(IllegalStateException.class, () -> accountDao.saveAccount(newAccount));
+	}
 
-	    // Second call is for saveAccount - this one throws SQLException
-	    when(connectionMock.prepareStatement(Mockito.contains("INSERT into"))).thenReturn(saveStmt);
-	    when(saveStmt.executeUpdate()).thenThrow(SQLException.class);
+	@Test
+	void testSaveAccountSQLException() throws SQLException {
+		Account newAccount = new Account("Checking", 1000.00, 1L);
 
-	    Account result = accountDao.saveAccount(newAccount);
+	    when(accountNumberAllocatorMock.nextAccountNumber()).thenReturn(48213907L);
+	    when(connectionMock.prepareStatement(Mockito.contains("INSERT into"))).thenReturn(preparedStatementMock);
+	    when(preparedStatementMock.executeUpdate()).thenThrow(SQLException.class);
 
-	    // Verify account number was generated (8 digits)
-	    assertNotNull(result.getAccountNumber());
-	    assertTrue(result.getAccountNumber() >= 10000000L && result.getAccountNumber() <= 99999999L);
+	    Account result = accountDao.saveAccount(newAccount);
 
 	    // Even with SQL exception, the account number should be set
-	    assertEquals(newAccount.getAccountNumber(), result.getAccountNumber());
+	    assertEquals(48213907L, result.getAccountNumber());
 	}
 
 	@Test
@@ -224,21 +261,9 @@ class AccountDaoTest {
         when(preparedStatementMock.executeUpdate()).thenReturn(1);
         boolean success = accountDao.deleteAccountByAcctNo(acctNo);
         assertTrue(success);
-        verify(connectionMock, Mockito.times(1)).setAutoCommit(false);
+        verify(connectionMock, Mockito.never()).setAutoCommit(Mockito.anyBoolean());
         verify(preparedStatementMock, Mockito.times(1)).setLong(1, acctNo);
-        verify(connectionMock, Mockito.times(1)).commit();
-        verify(connectionMock, Mockito.times(1)).close();
-        verify(preparedStatementMock, Mockito.times(1)).close();
-	}
-
-	@Test
-	void testDeleteAccountByAcctNoMultipleRowsDeleted() throws SQLException {
-        Long acctNo = 12345L;
-        when(connectionMock.prepareStatement(anyString())).thenReturn(preparedStatementMock);
-        when(preparedStatementMock.executeUpdate()).thenReturn(2);
-        boolean success = accountDao.deleteAccountByAcctNo(acctNo);
-        assertFalse(success);
-        verify(connectionMock, Mockito.times(1)).rollback();
+        verify(connectionMock, Mockito.never()).commit();
         verify(connectionMock, Mockito.times(1)).close();
         verify(preparedStatementMock, Mockito.times(1)).close();
 	}
@@ -284,7 +309,7 @@ class AccountDaoTest {
 	}
 
 	@Test
-	void testTransferFunds() throws SQLException {
+	void testTransferFunds() throws Exception {
 		long sourceAcctNo = 123L;
 		long targetAcctNo = 456L;
 		double amount = 100.00;
@@ -293,18 +318,71 @@ class AccountDaoTest {
 		// Arrange
 		when(connectionMock.prepareCall(anyString())).thenReturn(callableStatementMock);
 		when(callableStatementMock.execute()).thenReturn(true);
+		when(callableStatementMock.getLong(5)).thenReturn(42L);
+		when(callableStatementMock.getBigDecimal(6)).thenReturn(new BigDecimal("400.00"));
+		when(callableStatementMock.getBigDecimal(7)).thenReturn(new BigDecimal("600.00"));
+		when(callableStatementMock.getTimestamp(8)).thenReturn(Timestamp.valueOf(SOURCE_UPDATED_AT));
+		when(callableStatementMock.getTimestamp(9)).thenReturn(Timestamp.valueOf(TARGET_UPDATED_AT));
 
 		// Act
-		accountDao.transferFunds(sourceAcctNo, targetAcctNo, amount, notes);
+		TransferResultDTO result = accountDao.transferFunds(sourceAcctNo, targetAcctNo, amount, notes);
 
 		// Assert
+		assertEquals(new TransferResultDTO(42L, 400.00, 600.00, SOURCE_UPDATED_AT, TARGET_UPDATED_AT), result);
 		verify(callableStatementMock).setLong(1, sourceAcctNo);
 		verify(callableStatementMock).setLong(2, targetAcctNo);
 		verify(callableStatementMock).setBigDecimal(3, BigDecimal.valueOf(amount));
 		verify(callableStatementMock).setString(4, notes);
+		verify(callableStatementMock).registerOutParameter(5, Types.BIGINT);
 		verify(callableStatementMock).execute();
 	}
 
+	@Test
+	void testTransferFundsRetriesDeadlock() throws Exception {
+		// Arrange
+		when(connectionMock.prepareCall(anyString())).thenReturn(callableStatementMock);
+		when(callableStatementMock.execute())
+				.thenThrow(new SQLException("deadlock detected", "40P01"))
+				.thenReturn(true);
+		when(callableStatementMock.getLong(5)).thenReturn(42L);
+		when(callableStatementMock.getBigDecimal(6)).thenReturn(new BigDecimal("400.00"));
+		when(callableStatementMock.getBigDecimal(7)).thenReturn(new BigDecimal("600.00"));
+		when(callableStatementMock.getTimestamp(8)).thenReturn(Timestamp.valueOf(SOURCE_UPDATED_AT));
+		when(callableStatementMock.getTimestamp(9)).thenReturn(Timestamp.valueOf(TARGET_UPDATED_AT));
+
+		// Act
+		TransferResultDTO result = accountDao.transferFunds(123L, 456L, 100.00, "Test transfer");
+
+		// Assert
+		assertEquals(42L, result.transferId());
+		verify(callableStatementMock, Mockito.times(2)).execute();
+	}
+
+	@Test
+	void testTransferFundsInsufficientFunds() throws SQLException {
+		// Arrange
+		when(connectionMock.prepareCall(anyString())).thenReturn(callableStatementMock);
+		when(callableStatementMock.execute()).thenThrow(new SQLException("Insufficient funds", "P0001"));
+
+		// Act & Assert
+		assertThrows(InsufficientFundsException.class,
+				() -> accountDao.transferFunds(123L, 456L, 100.00, "Test transfer"));
+		verify(callableStatementMock, Mockito.times(1)).execute();
+	}
+
+	@Test
+	void testTransferFundsAccountNotFound() throws SQLException {
+		// Arrange
+		when(connectionMock.prepareCall(anyString())).thenReturn(callableStatementMock);
+		when(callableStatementMock.execute()).thenThrow(new SQLException(
+				"ERROR: Account 456 not found for transfer\n  Where: PL/pgSQL function transfer_account_funds line 14 at RAISE", "P0002"));
+
+		// Act & Assert
+		ResourceNotFoundException ex = assertThrows(ResourceNotFoundException.class,
+				() -> accountDao.transferFunds(123L, 456L, 100.00, "Test transfer"));
+		assertEquals("Account not found with identifier: 456", ex.getMessage());
+	}
+
 	@Test
 	void testTransferFundsSQLException() throws SQLException {
 		long sourceAcctNo = 123L;
@@ -317,15 +395,70 @@ class AccountDaoTest {
 		when(callableStatementMock.execute()).thenThrow(SQLException.class);
 
 		// Act
-		accountDao.transferFunds(sourceAcctNo, targetAcctNo, amount, notes);
+		assertThrows(UncategorizedSQLException.class,
+				() -> accountDao.transferFunds(sourceAcctNo, targetAcctNo, amount, notes));
 
 		// Assert
 		verify(callableStatementMock).setLong(1, sourceAcctNo);
 		verify(callableStatementMock).setLong(2, targetAcctNo);
 		verify(callableStatementMock).setBigDecimal(3, BigDecimal.valueOf(amount));
 		verify(callableStatementMock).setString(4, notes);
-		verify(callableStatementMock).execute();
+		verify(callableStatementMock, Mockito.times(1)).execute();
+	}
+
+	@Test
+	void testDepositFunds() throws SQLException {
+		Transaction txn = new Transaction(ACCOUNT_DEPOSIT, 50.00, "test", 12345L);
+		LocalDateTime testDateTime = LocalDateTime.of(2024, 4, 24, 15, 30);
+
+	    when(connectionMock.prepareStatement(DEPOSIT_INTO_ACCOUNT_QUERY)).thenReturn(preparedStatementMock);
+	    when(preparedStatementMock.executeQuery()).thenReturn(resultSetMock);
+	    when(resultSetMock.next()).thenReturn(true);
+	    when(resultSetMock.getLong(1)).thenReturn(12345L);
+	    when(resultSetMock.getString(2)).thenReturn("nickname");
+	    when(resultSetMock.getString(3)).thenReturn(CHECKING_ACCOUNT);
+	    when(resultSetMock.getDouble(4)).thenReturn(150.00);
+	    when(resultSetMock.getTimestamp(5)).thenReturn(Timestamp.valueOf(testDateTime));
+	    when(resultSetMock.getTimestamp(6)).thenReturn(Timestamp.valueOf(testDateTime));
+	    when(resultSetMock.getLong(7)).thenReturn(1L);
+	    when(resultSetMock.getLong(8)).thenReturn(101L);
+
+	    Optional<Account> result = accountDao.depositFunds(txn);
+
+	    assertTrue(result.isPresent());
+	    assertEquals(150.00, result.get().getAccountBalance());
+	    assertEquals(101L, txn.getTransactionId());
+	    // one round trip: amount, updated_at, account number, then the transaction row
+	    verify(preparedStatementMock).setBigDecimal(1, BigDecimal.valueOf(50.00));
+	    verify(preparedStatementMock).setLong(3, 12345L);
+	    verify(preparedStatementMock).setString(4, ACCOUNT_DEPOSIT);
+	    verify(preparedStatementMock, Mockito.times(1)).executeQuery();
 	}
 
+	@Test
+	void testWithdrawFundsInsufficientOrMissing() throws SQLException {
+		Transaction txn = new Transaction(ACCOUNT_WITHDRAW, 500.00, "test", 12345L);
+
+	    when(connectionMock.prepareStatement(WITHDRAW_FROM_ACCOUNT_QUERY)).thenReturn(preparedStatementMock);
+	    when(preparedStatementMock.executeQuery()).thenReturn(resultSetMock);
+	    when(resultSetMock.next()).thenReturn(false);
+
+	    Optional<Account> result = accountDao.withdrawFunds(txn);
+
+	    assertTrue(result.isEmpty());
+	    assertNull(txn.getTransactionId());
+	    // the sufficient-funds guard is bound right after the account number
+	    verify(preparedStatementMock).setBigDecimal(4, BigDecimal.valueOf(500.00));
+	}
+
+	@Test
+	void testWithdrawFundsSQLException() throws SQLException {
+		Transaction txn = new Transaction(ACCOUNT_WITHDRAW, 50.00, "test", 12345L);
+
+	    when(connectionMock.prepareStatement(WITHDRAW_FROM_ACCOUNT_QUERY)).thenReturn(preparedStatementMock);
+	    when(preparedStatementMock.executeQuery()).thenThrow(SQLException.class);
+
+	    assertThrows(UncategorizedSQLException.class, () -> accountDao.withdrawFunds(txn));
+	}
 
 }
@@ -0,0 +1,85 @@
+package dev.abreu.bankapp.dao;
+
+import dev.abreu.bankapp.dao.impl.AccountNumberAllocator;
+import dev.abreu.bankapp.util.AccountNumberGenerator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashSet;
+import java.util.Set;
+
+import static dev.abreu.bankapp.util.BankappConstants.ACCOUNT_NUMBER_BLOCK_SIZE;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class AccountNumberAllocatorTest {
+
+	private static final long KEY = 7340981517736152413L;
+
+	@Mock
+	private DataSource dataSourceMock;
+
+	@Mock
+	private Connection connectionMock;
+
+	@Mock
+	private PreparedStatement preparedStatementMock;
+
+	@Mock
+	private ResultSet resultSetMock;
+
+	private AccountNumberAllocator allocator;
+
+	@BeforeEach
+	void setup() throws SQLException {
+		allocator = new AccountNumberAllocator(dataSourceMock, KEY);
+		when(dataSourceMock.getConnection()).thenReturn(connectionMock);
+		when(connectionMock.prepareStatement(anyString())).thenReturn(preparedStatementMock);
+	}
+
+	@Test
+	void testNextAccountNumberReservesOneBlockPerBlockSize() throws SQLException {
+		when(preparedStatementMock.executeQuery()).thenReturn(resultSetMock);
+		when(resultSetMock.next()).thenReturn(true);
+		when(resultSetMock.getLong(1)).thenReturn(3L, 7L);
+
+		Set<Long> accountNumbers = new HashSet<>();
+		for (int i = 0; i < ACCOUNT_NUMBER_BLOCK_SIZE + 1; i++) {
+			accountNumbers.add(allocator.nextAccountNumber());
+		}
+
+		assertEquals(ACCOUNT_NUMBER_BLOCK_SIZE + 1, accountNumbers.size());
+		assertTrue(accountNumbers.contains(AccountNumberGenerator.generateAccountNumber(3L * ACCOUNT_NUMBER_BLOCK_SIZE, KEY)));
+		assertTrue(accountNumbers.contains(AccountNumberGenerator.generateAccountNumber(7L * ACCOUNT_NUMBER_BLOCK_SIZE, KEY)));
+		verify(preparedStatementMock, times(2)).executeQuery();
+	}
+
+	@Test
+	void testNextAccountNumberSQLException() throws SQLException {
+		when(preparedStatementMock.executeQuery()).thenThrow(new SQLException("Test SQL Exception"));
+
+		assertThrows(DataAccessResourceFailureException.class, () -> allocator.nextAccountNumber());
+	}
+
+	@Test
+	void testNextAccountNumberSpaceExhausted() throws SQLException {
+		when(preparedStatementMock.executeQuery()).thenReturn(resultSetMock);
+		when(resultSetMock.next()).thenReturn(true);
+		when(resultSetMock.getLong(1)).thenReturn(AccountNumberGenerator.ACCOUNT_NUMBER_SPACE / ACCOUNT_NUMBER_BLOCK_SIZE);
+
+		assertThrows(IllegalStateException.class, () -> allocator.nextAccountNumber());
+	}
+}
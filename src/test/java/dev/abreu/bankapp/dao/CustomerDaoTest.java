@@ -56,12 +56,12 @@ class CustomerDaoTest {
 		when(connectionMock.prepareStatement(anyString())).thenReturn(preparedStatementMock);
 		when(preparedStatementMock.executeQuery()).thenReturn(resultSetMock);
 		when(resultSetMock.next()).thenReturn(true);
-		when(resultSetMock.getLong("customer_id")).thenReturn(1L);
-		when(resultSetMock.getString("first_name")).thenReturn("John");
-		when(resultSetMock.getString("last_name")).thenReturn("Doe");
-		when(resultSetMock.getString("username")).thenReturn("testUser");
-		when(resultSetMock.getString("passwrd")).thenReturn("password");
-		when(resultSetMock.getString("address")).thenReturn("123 Street");
+		when(resultSetMock.getLong(1)).thenReturn(1L);
+		when(resultSetMock.getString(2)).thenReturn("John");
+		when(resultSetMock.getString(3)).thenReturn("Doe");
+		when(resultSetMock.getString(5)).thenReturn("testUser");
+		when(resultSetMock.getString(6)).thenReturn("password");
+		when(resultSetMock.getString(4)).thenReturn("123 Street");
 
 		Optional<Customer> result = customerDao.findByUsername(username);
 
@@ -97,12 +97,12 @@ class CustomerDaoTest {
 		when(connectionMock.prepareStatement(anyString())).thenReturn(preparedStatementMock);
 		when(preparedStatementMock.executeQuery()).thenReturn(resultSetMock);
 		when(resultSetMock.next()).thenReturn(true);
-		when(resultSetMock.getLong("customer_id")).thenReturn(1L);
-		when(resultSetMock.getString("first_name")).thenReturn("John");
-		when(resultSetMock.getString("last_name")).thenReturn("Doe");
-		when(resultSetMock.getString("username")).thenReturn("testUser");
-		when(resultSetMock.getString("passwrd")).thenReturn("password");
-		when(resultSetMock.getString("address")).thenReturn("123 Street");
+		when(resultSetMock.getLong(1)).thenReturn(1L);
+		when(resultSetMock.getString(2)).thenReturn("John");
+		when(resultSetMock.getString(3)).thenReturn("Doe");
+		when(resultSetMock.getString(5)).thenReturn("testUser");
+		when(resultSetMock.getString(6)).thenReturn("password");
+		when(resultSetMock.getString(4)).thenReturn("123 Street");
 
 		Optional<Customer> result = customerDao.findById(customerId);
 
@@ -143,12 +143,12 @@ class CustomerDaoTest {
 		when(statementMock.executeQuery(anyString())).thenReturn(resultSetMock);
 		when(resultSetMock.next()).thenReturn(true, true, false);
 
-		when(resultSetMock.getLong("customer_id")).thenReturn(1L, 2L);
-		when(resultSetMock.getString("first_name")).thenReturn("John", "Jane");
-		when(resultSetMock.getString("last_name")).thenReturn("Doe", "Smith");
-		when(resultSetMock.getString("username")).thenReturn("testUser1", "testUser2");
-		when(resultSetMock.getString("passwrd")).thenReturn("password1", "password2");
-		when(resultSetMock.getString("address")).thenReturn("123 Street", "456 Street");
+		when(resultSetMock.getLong(1)).thenReturn(1L, 2L);
+		when(resultSetMock.getString(2)).thenReturn("John", "Jane");
+		when(resultSetMock.getString(3)).thenReturn("Doe", "Smith");
+		when(resultSetMock.getString(5)).thenReturn("testUser1", "testUser2");
+		when(resultSetMock.getString(6)).thenReturn("password1", "password2");
+		when(resultSetMock.getString(4)).thenReturn("123 Street", "456 Street");
 
 		List<Customer> result = customerDao.findAllCustomers();
 
@@ -258,27 +258,35 @@ class CustomerDaoTest {
 	}
 
 	@Test
-	void testDeleteCustomerById() throws SQLException {
-		long customerId = 1L;
+	void testUpdatePassword() throws SQLException {
 		when(connectionMock.prepareStatement(anyString())).thenReturn(preparedStatementMock);
 		when(preparedStatementMock.executeUpdate()).thenReturn(1);
-		boolean success = customerDao.deleteCustomerById(customerId);
+
+		boolean success = customerDao.updatePassword("alice123", "newHash");
+
 		assertTrue(success);
-		verify(connectionMock, Mockito.times(1)).setAutoCommit(false);
-		verify(preparedStatementMock, Mockito.times(1)).setLong(1, customerId);
-		verify(connectionMock, Mockito.times(1)).commit();
-		verify(connectionMock, Mockito.times(1)).close();
-		verify(preparedStatementMock, Mockito.times(1)).close();
+		verify(preparedStatementMock).setString(1, "newHash");
+		verify(preparedStatementMock).setString(2, "alice123");
 	}
 
 	@Test
-	void testDeleteCustomerByIdMultipleRowsDeleted() throws SQLException {
-		Long customerId = 1L;
+	void testUpdatePasswordSQLException() throws SQLException {
+		when(connectionMock.prepareStatement(anyString())).thenReturn(preparedStatementMock);
+		when(preparedStatementMock.executeUpdate()).thenThrow(SQLException.class);
+
+		assertFalse(customerDao.updatePassword("alice123", "newHash"));
+	}
+
+	@Test
+	void testDeleteCustomerById() throws SQLException {
+		long customerId = 1L;
 		when(connectionMock.prepareStatement(anyString())).thenReturn(preparedStatementMock);
-		when(preparedStatementMock.executeUpdate()).thenReturn(2);
+		when(preparedStatementMock.executeUpdate()).thenReturn(1);
 		boolean success = customerDao.deleteCustomerById(customerId);
-		assertFalse(success);
-		verify(connectionMock, Mockito.times(1)).rollback();
+		assertTrue(success);
+		verify(connectionMock, Mockito.never()).setAutoCommit(Mockito.anyBoolean());
+		verify(preparedStatementMock, Mockito.times(1)).setLong(1, customerId);
+		verify(connectionMock, Mockito.never()).commit();
 		verify(connectionMock, Mockito.times(1)).close();
 		verify(preparedStatementMock, Mockito.times(1)).close();
 	}
@@ -299,21 +307,9 @@ class CustomerDaoTest {
 		when(preparedStatementMock.executeUpdate()).thenReturn(1);
 		boolean success = customerDao.deleteCustomerByUsername(username);
 		assertTrue(success);
-		verify(connectionMock, Mockito.times(1)).setAutoCommit(false);
+		verify(connectionMock, Mockito.never()).setAutoCommit(Mockito.anyBoolean());
 		verify(preparedStatementMock, Mockito.times(1)).setString(1, username);
-		verify(connectionMock, Mockito.times(1)).commit();
-		verify(connectionMock, Mockito.times(1)).close();
-		verify(preparedStatementMock, Mockito.times(1)).close();
-	}
-
-	@Test
-	void testDeleteCustomerByUsernameMultipleRowsDeleted() throws SQLException {
-		String username = "testUser1";
-		when(connectionMock.prepareStatement(anyString())).thenReturn(preparedStatementMock);
-		when(preparedStatementMock.executeUpdate()).thenReturn(2);
-		boolean success = customerDao.deleteCustomerByUsername(username);
-		assertFalse(success);
-		verify(connectionMock, Mockito.times(1)).rollback();
+		verify(connectionMock, Mockito.never()).commit();
 		verify(connectionMock, Mockito.times(1)).close();
 		verify(preparedStatementMock, Mockito.times(1)).close();
 	}
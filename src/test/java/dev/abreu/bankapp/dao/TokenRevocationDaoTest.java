@@ -0,0 +1,81 @@
+package dev.abreu.bankapp.dao;
+
+import dev.abreu.bankapp.dao.impl.TokenRevocationDaoImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.sql.DataSource;
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TokenRevocationDaoTest {
+
+	@Mock
+	private DataSource dataSourceMock;
+
+	@Mock
+	private Connection connectionMock;
+
+	@Mock
+	private PreparedStatement preparedStatementMock;
+
+	@Mock
+	private ResultSet resultSetMock;
+
+	@InjectMocks
+	private TokenRevocationDaoImpl tokenRevocationDao;
+
+	@BeforeEach
+	void setup() throws SQLException {
+		when(dataSourceMock.getConnection()).thenReturn(connectionMock);
+		when(connectionMock.prepareStatement(anyString())).thenReturn(preparedStatementMock);
+	}
+
+	@Test
+	void testSaveRevocation() throws SQLException {
+		LocalDateTime revokedAt = LocalDateTime.of(2024, 5, 1, 12, 0);
+		when(preparedStatementMock.executeUpdate()).thenReturn(1);
+
+		assertTrue(tokenRevocationDao.saveRevocation(1L, revokedAt));
+		verify(preparedStatementMock).setLong(1, 1L);
+		verify(preparedStatementMock).setTimestamp(2, Timestamp.valueOf(revokedAt));
+	}
+
+	@Test
+	void testSaveRevocationSQLException() throws SQLException {
+		when(preparedStatementMock.executeUpdate()).thenThrow(SQLException.class);
+
+		assertFalse(tokenRevocationDao.saveRevocation(1L, LocalDateTime.now()));
+	}
+
+	@Test
+	void testFindRevocationsSince() throws SQLException {
+		LocalDateTime revokedAt = LocalDateTime.of(2024, 5, 1, 12, 0);
+		when(preparedStatementMock.executeQuery()).thenReturn(resultSetMock);
+		when(resultSetMock.next()).thenReturn(true, false);
+		when(resultSetMock.getLong(1)).thenReturn(1L);
+		when(resultSetMock.getTimestamp(2)).thenReturn(Timestamp.valueOf(revokedAt));
+
+		Map<Long, LocalDateTime> result = tokenRevocationDao.findRevocationsSince(revokedAt.minusDays(1));
+
+		assertEquals(Map.of(1L, revokedAt), result);
+	}
+
+	@Test
+	void testFindRevocationsSinceSQLException() throws SQLException {
+		when(preparedStatementMock.executeQuery()).thenThrow(SQLException.class);
+
+		assertTrue(tokenRevocationDao.findRevocationsSince(LocalDateTime.now()).isEmpty());
+	}
+}
@@ -2,6 +2,7 @@ package dev.abreu.bankapp.dao;
 
 import dev.abreu.bankapp.dao.impl.TransactionDaoImpl;
 import dev.abreu.bankapp.entity.Transaction;
+import dev.abreu.bankapp.util.KeysetCursor;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -9,17 +10,24 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataRetrievalFailureException;
 
 import javax.sql.DataSource;
 import java.sql.*;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static dev.abreu.bankapp.util.BankappConstants.ACCOUNT_DEPOSIT;
+import static dev.abreu.bankapp.util.BankappQueryConstants.SELECT_TRANSACTIONS_PAGE_BY_ACCTNO_AFTER_CURSOR_QUERY;
+import static dev.abreu.bankapp.util.BankappQueryConstants.SELECT_TRANSACTIONS_PAGE_BY_ACCTNO_QUERY;
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -57,12 +65,12 @@ class TransactionDaoTest {
         when(connectionMock.prepareStatement(anyString())).thenReturn(preparedStatementMock);
         when(preparedStatementMock.executeQuery()).thenReturn(resultSetMock);
         when(resultSetMock.next()).thenReturn(true);
-        when(resultSetMock.getLong("transaction_id")).thenReturn(1L);
-		when(resultSetMock.getString("transaction_type")).thenReturn(ACCOUNT_DEPOSIT);
-		when(resultSetMock.getDouble("transaction_amount")).thenReturn(100.00);
-		when(resultSetMock.getString("transaction_notes")).thenReturn("notes");
-		when(resultSetMock.getLong("account_number")).thenReturn(12345L);
-		when(resultSetMock.getTimestamp("created_at")).thenReturn(Timestamp.valueOf(testDateTime));
+        when(resultSetMock.getLong(1)).thenReturn(1L);
+		when(resultSetMock.getString(2)).thenReturn(ACCOUNT_DEPOSIT);
+		when(resultSetMock.getDouble(3)).thenReturn(100.00);
+		when(resultSetMock.getString(4)).thenReturn("notes");
+		when(resultSetMock.getLong(6)).thenReturn(12345L);
+		when(resultSetMock.getTimestamp(5)).thenReturn(Timestamp.valueOf(testDateTime));
 
         Optional<Transaction> result = transactionDao.findTransactionById(transactionId);
 
@@ -109,12 +117,12 @@ class TransactionDaoTest {
 		when(preparedStatementMock.executeQuery()).thenReturn(resultSetMock);
 		when(resultSetMock.next()).thenReturn(true, false); // false needed to break out of loop
 		
-        when(resultSetMock.getLong("transaction_id")).thenReturn(1L);
-		when(resultSetMock.getString("transaction_type")).thenReturn(ACCOUNT_DEPOSIT);
-		when(resultSetMock.getDouble("transaction_amount")).thenReturn(100.00);
-		when(resultSetMock.getString("transaction_notes")).thenReturn("notes");
-		when(resultSetMock.getLong("account_number")).thenReturn(12345L);
-		when(resultSetMock.getTimestamp("created_at")).thenReturn(Timestamp.valueOf(testDateTime));
+        when(resultSetMock.getLong(1)).thenReturn(1L);
+		when(resultSetMock.getString(2)).thenReturn(ACCOUNT_DEPOSIT);
+		when(resultSetMock.getDouble(3)).thenReturn(100.00);
+		when(resultSetMock.getString(4)).thenReturn("notes");
+		when(resultSetMock.getLong(6)).thenReturn(12345L);
+		when(resultSetMock.getTimestamp(5)).thenReturn(Timestamp.valueOf(testDateTime));
 		
 		List<Transaction> result = transactionDao.findAllTransactionsByAcctNo(transactionId);
 		
@@ -131,6 +139,56 @@ class TransactionDaoTest {
 		assertNotNull(result);
     }
     
+    @Test
+    void testFindTransactionsPageByAcctNoFirstPage() throws SQLException {
+		LocalDateTime testDateTime = LocalDateTime.of(2024, 4, 24, 15, 30);
+
+		when(connectionMock.prepareStatement(anyString())).thenReturn(preparedStatementMock);
+		when(preparedStatementMock.executeQuery()).thenReturn(resultSetMock);
+		when(resultSetMock.next()).thenReturn(true, false);
+
+        when(resultSetMock.getLong(1)).thenReturn(1L);
+		when(resultSetMock.getString(2)).thenReturn(ACCOUNT_DEPOSIT);
+		when(resultSetMock.getDouble(3)).thenReturn(100.00);
+		when(resultSetMock.getString(4)).thenReturn("notes");
+		when(resultSetMock.getLong(6)).thenReturn(12345L);
+		when(resultSetMock.getTimestamp(5)).thenReturn(Timestamp.valueOf(testDateTime));
+
+		List<Transaction> result = transactionDao.findTransactionsPageByAcctNo(12345L, 51, null);
+
+		assertEquals(1, result.size());
+		verify(connectionMock).prepareStatement(SELECT_TRANSACTIONS_PAGE_BY_ACCTNO_QUERY);
+		verify(preparedStatementMock).setLong(1, 12345L);
+		verify(preparedStatementMock).setInt(2, 51);
+    }
+
+    @Test
+    void testFindTransactionsPageByAcctNoWithPageToken() throws SQLException {
+		LocalDateTime testDateTime = LocalDateTime.of(2024, 4, 24, 15, 30);
+		String pageToken = new KeysetCursor(testDateTime, 7L).encode();
+
+		when(connectionMock.prepareStatement(anyString())).thenReturn(preparedStatementMock);
+		when(preparedStatementMock.executeQuery()).thenReturn(resultSetMock);
+		when(resultSetMock.next()).thenReturn(false);
+
+		List<Transaction> result = transactionDao.findTransactionsPageByAcctNo(12345L, 51, pageToken);
+
+		assertTrue(result.isEmpty());
+		verify(connectionMock).prepareStatement(SELECT_TRANSACTIONS_PAGE_BY_ACCTNO_AFTER_CURSOR_QUERY);
+		verify(preparedStatementMock).setLong(1, 12345L);
+		verify(preparedStatementMock).setTimestamp(2, Timestamp.valueOf(testDateTime));
+		verify(preparedStatementMock).setLong(3, 7L);
+		verify(preparedStatementMock).setInt(4, 51);
+    }
+
+    @Test
+    void testFindTransactionsPageByAcctNoSQLException() throws SQLException {
+		when(connectionMock.prepareStatement(anyString())).thenReturn(preparedStatementMock);
+		when(preparedStatementMock.executeQuery()).thenThrow(SQLException.class);
+		List<Transaction> result = transactionDao.findTransactionsPageByAcctNo(12345L, 51, null);
+		assertNotNull(result);
+    }
+    
     @Test
     void testSaveTransaction() throws SQLException {
 		Transaction newTransaction = new Transaction(ACCOUNT_DEPOSIT, 100.00, "notes", 12345L);
@@ -184,25 +242,13 @@ class TransactionDaoTest {
         when(preparedStatementMock.executeUpdate()).thenReturn(1);
         boolean success = transactionDao.deleteTransactionById(txnId);
         assertTrue(success);
-        verify(connectionMock, Mockito.times(1)).setAutoCommit(false);
+        verify(connectionMock, Mockito.never()).setAutoCommit(Mockito.anyBoolean());
         verify(preparedStatementMock, Mockito.times(1)).setLong(1, txnId);
-        verify(connectionMock, Mockito.times(1)).commit();
+        verify(connectionMock, Mockito.never()).commit();
         verify(connectionMock, Mockito.times(1)).close();
         verify(preparedStatementMock, Mockito.times(1)).close();
 	}
 
-    @Test
-    void testDeleteCustomerByIdMultipleRowsDeleted() throws SQLException {
-        Long txnId = 1L;
-        when(connectionMock.prepareStatement(anyString())).thenReturn(preparedStatementMock);
-        when(preparedStatementMock.executeUpdate()).thenReturn(2);
-        boolean success = transactionDao.deleteTransactionById(txnId);
-        assertFalse(success);
-        verify(connectionMock, Mockito.times(1)).rollback();
-        verify(connectionMock, Mockito.times(1)).close();
-        verify(preparedStatementMock, Mockito.times(1)).close();
-    }
-
     @Test
     void testDeleteCustomerByIdSQLException() throws SQLException {
         Long txnId = 1L;
@@ -218,12 +264,12 @@ class TransactionDaoTest {
         Mockito.when(connectionMock.prepareStatement(anyString())).thenReturn(preparedStatementMock);
         Mockito.when(preparedStatementMock.executeQuery()).thenReturn(resultSetMock);
         Mockito.when(resultSetMock.next()).thenReturn(true, true, false);
-        Mockito.when(resultSetMock.getLong("id")).thenReturn(101L, 102L);
-        Mockito.when(resultSetMock.getString("type")).thenReturn(ACCOUNT_DEPOSIT, ACCOUNT_DEPOSIT);
-        Mockito.when(resultSetMock.getDouble("amount")).thenReturn(100.00, 200.00);
-        Mockito.when(resultSetMock.getString("notes")).thenReturn("Deposit", "Deposit");
-        Mockito.when(resultSetMock.getTimestamp("created_at")).thenReturn(Timestamp.valueOf(LocalDateTime.now()), Timestamp.valueOf(LocalDateTime.now()));
-        Mockito.when(resultSetMock.getLong("account_number")).thenReturn(12345L, 12346L);
+        Mockito.when(resultSetMock.getLong(1)).thenReturn(101L, 102L);
+        Mockito.when(resultSetMock.getString(2)).thenReturn(ACCOUNT_DEPOSIT, ACCOUNT_DEPOSIT);
+        Mockito.when(resultSetMock.getDouble(3)).thenReturn(100.00, 200.00);
+        Mockito.when(resultSetMock.getString(4)).thenReturn("Deposit", "Deposit");
+        Mockito.when(resultSetMock.getTimestamp(5)).thenReturn(Timestamp.valueOf(LocalDateTime.now()), Timestamp.valueOf(LocalDateTime.now()));
+        Mockito.when(resultSetMock.getLong(6)).thenReturn(12345L, 12346L);
 
         List<Transaction> result = transactionDao.findAllTransactionsAndTransfersByCustomerId(customerId);
         assertEquals(2, result.size());
@@ -245,4 +291,99 @@ class TransactionDaoTest {
         verify(preparedStatementMock).executeQuery();
     }
 
+    @Test
+    void testStreamAllTransactionsAndTransfersByCustomerId() throws Exception {
+        long customerId = 1L;
+        Mockito.when(connectionMock.prepareStatement(anyString())).thenReturn(preparedStatementMock);
+        Mockito.when(preparedStatementMock.executeQuery()).thenReturn(resultSetMock);
+        Mockito.when(resultSetMock.next()).thenReturn(true, true, false);
+        Mockito.when(resultSetMock.getLong(1)).thenReturn(101L, 102L);
+        Mockito.when(resultSetMock.getString(2)).thenReturn(ACCOUNT_DEPOSIT, ACCOUNT_DEPOSIT);
+        Mockito.when(resultSetMock.getDouble(3)).thenReturn(100.00, 200.00);
+        Mockito.when(resultSetMock.getString(4)).thenReturn("Deposit", "Deposit");
+        Mockito.when(resultSetMock.getTimestamp(5)).thenReturn(Timestamp.valueOf(LocalDateTime.now()), Timestamp.valueOf(LocalDateTime.now()));
+        Mockito.when(resultSetMock.getLong(6)).thenReturn(12345L, 12346L);
+
+        List<Transaction> streamed = new ArrayList<>();
+        transactionDao.streamAllTransactionsAndTransfersByCustomerId(customerId, streamed::add);
+
+        assertEquals(2, streamed.size());
+        assertEquals(101L, streamed.get(0).getTransactionId());
+        assertEquals(102L, streamed.get(1).getTransactionId());
+        verify(connectionMock).setAutoCommit(false);
+        verify(preparedStatementMock).setFetchSize(anyInt());
+        verify(connectionMock).commit();
+    }
+
+    @Test
+    void testStreamAllTransactionsAndTransfersByCustomerIdSQLException() throws Exception {
+        long customerId = 1L;
+        Mockito.when(connectionMock.prepareStatement(anyString())).thenReturn(preparedStatementMock);
+        Mockito.when(preparedStatementMock.executeQuery()).thenThrow(new SQLException("Test SQL Exception"));
+
+        List<Transaction> streamed = new ArrayList<>();
+        assertThrows(DataRetrievalFailureException.class,
+                () -> transactionDao.streamAllTransactionsAndTransfersByCustomerId(customerId, streamed::add));
+        assertTrue(streamed.isEmpty());
+        verify(connectionMock, never()).commit();
+    }
+
+    @Test
+    void testSaveTransactions() throws SQLException {
+        List<Transaction> txns = List.of(
+                new Transaction(ACCOUNT_DEPOSIT, 100.00, "Deposit", 12345L),
+                new Transaction(ACCOUNT_DEPOSIT, 200.00, "Deposit", 12346L));
+
+        when(connectionMock.prepareStatement(anyString(), any(String[].class))).thenReturn(preparedStatementMock);
+        when(preparedStatementMock.executeBatch()).thenReturn(new int[] { 1, 1 });
+        when(preparedStatementMock.getGeneratedKeys()).thenReturn(resultSetMock);
+        when(resultSetMock.next()).thenReturn(true, true);
+        when(resultSetMock.getLong(1)).thenReturn(101L, 102L);
+
+        Map<Integer, String> failures = transactionDao.saveTransactions(txns);
+
+        assertTrue(failures.isEmpty());
+        assertEquals(101L, txns.get(0).getTransactionId());
+        assertEquals(102L, txns.get(1).getTransactionId());
+        verify(preparedStatementMock, Mockito.times(2)).addBatch();
+        verify(connectionMock).commit();
+    }
+
+    @Test
+    void testSaveTransactionsBatchFailureFallsBackToRowByRow() throws SQLException {
+        List<Transaction> txns = List.of(
+                new Transaction(ACCOUNT_DEPOSIT, 100.00, "Deposit", 12345L),
+                new Transaction(ACCOUNT_DEPOSIT, 200.00, "Deposit", 99999L));
+        Savepoint savepointMock = Mockito.mock(Savepoint.class);
+
+        when(connectionMock.prepareStatement(anyString(), any(String[].class))).thenReturn(preparedStatementMock);
+        when(preparedStatementMock.executeBatch()).thenThrow(new BatchUpdateException("fk violation", new int[0]));
+        when(connectionMock.setSavepoint()).thenReturn(savepointMock);
+        when(preparedStatementMock.executeUpdate()).thenReturn(1).thenThrow(new SQLException("fk violation"));
+        when(preparedStatementMock.getGeneratedKeys()).thenReturn(resultSetMock);
+        when(resultSetMock.next()).thenReturn(true);
+        when(resultSetMock.getLong(1)).thenReturn(101L);
+
+        Map<Integer, String> failures = transactionDao.saveTransactions(txns);
+
+        assertEquals(Map.of(1, "fk violation"), failures);
+        assertEquals(101L, txns.get(0).getTransactionId());
+        assertNull(txns.get(1).getTransactionId());
+        verify(connectionMock).rollback();
+        verify(connectionMock).rollback(savepointMock);
+        verify(connectionMock).commit();
+    }
+
+    @Test
+    void testSaveTransactionsSQLException() throws SQLException {
+        List<Transaction> txns = List.of(new Transaction(ACCOUNT_DEPOSIT, 100.00, "Deposit", 12345L));
+
+        when(connectionMock.prepareStatement(anyString(), any(String[].class))).thenThrow(new SQLException("Test SQL Exception"));
+
+        Map<Integer, String> failures = transactionDao.saveTransactions(txns);
+
+        assertEquals(Map.of(0, "Test SQL Exception"), failures);
+        assertNull(txns.get(0).getTransactionId());
+    }
+
 }
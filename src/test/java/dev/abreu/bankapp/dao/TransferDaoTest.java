@@ -12,11 +12,14 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import javax.sql.DataSource;
 import java.sql.*;
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -53,12 +56,12 @@ class TransferDaoTest {
         when(connectionMock.prepareStatement(anyString())).thenReturn(preparedStatementMock);
         when(preparedStatementMock.executeQuery()).thenReturn(resultSetMock);
         when(resultSetMock.next()).thenReturn(true);
-        when(resultSetMock.getLong("transfer_id")).thenReturn(1L);
-		when(resultSetMock.getLong("source_acct_num")).thenReturn(12345L);
-		when(resultSetMock.getLong("target_acct_num")).thenReturn(67890L);
-		when(resultSetMock.getDouble("transfer_amount")).thenReturn(100.00);
-		when(resultSetMock.getString("transfer_notes")).thenReturn("Transfer notes");
-		when(resultSetMock.getTimestamp("created_at")).thenReturn(Timestamp.valueOf(testDateTime));
+        when(resultSetMock.getLong(1)).thenReturn(1L);
+		when(resultSetMock.getLong(2)).thenReturn(12345L);
+		when(resultSetMock.getLong(3)).thenReturn(67890L);
+		when(resultSetMock.getDouble(4)).thenReturn(100.00);
+		when(resultSetMock.getString(5)).thenReturn("Transfer notes");
+		when(resultSetMock.getTimestamp(6)).thenReturn(Timestamp.valueOf(testDateTime));
 
         Optional<Transfer> result = transferDao.findTransferById(transferId);
 
@@ -96,6 +99,27 @@ class TransferDaoTest {
         assertEquals(Optional.empty(), result);
     }
 
+    @Test
+    void testFindTransfersByIds() throws SQLException {
+        List<Long> transferIds = List.of(1L, 2L);
+        Array idArrayMock = mock(Array.class);
 
+        when(connectionMock.prepareStatement(anyString())).thenReturn(preparedStatementMock);
+        when(connectionMock.createArrayOf("bigint", transferIds.toArray())).thenReturn(idArrayMock);
+        when(preparedStatementMock.executeQuery()).thenReturn(resultSetMock);
+        when(resultSetMock.next()).thenReturn(true, true, false);
+        when(resultSetMock.getLong(1)).thenReturn(1L, 2L);
+        when(resultSetMock.getLong(2)).thenReturn(12345L);
+        when(resultSetMock.getLong(3)).thenReturn(67890L);
+        when(resultSetMock.getDouble(4)).thenReturn(100.00);
+        when(resultSetMock.getString(5)).thenReturn("Transfer notes");
+        when(resultSetMock.getTimestamp(6)).thenReturn(Timestamp.valueOf(LocalDateTime.of(2024, 4, 24, 15, 30)));
+
+        List<Transfer> result = transferDao.findTransfersByIds(transferIds);
+
+        assertEquals(2, result.size());
+        assertEquals(2L, result.get(1).getTransferId());
+        verify(preparedStatementMock).setArray(1, idArrayMock);
+    }
 
 }
\ No newline at end of file
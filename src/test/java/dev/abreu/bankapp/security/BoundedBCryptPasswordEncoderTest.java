@@ -0,0 +1,67 @@
+package dev.abreu.bankapp.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundedBCryptPasswordEncoderTest {
+
+	private PasswordHashingExecutor executor;
+	private BoundedBCryptPasswordEncoder passwordEncoder;
+
+	@BeforeEach
+	void setup() {
+		executor = new PasswordHashingExecutor(1, 4, new SimpleMeterRegistry());
+		passwordEncoder = new BoundedBCryptPasswordEncoder(5, executor);
+	}
+
+	@AfterEach
+	void teardown() {
+		executor.close();
+	}
+
+	@Test
+	void testEncodeAndMatches() {
+		String encoded = passwordEncoder.encode("password");
+
+		assertEquals(5, BoundedBCryptPasswordEncoder.costOf(encoded));
+		assertTrue(passwordEncoder.matches("password", encoded));
+		assertFalse(passwordEncoder.matches("wrong", encoded));
+	}
+
+	@Test
+	void testEncodeInBackgroundHandsOverHash() throws Exception {
+		CompletableFuture<String> encoded = new CompletableFuture<>();
+
+		assertTrue(passwordEncoder.encodeInBackground("password", encoded::complete));
+
+		assertTrue(passwordEncoder.matches("password", encoded.get(5, TimeUnit.SECONDS)));
+	}
+
+	@Test
+	void testUpgradeEncodingOnlyWhenCostIsLower() {
+		assertTrue(passwordEncoder.upgradeEncoding(new BCryptPasswordEncoder(4).encode("password")));
+		assertFalse(passwordEncoder.upgradeEncoding(new BCryptPasswordEncoder(6).encode("password")));
+		assertFalse(passwordEncoder.upgradeEncoding(passwordEncoder.encode("password")));
+	}
+
+	@Test
+	void testUpgradeEncodingIgnoresNonBCryptHashes() {
+		assertFalse(passwordEncoder.upgradeEncoding("plaintext"));
+		assertFalse(passwordEncoder.upgradeEncoding(null));
+	}
+
+	@Test
+	void testCalibrateCostStaysWithinBounds() {
+		assertEquals(4, BoundedBCryptPasswordEncoder.calibrateCost(Duration.ZERO, 4, 6));
+		assertEquals(6, BoundedBCryptPasswordEncoder.calibrateCost(Duration.ofMinutes(1), 4, 6));
+	}
+}
@@ -2,7 +2,9 @@ package dev.abreu.bankapp.security;
 
 import dev.abreu.bankapp.entity.Customer;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
 import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.SignatureException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -89,4 +91,44 @@ class JwtConfigTest {
         boolean valid = jwtConfig.isTokenValid(sampleToken, customer);
         assertFalse(valid);
     }
+
+    @Test
+    void testRepeatTokenReusesVerifiedClaims() {
+        Claims first = jwtConfig.extractAllClaims(sampleToken);
+        Claims second = jwtConfig.extractAllClaims(sampleToken);
+        assertSame(first, second);
+        assertSame(jwtConfig.getSigningKey(), jwtConfig.getSigningKey());
+    }
+
+    @Test
+    void testIsTokenValid_VerifiedClaims() {
+        when(customer.getUsername()).thenReturn("testuser");
+        Claims claims = jwtConfig.extractAllClaims(sampleToken);
+        assertTrue(jwtConfig.areClaimsValid(claims, customer));
+    }
+
+    @Test
+    void testTamperedTokenIsRejectedEveryTime() {
+        String[] parts = sampleToken.split("\\.");
+        String otherPayload = Jwts.builder()
+                .setSubject("otheruser")
+                .setExpiration(new Date(System.currentTimeMillis() + 3700000))
+                .compact()
+                .split("\\.")[1];
+        String tampered = parts[0] + "." + otherPayload + "." + parts[2];
+
+        assertThrows(SignatureException.class, () -> jwtConfig.extractAllClaims(tampered));
+        assertThrows(SignatureException.class, () -> jwtConfig.extractAllClaims(tampered));
+    }
+
+    @Test
+    void testExpiredTokenIsRejected() {
+        String expiredToken = Jwts.builder()
+                .setSubject("testuser")
+                .setExpiration(new Date(System.currentTimeMillis() - 1000))
+                .signWith(jwtConfig.getSigningKey())
+                .compact();
+
+        assertThrows(ExpiredJwtException.class, () -> jwtConfig.extractAllClaims(expiredToken));
+    }
 }
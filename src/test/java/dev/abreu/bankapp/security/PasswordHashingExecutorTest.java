@@ -0,0 +1,99 @@
+package dev.abreu.bankapp.security;
+
+import dev.abreu.bankapp.exception.PasswordHashingBusyException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PasswordHashingExecutorTest {
+
+	private SimpleMeterRegistry meterRegistry;
+	private PasswordHashingExecutor executor;
+
+	@BeforeEach
+	void setup() {
+		meterRegistry = new SimpleMeterRegistry();
+		executor = new PasswordHashingExecutor(1, 1, meterRegistry);
+	}
+
+	@AfterEach
+	void teardown() {
+		executor.close();
+	}
+
+	@Test
+	void testCallReturnsResultFromPoolThread() {
+		String threadName = executor.call(() -> Thread.currentThread().getName());
+
+		assertTrue(threadName.startsWith(PasswordHashingExecutor.EXECUTOR_NAME));
+		assertEquals(1, meterRegistry.get("executor").tag("name", PasswordHashingExecutor.EXECUTOR_NAME).timer().count());
+	}
+
+	@Test
+	void testCallPassesOnRuntimeException() {
+		IllegalArgumentException thrown = new IllegalArgumentException("Invalid salt");
+
+		assertSame(thrown, assertThrows(IllegalArgumentException.class, () -> executor.call(() -> {
+			throw thrown;
+		})));
+	}
+
+	@Test
+	void testSaturatedPoolRejectsAtOnce() throws Exception {
+		CountDownLatch running = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		// one hash running and one queued fill a pool of one thread and a queue of one
+		CompletableFuture<Boolean> first = CompletableFuture.supplyAsync(() -> executor.call(() -> {
+			running.countDown();
+			return await(release);
+		}));
+		assertTrue(running.await(5, TimeUnit.SECONDS));
+		CompletableFuture<Boolean> queued = CompletableFuture.supplyAsync(() -> executor.call(() -> true));
+		while (meterRegistry.get("executor.queued").gauge().value() < 1) {
+			Thread.onSpinWait();
+		}
+
+		assertThrows(PasswordHashingBusyException.class, () -> executor.call(() -> true));
+		assertEquals(1.0, meterRegistry.get(PasswordHashingExecutor.REJECTED_METER).counter().count());
+
+		release.countDown();
+		assertTrue(first.get(5, TimeUnit.SECONDS));
+		assertTrue(queued.get(5, TimeUnit.SECONDS));
+	}
+
+	@Test
+	void testTrySubmitSkipsWhenPoolIsFull() throws Exception {
+		CountDownLatch running = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		CountDownLatch done = new CountDownLatch(2);
+		assertTrue(executor.trySubmit(() -> {
+			running.countDown();
+			await(release);
+			done.countDown();
+		}));
+		assertTrue(running.await(5, TimeUnit.SECONDS));
+		assertTrue(executor.trySubmit(done::countDown));
+
+		assertFalse(executor.trySubmit(() -> fail("ran on a full pool")));
+		assertEquals(0.0, meterRegistry.get(PasswordHashingExecutor.REJECTED_METER).counter().count());
+
+		release.countDown();
+		assertTrue(done.await(5, TimeUnit.SECONDS));
+	}
+
+	private static boolean await(CountDownLatch latch) {
+		try {
+			return latch.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return false;
+		}
+	}
+}
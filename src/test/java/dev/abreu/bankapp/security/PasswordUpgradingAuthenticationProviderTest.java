@@ -0,0 +1,92 @@
+package dev.abreu.bankapp.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+
+class PasswordUpgradingAuthenticationProviderTest {
+
+	private PasswordHashingExecutor executor;
+	private UserDetailsService userDetailsService;
+	private UserDetailsPasswordService userDetailsPasswordService;
+
+	@BeforeEach
+	void setup() {
+		executor = new PasswordHashingExecutor(1, 4, new SimpleMeterRegistry());
+		userDetailsService = Mockito.mock(UserDetailsService.class);
+		userDetailsPasswordService = Mockito.mock(UserDetailsPasswordService.class);
+	}
+
+	@AfterEach
+	void teardown() {
+		executor.close();
+	}
+
+	private UserDetails userWithHashOfCost(int cost) {
+		UserDetails user = User.withUsername("user").password(new BCryptPasswordEncoder(cost).encode("password"))
+				.authorities("User").build();
+		Mockito.when(userDetailsService.loadUserByUsername("user")).thenReturn(user);
+		return user;
+	}
+
+	private static Authentication login() {
+		return UsernamePasswordAuthenticationToken.unauthenticated("user", "password");
+	}
+
+	@Test
+	void testLowerCostHashIsUpgradedInBackground() {
+		UserDetails user = userWithHashOfCost(4);
+		PasswordUpgradingAuthenticationProvider provider = new PasswordUpgradingAuthenticationProvider(
+				userDetailsService, new BoundedBCryptPasswordEncoder(5, executor), userDetailsPasswordService);
+
+		assertTrue(provider.authenticate(login()).isAuthenticated());
+
+		Mockito.verify(userDetailsPasswordService, Mockito.timeout(5000)).updatePassword(eq(user),
+				argThat(newPassword -> BoundedBCryptPasswordEncoder.costOf(newPassword) == 5));
+	}
+
+	@Test
+	void testHashOfCurrentCostIsLeftAlone() {
+		userWithHashOfCost(5);
+		BoundedBCryptPasswordEncoder passwordEncoder = Mockito.spy(new BoundedBCryptPasswordEncoder(5, executor));
+		PasswordUpgradingAuthenticationProvider provider = new PasswordUpgradingAuthenticationProvider(
+				userDetailsService, passwordEncoder, userDetailsPasswordService);
+
+		assertTrue(provider.authenticate(login()).isAuthenticated());
+
+		Mockito.verify(passwordEncoder, Mockito.never()).encodeInBackground(any(), any());
+		Mockito.verifyNoInteractions(userDetailsPasswordService);
+	}
+
+	@Test
+	void testLoginSucceedsWhenPoolHasNoRoomForUpgrade() {
+		userWithHashOfCost(4);
+		BoundedBCryptPasswordEncoder passwordEncoder = Mockito.mock(BoundedBCryptPasswordEncoder.class);
+		Mockito.when(passwordEncoder.matches(eq("password"), anyString())).thenReturn(true);
+		Mockito.when(passwordEncoder.upgradeEncoding(anyString())).thenReturn(true);
+		Mockito.when(passwordEncoder.encodeInBackground(any(), any())).thenReturn(false);
+		PasswordUpgradingAuthenticationProvider provider = new PasswordUpgradingAuthenticationProvider(
+				userDetailsService, passwordEncoder, userDetailsPasswordService);
+
+		assertTrue(provider.authenticate(login()).isAuthenticated());
+
+		Mockito.verify(passwordEncoder).encodeInBackground(eq("password"), any());
+		Mockito.verify(passwordEncoder, Mockito.never()).encode("password");
+		Mockito.verifyNoInteractions(userDetailsPasswordService);
+	}
+}
@@ -0,0 +1,155 @@
+package dev.abreu.bankapp.security;
+
+import dev.abreu.bankapp.config.RateLimitProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimitFilterTest {
+
+	private static final List<String> TRANSFER_PATHS = List.of("/account/transferFunds", "/account/deposit");
+
+	private final AtomicLong nowNanos = new AtomicLong();
+	private SimpleMeterRegistry meterRegistry;
+	private RateLimitFilter filter;
+
+	@BeforeEach
+	void setup() {
+		meterRegistry = new SimpleMeterRegistry();
+		RateLimitProperties properties = new RateLimitProperties(true, 1000, List.of(
+				new RateLimitProperties.Policy("login-per-ip", List.of("/auth/login"), List.of("post"),
+						RateLimitProperties.Key.IP, 2, Duration.ofMinutes(1)),
+				new RateLimitProperties.Policy("transfer-per-principal", TRANSFER_PATHS, List.of(),
+						RateLimitProperties.Key.PRINCIPAL, 2, Duration.ofSeconds(10)),
+				new RateLimitProperties.Policy("transfer-route", TRANSFER_PATHS, List.of(),
+						RateLimitProperties.Key.ROUTE, 3, Duration.ofSeconds(1))));
+		filter = new RateLimitFilter(properties, meterRegistry, new String[] {""}, nowNanos::get);
+	}
+
+	@AfterEach
+	void teardown() {
+		SecurityContextHolder.clearContext();
+	}
+
+	private MockHttpServletResponse perform(String method, String uri, String remoteAddr) throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest(method, uri);
+		request.setRemoteAddr(remoteAddr);
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		filter.doFilter(request, response, new MockFilterChain());
+		return response;
+	}
+
+	@Test
+	void testBurstThenRejectedWithRetryAfter() throws Exception {
+		assertEquals(200, perform("POST", "/auth/login", "10.0.0.1").getStatus());
+		assertEquals(200, perform("POST", "/auth/login", "10.0.0.1").getStatus());
+
+		MockHttpServletResponse rejected = perform("POST", "/auth/login", "10.0.0.1");
+
+		assertEquals(429, rejected.getStatus());
+		// two requests a minute refill one every 30 seconds
+		assertEquals("30", rejected.getHeader(HttpHeaders.RETRY_AFTER));
+		assertEquals(1.0, meterRegistry.get(RateLimitFilter.REJECTED_METER).tag("policy", "login-per-ip").counter().count());
+	}
+
+	@Test
+	void testBucketRefillsOverTime() throws Exception {
+		perform("POST", "/auth/login", "10.0.0.1");
+		perform("POST", "/auth/login", "10.0.0.1");
+		assertEquals(429, perform("POST", "/auth/login", "10.0.0.1").getStatus());
+
+		nowNanos.addAndGet(TimeUnit.SECONDS.toNanos(30));
+
+		assertEquals(200, perform("POST", "/auth/login", "10.0.0.1").getStatus());
+		assertEquals(429, perform("POST", "/auth/login", "10.0.0.1").getStatus());
+	}
+
+	@Test
+	void testEachAddressHasItsOwnBucket() throws Exception {
+		perform("POST", "/auth/login", "10.0.0.1");
+		perform("POST", "/auth/login", "10.0.0.1");
+
+		assertEquals(429, perform("POST", "/auth/login", "10.0.0.1").getStatus());
+		assertEquals(200, perform("POST", "/auth/login", "10.0.0.2").getStatus());
+	}
+
+	@Test
+	void testUnmatchedRequestsAreNotLimited() throws Exception {
+		for (int i = 0; i < 10; i++) {
+			assertEquals(200, perform("GET", "/auth/login", "10.0.0.1").getStatus());
+			assertEquals(200, perform("POST", "/auth/register", "10.0.0.1").getStatus());
+			assertEquals(200, perform("OPTIONS", "/account/transferFunds", "10.0.0.1").getStatus());
+		}
+	}
+
+	@Test
+	void testPrincipalAndRouteBuckets() throws Exception {
+		SecurityContextHolder.getContext().setAuthentication(
+				UsernamePasswordAuthenticationToken.authenticated("alice", null, List.of()));
+		assertEquals(200, perform("POST", "/account/transferFunds", "10.0.0.1").getStatus());
+		assertEquals(200, perform("POST", "/account/transferFunds", "10.0.0.2").getStatus());
+		// alice's bucket is empty, whichever address she calls from
+		assertEquals(429, perform("POST", "/account/transferFunds", "10.0.0.3").getStatus());
+
+		SecurityContextHolder.getContext().setAuthentication(
+				UsernamePasswordAuthenticationToken.authenticated("bob", null, List.of()));
+		assertEquals(200, perform("POST", "/account/transferFunds", "10.0.0.1").getStatus());
+		// bob still has a token, but the route's three are spent
+		MockHttpServletResponse rejected = perform("POST", "/account/transferFunds", "10.0.0.1");
+		assertEquals(429, rejected.getStatus());
+		assertEquals(1.0, meterRegistry.get(RateLimitFilter.REJECTED_METER).tag("policy", "transfer-route").counter().count());
+	}
+
+	@Test
+	void testRejectedRequestGivesBackTokensItTook() throws Exception {
+		for (String remoteAddr : List.of("10.0.0.1", "10.0.0.2", "10.0.0.3")) {
+			perform("POST", "/account/transferFunds", remoteAddr);
+		}
+		SecurityContextHolder.getContext().setAuthentication(
+				UsernamePasswordAuthenticationToken.authenticated("bob", null, List.of()));
+		// turned away by the route after taking bob's tokens, which he gets back
+		assertEquals(429, perform("POST", "/account/transferFunds", "10.0.0.4").getStatus());
+		assertEquals(429, perform("POST", "/account/transferFunds", "10.0.0.4").getStatus());
+
+		nowNanos.addAndGet(TimeUnit.SECONDS.toNanos(1));
+
+		assertEquals(200, perform("POST", "/account/transferFunds", "10.0.0.4").getStatus());
+		assertEquals(200, perform("POST", "/account/transferFunds", "10.0.0.4").getStatus());
+	}
+
+	@Test
+	void testRouteBucketsArePerPath() throws Exception {
+		for (String remoteAddr : List.of("10.0.0.1", "10.0.0.2", "10.0.0.3")) {
+			perform("POST", "/account/transferFunds", remoteAddr);
+		}
+
+		assertEquals(429, perform("POST", "/account/transferFunds", "10.0.0.4").getStatus());
+		assertEquals(200, perform("POST", "/account/deposit", "10.0.0.4").getStatus());
+	}
+
+	@Test
+	void testTokenBucketsAllowCapacityThenRefillSteadily() {
+		TokenBuckets buckets = new TokenBuckets(5, Duration.ofSeconds(5), 100);
+
+		for (int i = 0; i < 5; i++) {
+			assertEquals(0, buckets.tryAcquire("key", 0));
+		}
+		assertEquals(TimeUnit.SECONDS.toNanos(1), buckets.tryAcquire("key", 0));
+		assertEquals(0, buckets.tryAcquire("key", TimeUnit.SECONDS.toNanos(1)));
+		assertEquals(0, buckets.tryAcquire("other", 0));
+	}
+}
@@ -0,0 +1,80 @@
+package dev.abreu.bankapp.security;
+
+import dev.abreu.bankapp.config.ApplicationConfig;
+import dev.abreu.bankapp.controller.AccountController;
+import dev.abreu.bankapp.dao.AccountDao;
+import dev.abreu.bankapp.dao.CustomerDao;
+import dev.abreu.bankapp.dto.mapper.DtoMapper;
+import dev.abreu.bankapp.entity.Account;
+import dev.abreu.bankapp.service.AccountService;
+import dev.abreu.bankapp.service.CustomerService;
+import io.jsonwebtoken.ExpiredJwtException;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static dev.abreu.bankapp.util.BankappConstants.CHECKING_ACCOUNT;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(controllers = AccountController.class)
+@Import({SecurityConfig.class, ApplicationConfig.class})
+class SecurityConfigTest {
+
+	@MockitoBean
+	AccountService accountService;
+
+	@MockitoBean
+	CustomerService customerService;
+
+	@MockitoBean
+	CustomerDao customerDao;
+
+	@MockitoBean
+	AccountDao accountDao;
+
+	@MockitoBean
+	JwtConfig jwtConfig;
+
+	@MockitoBean
+	TokenRevocationList tokenRevocationList;
+
+	@MockitoBean
+	DtoMapper dtoMapper;
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Test
+	void testPublicReadSkipsTokenWork() throws Exception {
+		Mockito.when(accountService.getAccountByAcctNo(12345L)).thenReturn(new Account(12345L, CHECKING_ACCOUNT, 100.00, 1L));
+
+		mockMvc.perform(get("/account/get/12345").header(HttpHeaders.AUTHORIZATION, "Bearer token"))
+				.andExpect(status().isOk());
+
+		Mockito.verifyNoInteractions(jwtConfig, customerService, tokenRevocationList);
+	}
+
+	@Test
+	void testAuthReadStillReportsExpiredToken() throws Exception {
+		Mockito.when(jwtConfig.extractAllClaims("token")).thenThrow(new ExpiredJwtException(null, null, "expired"));
+
+		mockMvc.perform(get("/auth/user").header(HttpHeaders.AUTHORIZATION, "Bearer token"))
+				.andExpect(status().isUnauthorized());
+	}
+
+	@Test
+	void testWriteWithoutTokenIsRejected() throws Exception {
+		mockMvc.perform(post("/account/save").contentType(MediaType.APPLICATION_JSON).content("{}"))
+				.andExpect(status().isForbidden());
+
+		Mockito.verifyNoInteractions(accountService);
+	}
+}
@@ -0,0 +1,128 @@
+package dev.abreu.bankapp.security;
+
+import dev.abreu.bankapp.dao.TokenRevocationDao;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+import java.util.Map;
+
+import static dev.abreu.bankapp.util.BankappConstants.JWT_ISSUED_AT_MILLIS_CLAIM;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+
+class TokenRevocationListTest {
+
+	private static final long DAY_MILLIS = 86400000L;
+
+	private TokenRevocationDao tokenRevocationDao;
+	private TokenRevocationList tokenRevocationList;
+
+	@BeforeEach
+	void setup() {
+		tokenRevocationDao = Mockito.mock(TokenRevocationDao.class);
+		tokenRevocationList = new TokenRevocationList(tokenRevocationDao, DAY_MILLIS, Duration.ofSeconds(5));
+	}
+
+	private static Claims secondsAgo(long seconds) {
+		return issuedAt(System.currentTimeMillis() - seconds * 1000);
+	}
+
+	private static Claims issuedAt(long millis) {
+		Claims claims = Jwts.claims().setIssuedAt(new Date(millis));
+		claims.put(JWT_ISSUED_AT_MILLIS_CLAIM, millis);
+		return claims;
+	}
+
+	@Test
+	void testNothingRevokedByDefault() {
+		assertFalse(tokenRevocationList.isRevoked(1L, secondsAgo(60)));
+	}
+
+	@Test
+	void testTokenWithoutIssuedAtIsRevoked() {
+		assertTrue(tokenRevocationList.isRevoked(1L, Jwts.claims()));
+	}
+
+	@Test
+	void testRevokeRejectsEarlierTokensAndSavesRevocation() {
+		Mockito.when(tokenRevocationDao.saveRevocation(eq(1L), any(LocalDateTime.class))).thenReturn(true);
+
+		tokenRevocationList.revoke(1L);
+
+		assertTrue(tokenRevocationList.isRevoked(1L, secondsAgo(60)));
+		assertFalse(tokenRevocationList.isRevoked(1L, secondsAgo(-60)));
+		assertFalse(tokenRevocationList.isRevoked(2L, secondsAgo(60)));
+		Mockito.verify(tokenRevocationDao).saveRevocation(eq(1L), any(LocalDateTime.class));
+	}
+
+	@Test
+	void testSyncPicksUpOtherNodesRevocations() {
+		LocalDateTime revokedAt = LocalDateTime.now(ZoneOffset.UTC).minusMinutes(1);
+		Mockito.when(tokenRevocationDao.findRevocationsSince(any(LocalDateTime.class))).thenReturn(Map.of(2L, revokedAt));
+
+		tokenRevocationList.sync();
+
+		assertTrue(tokenRevocationList.isRevoked(2L, secondsAgo(120)));
+		assertFalse(tokenRevocationList.isRevoked(2L, secondsAgo(30)));
+	}
+
+	@Test
+	void testSyncNeverMovesRevocationBack() {
+		Mockito.when(tokenRevocationDao.saveRevocation(eq(1L), any(LocalDateTime.class))).thenReturn(true);
+		Mockito.when(tokenRevocationDao.findRevocationsSince(any(LocalDateTime.class)))
+				.thenReturn(Map.of(1L, LocalDateTime.now(ZoneOffset.UTC).minusHours(1)));
+
+		tokenRevocationList.revoke(1L);
+		tokenRevocationList.sync();
+
+		assertTrue(tokenRevocationList.isRevoked(1L, secondsAgo(60)));
+	}
+
+	@Test
+	void testSyncDropsRevocationsOlderThanTokenLifetime() {
+		tokenRevocationList = new TokenRevocationList(tokenRevocationDao, 0, Duration.ofSeconds(5));
+		Mockito.when(tokenRevocationDao.saveRevocation(eq(1L), any(LocalDateTime.class))).thenReturn(true);
+		Mockito.when(tokenRevocationDao.findRevocationsSince(any(LocalDateTime.class))).thenReturn(Map.of());
+
+		tokenRevocationList.revoke(1L);
+		tokenRevocationList.sync();
+
+		assertFalse(tokenRevocationList.isRevoked(1L, secondsAgo(60)));
+	}
+
+	@Test
+	void testTokenIssuedLaterInTheSameSecondIsNotRevoked() {
+		LocalDateTime revokedAt = LocalDateTime.now(ZoneOffset.UTC).truncatedTo(ChronoUnit.SECONDS).minusSeconds(10)
+				.plus(500, ChronoUnit.MILLIS);
+		long revokedAtMillis = revokedAt.toInstant(ZoneOffset.UTC).toEpochMilli();
+		Mockito.when(tokenRevocationDao.findRevocationsSince(any(LocalDateTime.class))).thenReturn(Map.of(1L, revokedAt));
+
+		tokenRevocationList.sync();
+
+		assertTrue(tokenRevocationList.isRevoked(1L, issuedAt(revokedAtMillis - 1)));
+		assertFalse(tokenRevocationList.isRevoked(1L, issuedAt(revokedAtMillis + 1)));
+	}
+
+	@Test
+	void testTokenWithoutMillisecondClaimIsComparedFromStartOfItsSecond() {
+		LocalDateTime revokedAt = LocalDateTime.now(ZoneOffset.UTC).truncatedTo(ChronoUnit.SECONDS).minusSeconds(10)
+				.plus(500, ChronoUnit.MILLIS);
+		long revokedAtMillis = revokedAt.toInstant(ZoneOffset.UTC).toEpochMilli();
+		Mockito.when(tokenRevocationDao.findRevocationsSince(any(LocalDateTime.class))).thenReturn(Map.of(1L, revokedAt));
+
+		tokenRevocationList.sync();
+
+		assertTrue(tokenRevocationList.isRevoked(1L, Jwts.claims().setIssuedAt(new Date(revokedAtMillis + 1))));
+		assertFalse(tokenRevocationList.isRevoked(1L, Jwts.claims().setIssuedAt(new Date(revokedAtMillis + 1000))));
+	}
+}
@@ -1,37 +1,53 @@
 package dev.abreu.bankapp.service;
 
+import dev.abreu.bankapp.cache.AccountCache;
+import dev.abreu.bankapp.cache.AccountListCache;
+import dev.abreu.bankapp.cache.NegativeLookupCache;
 import dev.abreu.bankapp.dao.AccountDao;
-import dev.abreu.bankapp.dao.CustomerDao;
 import dev.abreu.bankapp.dao.TransactionDao;
+import dev.abreu.bankapp.dto.CustomerAccountsDTO;
+import dev.abreu.bankapp.dto.TransferResultDTO;
 import dev.abreu.bankapp.entity.Account;
+import dev.abreu.bankapp.entity.Transaction;
 import dev.abreu.bankapp.exception.InsufficientFundsException;
 import dev.abreu.bankapp.exception.ResourceNotFoundException;
 import dev.abreu.bankapp.service.impl.AccountServiceImpl;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
+import static dev.abreu.bankapp.cache.NegativeLookupCache.Lookup.ACCOUNT_NUMBER;
+import static dev.abreu.bankapp.util.BankappConstants.ACCOUNT_DEPOSIT;
+import static dev.abreu.bankapp.util.BankappConstants.ACCOUNT_WITHDRAW;
 import static dev.abreu.bankapp.util.BankappConstants.CHECKING_ACCOUNT;
 import static org.junit.jupiter.api.Assertions.*;
 
 @SpringBootTest(classes =  AccountServiceImpl.class)
 class AccountServiceTest {
 
-	@MockitoBean
-	private CustomerDao customerDao;
-
 	@MockitoBean
 	private AccountDao accountDao;
 
 	@MockitoBean
 	private TransactionDao transactionDao;
 
+	@MockitoBean
+	private AccountCache accountCache;
+
+	@MockitoBean
+	private AccountListCache accountListCache;
+
+	@MockitoBean
+	private NegativeLookupCache negativeLookupCache;
+
 	@Autowired
 	private AccountService accountService;
 
@@ -53,6 +69,16 @@ class AccountServiceTest {
 
 		assertThrows(ResourceNotFoundException.class,
 				() -> accountService.getAccountByAcctNo(12345L));
+		Mockito.verify(negativeLookupCache).recordMissing(ACCOUNT_NUMBER, 12345L);
+	}
+
+	@Test
+	void testGetAccountByAcctNoKnownMissingSkipsQuery() {
+		Mockito.when(negativeLookupCache.isKnownMissing(ACCOUNT_NUMBER, 12345L)).thenReturn(true);
+
+		assertThrows(ResourceNotFoundException.class,
+				() -> accountService.getAccountByAcctNo(12345L));
+		Mockito.verifyNoInteractions(accountDao);
 	}
 
 	@Test
@@ -64,23 +90,37 @@ class AccountServiceTest {
 		mockAccountList.add(mockAccount1);
 		mockAccountList.add(mockAccount2);
 
-		Mockito.when(customerDao.existsByUsername(testUsername)).thenReturn(Boolean.TRUE);
-
-		Mockito.when(accountDao.findAllAccountsByUsername(testUsername)).thenReturn(mockAccountList);
+		Mockito.when(accountDao.findCustomerAccountsByUsername(testUsername))
+				.thenReturn(Optional.of(new CustomerAccountsDTO(1L, mockAccountList)));
 
 		List<Account> result = accountService.getAllAccountsByUsername(testUsername);
 
 		assertEquals(mockAccountList, result);
+		Mockito.verify(accountListCache).put(1L, testUsername, mockAccountList);
+	}
+
+	@Test
+	void testGetAllAccountsByUsernameCachedSkipsQuery() {
+		String testUsername = "test";
+		List<Account> cachedAccountList = List.of(new Account(12345L, CHECKING_ACCOUNT, 150.00, 1L));
+
+		Mockito.when(accountListCache.get(testUsername)).thenReturn(cachedAccountList);
+
+		List<Account> result = accountService.getAllAccountsByUsername(testUsername);
+
+		assertSame(cachedAccountList, result);
+		Mockito.verifyNoInteractions(accountDao);
 	}
 
 	@Test
 	void testGetAllAccountsByUsernameResourceNotFound() {
 		String testUsername = "test";
 
-		Mockito.when(customerDao.existsByUsername(testUsername)).thenReturn(Boolean.FALSE);
+		Mockito.when(accountDao.findCustomerAccountsByUsername(testUsername)).thenReturn(Optional.empty());
 
 		assertThrows(ResourceNotFoundException.class,
 				() -> accountService.getAllAccountsByUsername(testUsername));
+		Mockito.verify(accountListCache, Mockito.never()).put(Mockito.any(), Mockito.any(), Mockito.any());
 	}
 
 	@Test
@@ -93,6 +133,7 @@ class AccountServiceTest {
 		Account result = accountService.saveAccount(mockAccount);
 
 		assertEquals(mockAccount, result);
+		Mockito.verify(negativeLookupCache).forget(ACCOUNT_NUMBER, 12345L);
 	}
 
 	@Test
@@ -114,6 +155,7 @@ class AccountServiceTest {
 	void testDeleteAccountByAcctNo() {
 		Account mockAccount = new Account();
 		mockAccount.setAccountNumber(12345L);
+		mockAccount.setCustomerId(1L);
 
 		Mockito.when(accountDao.findAccountByAcctNo(12345L)).thenReturn(Optional.of(mockAccount));
 
@@ -122,6 +164,7 @@ class AccountServiceTest {
 		boolean result = accountService.deleteAccountByAcctNo(12345L);
 
 		assertTrue(result);
+		Mockito.verify(accountListCache).removeAccount(1L, 12345L);
 	}
 
 	@Test
@@ -137,15 +180,19 @@ class AccountServiceTest {
 
 	@Test
 	void testTransferFundsBetweenAccounts() throws InsufficientFundsException {
-		Optional<Account> mockSourceOpt = Optional.of(new Account(12345L, CHECKING_ACCOUNT, 100.00, 1L));
-
-		Mockito.when(accountDao.findAccountByAcctNo(12345L)).thenReturn(mockSourceOpt);
+		LocalDateTime sourceUpdatedAt = LocalDateTime.now();
+		LocalDateTime targetUpdatedAt = sourceUpdatedAt.plusNanos(1000);
+		TransferResultDTO transferResult = new TransferResultDTO(7L, 1.00, 299.00, sourceUpdatedAt, targetUpdatedAt);
 
-		Mockito.doNothing().when(accountDao).transferFunds(12345L, 45678L, 99.00, "test");
+		Mockito.when(accountDao.transferFunds(12345L, 45678L, 99.00, "test")).thenReturn(transferResult);
 
-		accountService.transferFundsBetweenAccounts(12345L, 45678L, 99.00, "test");
+		TransferResultDTO result = accountService.transferFundsBetweenAccounts(12345L, 45678L, 99.00, "test");
 
-		assertNotNull(mockSourceOpt.get());
+		assertEquals(transferResult, result);
+		// the balance is checked under lock in the database, not read beforehand
+		Mockito.verify(accountDao, Mockito.never()).findAccountByAcctNo(Mockito.anyLong());
+		Mockito.verify(accountCache).updateBalance(12345L, 1.00, sourceUpdatedAt);
+		Mockito.verify(accountCache).updateBalance(45678L, 299.00, targetUpdatedAt);
 	}
 
 	@Test
@@ -156,16 +203,8 @@ class AccountServiceTest {
 
 	@Test
 	void testTransferFundsBetweenAccountsWithInsufficientFunds() throws InsufficientFundsException {
-		Optional<Account> mockSourceOpt = Optional.of(new Account(12345L, CHECKING_ACCOUNT, 100.00, 1L));
-		Optional<Account> mockTargetOpt = Optional.of(new Account(45678L, CHECKING_ACCOUNT, 200.00, 2L));
-
-		Mockito.when(accountDao.findAccountByAcctNo(12345L)).thenReturn(mockSourceOpt);
-		Mockito.when(accountDao.findAccountByAcctNo(45678L)).thenReturn(mockTargetOpt);
-
-		Mockito.when(accountDao.updateAccount(mockSourceOpt.get())).thenReturn(mockSourceOpt.get());
-		Mockito.when(accountDao.updateAccount(mockTargetOpt.get())).thenReturn(mockTargetOpt.get());
-
-		accountService.transferFundsBetweenAccounts(12345L, 45678L, 99.00, "test");
+		Mockito.when(accountDao.transferFunds(12345L, 45678L, 101.00, "test"))
+				.thenThrow(new InsufficientFundsException("Account transfer could not be completed due to insufficient funds"));
 
 		assertThrows(InsufficientFundsException.class,
 				() -> accountService.transferFundsBetweenAccounts(12345L, 45678L, 101.00, "test"));
@@ -173,40 +212,64 @@ class AccountServiceTest {
 
 	@Test
 	void testDepositFundsIntoAccount() {
-		Optional<Account> mockAccountOpt = Optional.of(new Account(12345L, CHECKING_ACCOUNT, 100.00, 1L));
-		Account mockAccount = new Account(12345L, CHECKING_ACCOUNT, 150.00, 1L);
+		Account updatedAccount = new Account(12345L, CHECKING_ACCOUNT, 150.00, 1L);
 
-		Mockito.when(accountDao.findAccountByAcctNo(12345L)).thenReturn(mockAccountOpt);
-
-		Mockito.when(accountDao.updateAccount(mockAccountOpt.get())).thenReturn(mockAccount);
+		Mockito.when(accountDao.depositFunds(Mockito.any(Transaction.class))).thenReturn(Optional.of(updatedAccount));
 
 		accountService.depositFundsIntoAccount(12345L, 50.00, "test");
 
-		assertEquals(150.00, mockAccountOpt.get().getAccountBalance());
+		ArgumentCaptor<Transaction> txnCaptor = ArgumentCaptor.forClass(Transaction.class);
+		Mockito.verify(accountDao).depositFunds(txnCaptor.capture());
+		assertEquals(ACCOUNT_DEPOSIT, txnCaptor.getValue().getTransactionType());
+		assertEquals(50.00, txnCaptor.getValue().getTransactionAmount());
+		assertEquals(12345L, txnCaptor.getValue().getAccountNumber());
+		Mockito.verify(accountDao, Mockito.never()).findAccountByAcctNo(Mockito.anyLong());
+		Mockito.verify(accountCache).put(updatedAccount);
 	}
 
 	@Test
-	void testWithdrawFundsFromAccount() throws InsufficientFundsException {
-		Optional<Account> mockAccountOpt = Optional.of(new Account(12345L, CHECKING_ACCOUNT, 100.00, 1L));
-		Account mockAccount = new Account(12345L, CHECKING_ACCOUNT, 50.00, 1L);
+	void testDepositFundsIntoAccountNotFound() {
+		Mockito.when(accountDao.depositFunds(Mockito.any(Transaction.class))).thenReturn(Optional.empty());
 
-		Mockito.when(accountDao.findAccountByAcctNo(12345L)).thenReturn(mockAccountOpt);
+		assertThrows(ResourceNotFoundException.class,
+				() -> accountService.depositFundsIntoAccount(12345L, 50.00, "test"));
+	}
+
+	@Test
+	void testWithdrawFundsFromAccount() throws InsufficientFundsException {
+		Account updatedAccount = new Account(12345L, CHECKING_ACCOUNT, 50.00, 1L);
 
-		Mockito.when(accountDao.updateAccount(mockAccountOpt.get())).thenReturn(mockAccount);
+		Mockito.when(accountDao.withdrawFunds(Mockito.any(Transaction.class))).thenReturn(Optional.of(updatedAccount));
 
 		accountService.withdrawFundsFromAccount(12345L, 50.00, "test");
 
-		assertEquals(50.00, mockAccountOpt.get().getAccountBalance());
+		ArgumentCaptor<Transaction> txnCaptor = ArgumentCaptor.forClass(Transaction.class);
+		Mockito.verify(accountDao).withdrawFunds(txnCaptor.capture());
+		assertEquals(ACCOUNT_WITHDRAW, txnCaptor.getValue().getTransactionType());
+		assertEquals(50.00, txnCaptor.getValue().getTransactionAmount());
+		Mockito.verify(accountDao, Mockito.never()).findAccountByAcctNo(Mockito.anyLong());
+		Mockito.verify(accountCache).put(updatedAccount);
 	}
 
 	@Test
 	void testWithdrawFundsFromAccountWithInsufficientFunds() {
 		Optional<Account> mockAccountOpt = Optional.of(new Account(12345L, CHECKING_ACCOUNT, 100.00, 1L));
 
+		Mockito.when(accountDao.withdrawFunds(Mockito.any(Transaction.class))).thenReturn(Optional.empty());
 		Mockito.when(accountDao.findAccountByAcctNo(12345L)).thenReturn(mockAccountOpt);
 
 		assertThrows(InsufficientFundsException.class,
 				() -> accountService.withdrawFundsFromAccount(12345L, 150.00, "test"));
+		Mockito.verifyNoInteractions(accountCache);
+	}
+
+	@Test
+	void testWithdrawFundsFromAccountNotFound() {
+		Mockito.when(accountDao.withdrawFunds(Mockito.any(Transaction.class))).thenReturn(Optional.empty());
+		Mockito.when(accountDao.findAccountByAcctNo(12345L)).thenReturn(Optional.empty());
+
+		assertThrows(ResourceNotFoundException.class,
+				() -> accountService.withdrawFundsFromAccount(12345L, 50.00, "test"));
 	}
 
 	@Test
@@ -1,5 +1,6 @@
 package dev.abreu.bankapp.service;
 
+import dev.abreu.bankapp.cache.CustomerIdentityCache;
 import dev.abreu.bankapp.dao.AccountDao;
 import dev.abreu.bankapp.dao.CustomerDao;
 import dev.abreu.bankapp.entity.Customer;
@@ -26,6 +27,12 @@ class CustomerServiceTest {
 
 	@MockitoBean
 	private AccountDao accountDao;
+
+	@MockitoBean
+	private CustomerIdentityCache customerIdentityCache;
+
+	@MockitoBean
+	private TokenService tokenService;
 	
 	@Autowired
 	private CustomerService customerService;
@@ -67,7 +74,7 @@ class CustomerServiceTest {
 		Customer mockCustomer = new Customer();
 		mockCustomer.setUsername(testUsername);
 		
-		Mockito.when(customerDao.findByUsername(testUsername)).thenReturn(Optional.of(mockCustomer));
+		Mockito.when(customerIdentityCache.getByUsername(testUsername)).thenReturn(mockCustomer);
 		
 		Customer result = customerService.getCustomerByUsername(testUsername);
 		
@@ -78,7 +85,7 @@ class CustomerServiceTest {
 	void testGetCustomerByUsernameThrowsResourceNotFound() {
 		String testUsername = "test123";
 		
-		Mockito.when(customerDao.findByUsername(testUsername)).thenReturn(Optional.empty());
+		Mockito.when(customerIdentityCache.getByUsername(testUsername)).thenReturn(null);
 		
 		assertThrows(ResourceNotFoundException.class, 
 				() -> customerService.getCustomerByUsername(testUsername));
@@ -90,7 +97,7 @@ class CustomerServiceTest {
 		Customer mockCustomer = new Customer();
 		mockCustomer.setId(testCustomerId);
 		
-		Mockito.when(customerDao.findById(testCustomerId)).thenReturn(Optional.of(mockCustomer));
+		Mockito.when(customerIdentityCache.getById(testCustomerId)).thenReturn(mockCustomer);
 		
 		Customer result = customerService.getCustomerById(testCustomerId);
 		
@@ -101,7 +108,7 @@ class CustomerServiceTest {
 	void testGetCustomerByIdThrowsResourceNotFound() {
 		Long testCustomerId = 123L;
 		
-		Mockito.when(customerDao.findById(testCustomerId)).thenReturn(Optional.empty());
+		Mockito.when(customerIdentityCache.getById(testCustomerId)).thenReturn(null);
 		
 		assertThrows(ResourceNotFoundException.class, 
 				() -> customerService.getCustomerById(testCustomerId));
@@ -127,11 +134,27 @@ class CustomerServiceTest {
 		Customer mockCustomer = new Customer(1L, "testFirst", "testLast", "testAddr", "testUsername");
 		Customer mockCustomerUpdate = new Customer(1L, "newTestFirst", "newTestLast", "newTestAddr", "testUsername");
 		
+		Mockito.when(customerIdentityCache.getById(1L)).thenReturn(mockCustomer);
 		Mockito.when(customerDao.updateCustomer(mockCustomer)).thenReturn(mockCustomerUpdate);
 		
 		Customer result = customerService.updateCustomerDetails(mockCustomer);
 		
 		assertEquals(mockCustomerUpdate, result);
+		Mockito.verify(customerIdentityCache).update(mockCustomerUpdate);
+		Mockito.verify(tokenService, Mockito.never()).revokeTokens(Mockito.any());
+	}
+
+	@Test
+	void testUpdateCustomerDetailsRevokesTokensOnRename() {
+		Customer cachedCustomer = new Customer(1L, "testFirst", "testLast", "testAddr", "testUsername");
+		Customer mockCustomerUpdate = new Customer(1L, "testFirst", "testLast", "testAddr", "newUsername");
+		
+		Mockito.when(customerIdentityCache.getById(1L)).thenReturn(cachedCustomer);
+		Mockito.when(customerDao.updateCustomer(mockCustomerUpdate)).thenReturn(mockCustomerUpdate);
+		
+		customerService.updateCustomerDetails(mockCustomerUpdate);
+		
+		Mockito.verify(tokenService).revokeTokens(cachedCustomer);
 	}
 
 	@Test
@@ -140,13 +163,15 @@ class CustomerServiceTest {
 		Customer mockCustomer = new Customer();
 		mockCustomer.setUsername(testUsername);
 		
-		Mockito.when(customerDao.existsByUsername(testUsername)).thenReturn(Boolean.TRUE);
+		Mockito.when(customerIdentityCache.getByUsername(testUsername)).thenReturn(mockCustomer);
 		
 		Mockito.when(customerDao.deleteCustomerByUsername(testUsername)).thenReturn(Boolean.TRUE);
 		
 		boolean result = customerService.deleteCustomerByUsername(testUsername);
 		
-		assertTrue(result);	
+		assertTrue(result);
+		Mockito.verify(customerIdentityCache).evictByUsername(testUsername);
+		Mockito.verify(tokenService).revokeTokens(mockCustomer);
 	}
 	
 	@Test
@@ -155,13 +180,14 @@ class CustomerServiceTest {
 		Customer mockCustomer = new Customer();
 		mockCustomer.setUsername(testUsername);
 		
-		Mockito.when(customerDao.existsByUsername(testUsername)).thenReturn(Boolean.FALSE);
+		Mockito.when(customerIdentityCache.getByUsername(testUsername)).thenReturn(null);
 		
 		Mockito.when(customerDao.deleteCustomerByUsername(testUsername)).thenReturn(Boolean.FALSE);
 		
 		boolean result = customerService.deleteCustomerByUsername(testUsername);
 		
-		assertFalse(result);	
+		assertFalse(result);
+		Mockito.verifyNoInteractions(tokenService);
 	}
 	
 	@Test
@@ -177,6 +203,8 @@ class CustomerServiceTest {
 		boolean result = customerService.deleteCustomerById(testCustomerId);
 		
 		assertTrue(result);
+		Mockito.verify(customerIdentityCache).evictById(testCustomerId);
+		Mockito.verify(tokenService).revokeTokens(mockCustomer);
 	}
 	
 	@Test
@@ -201,7 +229,7 @@ class CustomerServiceTest {
 		mockCustomer.setAddress("testAddr");
 		mockCustomer.setUsername("testUsername");
 
-		Mockito.when(customerDao.findById(1L)).thenReturn(Optional.of(mockCustomer));
+		Mockito.when(customerIdentityCache.getById(1L)).thenReturn(mockCustomer);
 
 		String result = String.valueOf(customerService.getCustomerById(1L));
 
@@ -2,7 +2,10 @@ package dev.abreu.bankapp.service;
 
 import dev.abreu.bankapp.entity.Customer;
 import dev.abreu.bankapp.security.JwtConfig;
+import dev.abreu.bankapp.security.TokenRevocationList;
 import dev.abreu.bankapp.service.impl.TokenServiceImpl;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
@@ -10,8 +13,14 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 
+import java.security.Key;
+import java.util.Date;
+import java.util.List;
 import java.util.Random;
 
+import static dev.abreu.bankapp.util.BankappConstants.JWT_CUSTOMER_ID_CLAIM;
+import static dev.abreu.bankapp.util.BankappConstants.JWT_ISSUED_AT_MILLIS_CLAIM;
+import static dev.abreu.bankapp.util.BankappConstants.JWT_ROLES_CLAIM;
 import static org.junit.jupiter.api.Assertions.*;
 
 @SpringBootTest(classes = TokenServiceImpl.class)
@@ -19,6 +28,9 @@ class TokenServiceTest {
 
 	@MockitoBean
 	private JwtConfig jwtConfig;
+
+	@MockitoBean
+	private TokenRevocationList tokenRevocationList;
 	
 	@Autowired
 	private TokenService tokenService;
@@ -39,6 +51,60 @@ class TokenServiceTest {
 		assertNotNull(jwt);
 	}
 
+	@Test
+	void testGenerateTokenEmbedsCustomerIdAndRoles() {
+		Customer mockCustomer = new Customer(1L, "Test", "User", "123 Main St", "testUser");
+		byte[] mockBytes = new byte[256];
+		new Random().nextBytes(mockBytes);
+		Key key = Keys.hmacShaKeyFor(mockBytes);
+		
+		Mockito.when(jwtConfig.getSigningKey()).thenReturn(key);
+		Mockito.when(jwtConfig.getExpiration()).thenReturn(60000);
+		
+		String jwt = tokenService.generateToken(mockCustomer);
+		Claims claims = Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(jwt).getBody();
+		
+		assertEquals("testUser", claims.getSubject());
+		assertEquals(1L, claims.get(JWT_CUSTOMER_ID_CLAIM, Long.class));
+		assertEquals(List.of("User"), claims.get(JWT_ROLES_CLAIM, List.class));
+		assertEquals(claims.getIssuedAt().getTime() / 1000, claims.get(JWT_ISSUED_AT_MILLIS_CLAIM, Long.class) / 1000);
+	}
+
+	@Test
+	void testRevokeTokens() {
+		Customer mockCustomer = new Customer(1L, "Test", "User", "123 Main St", "testUser");
+		
+		tokenService.revokeTokens(mockCustomer);
+		
+		Mockito.verify(tokenRevocationList).revoke(1L);
+	}
+
+	private static Claims claims(Long customerId) {
+		Claims claims = Jwts.claims().setSubject("test").setIssuedAt(new Date());
+		if (customerId != null) {
+			claims.put(JWT_CUSTOMER_ID_CLAIM, customerId);
+		}
+		return claims;
+	}
+
+	@Test
+	void testRevokedCachedTokenIsNotValid() {
+		Claims claims = claims(1L);
+		Mockito.when(jwtConfig.isTokenValidPastOneHour("test")).thenReturn(true);
+		Mockito.when(jwtConfig.extractAllClaims("test")).thenReturn(claims);
+		Mockito.when(tokenRevocationList.isRevoked(1L, claims)).thenReturn(true);
+
+		assertFalse(tokenService.isTokenValid("test"));
+	}
+
+	@Test
+	void testCachedTokenWithoutCustomerIdIsNotValid() {
+		Mockito.when(jwtConfig.isTokenValidPastOneHour("test")).thenReturn(true);
+		Mockito.when(jwtConfig.extractAllClaims("test")).thenReturn(claims(null));
+
+		assertFalse(tokenService.isTokenValid("test"));
+	}
+
 	@Test
 	void testTokenService() {
 		String token = "test";
@@ -47,6 +113,7 @@ class TokenServiceTest {
 
 		Mockito.when(jwtConfig.extractUsername(Mockito.anyString())).thenReturn("test");
 		Mockito.when(jwtConfig.isTokenValidPastOneHour(Mockito.anyString())).thenReturn(true);
+		Mockito.when(jwtConfig.extractAllClaims(Mockito.anyString())).thenReturn(claims(1L));
 
 		boolean valid = tokenService.isTokenValid(token);
 		String username = tokenService.extractUsername(token);
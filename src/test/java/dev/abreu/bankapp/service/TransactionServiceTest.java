@@ -3,17 +3,24 @@ package dev.abreu.bankapp.service;
 import dev.abreu.bankapp.dao.AccountDao;
 import dev.abreu.bankapp.dao.CustomerDao;
 import dev.abreu.bankapp.dao.TransactionDao;
+import dev.abreu.bankapp.dto.PageDTO;
+import dev.abreu.bankapp.dto.TransactionBatchErrorDTO;
+import dev.abreu.bankapp.dto.TransactionBatchResultDTO;
 import dev.abreu.bankapp.entity.Account;
 import dev.abreu.bankapp.entity.Transaction;
 import dev.abreu.bankapp.exception.ResourceNotFoundException;
 import dev.abreu.bankapp.service.impl.TransactionServiceImpl;
+import dev.abreu.bankapp.util.KeysetCursor;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 
+import java.time.LocalDateTime;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static dev.abreu.bankapp.util.BankappConstants.*;
@@ -77,6 +84,70 @@ class TransactionServiceTest {
 				() -> transactionService.getAllTransactionsByAcctNo(12345L));
 	}
 
+	@Test
+	void testGetTransactionsPageByAcctNoLastPage() {
+		Account mockAccount = new Account(12345L, CHECKING_ACCOUNT, 100.00, 1L);
+		List<Transaction> txnList = List.of(
+				new Transaction(1L, ACCOUNT_DEPOSIT, 100.00, "Deposited $100.00", 12345L),
+				new Transaction(2L, ACCOUNT_WITHDRAW, 50.00, "Withdrawed $50.00", 12345L));
+
+		Mockito.when(accountDao.findAccountByAcctNo(12345L)).thenReturn(Optional.of(mockAccount));
+		Mockito.when(transactionDao.findTransactionsPageByAcctNo(12345L, 3, null)).thenReturn(txnList);
+
+		PageDTO<Transaction> result = transactionService.getTransactionsPageByAcctNo(12345L, 2, null);
+
+		assertEquals(txnList, result.content());
+		assertNull(result.nextPageToken());
+	}
+
+	@Test
+	void testGetTransactionsPageByAcctNoHasNextPage() {
+		Account mockAccount = new Account(12345L, CHECKING_ACCOUNT, 100.00, 1L);
+		List<Transaction> txnList = List.of(
+				new Transaction(3L, ACCOUNT_DEPOSIT, 100.00, "Deposited $100.00", 12345L),
+				new Transaction(2L, ACCOUNT_WITHDRAW, 50.00, "Withdrawed $50.00", 12345L),
+				new Transaction(1L, ACCOUNT_DEPOSIT, 25.00, "Deposited $25.00", 12345L));
+
+		Mockito.when(accountDao.findAccountByAcctNo(12345L)).thenReturn(Optional.of(mockAccount));
+		Mockito.when(transactionDao.findTransactionsPageByAcctNo(12345L, 3, null)).thenReturn(txnList);
+
+		PageDTO<Transaction> result = transactionService.getTransactionsPageByAcctNo(12345L, 2, null);
+
+		assertEquals(txnList.subList(0, 2), result.content());
+		KeysetCursor cursor = KeysetCursor.decode(result.nextPageToken());
+		assertEquals(2L, cursor.id());
+		assertEquals(txnList.get(1).getCreatedAt(), cursor.createdAt());
+	}
+
+	@Test
+	void testGetTransactionsPageByAcctNoWithPageTokenSkipsAccountLookup() {
+		String pageToken = new KeysetCursor(LocalDateTime.of(2024, 4, 24, 15, 30), 2L).encode();
+		List<Transaction> txnList = List.of(new Transaction(1L, ACCOUNT_DEPOSIT, 25.00, "Deposited $25.00", 12345L));
+
+		Mockito.when(transactionDao.findTransactionsPageByAcctNo(12345L, 3, pageToken)).thenReturn(txnList);
+
+		PageDTO<Transaction> result = transactionService.getTransactionsPageByAcctNo(12345L, 2, pageToken);
+
+		assertEquals(txnList, result.content());
+		Mockito.verify(accountDao, Mockito.never()).findAccountByAcctNo(12345L);
+	}
+
+	@Test
+	void testGetTransactionsPageByAcctNoResourceNotFound() {
+		Mockito.when(accountDao.findAccountByAcctNo(12345L)).thenReturn(Optional.empty());
+
+		assertThrows(ResourceNotFoundException.class,
+				() -> transactionService.getTransactionsPageByAcctNo(12345L, 2, null));
+	}
+
+	@Test
+	void testGetTransactionsPageByAcctNoInvalidPageSize() {
+		assertThrows(IllegalArgumentException.class,
+				() -> transactionService.getTransactionsPageByAcctNo(12345L, 0, null));
+		assertThrows(IllegalArgumentException.class,
+				() -> transactionService.getTransactionsPageByAcctNo(12345L, MAX_TRANSACTION_PAGE_SIZE + 1, null));
+	}
+
 	@Test
 	void testSaveTransaction() {
 		Transaction txn = new Transaction(ACCOUNT_DEPOSIT, 100.00, "Deposited $100.00", 12345L);
@@ -150,4 +221,36 @@ class TransactionServiceTest {
 		Mockito.verify(transactionDao, Mockito.times(1)).findAllTransactionsAndTransfersByCustomerId(customerId);
 	}
 
+	@Test
+	void testSaveTransactions() {
+		List<Transaction> txns = List.of(
+				new Transaction(ACCOUNT_DEPOSIT, 100.00, "Deposited $100.00", 12345L),
+				new Transaction(ACCOUNT_DEPOSIT, -5.00, "Negative amount", 12345L),
+				new Transaction(ACCOUNT_WITHDRAW, 50.00, "Withdrawed $50.00", 99999L));
+
+		Mockito.when(transactionDao.saveTransactions(Mockito.anyList())).thenAnswer(invocation -> {
+			List<Transaction> valid = invocation.getArgument(0);
+			assertEquals(2, valid.size());
+			valid.get(0).setTransactionId(101L);
+			return Map.of(1, "account does not exist");
+		});
+
+		TransactionBatchResultDTO result = transactionService.saveTransactions(txns);
+
+		assertEquals(3, result.received());
+		assertEquals(1, result.saved());
+		assertEquals(Arrays.asList(101L, null, null), result.transactionIds());
+		assertEquals(List.of(
+				new TransactionBatchErrorDTO(1, "Transaction amount must be greater than zero"),
+				new TransactionBatchErrorDTO(2, "account does not exist")), result.errors());
+	}
+
+	@Test
+	void testSaveTransactionsEmptyBatch() {
+		List<Transaction> txns = List.of();
+
+		assertThrows(IllegalArgumentException.class, () -> transactionService.saveTransactions(txns));
+		Mockito.verify(transactionDao, Mockito.never()).saveTransactions(Mockito.anyList());
+	}
+
 }
@@ -0,0 +1,51 @@
+package dev.abreu.bankapp.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+
+import static dev.abreu.bankapp.util.AccountNumberGenerator.ACCOUNT_NUMBER_SPACE;
+import static dev.abreu.bankapp.util.AccountNumberGenerator.MIN_ACCOUNT_NUMBER;
+import static org.junit.jupiter.api.Assertions.*;
+
+class AccountNumberGeneratorTest {
+
+	private static final long KEY = 7340981517736152413L;
+
+	@Test
+	void testGenerateAccountNumberIsUniqueAndEightDigits() {
+		BitSet seen = new BitSet((int) ACCOUNT_NUMBER_SPACE);
+
+		for (long index = 0; index < 1_000_000; index++) {
+			long accountNumber = AccountNumberGenerator.generateAccountNumber(index, KEY);
+			assertTrue(accountNumber >= 10000000L && accountNumber <= 99999999L);
+			int offset = (int) (accountNumber - MIN_ACCOUNT_NUMBER);
+			assertFalse(seen.get(offset), "duplicate account number " + accountNumber);
+			seen.set(offset);
+		}
+	}
+
+	@Test
+	void testGenerateAccountNumberIsNotSequential() {
+		long first = AccountNumberGenerator.generateAccountNumber(0, KEY);
+		long second = AccountNumberGenerator.generateAccountNumber(1, KEY);
+
+		assertNotEquals(1L, Math.abs(second - first));
+	}
+
+	@Test
+	void testGenerateAccountNumberIsStableForKey() {
+		assertEquals(AccountNumberGenerator.generateAccountNumber(42, KEY),
+				AccountNumberGenerator.generateAccountNumber(42, KEY));
+		assertNotEquals(AccountNumberGenerator.generateAccountNumber(42, KEY),
+				AccountNumberGenerator.generateAccountNumber(42, KEY + 1));
+	}
+
+	@Test
+	void testGenerateAccountNumberIndexOutOfRange() {
+		assertThrows(IllegalArgumentException.class,
+				() -> AccountNumberGenerator.generateAccountNumber(-1, KEY));
+		assertThrows(IllegalArgumentException.class,
+				() -> AccountNumberGenerator.generateAccountNumber(ACCOUNT_NUMBER_SPACE, KEY));
+	}
+}
@@ -0,0 +1,32 @@
+package dev.abreu.bankapp.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeysetCursorTest {
+
+	@Test
+	void testEncodeDecodeRoundTrip() {
+		KeysetCursor cursor = new KeysetCursor(LocalDateTime.of(2024, 4, 24, 15, 30, 12, 345678000), 42L);
+
+		KeysetCursor result = KeysetCursor.decode(cursor.encode());
+
+		assertEquals(cursor, result);
+	}
+
+	@Test
+	void testEncodeIsUrlSafe() {
+		String token = new KeysetCursor(LocalDateTime.of(2024, 4, 24, 15, 30), 42L).encode();
+
+		assertTrue(token.matches("[A-Za-z0-9_-]+"));
+	}
+
+	@Test
+	void testDecodeInvalidToken() {
+		assertThrows(IllegalArgumentException.class, () -> KeysetCursor.decode("not-a-token"));
+		assertThrows(IllegalArgumentException.class, () -> KeysetCursor.decode("%%%"));
+	}
+}